@@ -0,0 +1,139 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.ai.btree;
+
+import com.almasb.fxgl.ai.btree.decorator.Include;
+import com.almasb.fxgl.core.collection.Array;
+
+/**
+ * A flyweight behavior tree whose task graph is shared by many agents.
+ * Instead of cloning the whole task graph for every agent, the running state
+ * of each task (status, child indices, counters) is kept in a compact
+ * per-agent int array, which is loaded into the shared graph before a step
+ * and saved back after it.
+ * Since the graph is shared, agents must be stepped one at a time from the same thread.
+ *
+ * Built-in tasks support this out of the box.
+ * Custom tasks that keep running state in their own fields must override
+ * {@link Task#getStateSize()}, {@link Task#saveState(int[], int)} and {@link Task#loadState(int[], int)}.
+ * Lazy {@link Include} tasks are not supported since they change the graph at run-time.
+ *
+ * @author Almas Baimagambetov (AlmasB) (almaslvl@gmail.com)
+ */
+public final class SharedBehaviorTree<E> {
+
+    private final BehaviorTree<E> tree;
+
+    /**
+     * Tasks of the tree in pre-order, including the tree itself.
+     */
+    private final Task<E>[] tasks;
+
+    /**
+     * Offset of each task's state in the per-agent state array.
+     */
+    private final int[] offsets;
+
+    private final int stateSize;
+
+    /**
+     * State of a fresh (never run) tree, used to initialize new agents.
+     */
+    private final int[] freshState;
+
+    /**
+     * Constructs a shared tree from given behavior tree.
+     * The tree becomes owned by this object and must not be stepped directly.
+     *
+     * @param tree behavior tree
+     */
+    @SuppressWarnings("unchecked")
+    public SharedBehaviorTree(BehaviorTree<E> tree) {
+        this.tree = tree;
+
+        Array<Task<E>> collected = new Array<>();
+        collect(tree, collected);
+
+        tasks = collected.toArray(Task.class);
+        offsets = new int[tasks.length];
+
+        int size = 0;
+        for (int i = 0; i < tasks.length; i++) {
+            offsets[i] = size;
+            size += tasks[i].getStateSize();
+        }
+
+        stateSize = size;
+        freshState = new int[stateSize];
+        save(freshState);
+    }
+
+    private void collect(Task<E> task, Array<Task<E>> collected) {
+        if (task instanceof Include && ((Include<E>) task).lazy)
+            throw new IllegalArgumentException("Lazy Include is not supported by shared behavior trees");
+
+        collected.add(task);
+
+        for (int i = 0; i < task.getChildCount(); i++) {
+            collect(task.getChild(i), collected);
+        }
+    }
+
+    /**
+     * @return number of tasks in the shared graph
+     */
+    public int getTaskCount() {
+        return tasks.length;
+    }
+
+    /**
+     * @return number of int slots needed to store state of a single agent
+     */
+    public int getStateSize() {
+        return stateSize;
+    }
+
+    /**
+     * @return new per-agent state array, initialized to a fresh tree
+     */
+    public int[] newState() {
+        return freshState.clone();
+    }
+
+    /**
+     * Steps the shared tree on behalf of a single agent.
+     *
+     * @param object agent's blackboard object
+     * @param state agent's state array, obtained via {@link #newState()}
+     */
+    public void step(E object, int[] state) {
+        if (state.length != stateSize)
+            throw new IllegalArgumentException("State size " + state.length + " does not match tree state size " + stateSize);
+
+        load(state);
+        tree.setObject(object);
+
+        try {
+            tree.step();
+        } finally {
+            save(state);
+            tree.setObject(null);
+        }
+    }
+
+    private void load(int[] state) {
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i].loadState(state, offsets[i]);
+        }
+    }
+
+    private void save(int[] state) {
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i].saveState(state, offsets[i]);
+        }
+    }
+}
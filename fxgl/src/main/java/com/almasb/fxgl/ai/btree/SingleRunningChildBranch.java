@@ -123,6 +123,48 @@ public abstract class SingleRunningChildBranch<E> extends BranchTask<E> {
 		return super.copyTo(task);
 	}
 
+	@Override
+	protected int getStateSize () {
+		// running child, current index, random order flag + one slot per child for the random order
+		return super.getStateSize() + 3 + children.size();
+	}
+
+	@Override
+	protected void saveState (int[] state, int offset) {
+		super.saveState(state, offset);
+		int i = offset + super.getStateSize();
+		state[i++] = runningChild == null ? -1 : children.indexOf(runningChild, true);
+		state[i++] = currentChildIndex;
+		if (randomChildren == null) {
+			state[i] = 0;
+		} else {
+			state[i++] = 1;
+			for (int j = 0; j < randomChildren.length; j++) {
+				state[i++] = children.indexOf(randomChildren[j], true);
+			}
+		}
+	}
+
+	@Override
+	protected void loadState (int[] state, int offset) {
+		super.loadState(state, offset);
+		int i = offset + super.getStateSize();
+		int runningIndex = state[i++];
+		runningChild = runningIndex == -1 ? null : children.get(runningIndex);
+		currentChildIndex = state[i++];
+		if (state[i++] == 0) {
+			// keep the array around so that the shared task does not reallocate it for every agent
+			if (randomChildren != null) {
+				System.arraycopy(children.getItems(), 0, randomChildren, 0, children.size());
+			}
+		} else {
+			if (randomChildren == null) randomChildren = createRandomChildren();
+			for (int j = 0; j < randomChildren.length; j++) {
+				randomChildren[j] = children.get(state[i++]);
+			}
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	protected Task<E>[] createRandomChildren () {
 		Task<E>[] rndChildren = new Task[children.size()];
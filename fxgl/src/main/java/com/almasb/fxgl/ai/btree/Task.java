@@ -271,6 +271,31 @@ public abstract class Task<E> {
 		}
 	}
 
+	/** Cached values of {@link Status} to avoid allocating a new array when decoding per-agent state. */
+	private static final Status[] STATUSES = Status.values();
+
+	/** Returns the number of int slots this task needs to store its running state outside of the task graph. Tasks that keep
+	 * running state in their own fields (counters, indices, timestamps) must override this method, together with
+	 * {@link #saveState(int[], int)} and {@link #loadState(int[], int)}, in order to be usable in a {@link SharedBehaviorTree}.
+	 * @return the number of int slots, defaults to 1 (the status) */
+	protected int getStateSize () {
+		return 1;
+	}
+
+	/** Writes the running state of this task into the given array.
+	 * @param state the per-agent state array
+	 * @param offset the index of the first slot that belongs to this task */
+	protected void saveState (int[] state, int offset) {
+		state[offset] = status.ordinal();
+	}
+
+	/** Reads the running state of this task from the given array, previously written by {@link #saveState(int[], int)}.
+	 * @param state the per-agent state array
+	 * @param offset the index of the first slot that belongs to this task */
+	protected void loadState (int[] state, int offset) {
+		status = STATUSES[state[offset]];
+	}
+
 	/** Copies this task to the given task. This method is invoked by {@link #cloneTask()} only if {@link #TASK_CLONER} is
 	 * {@code null} which is its default value.
 	 * @param task the task to be filled
@@ -105,6 +105,24 @@ public class DynamicGuardSelector<E> extends BranchTask<E> {
 		this.runningChild = null;
 	}
 
+	@Override
+	protected int getStateSize () {
+		return super.getStateSize() + 1;
+	}
+
+	@Override
+	protected void saveState (int[] state, int offset) {
+		super.saveState(state, offset);
+		state[offset + super.getStateSize()] = runningChild == null ? -1 : children.indexOf(runningChild, true);
+	}
+
+	@Override
+	protected void loadState (int[] state, int offset) {
+		super.loadState(state, offset);
+		int runningIndex = state[offset + super.getStateSize()];
+		runningChild = runningIndex == -1 ? null : children.get(runningIndex);
+	}
+
 	@Override
 	protected Task<E> copyTo (Task<E> task) {
 		DynamicGuardSelector<E> branch = (DynamicGuardSelector<E>)task;
@@ -108,6 +108,23 @@ public class Random<E> extends Decorator<E> {
 			fail();
 	}
 
+	@Override
+	protected int getStateSize () {
+		return super.getStateSize() + 1;
+	}
+
+	@Override
+	protected void saveState (int[] state, int offset) {
+		super.saveState(state, offset);
+		state[offset + super.getStateSize()] = Float.floatToRawIntBits(p);
+	}
+
+	@Override
+	protected void loadState (int[] state, int offset) {
+		super.loadState(state, offset);
+		p = Float.intBitsToFloat(state[offset + super.getStateSize()]);
+	}
+
 	@Override
 	protected Task<E> copyTo (Task<E> task) {
 		Random<E> random = (Random<E>)task;
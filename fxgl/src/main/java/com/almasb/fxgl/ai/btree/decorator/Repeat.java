@@ -91,6 +91,23 @@ public class Repeat<E> extends LoopDecorator<E> {
 		childSuccess(runningTask);
 	}
 
+	@Override
+	protected int getStateSize () {
+		return super.getStateSize() + 1;
+	}
+
+	@Override
+	protected void saveState (int[] state, int offset) {
+		super.saveState(state, offset);
+		state[offset + super.getStateSize()] = count;
+	}
+
+	@Override
+	protected void loadState (int[] state, int offset) {
+		super.loadState(state, offset);
+		count = state[offset + super.getStateSize()];
+	}
+
 	@Override
 	protected Task<E> copyTo (Task<E> task) {
 		Repeat<E> repeat = (Repeat<E>)task;
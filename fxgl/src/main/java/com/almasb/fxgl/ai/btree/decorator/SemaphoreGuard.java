@@ -116,6 +116,23 @@ public class SemaphoreGuard<E> extends Decorator<E> {
 		semaphoreAcquired = false;
 	}
 
+	@Override
+	protected int getStateSize () {
+		return super.getStateSize() + 1;
+	}
+
+	@Override
+	protected void saveState (int[] state, int offset) {
+		super.saveState(state, offset);
+		state[offset + super.getStateSize()] = semaphoreAcquired ? 1 : 0;
+	}
+
+	@Override
+	protected void loadState (int[] state, int offset) {
+		super.loadState(state, offset);
+		semaphoreAcquired = state[offset + super.getStateSize()] == 1;
+	}
+
 	@Override
 	protected Task<E> copyTo (Task<E> task) {
 		SemaphoreGuard<E> semaphoreGuard = (SemaphoreGuard<E>)task;
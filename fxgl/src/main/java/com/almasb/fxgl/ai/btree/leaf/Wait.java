@@ -77,6 +77,27 @@ public class Wait<E> extends LeafTask<E> {
 		return GdxAI.getTimepiece().getTime() - startTime < timeout ? Status.RUNNING : Status.SUCCEEDED;
 	}
 
+	@Override
+	protected int getStateSize () {
+		return super.getStateSize() + 2;
+	}
+
+	@Override
+	protected void saveState (int[] state, int offset) {
+		super.saveState(state, offset);
+		int i = offset + super.getStateSize();
+		state[i] = Float.floatToRawIntBits(startTime);
+		state[i + 1] = Float.floatToRawIntBits(timeout);
+	}
+
+	@Override
+	protected void loadState (int[] state, int offset) {
+		super.loadState(state, offset);
+		int i = offset + super.getStateSize();
+		startTime = Float.intBitsToFloat(state[i]);
+		timeout = Float.intBitsToFloat(state[i + 1]);
+	}
+
 	@Override
 	protected Task<E> copyTo (Task<E> task) {
 		((Wait<E>)task).seconds = seconds;
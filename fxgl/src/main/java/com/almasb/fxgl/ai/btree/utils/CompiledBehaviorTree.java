@@ -0,0 +1,297 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.ai.btree.utils;
+
+import com.almasb.fxgl.ai.btree.BehaviorTree;
+import com.almasb.fxgl.ai.btree.Task;
+import com.almasb.fxgl.ai.utils.random.Distribution;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary format of parsed behavior trees, which is loaded without parsing text
+ * and without reflection (see {@link TaskFactory}).
+ *
+ * Layout:
+ * <ul>
+ * <li>header: magic (int), version (int)</li>
+ * <li>task types: count (int), then per type class name (UTF), attribute count (int) and attribute names (UTF)</li>
+ * <li>tasks in depth-first order: type index (int), attributes, guard, children</li>
+ * </ul>
+ *
+ * Attributes are stored by value, so tasks must not change attribute values after being parsed.
+ * Loading data of a different version or with attributes the task types no longer have
+ * fails with {@link IOException}, in which case the tree should be parsed and compiled again.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class CompiledBehaviorTree {
+
+    private static final int MAGIC = 0x46584254;
+    private static final int VERSION = 1;
+
+    private static final byte TYPE_INT = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_FLOAT = 3;
+    private static final byte TYPE_DOUBLE = 4;
+    private static final byte TYPE_SHORT = 5;
+    private static final byte TYPE_BYTE = 6;
+    private static final byte TYPE_BOOLEAN = 7;
+    private static final byte TYPE_CHAR = 8;
+    private static final byte TYPE_STRING = 9;
+    private static final byte TYPE_ENUM = 10;
+    private static final byte TYPE_DISTRIBUTION = 11;
+
+    private static final DistributionAdapters DEFAULT_ADAPTERS = new DistributionAdapters();
+
+    private CompiledBehaviorTree() {}
+
+    public static void write(BehaviorTree<?> tree, OutputStream stream) throws IOException {
+        write(tree, stream, DEFAULT_ADAPTERS);
+    }
+
+    /**
+     * Writes tree to [stream], the stream is not closed.
+     *
+     * @param tree parsed tree with root task
+     * @param stream output
+     * @param adapters adapters used to write distribution attributes
+     */
+    public static void write(BehaviorTree<?> tree, OutputStream stream, DistributionAdapters adapters) throws IOException {
+        if (tree.getChildCount() == 0)
+            throw new IllegalArgumentException("Tree has no root task");
+
+        Map<Class<?>, Integer> types = new LinkedHashMap<>();
+
+        ByteArrayOutputStream tasks = new ByteArrayOutputStream();
+        writeTask(tree.getChild(0), new DataOutputStream(tasks), types, adapters);
+
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+
+        out.writeInt(types.size());
+        for (Class<?> type : types.keySet()) {
+            TaskFactory factory = TaskFactory.of(type);
+
+            out.writeUTF(type.getName());
+            out.writeInt(factory.getAttributeCount());
+
+            for (int i = 0; i < factory.getAttributeCount(); i++) {
+                out.writeUTF(factory.getAttributeName(i));
+            }
+        }
+
+        tasks.writeTo(out);
+        out.flush();
+    }
+
+    private static void writeTask(Task<?> task, DataOutputStream out,
+                                  Map<Class<?>, Integer> types, DistributionAdapters adapters) throws IOException {
+        Integer typeIndex = types.get(task.getClass());
+        if (typeIndex == null) {
+            typeIndex = types.size();
+            types.put(task.getClass(), typeIndex);
+        }
+
+        out.writeInt(typeIndex);
+
+        TaskFactory factory = TaskFactory.of(task.getClass());
+
+        int count = 0;
+        for (int i = 0; i < factory.getAttributeCount(); i++) {
+            if (factory.getAttribute(task, i) != null)
+                count++;
+        }
+
+        out.writeInt(count);
+
+        for (int i = 0; i < factory.getAttributeCount(); i++) {
+            Object value = factory.getAttribute(task, i);
+            if (value == null)
+                continue;
+
+            out.writeInt(i);
+            writeValue(value, out, adapters);
+        }
+
+        out.writeBoolean(task.getGuard() != null);
+        if (task.getGuard() != null)
+            writeTask(task.getGuard(), out, types, adapters);
+
+        out.writeInt(task.getChildCount());
+        for (int i = 0; i < task.getChildCount(); i++) {
+            writeTask(task.getChild(i), out, types, adapters);
+        }
+    }
+
+    private static void writeValue(Object value, DataOutputStream out, DistributionAdapters adapters) throws IOException {
+        if (value instanceof Integer) {
+            out.writeByte(TYPE_INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Float) {
+            out.writeByte(TYPE_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Short) {
+            out.writeByte(TYPE_SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(TYPE_BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Character) {
+            out.writeByte(TYPE_CHAR);
+            out.writeChar((Character) value);
+        } else if (value instanceof String) {
+            out.writeByte(TYPE_STRING);
+            out.writeUTF((String) value);
+        } else if (value instanceof Enum) {
+            out.writeByte(TYPE_ENUM);
+            out.writeUTF(((Enum<?>) value).name());
+        } else if (value instanceof Distribution) {
+            out.writeByte(TYPE_DISTRIBUTION);
+            out.writeUTF(adapters.toString((Distribution) value));
+        } else {
+            throw new IOException("Unsupported attribute type: " + value.getClass().getName());
+        }
+    }
+
+    public static <E> BehaviorTree<E> read(InputStream stream, E object) throws IOException {
+        return read(stream, object, DEFAULT_ADAPTERS);
+    }
+
+    /**
+     * Reads tree written by {@link #write(BehaviorTree, OutputStream, DistributionAdapters)}.
+     *
+     * @param stream input, not closed
+     * @param object the blackboard object, can be null
+     * @param adapters adapters used to read distribution attributes
+     * @return behavior tree
+     * @throws IOException if data is malformed, of different version or does not match task types
+     */
+    public static <E> BehaviorTree<E> read(InputStream stream, E object, DistributionAdapters adapters) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+
+        if (in.readInt() != MAGIC)
+            throw new IOException("Not a compiled behavior tree");
+
+        int version = in.readInt();
+        if (version != VERSION)
+            throw new IOException("Unsupported compiled behavior tree version: " + version);
+
+        int typeCount = in.readInt();
+
+        List<TaskFactory> factories = new ArrayList<>(typeCount);
+        List<int[]> attributeIndices = new ArrayList<>(typeCount);
+
+        for (int i = 0; i < typeCount; i++) {
+            String className = in.readUTF();
+
+            TaskFactory factory;
+            try {
+                factory = TaskFactory.of(Class.forName(className));
+            } catch (ClassNotFoundException | IllegalArgumentException e) {
+                throw new IOException("Cannot create tasks of type " + className, e);
+            }
+
+            // map stored attributes to current attribute fields
+            int[] indices = new int[in.readInt()];
+            for (int j = 0; j < indices.length; j++) {
+                String name = in.readUTF();
+
+                indices[j] = factory.indexOf(name);
+                if (indices[j] == -1)
+                    throw new IOException("Task " + className + " has no attribute " + name);
+            }
+
+            factories.add(factory);
+            attributeIndices.add(indices);
+        }
+
+        Task<E> root = readTask(in, factories, attributeIndices, adapters);
+
+        return new BehaviorTree<>(root, object);
+    }
+
+    private static <E> Task<E> readTask(DataInputStream in, List<TaskFactory> factories,
+                                        List<int[]> attributeIndices, DistributionAdapters adapters) throws IOException {
+        int typeIndex = in.readInt();
+        if (typeIndex < 0 || typeIndex >= factories.size())
+            throw new IOException("Invalid task type index: " + typeIndex);
+
+        TaskFactory factory = factories.get(typeIndex);
+        int[] indices = attributeIndices.get(typeIndex);
+
+        Task<E> task = factory.newTask();
+
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            int index = indices[in.readInt()];
+
+            factory.setAttribute(task, index, readValue(in, factory.getAttributeType(index), adapters));
+        }
+
+        if (in.readBoolean())
+            task.setGuard(readTask(in, factories, attributeIndices, adapters));
+
+        int childCount = in.readInt();
+        for (int i = 0; i < childCount; i++) {
+            task.addChild(readTask(in, factories, attributeIndices, adapters));
+        }
+
+        return task;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object readValue(DataInputStream in, Class<?> type, DistributionAdapters adapters) throws IOException {
+        byte valueType = in.readByte();
+
+        switch (valueType) {
+            case TYPE_INT:
+                return in.readInt();
+            case TYPE_LONG:
+                return in.readLong();
+            case TYPE_FLOAT:
+                return in.readFloat();
+            case TYPE_DOUBLE:
+                return in.readDouble();
+            case TYPE_SHORT:
+                return in.readShort();
+            case TYPE_BYTE:
+                return in.readByte();
+            case TYPE_BOOLEAN:
+                return in.readBoolean();
+            case TYPE_CHAR:
+                return in.readChar();
+            case TYPE_STRING:
+                return in.readUTF();
+            case TYPE_ENUM:
+                String name = in.readUTF();
+                try {
+                    return Enum.valueOf(type.asSubclass(Enum.class), name);
+                } catch (IllegalArgumentException | ClassCastException e) {
+                    throw new IOException("Invalid value " + name + " of " + type.getName(), e);
+                }
+            case TYPE_DISTRIBUTION:
+                return adapters.toDistribution(in.readUTF(), (Class<Distribution>) type);
+            default:
+                throw new IOException("Unknown attribute type: " + valueType);
+        }
+    }
+}
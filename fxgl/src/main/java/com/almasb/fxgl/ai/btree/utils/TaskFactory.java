@@ -0,0 +1,209 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.ai.btree.utils;
+
+import com.almasb.fxgl.ai.btree.Task;
+import com.almasb.fxgl.ai.btree.annotation.TaskAttribute;
+import com.almasb.fxgl.ai.btree.branch.*;
+import com.almasb.fxgl.ai.btree.decorator.*;
+import com.almasb.fxgl.ai.btree.leaf.Failure;
+import com.almasb.fxgl.ai.btree.leaf.Success;
+import com.almasb.fxgl.ai.btree.leaf.Wait;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Creates tasks of a given type and accesses their {@link TaskAttribute} fields
+ * without reflection once the factory is built.
+ * Tasks are constructed by registered suppliers (all built-in tasks are registered)
+ * or by the no-arg constructor via method handle.
+ * Attributes are accessed via method handles.
+ * Factories are built once per task type and can be used from multiple threads.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class TaskFactory {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final Map<Class<?>, Supplier<?>> suppliers = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, TaskFactory> factories = new ConcurrentHashMap<>();
+
+    static {
+        register(AlwaysFail.class, AlwaysFail::new);
+        register(AlwaysSucceed.class, AlwaysSucceed::new);
+        register(DynamicGuardSelector.class, DynamicGuardSelector::new);
+        register(Failure.class, Failure::new);
+        register(Include.class, Include::new);
+        register(Invert.class, Invert::new);
+        register(Parallel.class, Parallel::new);
+        register(Random.class, Random::new);
+        register(RandomSelector.class, RandomSelector::new);
+        register(RandomSequence.class, RandomSequence::new);
+        register(Repeat.class, Repeat::new);
+        register(Selector.class, Selector::new);
+        register(SemaphoreGuard.class, SemaphoreGuard::new);
+        register(Sequence.class, Sequence::new);
+        register(Success.class, Success::new);
+        register(UntilFail.class, UntilFail::new);
+        register(UntilSuccess.class, UntilSuccess::new);
+        register(Wait.class, Wait::new);
+    }
+
+    /**
+     * Registers supplier of tasks of given type, so they are constructed without reflection.
+     * Must be called before the factory of that type is first used.
+     *
+     * @param type task type
+     * @param supplier task supplier
+     */
+    @SuppressWarnings("rawtypes")
+    public static void register(Class<?> type, Supplier<? extends Task> supplier) {
+        suppliers.put(type, supplier);
+    }
+
+    /**
+     * @param type task type
+     * @return factory of tasks of given type
+     * @throws IllegalArgumentException if type has no accessible no-arg constructor and no supplier
+     */
+    public static TaskFactory of(Class<?> type) {
+        return factories.computeIfAbsent(type, TaskFactory::new);
+    }
+
+    private final Class<?> type;
+    private final Supplier<?> supplier;
+
+    private final String[] attributeNames;
+    private final Class<?>[] attributeTypes;
+    private final MethodHandle[] getters;
+    private final MethodHandle[] setters;
+
+    private TaskFactory(Class<?> type) {
+        this.type = type;
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+        try {
+            Supplier<?> registered = suppliers.get(type);
+
+            if (registered != null) {
+                supplier = registered;
+            } else {
+                Constructor<?> ctor = type.getDeclaredConstructor();
+                ctor.setAccessible(true);
+
+                MethodHandle handle = lookup.unreflectConstructor(ctor).asType(MethodType.methodType(Object.class));
+
+                supplier = () -> {
+                    try {
+                        return handle.invokeExact();
+                    } catch (Throwable e) {
+                        throw new RuntimeException("Failed to create task " + type.getName(), e);
+                    }
+                };
+            }
+
+            List<Field> fields = new ArrayList<>();
+            for (Field field : type.getFields()) {
+                if (field.isAnnotationPresent(TaskAttribute.class))
+                    fields.add(field);
+            }
+
+            attributeNames = new String[fields.size()];
+            attributeTypes = new Class<?>[fields.size()];
+            getters = new MethodHandle[fields.size()];
+            setters = new MethodHandle[fields.size()];
+
+            for (int i = 0; i < fields.size(); i++) {
+                Field field = fields.get(i);
+                field.setAccessible(true);
+
+                attributeNames[i] = field.getName();
+                attributeTypes[i] = field.getType();
+                getters[i] = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+                setters[i] = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+            }
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot create factory of " + type.getName(), e);
+        }
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return new task
+     */
+    @SuppressWarnings("unchecked")
+    public <E> Task<E> newTask() {
+        return (Task<E>) supplier.get();
+    }
+
+    /**
+     * @return number of task attributes
+     */
+    public int getAttributeCount() {
+        return attributeNames.length;
+    }
+
+    /**
+     * @return name of the attribute field
+     */
+    public String getAttributeName(int index) {
+        return attributeNames[index];
+    }
+
+    /**
+     * @return type of the attribute field
+     */
+    public Class<?> getAttributeType(int index) {
+        return attributeTypes[index];
+    }
+
+    /**
+     * @return index of attribute with given field name or -1 if there is none
+     */
+    public int indexOf(String attributeName) {
+        for (int i = 0; i < attributeNames.length; i++) {
+            if (attributeNames[i].equals(attributeName))
+                return i;
+        }
+
+        return -1;
+    }
+
+    public Object getAttribute(Task<?> task, int index) {
+        try {
+            return getters[index].invokeExact((Object) task);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to get " + attributeNames[index] + " of " + type.getName(), e);
+        }
+    }
+
+    /**
+     * @param value value of attribute type (boxed if primitive)
+     */
+    public void setAttribute(Task<?> task, int index, Object value) {
+        try {
+            setters[index].invokeExact((Object) task, value);
+        } catch (Throwable e) {
+            throw new RuntimeException("Failed to set " + attributeNames[index] + " of " + type.getName(), e);
+        }
+    }
+}
@@ -41,6 +41,16 @@ public class MessageDispatcher implements Telegraph {
 
     private PriorityQueue<Telegram> queue;
 
+    /**
+     * Reusable buffer of telegrams that are due in the current {@link #update()}.
+     */
+    private Array<Telegram> dueTelegrams = new Array<>(false, 16, Telegram.class);
+
+    /**
+     * Queue order of the next delayed telegram.
+     */
+    private long nextSequence;
+
     private IntMap<Array<Telegraph>> msgListeners;
 
     private IntMap<Array<TelegramProvider>> msgProviders;
@@ -51,11 +61,28 @@ public class MessageDispatcher implements Telegraph {
      * Creates a {@code MessageDispatcher}
      */
     public MessageDispatcher() {
-        this.queue = new PriorityQueue<>();
+        this(11);
+    }
+
+    /**
+     * Creates a {@code MessageDispatcher} whose delayed telegram queue can hold
+     * the given number of telegrams without growing.
+     *
+     * @param initialQueueCapacity initial capacity of the delayed telegram queue
+     */
+    public MessageDispatcher(int initialQueueCapacity) {
+        this.queue = new PriorityQueue<>(initialQueueCapacity);
         this.msgListeners = new IntMap<>();
         this.msgProviders = new IntMap<>();
     }
 
+    /**
+     * Returns the number of delayed telegrams waiting to be dispatched.
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
     /**
      * Returns true if debug mode is on; false otherwise.
      */
@@ -577,6 +604,7 @@ public class MessageDispatcher implements Telegraph {
 
             // Set the timestamp for the delayed telegram
             telegram.setTimestamp(currentTime + delay);
+            telegram.sequence = nextSequence++;
 
             // Put the telegram in the queue
             boolean added = queue.add(telegram);
@@ -611,27 +639,42 @@ public class MessageDispatcher implements Telegraph {
     public void update() {
         float currentTime = GdxAI.getTimepiece().getTime();
 
-        // Peek at the queue to see if any telegrams need dispatching.
         // Remove all telegrams from the front of the queue that have gone
-        // past their time stamp.
+        // past their time stamp before delivering any of them.
+        // This way telegrams are not returned to the pool while still in the queue
+        // and delayed telegrams sent by receivers are not dispatched in this pass.
         Telegram telegram;
         while ((telegram = queue.peek()) != null) {
 
             // Exit loop if the telegram is in the future
             if (telegram.getTimestamp() > currentTime) break;
 
-            if (debugEnabled) {
-                GdxAI.getLogger().info(LOG_TAG +
-                        "Queued telegram ready for dispatch: Sent to " + telegram.receiver + ". Message code is " + telegram.message);
-            }
+            dueTelegrams.add(queue.poll());
+        }
 
-            // Send the telegram to the recipient
-            discharge(telegram);
+        int i = 0;
+        try {
+            for (; i < dueTelegrams.size(); i++) {
+                telegram = dueTelegrams.get(i);
 
-            // Remove it from the queue
-            queue.poll();
-        }
+                if (debugEnabled) {
+                    GdxAI.getLogger().info(LOG_TAG +
+                            "Queued telegram ready for dispatch: Sent to " + telegram.receiver + ". Message code is " + telegram.message);
+                }
+
+                // Send the telegram to the recipient
+                discharge(telegram);
+            }
+        } finally {
+            // if a receiver has thrown, the telegrams after the failed one go back to the queue
+            // and are delivered on the next update, the failed telegram itself is dropped
+            // and has already been returned to the pool by discharge()
+            for (int j = i + 1; j < dueTelegrams.size(); j++) {
+                queue.add(dueTelegrams.get(j));
+            }
 
+            dueTelegrams.clear();
+        }
     }
 
     /**
@@ -656,10 +699,34 @@ public class MessageDispatcher implements Telegraph {
      * This method is used by {@link #dispatchMessage(float, Telegraph, Telegraph, int, Object) dispatchMessage} for immediate
      * telegrams and update(float) for delayed telegrams. It first calls the message handling method of the
      * receiving agents with the specified telegram then returns the telegram to the pool.
+     * The telegram is returned to the pool even if a receiving agent throws.
      *
      * @param telegram the telegram to discharge
      */
     private void discharge(Telegram telegram) {
+        try {
+            deliver(telegram);
+
+            if (telegram.returnReceiptStatus == Telegram.RETURN_RECEIPT_NEEDED) {
+                // Use this telegram to send the return receipt
+                telegram.receiver = telegram.sender;
+                telegram.sender = this;
+                telegram.returnReceiptStatus = Telegram.RETURN_RECEIPT_SENT;
+                deliver(telegram);
+            }
+        } finally {
+            // Release the telegram to the pool
+            POOL.free(telegram);
+        }
+    }
+
+    /**
+     * Calls the message handling method of the receiver specified by the telegram
+     * or, if there is none, of all the agents registered for the telegram message.
+     *
+     * @param telegram the telegram to deliver
+     */
+    private void deliver(Telegram telegram) {
         if (telegram.receiver != null) {
             // Dispatch the telegram to the receiver specified by the telegram itself
             if (!telegram.receiver.handleMessage(telegram)) {
@@ -681,17 +748,6 @@ public class MessageDispatcher implements Telegraph {
             if (debugEnabled && handledCount == 0)
                 GdxAI.getLogger().info(LOG_TAG + "Message " + telegram.message + " not handled");
         }
-
-        if (telegram.returnReceiptStatus == Telegram.RETURN_RECEIPT_NEEDED) {
-            // Use this telegram to send the return receipt
-            telegram.receiver = telegram.sender;
-            telegram.sender = this;
-            telegram.returnReceiptStatus = Telegram.RETURN_RECEIPT_SENT;
-            discharge(telegram);
-        } else {
-            // Release the telegram to the pool
-            POOL.free(telegram);
-        }
     }
 
     /**
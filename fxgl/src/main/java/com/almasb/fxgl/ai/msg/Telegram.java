@@ -67,6 +67,12 @@ public class Telegram implements Comparable<Telegram>, Poolable {
      */
     private float timestamp;
 
+    /**
+     * Order in which delayed telegrams were queued, used to deliver telegrams with equal timestamps
+     * in the order they were sent.
+     */
+    long sequence;
+
     /**
      * Any additional information that may accompany the message
      */
@@ -100,12 +106,20 @@ public class Telegram implements Comparable<Telegram>, Poolable {
         this.returnReceiptStatus = RETURN_RECEIPT_UNNEEDED;
         this.extraInfo = null;
         this.timestamp = 0;
+        this.sequence = 0;
     }
 
+    /**
+     * Orders telegrams by timestamp, then by the order they were queued.
+     * Only primitive fields are compared, so heap operations stay cheap.
+     */
     @Override
     public int compareTo(Telegram other) {
-        if (this.equals(other)) return 0;
-        return (this.timestamp - other.timestamp < 0) ? -1 : 1;
+        if (this == other) return 0;
+        if (this.timestamp != other.timestamp)
+            return this.timestamp < other.timestamp ? -1 : 1;
+
+        return Long.compare(this.sequence, other.sequence);
     }
 
     @Override
@@ -60,6 +60,7 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * <li>initInput()</li>
  * <li>preInit()</li>
  * <p>NOT executed on JavaFX UI thread:</p>
+ * <li>initPreloadAssets()</li>
  * <li>initAssets()</li>
  * <li>initGameVars()</li>
  * <li>initGame() OR loadState()</li>
@@ -502,6 +503,15 @@ public abstract class GameApplication extends Application {
      */
     protected void preInit() {}
 
+    /**
+     * Can be overridden to provide assets to be loaded in parallel
+     * before {@link #initAssets()} is called. Loading progress of each asset
+     * is shown in the loading scene.
+     *
+     * @param assets list to add resource names to, e.g. "/assets/textures/player.png"
+     */
+    protected void initPreloadAssets(List<String> assets) {}
+
     /**
      * Initialize game assets, such as Texture, Sound, Music, etc.
      */
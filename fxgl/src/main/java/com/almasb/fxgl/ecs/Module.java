@@ -13,6 +13,43 @@ public abstract class Module {
 
     private Entity entity;
 
+    private boolean changed = true;
+
+    /**
+     * Marks state of this module as changed since it was last saved.
+     * Serializable modules that track their changes (see {@link #tracksChanges()})
+     * must call this when state written by them changes,
+     * so that incremental saves can skip unchanged entities.
+     */
+    public final void markChanged() {
+        changed = true;
+    }
+
+    /**
+     * Modules that call {@link #markChanged()} whenever their saved state changes
+     * should override this to return true.
+     *
+     * @return true if this module tracks its changes, false (default) if it is always considered changed
+     */
+    protected boolean tracksChanges() {
+        return false;
+    }
+
+    /**
+     * @return true if state of this module changed since {@link #clearChanged()},
+     * always true if this module does not track its changes
+     */
+    public final boolean isChanged() {
+        return changed || !tracksChanges();
+    }
+
+    /**
+     * Called after state of this module has been saved.
+     */
+    public final void clearChanged() {
+        changed = false;
+    }
+
     public final Entity getEntity() {
         return entity;
     }
@@ -52,6 +52,12 @@ public abstract class BooleanComponent extends Component implements Serializable
      */
     public BooleanComponent(boolean initialValue) {
         property = new SimpleBooleanProperty(initialValue);
+        property.addListener(o -> markChanged());
+    }
+
+    @Override
+    protected boolean tracksChanges() {
+        return true;
     }
 
     /**
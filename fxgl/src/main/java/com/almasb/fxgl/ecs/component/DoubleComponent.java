@@ -52,6 +52,12 @@ public abstract class DoubleComponent extends Component implements SerializableC
      */
     public DoubleComponent(double initialValue) {
         property = new SimpleDoubleProperty(initialValue);
+        property.addListener(o -> markChanged());
+    }
+
+    @Override
+    protected boolean tracksChanges() {
+        return true;
     }
 
     /**
@@ -52,6 +52,12 @@ public abstract class IntegerComponent extends Component implements Serializable
      */
     public IntegerComponent(int initialValue) {
         property = new SimpleIntegerProperty(initialValue);
+        property.addListener(o -> markChanged());
+    }
+
+    @Override
+    protected boolean tracksChanges() {
+        return true;
     }
 
     /**
@@ -24,6 +24,12 @@ public abstract class ObjectComponent<T> extends Component {
      */
     public ObjectComponent(T initialValue) {
         property = new SimpleObjectProperty<>(initialValue);
+        property.addListener(o -> markChanged());
+    }
+
+    @Override
+    protected boolean tracksChanges() {
+        return true;
     }
 
     /**
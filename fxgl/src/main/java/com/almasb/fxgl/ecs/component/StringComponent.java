@@ -52,6 +52,12 @@ public abstract class StringComponent extends Component implements SerializableC
      */
     public StringComponent(String initialValue) {
         property = new SimpleStringProperty(initialValue);
+        property.addListener(o -> markChanged());
+    }
+
+    @Override
+    protected boolean tracksChanges() {
+        return true;
     }
 
     /**
@@ -0,0 +1,354 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.effect;
+
+import javafx.geometry.Point2D;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.effect.BlendMode;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+
+import java.util.Arrays;
+
+/**
+ * Stores particles as a structure of arrays, i.e. each particle property
+ * is kept in its own primitive array, indexed by particle index.
+ * Dead particles are removed by swapping the last particle into their slot,
+ * so live particles are always at [0..size).
+ * No allocation happens once the buffer has grown to fit the peak number of particles.
+ *
+ * Semantics are the same as those of {@link Particle}.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class ParticleBuffer {
+
+    private int size = 0;
+
+    /**
+     * Top-left point in game world.
+     */
+    float[] x, y;
+
+    float[] velocityX, velocityY;
+
+    /**
+     * Velocity acceleration.
+     */
+    float[] gravityX, gravityY;
+
+    /**
+     * Radius in X, Y.
+     */
+    float[] radiusX, radiusY;
+
+    /**
+     * Radius change (acceleration).
+     */
+    float[] scaleX, scaleY;
+
+    float[] initialLife, life;
+
+    /**
+     * Source image or null if the particle is a software generated shape.
+     */
+    Image[] images;
+
+    Paint[] startColors, endColors;
+
+    BlendMode[] blendModes;
+
+    public ParticleBuffer() {
+        this(256);
+    }
+
+    /**
+     * @param initialCapacity initial number of particles this buffer can hold without growing
+     */
+    public ParticleBuffer(int initialCapacity) {
+        allocate(Math.max(initialCapacity, 1));
+    }
+
+    private void allocate(int capacity) {
+        x = new float[capacity];
+        y = new float[capacity];
+        velocityX = new float[capacity];
+        velocityY = new float[capacity];
+        gravityX = new float[capacity];
+        gravityY = new float[capacity];
+        radiusX = new float[capacity];
+        radiusY = new float[capacity];
+        scaleX = new float[capacity];
+        scaleY = new float[capacity];
+        initialLife = new float[capacity];
+        life = new float[capacity];
+        images = new Image[capacity];
+        startColors = new Paint[capacity];
+        endColors = new Paint[capacity];
+        blendModes = new BlendMode[capacity];
+    }
+
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        gravityX = Arrays.copyOf(gravityX, capacity);
+        gravityY = Arrays.copyOf(gravityY, capacity);
+        radiusX = Arrays.copyOf(radiusX, capacity);
+        radiusY = Arrays.copyOf(radiusY, capacity);
+        scaleX = Arrays.copyOf(scaleX, capacity);
+        scaleY = Arrays.copyOf(scaleY, capacity);
+        initialLife = Arrays.copyOf(initialLife, capacity);
+        life = Arrays.copyOf(life, capacity);
+        images = Arrays.copyOf(images, capacity);
+        startColors = Arrays.copyOf(startColors, capacity);
+        endColors = Arrays.copyOf(endColors, capacity);
+        blendModes = Arrays.copyOf(blendModes, capacity);
+    }
+
+    /**
+     * @return number of live particles
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of particles this buffer can hold without growing
+     */
+    public int capacity() {
+        return x.length;
+    }
+
+    /**
+     * Makes sure the buffer can hold given number of particles without growing.
+     *
+     * @param capacity number of particles
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > x.length)
+            grow(capacity);
+    }
+
+    /**
+     * Adds a new particle.
+     *
+     * @return index of the new particle
+     */
+    public int add(Image image, double x, double y, double velocityX, double velocityY,
+                   double gravityX, double gravityY, double radius, double scaleX, double scaleY,
+                   double life, Paint startColor, Paint endColor, BlendMode blendMode) {
+        if (size == this.x.length)
+            grow(Math.max(8, (int) (size * 1.75f)));
+
+        int i = size++;
+
+        this.x[i] = (float) x;
+        this.y[i] = (float) y;
+        this.velocityX[i] = (float) velocityX;
+        this.velocityY[i] = (float) velocityY;
+        this.gravityX[i] = (float) gravityX;
+        this.gravityY[i] = (float) gravityY;
+        this.radiusX[i] = (float) radius;
+        this.radiusY[i] = (float) radius;
+        this.scaleX[i] = (float) scaleX;
+        this.scaleY[i] = (float) scaleY;
+        this.initialLife[i] = (float) life;
+        this.life[i] = (float) life;
+        this.images[i] = image;
+        this.startColors[i] = startColor;
+        this.endColors[i] = endColor;
+        this.blendModes[i] = blendMode;
+
+        return i;
+    }
+
+    /**
+     * Moves all particles by one step and removes dead particles.
+     *
+     * @param tpf time per frame
+     */
+    public void update(double tpf) {
+        float dt = (float) tpf;
+
+        int i = 0;
+        while (i < size) {
+            x[i] += velocityX[i];
+            y[i] += velocityY[i];
+            velocityX[i] += gravityX[i];
+            velocityY[i] += gravityY[i];
+            radiusX[i] += scaleX[i];
+            radiusY[i] += scaleY[i];
+            life[i] -= dt;
+
+            if (life[i] <= 0 || radiusX[i] <= 0 || radiusY[i] <= 0) {
+                // the swapped in particle is updated in the next iteration
+                removeIndex(i);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Removes particle at given index by moving the last particle into its slot.
+     *
+     * @param i particle index
+     */
+    public void removeIndex(int i) {
+        if (i < 0 || i >= size)
+            throw new IndexOutOfBoundsException("index can't be >= size: " + i + " >= " + size);
+
+        int last = --size;
+
+        if (i != last) {
+            x[i] = x[last];
+            y[i] = y[last];
+            velocityX[i] = velocityX[last];
+            velocityY[i] = velocityY[last];
+            gravityX[i] = gravityX[last];
+            gravityY[i] = gravityY[last];
+            radiusX[i] = radiusX[last];
+            radiusY[i] = radiusY[last];
+            scaleX[i] = scaleX[last];
+            scaleY[i] = scaleY[last];
+            initialLife[i] = initialLife[last];
+            life[i] = life[last];
+            images[i] = images[last];
+            startColors[i] = startColors[last];
+            endColors[i] = endColors[last];
+            blendModes[i] = blendModes[last];
+        }
+
+        // release references
+        images[last] = null;
+        startColors[last] = null;
+        endColors[last] = null;
+        blendModes[last] = null;
+    }
+
+    /**
+     * Removes all particles.
+     */
+    public void clear() {
+        Arrays.fill(images, 0, size, null);
+        Arrays.fill(startColors, 0, size, null);
+        Arrays.fill(endColors, 0, size, null);
+        Arrays.fill(blendModes, 0, size, null);
+        size = 0;
+    }
+
+    public float getX(int i) {
+        return x[i];
+    }
+
+    public float getY(int i) {
+        return y[i];
+    }
+
+    public float getRadiusX(int i) {
+        return radiusX[i];
+    }
+
+    public float getRadiusY(int i) {
+        return radiusY[i];
+    }
+
+    public float getLife(int i) {
+        return life[i];
+    }
+
+    /**
+     * @return value in (0..1], where 1 is a new particle
+     */
+    public float getAlpha(int i) {
+        return life[i] / initialLife[i];
+    }
+
+    private static final BlendMode[] BLEND_MODES = BlendMode.values();
+
+    private final int[] blendModeCounts = new int[BLEND_MODES.length];
+
+    /**
+     * Renders all particles to g context. Takes into
+     * account the viewport origin, so if particle
+     * XY is outside the viewport it will not be seen.
+     * Particles outside the canvas are skipped.
+     * Particles are drawn in groups of the same blend mode,
+     * so the order of particles with different blend modes is not preserved.
+     *
+     * @param g graphics context
+     * @param viewportOrigin viewport origin
+     */
+    void render(GraphicsContext g, Point2D viewportOrigin) {
+        if (size == 0)
+            return;
+
+        Arrays.fill(blendModeCounts, 0);
+
+        for (int i = 0; i < size; i++) {
+            blendModeCounts[blendModes[i].ordinal()]++;
+        }
+
+        double minX = viewportOrigin.getX();
+        double minY = viewportOrigin.getY();
+        double maxX = minX + g.getCanvas().getWidth();
+        double maxY = minY + g.getCanvas().getHeight();
+
+        for (int mode = 0; mode < BLEND_MODES.length; mode++) {
+            if (blendModeCounts[mode] == 0)
+                continue;
+
+            g.setGlobalBlendMode(BLEND_MODES[mode]);
+
+            renderGroup(g, BLEND_MODES[mode], minX, minY, maxX, maxY);
+        }
+    }
+
+    private void renderGroup(GraphicsContext g, BlendMode blendMode, double minX, double minY, double maxX, double maxY) {
+        double lastAlpha = -1;
+
+        Paint lastStartColor = null;
+        Paint lastEndColor = null;
+        Image[] cachedImages = null;
+
+        for (int i = 0; i < size; i++) {
+            if (blendModes[i] != blendMode)
+                continue;
+
+            float w = radiusX[i] * 2;
+            float h = radiusY[i] * 2;
+
+            if (x[i] + w < minX || x[i] > maxX || y[i] + h < minY || y[i] > maxY)
+                continue;
+
+            double alpha = getAlpha(i);
+
+            Image particleImage = images[i];
+
+            if (particleImage == null) {
+                // consecutive particles of an emitter share colors
+                if (startColors[i] != lastStartColor || endColors[i] != lastEndColor) {
+                    lastStartColor = startColors[i];
+                    lastEndColor = endColors[i];
+                    cachedImages = ParticleEmitter.getCachedImages((Color) lastStartColor, (Color) lastEndColor);
+                }
+
+                particleImage = cachedImages[(int)(alpha * 99)];
+            }
+
+            if (alpha != lastAlpha) {
+                g.setGlobalAlpha(alpha);
+                lastAlpha = alpha;
+            }
+
+            g.drawImage(particleImage, x[i] - minX, y[i] - minY, w, h);
+        }
+    }
+}
@@ -6,7 +6,6 @@
 
 package com.almasb.fxgl.effect;
 
-import com.almasb.fxgl.app.FXGL;
 import com.almasb.fxgl.core.collection.Array;
 import com.almasb.fxgl.ecs.Control;
 import com.almasb.fxgl.ecs.Entity;
@@ -14,8 +13,8 @@ import com.almasb.fxgl.ecs.component.Required;
 import com.almasb.fxgl.entity.component.PositionComponent;
 import javafx.geometry.Point2D;
 import javafx.scene.canvas.GraphicsContext;
-
-import java.util.Iterator;
+import javafx.scene.effect.BlendMode;
+import javafx.scene.image.Image;
 
 /**
  * @author Almas Baimagambetov (AlmasB) (almaslvl@gmail.com)
@@ -25,10 +24,20 @@ public class ParticleControl extends Control {
 
     private ParticleEmitter emitter;
 
-    protected Array<Particle> particles = new Array<>(false, 256);
+    /**
+     * Particles spawned by the emitter.
+     */
+    protected ParticleBuffer buffer = new ParticleBuffer(256);
+
+    /**
+     * Individual particle objects, for subclasses that manage particles directly.
+     */
+    protected Array<Particle> particles = new Array<>(false, 16);
 
     private PositionComponent position;
 
+    private ParticleRasterizer rasterizer = null;
+
     /**
      * Constructs particle control with specified emitter.
      *
@@ -42,23 +51,25 @@ public class ParticleControl extends Control {
 
     @Override
     public void onUpdate(Entity entity, double tpf) {
-        if (emitter == null)
-            return;
+        if (emitter != null)
+            emitter.emit(buffer, position.getX(), position.getY());
 
-        particles.addAll(emitter.emit(position.getX(), position.getY()));
+        buffer.update(tpf);
 
-        for (Iterator<Particle> it = particles.iterator(); it.hasNext(); ) {
-            Particle p = it.next();
-            if (p.update(tpf)) {
-                it.remove();
-                FXGL.getPooler().put(p);
+        for (int i = 0; i < particles.size(); i++) {
+            if (particles.get(i).update(tpf)) {
+                particles.removeIndex(i--);
             }
         }
     }
 
     @Override
     public void onRemoved(Entity entity) {
+        buffer.clear();
         particles.clear();
+
+        if (rasterizer != null)
+            rasterizer.clear();
     }
 
     /**
@@ -68,11 +79,45 @@ public class ParticleControl extends Control {
      * @param viewportOrigin viewport origin
      */
     public void renderParticles(GraphicsContext g, Point2D viewportOrigin) {
+        if (rasterizer != null && buffer.size() > 0) {
+            Image image = rasterizer.rasterize(buffer, viewportOrigin.getX(), viewportOrigin.getY(),
+                    (int) g.getCanvas().getWidth(), (int) g.getCanvas().getHeight());
+
+            if (image != null) {
+                g.setGlobalAlpha(1);
+                g.setGlobalBlendMode(BlendMode.SRC_OVER);
+                g.drawImage(image, 0, 0);
+            }
+        } else {
+            buffer.render(g, viewportOrigin);
+        }
+
         for (Particle p : particles) {
             p.render(g, viewportOrigin);
         }
     }
 
+    /**
+     * @return true if particles are drawn into a single image before drawing to canvas
+     */
+    public final boolean isRasterized() {
+        return rasterizer != null;
+    }
+
+    /**
+     * If true, all particles are drawn into a single image in software,
+     * which is then drawn to the canvas in one call.
+     * This is usually faster for large numbers of particles.
+     * In this mode only {@link BlendMode#ADD} and {@link BlendMode#SRC_OVER}
+     * blend modes are supported and the image itself is drawn with {@link BlendMode#SRC_OVER}.
+     *
+     * @param rasterized rasterized flag
+     * @defaultValue false
+     */
+    public final void setRasterized(boolean rasterized) {
+        rasterizer = rasterized ? new ParticleRasterizer() : null;
+    }
+
     /**
      * @return particle emitter attached to control
      */
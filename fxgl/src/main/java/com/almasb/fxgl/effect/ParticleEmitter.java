@@ -5,12 +5,9 @@
  */
 package com.almasb.fxgl.effect;
 
-import com.almasb.fxgl.app.FXGL;
-import com.almasb.fxgl.core.collection.Array;
 import com.almasb.fxgl.core.collection.ObjectMap;
 import com.almasb.fxgl.core.concurrent.Async;
 import com.almasb.fxgl.core.math.FXGLMath;
-import com.almasb.fxgl.core.pool.Pool;
 import com.almasb.fxgl.util.TriFunction;
 import javafx.geometry.Point2D;
 import javafx.scene.Node;
@@ -35,15 +32,6 @@ import java.util.function.Supplier;
  */
 public class ParticleEmitter {
 
-    static {
-        FXGL.getPooler().registerPool(Particle.class, new Pool<Particle>(256) {
-            @Override
-            protected Particle newObject() {
-                return new Particle();
-            }
-        });
-    }
-
     /**
      * Caches baked images in the form: startColor -> endColor -> [Image, 0..99]
      */
@@ -127,6 +115,13 @@ public class ParticleEmitter {
      * @return cached image based on start, end colors and interpolation value
      */
     static Image getCachedImage(Color startColor, Color endColor, int index) {
+        return getCachedImages(startColor, endColor)[index];
+    }
+
+    /**
+     * @return cached images [0..99] based on start and end colors
+     */
+    static Image[] getCachedImages(Color startColor, Color endColor) {
 
         ObjectMap<Color, Image[]> map = IMAGE_CACHE.get(startColor);
         if (map == null) {
@@ -140,7 +135,7 @@ public class ParticleEmitter {
             map.put(endColor, images);
         }
 
-        return images[index];
+        return images;
     }
 
     private Random random = FXGLMath.getRandom();
@@ -366,56 +361,58 @@ public class ParticleEmitter {
         return rand() * (max - min) + min;
     }
 
-    private Array<Particle> emissionParticles = new Array<>(false, numParticles);
-
     /**
-     * Emits {@link #numParticles} particles at x, y. This is
+     * Emits {@link #numParticles} particles at x, y into the buffer. This is
      * called every frame, however {@link #emissionRate} will
-     * decide whether to spawn particles or not. If the emitter
-     * is not ready, an empty list is returned.
+     * decide whether to spawn particles or not.
      *
+     * @param buffer particle buffer to add particles to
      * @param x x coordinate
      * @param y y coordinate
-     * @return list of particles spawned
-     * @implNote cached array is used, do not obtain ownership
+     * @return number of particles spawned
      */
-    final Array<Particle> emit(double x, double y) {
+    final int emit(ParticleBuffer buffer, double x, double y) {
         rateAC += emissionRate;
         if (rateAC < 1 || emissionRate == 0) {
-            return Array.empty();
+            return 0;
         }
 
         rateAC = 0;
-        emissionParticles.clear();
+
+        buffer.ensureCapacity(buffer.size() + numParticles);
 
         for (int i = 0; i < numParticles; i++) {
-            emissionParticles.add(emit(i, x, y));
+            emit(buffer, i, x, y);
         }
 
-        return emissionParticles;
+        return numParticles;
     }
 
     /**
      * Emits a single particle with index i.
      * X and Y are coordinates of the particle entity this emitter is attached to.
      *
+     * @param buffer particle buffer to add the particle to
      * @param i particle index from 0 to {@link #numParticles}
      * @param x top left X of the particle entity
      * @param y top left Y of the particle entity
-     * @return particle
      */
-    private Particle emit(int i, double x, double y) {
-        Particle particle = FXGL.getPooler().get(Particle.class);
-        particle.init(sourceImage, spawnPointFunction.apply(i, x, y),
-                velocityFunction.apply(i, x, y),
-                gravityFunction.get(),
-                getRandomSize(),
-                scaleFunction.apply(i, x, y),
-                expireFunction.apply(i, x, y),
+    private void emit(ParticleBuffer buffer, int i, double x, double y) {
+        Point2D spawnPoint = spawnPointFunction.apply(i, x, y);
+        Point2D velocity = velocityFunction.apply(i, x, y);
+        Point2D gravity = gravityFunction.get();
+        double size = getRandomSize();
+        Point2D scale = scaleFunction.apply(i, x, y);
+
+        buffer.add(sourceImage,
+                spawnPoint.getX(), spawnPoint.getY(),
+                velocity.getX(), velocity.getY(),
+                gravity.getX(), gravity.getY(),
+                size,
+                scale.getX(), scale.getY(),
+                expireFunction.apply(i, x, y).toSeconds(),
                 getStartColor(),
                 getEndColor(),
                 blendMode);
-
-        return particle;
     }
 }
@@ -0,0 +1,201 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.effect;
+
+import javafx.scene.effect.BlendMode;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.Paint;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Draws all particles of a buffer into a single image in software,
+ * so that the canvas only receives one draw call per emitter.
+ * Pixels are blended in premultiplied ARGB and written to the image in bulk.
+ * Only {@link BlendMode#ADD} is blended additively, all other blend modes are treated as
+ * {@link BlendMode#SRC_OVER}. Images are scaled using nearest neighbour.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+final class ParticleRasterizer {
+
+    private static final PixelFormat<IntBuffer> FORMAT = PixelFormat.getIntArgbPreInstance();
+
+    private int width = 0;
+    private int height = 0;
+
+    private int[] pixels = new int[0];
+
+    private WritableImage image = null;
+
+    /**
+     * Pixels of particle images in premultiplied ARGB, read once per image.
+     * Images are weakly referenced, so pixels of images no longer used by emitters are collected.
+     */
+    private final Map<Image, int[]> imagePixels = new WeakHashMap<>();
+
+    /**
+     * @param buffer particles to draw
+     * @param minX viewport x
+     * @param minY viewport y
+     * @param width viewport width
+     * @param height viewport height
+     * @return image of given size with all visible particles or null if size is not positive
+     */
+    Image rasterize(ParticleBuffer buffer, double minX, double minY, int width, int height) {
+        if (width <= 0 || height <= 0)
+            return null;
+
+        if (image == null || this.width != width || this.height != height) {
+            this.width = width;
+            this.height = height;
+
+            pixels = new int[width * height];
+            image = new WritableImage(width, height);
+        } else {
+            Arrays.fill(pixels, 0);
+        }
+
+        Paint lastStartColor = null;
+        Paint lastEndColor = null;
+        Image[] cachedImages = null;
+
+        for (int i = 0; i < buffer.size(); i++) {
+            int w = (int) (buffer.radiusX[i] * 2);
+            int h = (int) (buffer.radiusY[i] * 2);
+
+            if (w <= 0 || h <= 0)
+                continue;
+
+            int px = (int) Math.floor(buffer.x[i] - minX);
+            int py = (int) Math.floor(buffer.y[i] - minY);
+
+            if (px >= width || py >= height || px + w <= 0 || py + h <= 0)
+                continue;
+
+            float alpha = buffer.getAlpha(i);
+
+            Image particleImage = buffer.images[i];
+
+            if (particleImage == null) {
+                if (buffer.startColors[i] != lastStartColor || buffer.endColors[i] != lastEndColor) {
+                    lastStartColor = buffer.startColors[i];
+                    lastEndColor = buffer.endColors[i];
+                    cachedImages = ParticleEmitter.getCachedImages((Color) lastStartColor, (Color) lastEndColor);
+                }
+
+                particleImage = cachedImages[(int)(alpha * 99)];
+            }
+
+            int[] src = getPixels(particleImage);
+            if (src == null)
+                continue;
+
+            draw(src, (int) particleImage.getWidth(), (int) particleImage.getHeight(),
+                    px, py, w, h, (int) (alpha * 256), buffer.blendModes[i] == BlendMode.ADD);
+        }
+
+        image.getPixelWriter().setPixels(0, 0, width, height, FORMAT, pixels, 0, width);
+
+        return image;
+    }
+
+    /**
+     * Releases the image and cached pixels of particle images.
+     */
+    void clear() {
+        imagePixels.clear();
+
+        image = null;
+        pixels = new int[0];
+        width = 0;
+        height = 0;
+    }
+
+    private void draw(int[] src, int srcW, int srcH, int px, int py, int w, int h, int alpha, boolean additive) {
+        int x0 = Math.max(px, 0);
+        int y0 = Math.max(py, 0);
+        int x1 = Math.min(px + w, width);
+        int y1 = Math.min(py + h, height);
+
+        for (int dy = y0; dy < y1; dy++) {
+            int srcRow = (dy - py) * srcH / h * srcW;
+            int destRow = dy * width;
+
+            for (int dx = x0; dx < x1; dx++) {
+                int s = src[srcRow + (dx - px) * srcW / w];
+                if (s == 0)
+                    continue;
+
+                s = multiply(s, alpha);
+
+                int d = destRow + dx;
+                pixels[d] = additive ? add(s, pixels[d]) : over(s, pixels[d]);
+            }
+        }
+    }
+
+    private int[] getPixels(Image image) {
+        int[] result = imagePixels.get(image);
+
+        if (result == null) {
+            PixelReader reader = image.getPixelReader();
+            if (reader == null)
+                return null;
+
+            int w = (int) image.getWidth();
+            int h = (int) image.getHeight();
+
+            result = new int[w * h];
+            reader.getPixels(0, 0, w, h, FORMAT, result, 0, w);
+
+            imagePixels.put(image, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * @param alpha in [0..256]
+     * @return premultiplied color with all channels scaled by alpha
+     */
+    private static int multiply(int c, int alpha) {
+        int a = ((c >>> 24) * alpha) >> 8;
+        int r = (((c >> 16) & 0xFF) * alpha) >> 8;
+        int g = (((c >> 8) & 0xFF) * alpha) >> 8;
+        int b = ((c & 0xFF) * alpha) >> 8;
+
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    private static int over(int s, int d) {
+        int inv = 255 - (s >>> 24);
+
+        int a = (s >>> 24) + (d >>> 24) * inv / 255;
+        int r = ((s >> 16) & 0xFF) + ((d >> 16) & 0xFF) * inv / 255;
+        int g = ((s >> 8) & 0xFF) + ((d >> 8) & 0xFF) * inv / 255;
+        int b = (s & 0xFF) + (d & 0xFF) * inv / 255;
+
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    private static int add(int s, int d) {
+        int a = Math.min(255, (s >>> 24) + (d >>> 24));
+        int r = Math.min(255, ((s >> 16) & 0xFF) + ((d >> 16) & 0xFF));
+        int g = Math.min(255, ((s >> 8) & 0xFF) + ((d >> 8) & 0xFF));
+        int b = Math.min(255, (s & 0xFF) + (d & 0xFF));
+
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+}
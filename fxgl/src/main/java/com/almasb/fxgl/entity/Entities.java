@@ -14,19 +14,12 @@ import com.almasb.fxgl.ecs.Entity;
 import com.almasb.fxgl.ecs.GameWorld;
 import com.almasb.fxgl.entity.animation.AnimationBuilder;
 import com.almasb.fxgl.entity.component.*;
-import com.almasb.fxgl.parser.tiled.Layer;
 import com.almasb.fxgl.parser.tiled.TiledMap;
-import com.almasb.fxgl.parser.tiled.Tileset;
 import com.almasb.fxgl.physics.BoundingShape;
 import com.almasb.fxgl.physics.HitBox;
 import com.almasb.fxgl.physics.PhysicsComponent;
 import javafx.geometry.Point2D;
 import javafx.scene.Node;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-import javafx.scene.image.WritableImage;
-
-import java.util.List;
 
 /**
  * Helper class with static convenience methods.
@@ -214,6 +207,7 @@ public final class Entities {
 
         /**
          * Generates view from tiles.
+         * Tiles are drawn in chunks, which are only built when near the viewport.
          *
          * @param map parsed Tiled map
          * @param layerName layer name as specified by Tiled
@@ -221,56 +215,16 @@ public final class Entities {
          * @return builder
          */
         public GameEntityBuilder viewFromTiles(TiledMap map, String layerName, RenderLayer renderLayer) {
-            entity.getViewComponent().setView(tilesToView(map, layerName), false);
+            TiledLayerView view = new TiledLayerView(map, map.getLayerByName(layerName),
+                    FXGL.getApp().getGameScene().getViewport());
+
+            entity.getViewComponent().setView(view, false);
             entity.getViewComponent().setRenderLayer(renderLayer);
+            entity.addControl(new TiledLayerView.ChunkControl(view));
 
             return this;
         }
 
-        private Node tilesToView(TiledMap map, String layerName) {
-            Layer layer = map.getLayerByName(layerName);
-
-            WritableImage buffer = new WritableImage(
-                    layer.getWidth() * map.getTilewidth(),
-                    layer.getHeight() * map.getTileheight()
-            );
-
-            for (int i = 0; i < layer.getData().size(); i++) {
-
-                int gid = layer.getData().get(i);
-
-                // empty tile
-                if (gid == 0)
-                    continue;
-
-                Tileset tileset = findTileset(gid, map.getTilesets());
-
-                // we offset because data is encoded as continuous
-                gid -= tileset.getFirstgid();
-
-                // image source
-                int tilex = gid % tileset.getColumns();
-                int tiley = gid / tileset.getColumns();
-
-                // image destination
-                int x = i % layer.getWidth();
-                int y = i / layer.getWidth();
-
-                int w = tileset.getTilewidth();
-                int h = tileset.getTileheight();
-
-                String imageName = tileset.getImage();
-                imageName = imageName.substring(imageName.lastIndexOf("/") + 1);
-
-                Image sourceImage = FXGL.getAssetLoader().loadTexture(imageName).getImage();
-
-                buffer.getPixelWriter().setPixels(x * w, y * h,
-                        w, h, sourceImage.getPixelReader(), tilex * w, tiley * h);
-            }
-
-            return new ImageView(buffer);
-        }
-
         public GameEntityBuilder with(Component... components) {
             for (Component c : components)
                 entity.addComponent(c);
@@ -303,19 +257,4 @@ public final class Entities {
             return entity;
         }
     }
-
-    /**
-     * Finds tileset where gid is located.
-     *
-     * @param gid tile id
-     * @param tilesets all tilesets
-     * @return tileset
-     */
-    private static Tileset findTileset(int gid, List<Tileset> tilesets) {
-        return tilesets.stream()
-                .filter(tileset ->
-                        gid >= tileset.getFirstgid() && gid < tileset.getFirstgid() + tileset.getTilecount())
-                .findAny()
-                .orElseThrow(() -> new IllegalArgumentException("Tileset for gid=" + gid + " not found"));
-    }
 }
@@ -8,7 +8,9 @@ package com.almasb.fxgl.entity;
 import com.almasb.fxgl.app.FXGL;
 import com.almasb.fxgl.core.Disposable;
 import com.almasb.fxgl.core.logging.Logger;
+import javafx.beans.property.IntegerProperty;
 import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.ObservableList;
 import javafx.scene.Node;
@@ -132,6 +134,35 @@ public class EntityView extends Parent implements Disposable {
         return renderLayer;
     }
 
+    private IntegerProperty zIndex = new SimpleIntegerProperty(this, "zIndex", 0);
+
+    /**
+     * Set z index of this view within its render layer.
+     * Views with higher z index are rendered on top of views with lower z index
+     * in the same render layer.
+     * Views with same z index are rendered in the order they were added.
+     *
+     * @param zIndex z index
+     * @defaultValue 0
+     */
+    public void setZIndex(int zIndex) {
+        this.zIndex.set(zIndex);
+    }
+
+    /**
+     * @return z index within render layer
+     */
+    public int getZIndex() {
+        return zIndex.get();
+    }
+
+    /**
+     * @return z index property
+     */
+    public IntegerProperty zIndexProperty() {
+        return zIndex;
+    }
+
     @Override
     public void dispose() {
         // we only call dispose to let children to do manual cleanup
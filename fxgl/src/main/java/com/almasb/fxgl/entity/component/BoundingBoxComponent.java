@@ -306,6 +306,8 @@ public class BoundingBoxComponent extends Component
     }
 
     private ListChangeListener<? super HitBox> onHitBoxChange = (ListChangeListener<? super HitBox>) c -> {
+        markChanged();
+
         minXLocal.set(computeMinXLocal());
         minYLocal.set(computeMinYLocal());
         width.set(computeWidth());
@@ -525,6 +527,11 @@ public class BoundingBoxComponent extends Component
         return new Rectangle2D(minX, minY, maxX - minX, maxY - minY);
     }
 
+    @Override
+    protected boolean tracksChanges() {
+        return true;
+    }
+
     @Override
     public void write(@NotNull Bundle bundle) {
         bundle.put("hitBoxes", new ArrayList<>(hitBoxes));
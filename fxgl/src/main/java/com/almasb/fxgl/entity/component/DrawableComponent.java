@@ -8,12 +8,19 @@ package com.almasb.fxgl.entity.component;
 
 import com.almasb.fxgl.ecs.Component;
 import com.almasb.fxgl.ecs.Entity;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.canvas.GraphicsContext;
 
 import java.util.function.BiConsumer;
 
 /**
  * Allows drawing directly to graphics context.
+ * <p>
+ * If retained drawing is enabled in game scene, a drawable is only repainted
+ * when it is dirty. Drawables with bounds only cause their area to be repainted,
+ * drawables without bounds cause the whole layer to be repainted every frame.
+ * Call {@link #markDirty()} when the drawing changes, e.g. entity moved.
+ * Static drawables are cached separately and should rarely change.
  *
  * @author Almas Baimagambetov (almaslvl@gmail.com)
  */
@@ -21,11 +28,81 @@ public class DrawableComponent extends Component {
 
     private BiConsumer<GraphicsContext, Entity> drawingFunction;
 
+    private Rectangle2D bounds = null;
+    private boolean dirty = true;
+    private boolean isStatic = false;
+
     public DrawableComponent(BiConsumer<GraphicsContext, Entity> drawingFunction) {
         this.drawingFunction = drawingFunction;
     }
 
+    /**
+     * @param drawingFunction drawing function
+     * @param bounds area (in screen coordinates) that the drawing function paints
+     */
+    public DrawableComponent(BiConsumer<GraphicsContext, Entity> drawingFunction, Rectangle2D bounds) {
+        this.drawingFunction = drawingFunction;
+        this.bounds = bounds;
+    }
+
     public void draw(GraphicsContext g) {
         drawingFunction.accept(g, getEntity());
     }
+
+    /**
+     * @return area (in screen coordinates) that the drawing function paints, or null if unknown
+     */
+    public Rectangle2D getBounds() {
+        return bounds;
+    }
+
+    /**
+     * Set area (in screen coordinates) that the drawing function paints.
+     * Marks this drawable dirty.
+     *
+     * @param bounds drawing bounds or null if unknown
+     */
+    public void setBounds(Rectangle2D bounds) {
+        this.bounds = bounds;
+        dirty = true;
+    }
+
+    /**
+     * Mark this drawable to be repainted in next frame.
+     */
+    public void markDirty() {
+        dirty = true;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * Called by the game scene after the drawable is repainted.
+     *
+     * @param dirty dirty flag
+     */
+    public void setDirty(boolean dirty) {
+        this.dirty = dirty;
+    }
+
+    /**
+     * @return true if drawing rarely changes and can be cached
+     */
+    public boolean isStatic() {
+        return isStatic;
+    }
+
+    /**
+     * Static drawables are painted to a separate cached layer,
+     * which is only repainted when one of them is dirty.
+     *
+     * @param isStatic static flag
+     * @defaultValue false
+     */
+    public void setStatic(boolean isStatic) {
+        this.isStatic = isStatic;
+        dirty = true;
+    }
 }
@@ -70,6 +70,11 @@ public class IDComponent extends Component implements SerializableComponent {
         return getFullID();
     }
 
+    @Override
+    protected boolean tracksChanges() {
+        return true;
+    }
+
     @Override
     public void write(@NotNull Bundle bundle) {
         bundle.put("name", name);
@@ -80,5 +85,7 @@ public class IDComponent extends Component implements SerializableComponent {
     public void read(@NotNull Bundle bundle) {
         name = bundle.get("name");
         id = bundle.get("id");
+
+        markChanged();
     }
 }
@@ -36,6 +36,9 @@ public class PositionComponent extends Component
     public PositionComponent(double x, double y) {
         this.x = new SimpleDoubleProperty(x);
         this.y = new SimpleDoubleProperty(y);
+
+        this.x.addListener(o -> markChanged());
+        this.y.addListener(o -> markChanged());
     }
 
     /**
@@ -218,6 +221,11 @@ public class PositionComponent extends Component
         return "Position(" + getX() + "," + getY() + ")";
     }
 
+    @Override
+    protected boolean tracksChanges() {
+        return true;
+    }
+
     @Override
     public void write(@NotNull Bundle bundle) {
         bundle.put("x", getX());
@@ -0,0 +1,112 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.entity.component;
+
+import com.almasb.fxgl.ecs.Component;
+import com.almasb.fxgl.ecs.Entity;
+import com.almasb.fxgl.ecs.component.Required;
+import com.almasb.fxgl.entity.RenderLayer;
+import com.almasb.fxgl.texture.AtlasRegion;
+
+/**
+ * Draws a texture atlas region at entity position without a scene graph node.
+ * Sprites are batched by the game scene, which draws all sprites
+ * to a single canvas, grouped by render layer and atlas page.
+ * This is much cheaper than a view per entity when there are thousands of entities.
+ * Sprites are drawn above entity views and below particles.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+@Required(PositionComponent.class)
+public class SpriteComponent extends Component {
+
+    private AtlasRegion region;
+    private double width;
+    private double height;
+    private RenderLayer renderLayer;
+
+    private PositionComponent position;
+
+    /**
+     * Constructs sprite with size of the region on top render layer.
+     *
+     * @param region atlas region
+     */
+    public SpriteComponent(AtlasRegion region) {
+        this(region, region.getWidth(), region.getHeight(), RenderLayer.TOP);
+    }
+
+    /**
+     * @param region atlas region
+     * @param width width to draw
+     * @param height height to draw
+     * @param renderLayer render layer, only its index is used to order sprites
+     */
+    public SpriteComponent(AtlasRegion region, double width, double height, RenderLayer renderLayer) {
+        this.region = region;
+        this.width = width;
+        this.height = height;
+        this.renderLayer = renderLayer;
+    }
+
+    @Override
+    public void onAdded(Entity entity) {
+        position = entity.getComponent(PositionComponent.class);
+    }
+
+    public AtlasRegion getRegion() {
+        return region;
+    }
+
+    /**
+     * Set region to draw, e.g. next animation frame.
+     * Width and height are not changed.
+     *
+     * @param region atlas region
+     */
+    public void setRegion(AtlasRegion region) {
+        this.region = region;
+    }
+
+    public double getWidth() {
+        return width;
+    }
+
+    public void setWidth(double width) {
+        this.width = width;
+    }
+
+    public double getHeight() {
+        return height;
+    }
+
+    public void setHeight(double height) {
+        this.height = height;
+    }
+
+    public RenderLayer getRenderLayer() {
+        return renderLayer;
+    }
+
+    public void setRenderLayer(RenderLayer renderLayer) {
+        this.renderLayer = renderLayer;
+    }
+
+    /**
+     * @return x of top-left corner in world coordinates
+     */
+    public double getX() {
+        return position.getX();
+    }
+
+    /**
+     * @return y of top-left corner in world coordinates
+     */
+    public double getY() {
+        return position.getY();
+    }
+}
@@ -145,6 +145,22 @@ public class ViewComponent extends Component {
         view.setRenderLayer(renderLayer);
     }
 
+    /**
+     * @return z index within render layer
+     */
+    public int getZIndex() {
+        return view.getZIndex();
+    }
+
+    /**
+     * Set z index within render layer.
+     *
+     * @param zIndex z index
+     */
+    public void setZIndex(int zIndex) {
+        view.setZIndex(zIndex);
+    }
+
     /**
      * @return view
      */
@@ -6,7 +6,6 @@
 
 package com.almasb.fxgl.physics;
 
-import com.almasb.fxgl.app.FXGL;
 import com.almasb.fxgl.core.math.Vec2;
 import com.almasb.fxgl.ecs.Component;
 import com.almasb.fxgl.ecs.component.Required;
@@ -38,11 +37,10 @@ public class PhysicsComponent extends Component {
 
     private Runnable onInitPhysics;
 
-    private final PhysicsWorld physicsWorld;
-
-    public PhysicsComponent() {
-        physicsWorld = FXGL.getApp().getPhysicsWorld();
-    }
+    /**
+     * Physics world this entity was added to, set together with the body.
+     */
+    PhysicsWorld physicsWorld;
 
     void onInitPhysics() {
         if (onInitPhysics != null) {
@@ -56,6 +54,12 @@ public class PhysicsComponent extends Component {
         return body;
     }
 
+    private PhysicsWorld getPhysicsWorld() {
+        if (physicsWorld == null)
+            throw new IllegalStateException("Physics not initialized yet! Use setOnPhysicsInitialized() instead");
+        return physicsWorld;
+    }
+
     /**
      * Set a callback to run when this entity has been added to physics world.
      *
@@ -104,7 +108,7 @@ public class PhysicsComponent extends Component {
      * @param vector x and y in pixels
      */
     public void setLinearVelocity(Point2D vector) {
-        setBodyLinearVelocity(physicsWorld.toVector(vector));
+        setBodyLinearVelocity(getPhysicsWorld().toVector(vector));
     }
 
     /**
@@ -151,7 +155,7 @@ public class PhysicsComponent extends Component {
      * @return linear velocity in pixels
      */
     public Point2D getLinearVelocity() {
-        return physicsWorld.toVector(getBody().getLinearVelocity());
+        return getPhysicsWorld().toVector(getBody().getLinearVelocity());
     }
 
     /**
@@ -171,7 +175,7 @@ public class PhysicsComponent extends Component {
      * @param wake if this impulse should wake up the body
      */
     public void applyLinearImpulse(Point2D impulse, Point2D point, boolean wake) {
-        applyBodyLinearImpulse(physicsWorld.toVector(impulse), physicsWorld.toPoint(point), wake);
+        applyBodyLinearImpulse(getPhysicsWorld().toVector(impulse), getPhysicsWorld().toPoint(point), wake);
     }
 
     /**
@@ -192,7 +196,7 @@ public class PhysicsComponent extends Component {
      * @param point the world position of the point of application (in pixel)
      */
     public void applyForce(Point2D force, Point2D point) {
-        applyBodyForce(physicsWorld.toVector(force), physicsWorld.toPoint(point));
+        applyBodyForce(getPhysicsWorld().toVector(force), getPhysicsWorld().toPoint(point));
     }
 
     /**
@@ -211,7 +215,7 @@ public class PhysicsComponent extends Component {
      * @param force the world force vector (in pixel/sec)
      */
     public void applyForceToCenter(Point2D force) {
-        applyBodyForceToCenter(physicsWorld.toVector(force));
+        applyBodyForceToCenter(getPhysicsWorld().toVector(force));
     }
 
     /**
@@ -229,7 +233,7 @@ public class PhysicsComponent extends Component {
      * @param impulse the angular impulse (in pixel/sec)
      */
     public void applyAngularImpulse(float impulse) {
-        applyBodyAngularImpulse(physicsWorld.toMeters(impulse));
+        applyBodyAngularImpulse(getPhysicsWorld().toMeters(impulse));
     }
 
     /**
@@ -247,7 +251,7 @@ public class PhysicsComponent extends Component {
      * @param torque the force (in pixel)
      */
     public void applyTorque(float torque) {
-        applyBodyTorque(physicsWorld.toMeters(torque));
+        applyBodyTorque(getPhysicsWorld().toMeters(torque));
     }
 
     /**
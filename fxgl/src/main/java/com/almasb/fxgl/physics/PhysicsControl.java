@@ -6,7 +6,6 @@
 
 package com.almasb.fxgl.physics;
 
-import com.almasb.fxgl.app.FXGL;
 import com.almasb.fxgl.core.math.Vec2;
 import com.almasb.fxgl.ecs.Control;
 import com.almasb.fxgl.ecs.Entity;
@@ -37,9 +36,9 @@ public class PhysicsControl extends Control {
 
     private double appHeight;
 
-    PhysicsControl(double appHeight) {
+    PhysicsControl(double appHeight, PhysicsWorld physicsWorld) {
         this.appHeight = appHeight;
-        this.physicsWorld = FXGL.getApp().getPhysicsWorld();
+        this.physicsWorld = physicsWorld;
     }
 
     @Override
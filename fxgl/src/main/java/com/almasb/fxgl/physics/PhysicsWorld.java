@@ -63,7 +63,7 @@ public final class PhysicsWorld implements EntityWorldListener, ContactListener
 
     private int appHeight;
 
-    private Pooler pooler = FXGL.getPooler();
+    private final Pooler pooler;
 
     /**
      * Note: certain modifications to the jbox2d world directly may not be
@@ -148,7 +148,20 @@ public final class PhysicsWorld implements EntityWorldListener, ContactListener
     @Inject
     protected PhysicsWorld(@Named("appHeight") int appHeight,
                            @Named("physics.ppm") double ppm) {
+        this(appHeight, ppm, FXGL.getPooler());
+    }
+
+    /**
+     * Constructs physics world with given pooler,
+     * e.g. for running simulations without the application.
+     *
+     * @param appHeight height of the world in pixels, used to flip y axis
+     * @param ppm pixels per meter
+     * @param pooler pooler to use for collision pairs
+     */
+    public PhysicsWorld(int appHeight, double ppm, Pooler pooler) {
         this.appHeight = appHeight;
+        this.pooler = pooler;
 
         PIXELS_PER_METER = ppm;
         METERS_PER_PIXELS = 1 / PIXELS_PER_METER;
@@ -510,13 +523,14 @@ public final class PhysicsWorld implements EntityWorldListener, ContactListener
         }
 
         physics.body = jboxWorld.createBody(physics.bodyDef);
+        physics.physicsWorld = this;
 
         createFixtures(e);
 
         physics.body.setUserData(e);
         physics.onInitPhysics();
 
-        e.addControl(new PhysicsControl(appHeight));
+        e.addControl(new PhysicsControl(appHeight, this));
     }
 
     private void createFixtures(Entity e) {
@@ -39,6 +39,7 @@ public final class SaveLoadManager {
 
     private static final String SAVE_FILE_EXT = FXGL.getString("fs.savefile.ext");
     private static final String DATA_FILE_EXT = FXGL.getString("fs.datafile.ext");
+    private static final String WORLD_FILE_EXT = FXGL.getString("fs.worldfile.ext");
 
     static {
         log.debug(() -> "Checking profiles dir: " + PROFILES_DIR);
@@ -133,6 +134,19 @@ public final class SaveLoadManager {
                 }));
     }
 
+    /**
+     * Returns incremental save file for entities of the game saved as given save file.
+     * It is stored next to the data file under saves directory.
+     * Keep the returned instance for subsequent saves of the same game,
+     * since the first save of each instance is a full save.
+     *
+     * @param saveFile save file
+     * @return incremental save file
+     */
+    public IncrementalSaveFile incrementalSaveFile(SaveFile saveFile) {
+        return new IncrementalSaveFile(saveDir() + saveFile.getName() + WORLD_FILE_EXT);
+    }
+
     /**
      * Saves user profile to "profiles/".
      * Creates "saves/" in that directory.
@@ -198,6 +212,11 @@ public final class SaveLoadManager {
 
         return FS.deleteFileTask(saveDir() + saveFile.getName() + SAVE_FILE_EXT)
                 .then(n -> FS.deleteFileTask(saveDir() + saveFile.getName() + DATA_FILE_EXT))
+                .then(n -> IOTask.of("deleteWorldFiles", () -> {
+                    // incremental save files are optional
+                    Files.deleteIfExists(Paths.get(saveDir() + saveFile.getName() + WORLD_FILE_EXT));
+                    return Files.deleteIfExists(Paths.get(saveDir() + saveFile.getName() + WORLD_FILE_EXT + ".delta"));
+                }))
                 .then(n -> IOTask.ofVoid("updateSaves", () -> {
                     Platform.runLater(() -> saveFiles.remove(saveFile));
                 }));
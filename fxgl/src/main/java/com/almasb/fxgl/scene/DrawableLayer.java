@@ -0,0 +1,307 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.scene;
+
+import com.almasb.fxgl.core.collection.Array;
+import com.almasb.fxgl.entity.component.DrawableComponent;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+
+/**
+ * Paints drawable components to two canvases: one for static drawables and one for the rest.
+ *
+ * In immediate mode, all drawables are painted every frame.
+ * In retained mode, the static canvas keeps its content and is only repainted
+ * when a static drawable is dirty, added or removed.
+ * On the dynamic canvas, only areas of dirty drawables (old and new bounds)
+ * are cleared and repainted, clipped to the area.
+ * If dirty areas cover a large part of the canvas, or a drawable has no bounds,
+ * the dynamic canvas is repainted fully.
+ * Graphics context state (e.g. transform, alpha, blend mode) changed by a drawable
+ * does not leak into drawables painted after it.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+final class DrawableLayer {
+
+    private static final class Entry {
+        final DrawableComponent drawable;
+
+        /**
+         * True if the drawable is currently painted on dynamic canvas.
+         */
+        boolean painted = false;
+
+        /**
+         * Bounds in which the drawable was last painted on dynamic canvas, null if unknown.
+         */
+        Rectangle2D paintedBounds = null;
+
+        boolean wasStatic;
+
+        Entry(DrawableComponent drawable) {
+            this.drawable = drawable;
+            this.wasStatic = drawable.isStatic();
+        }
+    }
+
+    private final Canvas staticCanvas;
+    private final Canvas dynamicCanvas;
+
+    private final GraphicsContext staticGC;
+    private final GraphicsContext dynamicGC;
+
+    private final Array<Entry> entries = new Array<>(false, 128);
+
+    /**
+     * Areas to repaint in next frame.
+     */
+    private final Array<Rectangle2D> dirtyRegions = new Array<>(false, 32);
+
+    private boolean retained = false;
+    private boolean staticDirty = true;
+    private boolean fullRepaint = true;
+
+    private int repaintedDrawables = 0;
+    private long repaintedPixels = 0;
+
+    DrawableLayer(Canvas staticCanvas, Canvas dynamicCanvas) {
+        this.staticCanvas = staticCanvas;
+        this.dynamicCanvas = dynamicCanvas;
+
+        staticGC = staticCanvas.getGraphicsContext2D();
+        dynamicGC = dynamicCanvas.getGraphicsContext2D();
+    }
+
+    void add(DrawableComponent drawable) {
+        entries.add(new Entry(drawable));
+        drawable.markDirty();
+    }
+
+    void remove(DrawableComponent drawable) {
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+
+            if (entry.drawable == drawable) {
+                if (entry.wasStatic) {
+                    staticDirty = true;
+                } else {
+                    invalidatePainted(entry);
+                }
+
+                entries.removeIndex(i);
+                return;
+            }
+        }
+    }
+
+    void clear() {
+        entries.clear();
+        dirtyRegions.clear();
+
+        staticDirty = true;
+        fullRepaint = true;
+    }
+
+    boolean isRetained() {
+        return retained;
+    }
+
+    void setRetained(boolean retained) {
+        this.retained = retained;
+
+        staticGC.clearRect(0, 0, staticCanvas.getWidth(), staticCanvas.getHeight());
+
+        staticDirty = true;
+        fullRepaint = true;
+    }
+
+    /**
+     * @return number of drawables painted in last frame
+     */
+    int getRepaintedDrawableCount() {
+        return repaintedDrawables;
+    }
+
+    /**
+     * @return number of canvas pixels repainted in last frame
+     */
+    long getRepaintedPixelCount() {
+        return repaintedPixels;
+    }
+
+    void render() {
+        repaintedDrawables = 0;
+        repaintedPixels = 0;
+
+        if (!retained) {
+            renderImmediate();
+            return;
+        }
+
+        collectDirtyRegions();
+
+        if (staticDirty) {
+            renderStatic();
+            staticDirty = false;
+        }
+
+        double width = dynamicCanvas.getWidth();
+        double height = dynamicCanvas.getHeight();
+
+        double dirtyArea = 0;
+        for (Rectangle2D region : dirtyRegions) {
+            dirtyArea += region.getWidth() * region.getHeight();
+        }
+
+        // clipping has its own cost, so repaint everything when most of canvas is dirty
+        if (fullRepaint || dirtyArea > width * height / 2) {
+            dynamicGC.clearRect(0, 0, width, height);
+
+            for (Entry entry : entries) {
+                if (!entry.drawable.isStatic()) {
+                    draw(entry.drawable, dynamicGC);
+                    repaintedDrawables++;
+                }
+            }
+
+            repaintedPixels += (long) (width * height);
+        } else {
+            for (Rectangle2D region : dirtyRegions) {
+                repaintRegion(region);
+            }
+        }
+
+        for (Entry entry : entries) {
+            if (!entry.drawable.isStatic()) {
+                entry.painted = true;
+                entry.paintedBounds = entry.drawable.getBounds();
+                entry.drawable.setDirty(false);
+            }
+        }
+
+        dirtyRegions.clear();
+        fullRepaint = false;
+    }
+
+    private void renderImmediate() {
+        double width = dynamicCanvas.getWidth();
+        double height = dynamicCanvas.getHeight();
+
+        dynamicGC.clearRect(0, 0, width, height);
+
+        for (Entry entry : entries) {
+            draw(entry.drawable, dynamicGC);
+        }
+
+        repaintedDrawables = entries.size();
+        repaintedPixels = (long) (width * height);
+    }
+
+    private void collectDirtyRegions() {
+        for (Entry entry : entries) {
+            DrawableComponent drawable = entry.drawable;
+
+            if (entry.wasStatic != drawable.isStatic()) {
+                staticDirty = true;
+
+                // moved to or from dynamic canvas
+                invalidatePainted(entry);
+                entry.painted = false;
+                entry.wasStatic = drawable.isStatic();
+                drawable.markDirty();
+            }
+
+            if (drawable.isStatic()) {
+                if (drawable.isDirty())
+                    staticDirty = true;
+
+                continue;
+            }
+
+            if (drawable.getBounds() == null) {
+                fullRepaint = true;
+            } else if (drawable.isDirty()) {
+                invalidatePainted(entry);
+                invalidate(drawable.getBounds());
+            }
+        }
+    }
+
+    private void renderStatic() {
+        staticGC.clearRect(0, 0, staticCanvas.getWidth(), staticCanvas.getHeight());
+
+        for (Entry entry : entries) {
+            if (entry.drawable.isStatic()) {
+                draw(entry.drawable, staticGC);
+                entry.drawable.setDirty(false);
+                repaintedDrawables++;
+            }
+        }
+
+        repaintedPixels += (long) (staticCanvas.getWidth() * staticCanvas.getHeight());
+    }
+
+    private void repaintRegion(Rectangle2D region) {
+        dynamicGC.clearRect(region.getMinX(), region.getMinY(), region.getWidth(), region.getHeight());
+
+        dynamicGC.save();
+        dynamicGC.beginPath();
+        dynamicGC.rect(region.getMinX(), region.getMinY(), region.getWidth(), region.getHeight());
+        dynamicGC.closePath();
+        dynamicGC.clip();
+
+        for (Entry entry : entries) {
+            DrawableComponent drawable = entry.drawable;
+
+            if (!drawable.isStatic() && drawable.getBounds().intersects(region)) {
+                draw(drawable, dynamicGC);
+                repaintedDrawables++;
+            }
+        }
+
+        dynamicGC.restore();
+
+        repaintedPixels += (long) (region.getWidth() * region.getHeight());
+    }
+
+    private static void draw(DrawableComponent drawable, GraphicsContext g) {
+        g.save();
+        drawable.draw(g);
+        g.restore();
+    }
+
+    /**
+     * Adds area in which entry was last painted to repaint.
+     */
+    private void invalidatePainted(Entry entry) {
+        if (!entry.painted)
+            return;
+
+        if (entry.paintedBounds == null) {
+            fullRepaint = true;
+        } else {
+            invalidate(entry.paintedBounds);
+        }
+    }
+
+    /**
+     * Adds area to repaint, expanded to whole pixels plus 1 pixel for antialiased edges.
+     */
+    private void invalidate(Rectangle2D area) {
+        if (area == null)
+            return;
+
+        double minX = Math.floor(area.getMinX()) - 1;
+        double minY = Math.floor(area.getMinY()) - 1;
+        double maxX = Math.ceil(area.getMaxX()) + 1;
+        double maxY = Math.ceil(area.getMaxY()) + 1;
+
+        dirtyRegions.add(new Rectangle2D(minX, minY, maxX - minX, maxY - minY));
+    }
+}
@@ -13,10 +13,11 @@ import com.almasb.fxgl.core.logging.Logger;
 import com.almasb.fxgl.ecs.*;
 import com.almasb.fxgl.effect.ParticleControl;
 import com.almasb.fxgl.entity.EntityView;
-import com.almasb.fxgl.entity.RenderLayer;
 import com.almasb.fxgl.entity.component.DrawableComponent;
+import com.almasb.fxgl.entity.component.SpriteComponent;
 import com.almasb.fxgl.entity.component.ViewComponent;
 import com.almasb.fxgl.physics.PhysicsParticleControl;
+import com.almasb.fxgl.texture.AtlasRegion;
 import com.almasb.fxgl.ui.UI;
 import com.google.inject.Inject;
 import com.google.inject.Singleton;
@@ -27,17 +28,18 @@ import javafx.scene.Node;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.effect.BlendMode;
+import javafx.scene.image.Image;
 import javafx.scene.transform.Scale;
 
-import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.List;
 
 /**
  * Represents the scene that shows game objects on the screen during "play" mode.
- * Contains 3 layers. From bottom to top:
+ * Contains 5 layers. From bottom to top:
  * <ol>
  *     <li>Entities and their render layers</li>
+ *     <li>Sprites</li>
+ *     <li>Drawables (static, then dynamic)</li>
  *     <li>Particles</li>
  *     <li>UI Overlay</li>
  * </ol>
@@ -55,6 +57,35 @@ public final class GameScene extends FXGLScene
      */
     private Group gameRoot = new Group();
 
+    /**
+     * Render layer groups in {@link #gameRoot}.
+     */
+    private RenderGroups renderGroups = new RenderGroups(gameRoot);
+
+    /**
+     * Canvas for batched sprites, it is redrawn every frame.
+     */
+    private Canvas spritesCanvas = new Canvas();
+
+    private GraphicsContext spritesGC = spritesCanvas.getGraphicsContext2D();
+
+    private Array<SpriteComponent> sprites = new Array<>(false, 128);
+
+    /**
+     * Orders sprites by render layer, then by atlas page, so that
+     * consecutive draw calls use the same image.
+     */
+    private Comparator<SpriteComponent> spriteComparator = (s1, s2) -> {
+        int layer1 = s1.getRenderLayer().index();
+        int layer2 = s2.getRenderLayer().index();
+
+        if (layer1 != layer2)
+            return Integer.compare(layer1, layer2);
+
+        return Integer.compare(System.identityHashCode(s1.getRegion().getPage()),
+                System.identityHashCode(s2.getRegion().getPage()));
+    };
+
     /**
      * Canvas for particles to accelerate drawing.
      */
@@ -67,7 +98,23 @@ public final class GameScene extends FXGLScene
 
     private Array<ParticleControl> particles = new Array<>(false, 16);
 
-    private Array<Entity> drawables = new Array<>(false, 128);
+    /**
+     * Canvas for static drawables, only repainted in retained mode when they change.
+     */
+    private Canvas staticDrawablesCanvas = new Canvas();
+
+    private Canvas drawablesCanvas = new Canvas();
+
+    private DrawableLayer drawables = new DrawableLayer(staticDrawablesCanvas, drawablesCanvas);
+
+    /**
+     * Hides views outside the viewport, null if culling is disabled.
+     */
+    private ViewCuller viewCuller = null;
+
+    private double viewCullingMargin = 64;
+
+    private int drawnSprites = 0;
 
     /**
      * The overlay root above {@link #gameRoot}. Contains UI elements, native JavaFX nodes.
@@ -78,18 +125,21 @@ public final class GameScene extends FXGLScene
     @Inject
     protected GameScene(@Named("appWidth") int width,
                         @Named("appHeight") int height) {
-        getContentRoot().getChildren().addAll(gameRoot, particlesCanvas, uiRoot);
+        getContentRoot().getChildren().addAll(gameRoot, spritesCanvas, staticDrawablesCanvas, drawablesCanvas, particlesCanvas, uiRoot);
 
-        initParticlesCanvas(width, height);
+        initCanvas(spritesCanvas, width, height);
+        initCanvas(staticDrawablesCanvas, width, height);
+        initCanvas(drawablesCanvas, width, height);
+        initCanvas(particlesCanvas, width, height);
         initViewport(width, height);
 
         log.debug("Game scene initialized: " + width + "x" + height);
     }
 
-    private void initParticlesCanvas(double w, double h) {
-        particlesCanvas.setWidth(w);
-        particlesCanvas.setHeight(h);
-        particlesCanvas.setMouseTransparent(true);
+    private void initCanvas(Canvas canvas, double w, double h) {
+        canvas.setWidth(w);
+        canvas.setHeight(h);
+        canvas.setMouseTransparent(true);
     }
 
     private void initViewport(double w, double h) {
@@ -185,20 +235,141 @@ public final class GameScene extends FXGLScene
 
     /**
      * Add a view to the game root.
+     * Views are ordered by z index within their render layer.
+     * During a world update, views are attached to the scene graph
+     * in batches at the end of the update, otherwise immediately.
      *
      * @param view view to add
      */
     public void addGameView(EntityView view) {
-        getRenderGroup(view.getRenderLayer()).getChildren().add(view);
+        renderGroups.add(view);
+
+        if (viewCuller != null)
+            viewCuller.add(view);
     }
 
     /**
      * Remove a view from the game root.
+     * During a world update, views are detached from the scene graph
+     * in batches at the end of the update, otherwise immediately.
      *
      * @param view view to remove
      */
     public void removeGameView(EntityView view) {
-        getRenderGroup(view.getRenderLayer()).getChildren().remove(view);
+        renderGroups.remove(view, view.getRenderLayer());
+
+        if (viewCuller != null)
+            viewCuller.remove(view);
+    }
+
+    /**
+     * If enabled, game views whose bounds are outside the viewport (plus margin)
+     * are hidden, so that JavaFX does not render them.
+     * This is useful for large levels where most views are off screen.
+     * Note: a culled view has its visible property set to false.
+     *
+     * @param enabled culling flag
+     * @defaultValue false
+     */
+    public void setViewCullingEnabled(boolean enabled) {
+        if (enabled == isViewCullingEnabled())
+            return;
+
+        if (enabled) {
+            viewCuller = new ViewCuller(256);
+
+            renderGroups.flush();
+
+            for (Group group : renderGroups.getGroups()) {
+                for (Node view : group.getChildren()) {
+                    if (view instanceof EntityView) {
+                        viewCuller.add((EntityView) view);
+                    }
+                }
+            }
+        } else {
+            viewCuller.clear();
+            viewCuller = null;
+        }
+    }
+
+    /**
+     * @return true if views outside the viewport are culled
+     */
+    public boolean isViewCullingEnabled() {
+        return viewCuller != null;
+    }
+
+    /**
+     * Set distance in pixels around the viewport within which views are not culled.
+     *
+     * @param margin culling margin
+     * @defaultValue 64
+     */
+    public void setViewCullingMargin(double margin) {
+        viewCullingMargin = margin;
+    }
+
+    /**
+     * @return distance in pixels around the viewport within which views are not culled
+     */
+    public double getViewCullingMargin() {
+        return viewCullingMargin;
+    }
+
+    /**
+     * @return number of game views shown if culling is enabled, otherwise 0
+     */
+    public int getVisibleViewCount() {
+        return viewCuller != null ? viewCuller.getVisibleCount() : 0;
+    }
+
+    /**
+     * @return number of game views culled if culling is enabled, otherwise 0
+     */
+    public int getCulledViewCount() {
+        return viewCuller != null ? viewCuller.getCulledCount() : 0;
+    }
+
+    /**
+     * @return number of sprites drawn in last frame
+     */
+    public int getDrawnSpriteCount() {
+        return drawnSprites;
+    }
+
+    /**
+     * If enabled, drawable components are only repainted when dirty
+     * and only the areas they cover are cleared.
+     * Static drawables are painted to a separate cached layer.
+     * See {@link DrawableComponent} for details.
+     *
+     * @param enabled retained drawing flag
+     * @defaultValue false
+     */
+    public void setRetainedDrawingEnabled(boolean enabled) {
+        drawables.setRetained(enabled);
+    }
+
+    /**
+     * @return true if drawable components are only repainted when dirty
+     */
+    public boolean isRetainedDrawingEnabled() {
+        return drawables.isRetained();
+    }
+
+    /**
+     * @return number of drawable components painted in last frame
+     */
+    public int getRepaintedDrawableCount() {
+        return drawables.getRepaintedDrawableCount();
+    }
+
+    /**
+     * @return number of pixels of drawable layers repainted in last frame
+     */
+    public long getRepaintedPixelCount() {
+        return drawables.getRepaintedPixelCount();
     }
 
     /**
@@ -225,65 +396,96 @@ public final class GameScene extends FXGLScene
     }
 
     /**
-     * Returns render group for entity based on entity's
-     * render layer. If no such group exists, a new group
-     * will be created for that layer and placed
-     * in the scene graph according to its layer index.
-     *
-     * @param layer render layer
-     * @return render group
+     * Called by the game loop before the world is updated.
+     * Until the end of the update, game views added or removed
+     * are attached or detached in batches, once per render layer.
      */
-    private Group getRenderGroup(RenderLayer layer) {
-        Integer renderLayer = layer.index();
-        Group group = gameRoot.getChildren()
-                .stream()
-                .filter(n -> (int) n.getUserData() == renderLayer)
-                .findAny()
-                .map(n -> (Group) n)
-                .orElse(new Group());
-
-
-        if (group.getUserData() == null) {
-            log.debug("Creating render group for layer: " + layer.asString());
-            group.setUserData(renderLayer);
-            gameRoot.getChildren().add(group);
-        }
-
-        List<Node> tmpGroups = new ArrayList<>(gameRoot.getChildren());
-        tmpGroups.sort(Comparator.comparingInt(g -> (int) g.getUserData()));
-
-        gameRoot.getChildren().setAll(tmpGroups);
-
-        return group;
+    public void onWorldUpdateStarted() {
+        renderGroups.setBatching(true);
     }
 
     @Override
     public void onWorldUpdate(double tpf) {
-        particlesGC.setGlobalAlpha(1);
-        particlesGC.setGlobalBlendMode(BlendMode.SRC_OVER);
-        particlesGC.clearRect(0, 0, getWidth(), getHeight());
+        renderGroups.setBatching(false);
 
-        for (Entity e : drawables) {
-            DrawableComponent drawable = e.getComponent(DrawableComponent.class);
+        if (viewCuller != null) {
+            Viewport viewport = getViewport();
 
-            if (drawable != null) {
-                drawable.draw(particlesGC);
-            }
+            // the zoom scale is pivoted at viewport origin
+            double minX = viewport.getX() - viewCullingMargin;
+            double minY = viewport.getY() - viewCullingMargin;
+            double maxX = viewport.getX() + viewport.getWidth() / viewport.getZoom() + viewCullingMargin;
+            double maxY = viewport.getY() + viewport.getHeight() / viewport.getZoom() + viewCullingMargin;
+
+            viewCuller.update(minX, minY, maxX, maxY);
         }
 
+        drawSprites();
+
+        drawables.render();
+
+        particlesGC.setGlobalAlpha(1);
+        particlesGC.setGlobalBlendMode(BlendMode.SRC_OVER);
+        particlesGC.clearRect(0, 0, getWidth(), getHeight());
+
         for (ParticleControl particle : particles) {
             particle.renderParticles(particlesGC, getViewport().getOrigin());
         }
     }
 
+    private void drawSprites() {
+        spritesGC.clearRect(0, 0, getWidth(), getHeight());
+
+        drawnSprites = 0;
+
+        if (sprites.size() == 0)
+            return;
+
+        // stable sort, cheap when order has not changed since last frame
+        sprites.sort(spriteComparator);
+
+        Viewport viewport = getViewport();
+        double zoom = viewport.getZoom();
+        double viewX = viewport.getX();
+        double viewY = viewport.getY();
+        double maxX = viewX + viewport.getWidth() / zoom;
+        double maxY = viewY + viewport.getHeight() / zoom;
+
+        for (int i = 0; i < sprites.size(); i++) {
+            SpriteComponent sprite = sprites.get(i);
+
+            double x = sprite.getX();
+            double y = sprite.getY();
+            double w = sprite.getWidth();
+            double h = sprite.getHeight();
+
+            if (x + w < viewX || y + h < viewY || x > maxX || y > maxY)
+                continue;
+
+            AtlasRegion region = sprite.getRegion();
+            Image page = region.getPage();
+
+            spritesGC.drawImage(page,
+                    region.getX(), region.getY(), region.getWidth(), region.getHeight(),
+                    (x - viewX) * zoom, (y - viewY) * zoom, w * zoom, h * zoom);
+
+            drawnSprites++;
+        }
+    }
+
     @Override
     public void onWorldReset() {
         log.debug("Resetting game scene");
 
         getViewport().unbind();
+
+        if (viewCuller != null)
+            viewCuller.clear();
+
         drawables.clear();
+        sprites.clear();
         particles.clear();
-        gameRoot.getChildren().clear();
+        renderGroups.clear();
         uiRoot.getChildren().clear();
     }
 
@@ -295,7 +497,10 @@ public final class GameScene extends FXGLScene
                 });
 
         entity.getComponentOptional(DrawableComponent.class)
-                .ifPresent(c -> drawables.add(entity));
+                .ifPresent(drawables::add);
+
+        entity.getComponentOptional(SpriteComponent.class)
+                .ifPresent(sprites::add);
 
         entity.addModuleListener(this);
 
@@ -313,7 +518,10 @@ public final class GameScene extends FXGLScene
                 });
 
         entity.getComponentOptional(DrawableComponent.class)
-                .ifPresent(c -> drawables.removeValueByIdentity(entity));
+                .ifPresent(drawables::remove);
+
+        entity.getComponentOptional(SpriteComponent.class)
+                .ifPresent(c -> sprites.removeValueByIdentity(c));
 
         entity.removeModuleListener(this);
 
@@ -332,9 +540,13 @@ public final class GameScene extends FXGLScene
             addGameView(view);
 
             viewComponent.renderLayerProperty().addListener((o, oldLayer, newLayer) -> {
-                getRenderGroup(oldLayer).getChildren().remove(view);
-                getRenderGroup(newLayer).getChildren().add(view);
+                renderGroups.remove(view, oldLayer);
+                renderGroups.add(view);
             });
+        } else if (component instanceof SpriteComponent) {
+            sprites.add((SpriteComponent) component);
+        } else if (component instanceof DrawableComponent) {
+            drawables.add((DrawableComponent) component);
         }
     }
 
@@ -345,6 +557,10 @@ public final class GameScene extends FXGLScene
 
             EntityView view = viewComponent.getView();
             removeGameView(view);
+        } else if (component instanceof SpriteComponent) {
+            sprites.removeValueByIdentity((SpriteComponent) component);
+        } else if (component instanceof DrawableComponent) {
+            drawables.remove((DrawableComponent) component);
         }
     }
 
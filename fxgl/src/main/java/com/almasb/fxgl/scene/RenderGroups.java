@@ -0,0 +1,324 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.scene;
+
+import com.almasb.fxgl.core.collection.Array;
+import com.almasb.fxgl.core.collection.IntArray;
+import com.almasb.fxgl.entity.EntityView;
+import com.almasb.fxgl.entity.RenderLayer;
+import javafx.beans.InvalidationListener;
+import javafx.beans.property.ReadOnlyProperty;
+import javafx.collections.ObservableList;
+import javafx.scene.Group;
+import javafx.scene.Node;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps a group per render layer under the root, ordered by layer index.
+ * Layer groups are found by binary search and a new group is inserted
+ * at its sorted position, so the root children are never rebuilt.
+ *
+ * While batching, views added or removed are queued and applied in {@link #flush()},
+ * with a single removeAll() per layer and sorted insertion of added views.
+ * Otherwise they are added to and removed from their layer group immediately.
+ * Within a layer, views are ordered by z index. A view whose z index changes
+ * is moved to its new position without re-sorting the layer.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+final class RenderGroups {
+
+    private static final class Layer {
+        final int index;
+        final Group group = new Group();
+
+        /**
+         * Insertion ordered, so that views with same z index keep the order they were added in.
+         */
+        final Set<EntityView> pendingAdd = new LinkedHashSet<>();
+        final Set<EntityView> pendingRemove = new HashSet<>();
+
+        boolean queued = false;
+
+        Layer(int index) {
+            this.index = index;
+            group.setUserData(index);
+        }
+    }
+
+    private final Group root;
+
+    /**
+     * Sorted layer indices, parallel to {@link #layers}.
+     */
+    private final IntArray indices = new IntArray();
+    private final Array<Layer> layers = new Array<>();
+
+    /**
+     * Layer of each added view, including views not yet attached.
+     */
+    private final Map<EntityView, Layer> viewLayers = new HashMap<>();
+
+    /**
+     * Layers with pending changes.
+     */
+    private final Array<Layer> queuedLayers = new Array<>(false, 16);
+
+    private final Array<EntityView> tmpViews = new Array<>();
+
+    private final InvalidationListener zIndexListener = o -> onZIndexChanged((EntityView) ((ReadOnlyProperty<?>) o).getBean());
+
+    private boolean batching = false;
+
+    RenderGroups(Group root) {
+        this.root = root;
+
+        getLayer(RenderLayer.BACKGROUND.index());
+        getLayer(RenderLayer.TOP.index());
+    }
+
+    /**
+     * @return groups of all layers in render order
+     */
+    Array<Group> getGroups() {
+        Array<Group> groups = new Array<>(layers.size());
+        for (Layer layer : layers) {
+            groups.add(layer.group);
+        }
+        return groups;
+    }
+
+    /**
+     * If true, views added or removed are queued until {@link #flush()}.
+     * Turning batching off flushes queued views.
+     *
+     * @param batching batching flag
+     */
+    void setBatching(boolean batching) {
+        if (!batching)
+            flush();
+
+        this.batching = batching;
+    }
+
+    /**
+     * Adds view to group of its render layer.
+     * If the view is in group of another layer, it is moved.
+     */
+    void add(EntityView view) {
+        Layer layer = getLayer(view.getRenderLayer().index());
+
+        Layer current = viewLayers.put(view, layer);
+        if (current == layer)
+            return;
+
+        if (current == null) {
+            view.zIndexProperty().addListener(zIndexListener);
+        } else {
+            detach(view, current);
+        }
+
+        attach(view, layer);
+    }
+
+    /**
+     * Removes view from group of given render layer.
+     */
+    void remove(EntityView view, RenderLayer renderLayer) {
+        Layer layer = getLayer(renderLayer.index());
+
+        if (viewLayers.get(view) != layer)
+            return;
+
+        viewLayers.remove(view);
+        view.zIndexProperty().removeListener(zIndexListener);
+
+        detach(view, layer);
+    }
+
+    /**
+     * Applies queued additions and removals to the scene graph.
+     */
+    void flush() {
+        for (Layer layer : queuedLayers) {
+            ObservableList<Node> children = layer.group.getChildren();
+
+            if (!layer.pendingRemove.isEmpty()) {
+                children.removeAll(layer.pendingRemove);
+                layer.pendingRemove.clear();
+            }
+
+            if (!layer.pendingAdd.isEmpty()) {
+                insertSorted(children, layer.pendingAdd);
+                layer.pendingAdd.clear();
+            }
+
+            layer.queued = false;
+        }
+
+        queuedLayers.clear();
+    }
+
+    /**
+     * Removes all views and turns batching off, layer groups are kept.
+     */
+    void clear() {
+        for (EntityView view : viewLayers.keySet()) {
+            view.zIndexProperty().removeListener(zIndexListener);
+        }
+
+        viewLayers.clear();
+
+        for (Layer layer : layers) {
+            layer.group.getChildren().clear();
+            layer.pendingAdd.clear();
+            layer.pendingRemove.clear();
+            layer.queued = false;
+        }
+
+        queuedLayers.clear();
+
+        batching = false;
+    }
+
+    private void attach(EntityView view, Layer layer) {
+        if (!batching) {
+            insert(layer.group.getChildren(), view);
+            return;
+        }
+
+        // removed and added back in same batch
+        if (layer.pendingRemove.remove(view))
+            return;
+
+        layer.pendingAdd.add(view);
+        queue(layer);
+    }
+
+    private void detach(EntityView view, Layer layer) {
+        if (!batching) {
+            layer.group.getChildren().remove(view);
+            return;
+        }
+
+        // added and removed in same batch
+        if (layer.pendingAdd.remove(view))
+            return;
+
+        layer.pendingRemove.add(view);
+        queue(layer);
+    }
+
+    private void queue(Layer layer) {
+        if (!layer.queued) {
+            layer.queued = true;
+            queuedLayers.add(layer);
+        }
+    }
+
+    /**
+     * Finds layer by binary search or creates and inserts a new one at its sorted position.
+     */
+    private Layer getLayer(int index) {
+        int i = Arrays.binarySearch(indices.items, 0, indices.size, index);
+        if (i >= 0)
+            return layers.get(i);
+
+        int insertionPoint = -(i + 1);
+
+        Layer layer = new Layer(index);
+        indices.insert(insertionPoint, index);
+        layers.insert(insertionPoint, layer);
+
+        root.getChildren().add(insertionPoint, layer.group);
+
+        return layer;
+    }
+
+    private void insertSorted(ObservableList<Node> children, Set<EntityView> views) {
+        tmpViews.clear();
+        for (EntityView view : views) {
+            tmpViews.add(view);
+        }
+
+        // stable, so same z index keeps insertion order
+        tmpViews.sort((v1, v2) -> Integer.compare(v1.getZIndex(), v2.getZIndex()));
+
+        // common case: all new views go on top
+        if (children.isEmpty() || tmpViews.first().getZIndex() >= zIndexOf(children.get(children.size() - 1))) {
+            children.addAll(tmpViews.toArray(Node.class));
+        } else {
+            for (EntityView view : tmpViews) {
+                insert(children, view);
+            }
+        }
+
+        tmpViews.clear();
+    }
+
+    private void onZIndexChanged(EntityView view) {
+        Layer layer = viewLayers.get(view);
+
+        // pending views are sorted when flushed
+        if (layer == null || view.getParent() != layer.group)
+            return;
+
+        ObservableList<Node> children = layer.group.getChildren();
+        int index = children.indexOf(view);
+        int zIndex = view.getZIndex();
+
+        // still in order, e.g. z index changed within the range of its neighbours
+        if ((index == 0 || zIndexOf(children.get(index - 1)) <= zIndex)
+                && (index == children.size() - 1 || zIndexOf(children.get(index + 1)) >= zIndex))
+            return;
+
+        children.remove(index);
+        insert(children, view);
+    }
+
+    /**
+     * Inserts view after all children with z index less than or equal to its z index.
+     */
+    private static void insert(ObservableList<Node> children, EntityView view) {
+        // common case: new view goes on top
+        if (children.isEmpty() || view.getZIndex() >= zIndexOf(children.get(children.size() - 1))) {
+            children.add(view);
+        } else {
+            children.add(upperBound(children, view.getZIndex()), view);
+        }
+    }
+
+    /**
+     * @return index after last child with z index less than or equal to given z index
+     */
+    private static int upperBound(ObservableList<Node> children, int zIndex) {
+        int low = 0;
+        int high = children.size();
+
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+
+            if (zIndexOf(children.get(mid)) <= zIndex) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    private static int zIndexOf(Node node) {
+        return node instanceof EntityView ? ((EntityView) node).getZIndex() : 0;
+    }
+}
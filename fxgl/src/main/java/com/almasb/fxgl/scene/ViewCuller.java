@@ -0,0 +1,375 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.scene;
+
+import com.almasb.fxgl.core.collection.Array;
+import com.almasb.fxgl.core.collection.ObjectMap;
+import com.almasb.fxgl.entity.EntityView;
+import javafx.beans.InvalidationListener;
+import javafx.geometry.Bounds;
+
+import java.util.HashMap;
+
+/**
+ * Hides entity views that are outside the viewport, so that JavaFX
+ * does not render them.
+ * Views are kept in a uniform grid of cells, so each update only visits views
+ * in cells that overlap the viewport and views that were visible in the previous update.
+ * A view is re-indexed only when its bounds in parent are invalidated, e.g. when the entity moves.
+ *
+ * A culled view has its visible property set to false.
+ * Views hidden by the user are never culled or shown by the culler, so they remain hidden,
+ * including after they are removed from the culler.
+ * If the user changes visibility of a culled view, the view is no longer considered culled.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+final class ViewCuller {
+
+    /**
+     * Views that span more cells than this are checked on every update instead of being indexed.
+     */
+    private static final int MAX_INDEXED_CELLS = 64;
+
+    private static final class Entry {
+        final EntityView view;
+
+        InvalidationListener boundsListener;
+        InvalidationListener visibleListener;
+
+        double minX, minY, maxX, maxY;
+
+        int minCellX, minCellY, maxCellX, maxCellY;
+
+        boolean indexed = false;
+        boolean dirty = true;
+        boolean culled = false;
+        boolean removed = false;
+
+        /**
+         * Last update in which this entry was visited.
+         */
+        int visitedUpdate = -1;
+
+        /**
+         * Last update in which this entry was found visible.
+         */
+        int visibleUpdate = -1;
+
+        Entry(EntityView view) {
+            this.view = view;
+        }
+    }
+
+    private final double cellSize;
+
+    private final HashMap<Long, Array<Entry>> cells = new HashMap<>();
+
+    private final ObjectMap<EntityView, Entry> entries = new ObjectMap<>();
+
+    private Array<Entry> large = new Array<>(false, 16);
+
+    private Array<Entry> dirty = new Array<>(false, 64);
+
+    private Array<Entry> visible = new Array<>(false, 256);
+    private Array<Entry> nextVisible = new Array<>(false, 256);
+
+    private int updateCount = 0;
+
+    private double lastMinX, lastMinY, lastMaxX, lastMaxY;
+
+    private boolean forceUpdate = true;
+
+    /**
+     * True while the culler changes visibility of a view, to tell those changes apart from user changes.
+     */
+    private boolean settingVisible = false;
+
+    ViewCuller(double cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * @return number of views currently shown
+     */
+    int getVisibleCount() {
+        return visible.size();
+    }
+
+    /**
+     * @return number of views currently culled
+     */
+    int getCulledCount() {
+        return entries.size - visible.size();
+    }
+
+    void add(EntityView view) {
+        if (entries.containsKey(view))
+            return;
+
+        Entry entry = new Entry(view);
+        entry.boundsListener = o -> markDirty(entry);
+        entry.visibleListener = o -> onVisibleChanged(entry);
+
+        view.boundsInParentProperty().addListener(entry.boundsListener);
+        view.visibleProperty().addListener(entry.visibleListener);
+
+        entries.put(view, entry);
+        dirty.add(entry);
+
+        // the view is shown until the next update decides otherwise
+        visible.add(entry);
+
+        forceUpdate = true;
+    }
+
+    void remove(EntityView view) {
+        Entry entry = entries.remove(view);
+        if (entry == null)
+            return;
+
+        view.boundsInParentProperty().removeListener(entry.boundsListener);
+        view.visibleProperty().removeListener(entry.visibleListener);
+
+        unindex(entry);
+
+        if (entry.culled)
+            setCulled(entry, false);
+        else
+            visible.removeValueByIdentity(entry);
+
+        // removed from dirty lazily
+        entry.removed = true;
+    }
+
+    /**
+     * Removes all views, restoring visibility of culled views.
+     */
+    void clear() {
+        for (Entry entry : entries.values()) {
+            entry.view.boundsInParentProperty().removeListener(entry.boundsListener);
+            entry.view.visibleProperty().removeListener(entry.visibleListener);
+
+            if (entry.culled)
+                setCulled(entry, false);
+
+            entry.removed = true;
+        }
+
+        entries.clear();
+        cells.clear();
+        large.clear();
+        dirty.clear();
+        visible.clear();
+        nextVisible.clear();
+
+        forceUpdate = true;
+    }
+
+    private void onVisibleChanged(Entry entry) {
+        if (settingVisible)
+            return;
+
+        // the user has taken over visibility of a culled view
+        entry.culled = false;
+
+        // views shown by the user are culled in the next update if they are outside the viewport
+        if (entry.view.isVisible() && !visible.contains(entry, true)) {
+            visible.add(entry);
+            forceUpdate = true;
+        }
+    }
+
+    private void setCulled(Entry entry, boolean culled) {
+        entry.culled = culled;
+
+        settingVisible = true;
+        try {
+            entry.view.setVisible(!culled);
+        } finally {
+            settingVisible = false;
+        }
+    }
+
+    private void markDirty(Entry entry) {
+        if (!entry.dirty) {
+            entry.dirty = true;
+            dirty.add(entry);
+        }
+    }
+
+    /**
+     * Shows views that overlap given area and hides all others.
+     */
+    void update(double minX, double minY, double maxX, double maxY) {
+        boolean changed = forceUpdate || dirty.size() > 0
+                || minX != lastMinX || minY != lastMinY || maxX != lastMaxX || maxY != lastMaxY;
+
+        if (!changed)
+            return;
+
+        forceUpdate = false;
+        lastMinX = minX;
+        lastMinY = minY;
+        lastMaxX = maxX;
+        lastMaxY = maxY;
+
+        reindexDirty();
+
+        int update = ++updateCount;
+
+        int minCellX = cell(minX);
+        int minCellY = cell(minY);
+        int maxCellX = cell(maxX);
+        int maxCellY = cell(maxY);
+
+        for (int cy = minCellY; cy <= maxCellY; cy++) {
+            for (int cx = minCellX; cx <= maxCellX; cx++) {
+                Array<Entry> cell = cells.get(key(cx, cy));
+                if (cell == null)
+                    continue;
+
+                for (int i = 0; i < cell.size(); i++) {
+                    visit(cell.get(i), update, minX, minY, maxX, maxY);
+                }
+            }
+        }
+
+        for (int i = 0; i < large.size(); i++) {
+            visit(large.get(i), update, minX, minY, maxX, maxY);
+        }
+
+        // views that were visible before but have not been found visible now,
+        // views hidden by the user are left as they are
+        for (int i = 0; i < visible.size(); i++) {
+            Entry entry = visible.get(i);
+
+            if (entry.visibleUpdate != update && !entry.culled && entry.view.isVisible()) {
+                setCulled(entry, true);
+            }
+        }
+
+        Array<Entry> tmp = visible;
+        visible = nextVisible;
+        nextVisible = tmp;
+        nextVisible.clear();
+    }
+
+    private void visit(Entry entry, int update, double minX, double minY, double maxX, double maxY) {
+        if (entry.visitedUpdate == update)
+            return;
+
+        entry.visitedUpdate = update;
+
+        if (entry.maxX < minX || entry.minX > maxX || entry.maxY < minY || entry.minY > maxY)
+            return;
+
+        entry.visibleUpdate = update;
+        nextVisible.add(entry);
+
+        if (entry.culled) {
+            setCulled(entry, false);
+        }
+    }
+
+    private void reindexDirty() {
+        for (int i = 0; i < dirty.size(); i++) {
+            Entry entry = dirty.get(i);
+
+            if (entry.removed)
+                continue;
+
+            entry.dirty = false;
+
+            // this also validates bounds, so that the listener is notified of the next change
+            Bounds bounds = entry.view.getBoundsInParent();
+
+            if (bounds.isEmpty()) {
+                entry.minX = entry.maxX = entry.view.getTranslateX();
+                entry.minY = entry.maxY = entry.view.getTranslateY();
+            } else {
+                entry.minX = bounds.getMinX();
+                entry.minY = bounds.getMinY();
+                entry.maxX = bounds.getMaxX();
+                entry.maxY = bounds.getMaxY();
+            }
+
+            int minCellX = cell(entry.minX);
+            int minCellY = cell(entry.minY);
+            int maxCellX = cell(entry.maxX);
+            int maxCellY = cell(entry.maxY);
+
+            if (entry.indexed && minCellX == entry.minCellX && minCellY == entry.minCellY
+                    && maxCellX == entry.maxCellX && maxCellY == entry.maxCellY)
+                continue;
+
+            unindex(entry);
+
+            entry.minCellX = minCellX;
+            entry.minCellY = minCellY;
+            entry.maxCellX = maxCellX;
+            entry.maxCellY = maxCellY;
+
+            index(entry);
+        }
+
+        dirty.clear();
+    }
+
+    private boolean isLarge(Entry entry) {
+        return (long) (entry.maxCellX - entry.minCellX + 1) * (entry.maxCellY - entry.minCellY + 1) > MAX_INDEXED_CELLS;
+    }
+
+    private void index(Entry entry) {
+        entry.indexed = true;
+
+        if (isLarge(entry)) {
+            large.add(entry);
+            return;
+        }
+
+        for (int cy = entry.minCellY; cy <= entry.maxCellY; cy++) {
+            for (int cx = entry.minCellX; cx <= entry.maxCellX; cx++) {
+                cells.computeIfAbsent(key(cx, cy), k -> new Array<>(false, 16)).add(entry);
+            }
+        }
+    }
+
+    private void unindex(Entry entry) {
+        if (!entry.indexed)
+            return;
+
+        entry.indexed = false;
+
+        if (isLarge(entry)) {
+            large.removeValueByIdentity(entry);
+            return;
+        }
+
+        for (int cy = entry.minCellY; cy <= entry.maxCellY; cy++) {
+            for (int cx = entry.minCellX; cx <= entry.maxCellX; cx++) {
+                long key = key(cx, cy);
+
+                Array<Entry> cell = cells.get(key);
+                if (cell != null) {
+                    cell.removeValueByIdentity(entry);
+
+                    if (cell.size() == 0)
+                        cells.remove(key);
+                }
+            }
+        }
+    }
+
+    private int cell(double value) {
+        return (int) Math.floor(value / cellSize);
+    }
+
+    private static long key(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+}
@@ -7,6 +7,8 @@
 package com.almasb.fxgl.service;
 
 import com.almasb.fxgl.ai.btree.BehaviorTree;
+import com.almasb.fxgl.asset.AssetCacheStats;
+import com.almasb.fxgl.asset.AssetManifest;
 import com.almasb.fxgl.audio.Music;
 import com.almasb.fxgl.audio.Sound;
 import com.almasb.fxgl.parser.KVFile;
@@ -18,8 +20,11 @@ import com.almasb.fxgl.ui.UIController;
 import javafx.scene.image.Image;
 
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
 
 /**
  * Handles all resource (asset) loading operations.
@@ -48,6 +53,13 @@ import java.util.ResourceBundle;
  * If you need to access the "raw" JavaFX objects (e.g. Image), you can use
  * {@link AssetLoader#getStream(String)} to obtain an InputStream and then
  * parse into whatever resource you need.
+ * <p>
+ * Assets are indexed by {@link AssetManifest} at /assets/assets.manifest, which can be generated
+ * at build time by running {@link AssetManifest#main(String[])} on the assets directory.
+ * If there is no manifest, assets directories are scanned once on first use.
+ * <p>
+ * Assets can also be packed into an archive via {@link com.almasb.fxgl.asset.AssetArchive#main(String[])},
+ * which is then added by {@link AssetLoader#addArchive(Path)}.
  *
  * @author Almas Baimagambetov (AlmasB) (almaslvl@gmail.com)
  */
@@ -290,4 +302,106 @@ public interface AssetLoader {
      * Release all cached assets.
      */
     void clearCache();
+
+    /**
+     * Asynchronously loads texture with given name from /assets/textures/.
+     * Concurrent requests for the same asset share a single load.
+     *
+     * @param name texture name without the /assets/textures/, e.g. "player.png"
+     * @return future texture, completed exceptionally if asset not found or loading error
+     */
+    CompletableFuture<Texture> loadTextureAsync(String name);
+
+    /**
+     * Asynchronously loads sound with given name from /assets/sounds/.
+     *
+     * @param name sound name without the /assets/sounds/, e.g. "explosion.wav"
+     * @return future sound
+     */
+    CompletableFuture<Sound> loadSoundAsync(String name);
+
+    /**
+     * Asynchronously loads music with given name from /assets/music/.
+     *
+     * @param name music name without the /assets/music/, e.g. "background_music.mp3"
+     * @return future music
+     */
+    CompletableFuture<Music> loadMusicAsync(String name);
+
+    /**
+     * Asynchronously loads text file with given name from /assets/text/.
+     *
+     * @param name text file name without the /assets/text/, e.g. "level_0.txt"
+     * @return future list of lines
+     */
+    CompletableFuture<List<String>> loadTextAsync(String name);
+
+    /**
+     * Asynchronously loads font with given name from /assets/ui/fonts/.
+     *
+     * @param name font file name without the /assets/ui/fonts/, e.g. "quest_font.ttf"
+     * @return future font factory
+     */
+    CompletableFuture<FontFactory> loadFontAsync(String name);
+
+    /**
+     * Loads given assets in parallel into cache.
+     *
+     * @param names resource names, e.g. "/assets/textures/player.png"
+     * @param progress called with name of each loaded asset and fraction of assets loaded so far, may be null
+     * @return future that completes when all assets are loaded
+     */
+    CompletableFuture<Void> preloadAsync(List<String> names, BiConsumer<String, Double> progress);
+
+    /**
+     * Marks asset as (not) pinned, e.g. if it is critical for the current level.
+     * Pinned assets are never evicted from cache.
+     * An asset can be pinned before it is loaded.
+     *
+     * @param name resource name, e.g. "/assets/textures/player.png"
+     * @param pinned pinned flag
+     */
+    void setPinned(String name, boolean pinned);
+
+    /**
+     * If enabled, assets evicted from cache are kept via soft references,
+     * so they are only reclaimed when the JVM runs low on memory.
+     * Disabling releases the assets kept so far.
+     * The initial value is read from property "asset.cache.soft".
+     *
+     * @param enabled soft cache flag
+     */
+    void setSoftCacheEnabled(boolean enabled);
+
+    /**
+     * @return true if assets evicted from cache are kept via soft references
+     */
+    boolean isSoftCacheEnabled();
+
+    /**
+     * @return asset cache statistics
+     */
+    AssetCacheStats getCacheStats();
+
+    /**
+     * @return index of all assets
+     */
+    AssetManifest getManifest();
+
+    /**
+     * Checks assets against sizes and content hashes in manifest.
+     *
+     * @return names of assets that are missing or whose content does not match
+     */
+    List<String> verifyAssets();
+
+    /**
+     * Adds a packed archive of assets.
+     * Assets in the archive take precedence over those on classpath and in previously added archives.
+     * Should be called before the assets are loaded, since cached assets are not reloaded.
+     *
+     * @param file archive file
+     * @throws IllegalArgumentException if the archive cannot be opened
+     */
+    void addArchive(Path file);
 }
@@ -0,0 +1,77 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.texture;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+
+/**
+ * A named rectangular area of a texture atlas page.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class AtlasRegion {
+
+    private final String name;
+    private final Image page;
+    private final int x, y, width, height;
+
+    AtlasRegion(String name, Image page, int x, int y, int width, int height) {
+        this.name = name;
+        this.page = page;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return atlas page image that contains this region
+     */
+    public Image getPage() {
+        return page;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return area of this region in page image
+     */
+    public Rectangle2D getArea() {
+        return new Rectangle2D(x, y, width, height);
+    }
+
+    /**
+     * @return new texture that shows this region
+     */
+    public Texture toTexture() {
+        return new Texture(page, getArea());
+    }
+
+    @Override
+    public String toString() {
+        return "AtlasRegion[" + name + " " + x + "," + y + " " + width + "x" + height + "]";
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.texture;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.image.WritablePixelFormat;
+
+import java.nio.IntBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Chain of power-of-two downscaled levels of an image, level 0 being the image itself.
+ * Images of arbitrary size are produced from the nearest level that is not smaller than requested,
+ * so the source is decoded once regardless of how many sizes are requested.
+ *
+ * Levels are derived on demand, the first request for a size derives the missing levels down to its level,
+ * so an image is never scaled down by more than 2 in both dimensions with bilinear interpolation.
+ * If the requested aspect ratio differs from the image, so that one dimension is scaled down by more than 2,
+ * pixels are averaged over the area each new pixel covers.
+ * Pixels are processed in premultiplied int ARGB.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class MipChain {
+
+    private static final WritablePixelFormat<IntBuffer> FORMAT = PixelFormat.getIntArgbPreInstance();
+
+    private final AtomicReferenceArray<Image> levels;
+    private final int width;
+    private final int height;
+
+    private final Consumer<MipChain> onLevelReady;
+
+    /**
+     * @param image level 0
+     * @param onLevelReady called with this chain on the requesting thread after level(s) are derived, may be null
+     */
+    public MipChain(Image image, Consumer<MipChain> onLevelReady) {
+        this.width = (int) image.getWidth();
+        this.height = (int) image.getHeight();
+        this.onLevelReady = onLevelReady;
+
+        int numLevels = 1;
+        while ((width >> numLevels) > 0 || (height >> numLevels) > 0) {
+            numLevels++;
+        }
+
+        levels = new AtomicReferenceArray<>(numLevels);
+        levels.set(0, image);
+    }
+
+    /**
+     * @return number of levels, until both dimensions are 1
+     */
+    public int getNumLevels() {
+        return levels.length();
+    }
+
+    public int getLevelWidth(int level) {
+        return Math.max(1, width >> level);
+    }
+
+    public int getLevelHeight(int level) {
+        return Math.max(1, height >> level);
+    }
+
+    /**
+     * @return image of given level or null if it is not derived yet
+     */
+    public Image getLevel(int level) {
+        return levels.get(level);
+    }
+
+    /**
+     * @return smallest level that is not smaller than given size, 0 if size is larger than the image
+     */
+    public int selectLevel(int width, int height) {
+        int level = 0;
+
+        while (level + 1 < getNumLevels()
+                && getLevelWidth(level + 1) >= width
+                && getLevelHeight(level + 1) >= height) {
+            level++;
+        }
+
+        return level;
+    }
+
+    /**
+     * Returns image of given size.
+     * If the size matches a level, the level image is returned,
+     * otherwise a new image is resampled from the smallest level that is not smaller than requested.
+     * Missing levels are derived first.
+     *
+     * @param width requested width
+     * @param height requested height
+     * @return image of given size
+     */
+    public Image getImage(int width, int height) {
+        int level = selectLevel(width, height);
+
+        if (levels.get(level) == null)
+            derive(level);
+
+        Image source = levels.get(level);
+
+        if (getLevelWidth(level) == width && getLevelHeight(level) == height)
+            return source;
+
+        return resample(source, getLevelWidth(level), getLevelHeight(level), width, height);
+    }
+
+    /**
+     * @return approximate size in bytes of derived levels, excluding level 0
+     */
+    public long getWeight() {
+        long weight = 0;
+
+        for (int i = 1; i < getNumLevels(); i++) {
+            if (levels.get(i) != null)
+                weight += getLevelWidth(i) * (long) getLevelHeight(i) * 4;
+        }
+
+        return weight;
+    }
+
+    /**
+     * Derives missing levels up to given level.
+     * Concurrent requests may derive the same level, only the first derived image is kept.
+     */
+    private void derive(int level) {
+        for (int i = 1; i <= level; i++) {
+            if (levels.get(i) == null) {
+                levels.compareAndSet(i, null, halve(levels.get(i - 1), getLevelWidth(i - 1), getLevelHeight(i - 1)));
+            }
+        }
+
+        if (onLevelReady != null)
+            onLevelReady.accept(this);
+    }
+
+    /**
+     * Downscales image by 2 by averaging 2x2 blocks of pixels.
+     */
+    private static Image halve(Image image, int w, int h) {
+        int w2 = Math.max(1, w / 2);
+        int h2 = Math.max(1, h / 2);
+
+        int[] src = new int[w * h];
+        int[] dst = new int[w2 * h2];
+
+        image.getPixelReader().getPixels(0, 0, w, h, FORMAT, src, 0, w);
+
+        for (int y = 0; y < h2; y++) {
+            int y0 = Math.min(y * 2, h - 1);
+            int y1 = Math.min(y * 2 + 1, h - 1);
+
+            for (int x = 0; x < w2; x++) {
+                int x0 = Math.min(x * 2, w - 1);
+                int x1 = Math.min(x * 2 + 1, w - 1);
+
+                dst[y * w2 + x] = average(src[y0 * w + x0], src[y0 * w + x1], src[y1 * w + x0], src[y1 * w + x1]);
+            }
+        }
+
+        return toImage(dst, w2, h2);
+    }
+
+    /**
+     * Scales image to given size with bilinear interpolation,
+     * or by averaging areas if it is scaled down by more than 2 in any dimension.
+     */
+    private static Image resample(Image image, int w, int h, int newW, int newH) {
+        int[] src = new int[w * h];
+
+        image.getPixelReader().getPixels(0, 0, w, h, FORMAT, src, 0, w);
+
+        if (w > newW * 2 || h > newH * 2)
+            return resampleArea(src, w, h, newW, newH);
+
+        int[] dst = new int[newW * newH];
+
+        double scaleX = (double) w / newW;
+        double scaleY = (double) h / newH;
+
+        for (int y = 0; y < newH; y++) {
+            // sample at pixel centers
+            double sy = Math.max(0, (y + 0.5) * scaleY - 0.5);
+            int y0 = Math.min((int) sy, h - 1);
+            int y1 = Math.min(y0 + 1, h - 1);
+            double fy = sy - y0;
+
+            for (int x = 0; x < newW; x++) {
+                double sx = Math.max(0, (x + 0.5) * scaleX - 0.5);
+                int x0 = Math.min((int) sx, w - 1);
+                int x1 = Math.min(x0 + 1, w - 1);
+                double fx = sx - x0;
+
+                dst[y * newW + x] = bilinear(src[y0 * w + x0], src[y0 * w + x1], src[y1 * w + x0], src[y1 * w + x1], fx, fy);
+            }
+        }
+
+        return toImage(dst, newW, newH);
+    }
+
+    /**
+     * Scales image down by averaging the block of pixels each new pixel covers.
+     */
+    private static Image resampleArea(int[] src, int w, int h, int newW, int newH) {
+        int[] dst = new int[newW * newH];
+
+        for (int y = 0; y < newH; y++) {
+            int y0 = (int) ((long) y * h / newH);
+            int y1 = Math.max(y0 + 1, (int) ((long) (y + 1) * h / newH));
+
+            for (int x = 0; x < newW; x++) {
+                int x0 = (int) ((long) x * w / newW);
+                int x1 = Math.max(x0 + 1, (int) ((long) (x + 1) * w / newW));
+
+                dst[y * newW + x] = average(src, w, x0, y0, x1, y1);
+            }
+        }
+
+        return toImage(dst, newW, newH);
+    }
+
+    private static Image toImage(int[] pixels, int w, int h) {
+        WritableImage image = new WritableImage(w, h);
+        image.getPixelWriter().setPixels(0, 0, w, h, FORMAT, pixels, 0, w);
+        return image;
+    }
+
+    private static int average(int p00, int p01, int p10, int p11) {
+        int result = 0;
+
+        for (int shift = 0; shift < 32; shift += 8) {
+            int sum = ((p00 >>> shift) & 0xFF) + ((p01 >>> shift) & 0xFF)
+                    + ((p10 >>> shift) & 0xFF) + ((p11 >>> shift) & 0xFF);
+
+            result |= ((sum + 2) / 4) << shift;
+        }
+
+        return result;
+    }
+
+    /**
+     * @return average of pixels in [x0, x1) x [y0, y1)
+     */
+    private static int average(int[] src, int w, int x0, int y0, int x1, int y1) {
+        long a = 0, r = 0, g = 0, b = 0;
+
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x++) {
+                int p = src[y * w + x];
+
+                a += p >>> 24;
+                r += (p >>> 16) & 0xFF;
+                g += (p >>> 8) & 0xFF;
+                b += p & 0xFF;
+            }
+        }
+
+        long count = (long) (x1 - x0) * (y1 - y0);
+        long half = count / 2;
+
+        return (int) ((a + half) / count) << 24
+                | (int) ((r + half) / count) << 16
+                | (int) ((g + half) / count) << 8
+                | (int) ((b + half) / count);
+    }
+
+    private static int bilinear(int p00, int p01, int p10, int p11, double fx, double fy) {
+        int result = 0;
+
+        for (int shift = 0; shift < 32; shift += 8) {
+            double top = ((p00 >>> shift) & 0xFF) * (1 - fx) + ((p01 >>> shift) & 0xFF) * fx;
+            double bottom = ((p10 >>> shift) & 0xFF) * (1 - fx) + ((p11 >>> shift) & 0xFF) * fx;
+
+            result |= ((int) Math.round(top * (1 - fy) + bottom * fy)) << shift;
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.texture;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.image.WritablePixelFormat;
+
+import java.nio.IntBuffer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs pixel filters over int ARGB buffers.
+ * Rows of large images are processed in parallel on the common fork join pool.
+ * Pixels of results are memoized per source image, area and filter key,
+ * so source images are assumed not to change after being filtered.
+ * Only the most recently used results of each source image are kept,
+ * and each call returns a new image, so callers may modify it.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+final class PixelFilters {
+
+    /**
+     * Computes a single row of output.
+     */
+    interface RowFilter {
+
+        /**
+         * @param src source pixels
+         * @param dst destination pixels, row y should be written
+         * @param width image width
+         * @param height image height
+         * @param y row index
+         */
+        void filter(int[] src, int[] dst, int width, int height, int y);
+    }
+
+    /**
+     * Images smaller than this (in pixels) are filtered on the calling thread.
+     */
+    private static final int PARALLEL_THRESHOLD = 128 * 128;
+
+    private static final int ROWS_PER_TASK = 16;
+
+    /**
+     * Max number of results memoized per source image, e.g. an animated tint
+     * only keeps its latest frames.
+     */
+    static final int MAX_RESULTS_PER_IMAGE = 8;
+
+    private static final Map<Image, Map<String, Result>> cache = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Filtered pixels, from which result images are created.
+     */
+    private static final class Result {
+        private final int width, height;
+        private final int[] pixels;
+        private final WritablePixelFormat<IntBuffer> format;
+
+        Result(int width, int height, int[] pixels, WritablePixelFormat<IntBuffer> format) {
+            this.width = width;
+            this.height = height;
+            this.pixels = pixels;
+            this.format = format;
+        }
+
+        Image toImage() {
+            WritableImage image = new WritableImage(width, height);
+            image.getPixelWriter().setPixels(0, 0, width, height, format, pixels, 0, width);
+            return image;
+        }
+    }
+
+    private PixelFilters() {}
+
+    /**
+     * Filters given area of the image. Each pass reads the output of the previous pass.
+     *
+     * @param image source image
+     * @param area area of the image or null for the whole image
+     * @param key unique key of the filter and its arguments
+     * @param format pixel format of buffers passed to filters
+     * @param passes row filters to apply in order
+     * @return new filtered image
+     */
+    static Image filter(Image image, Rectangle2D area, String key,
+                        WritablePixelFormat<IntBuffer> format, RowFilter... passes) {
+        String fullKey = area == null ? key : key + "@" + area;
+
+        Map<String, Result> results;
+        synchronized (cache) {
+            results = cache.computeIfAbsent(image, i -> newResults());
+        }
+
+        Result result;
+        synchronized (results) {
+            result = results.get(fullKey);
+        }
+
+        if (result != null)
+            return result.toImage();
+
+        int x = area == null ? 0 : (int) area.getMinX();
+        int y = area == null ? 0 : (int) area.getMinY();
+        int w = area == null ? (int) image.getWidth() : (int) area.getWidth();
+        int h = area == null ? (int) image.getHeight() : (int) area.getHeight();
+
+        int[] src = new int[w * h];
+        int[] dst = new int[w * h];
+
+        image.getPixelReader().getPixels(x, y, w, h, format, src, 0, w);
+
+        for (RowFilter pass : passes) {
+            if (w * h < PARALLEL_THRESHOLD) {
+                for (int row = 0; row < h; row++) {
+                    pass.filter(src, dst, w, h, row);
+                }
+            } else {
+                ForkJoinPool.commonPool().invoke(new RowTask(pass, src, dst, w, h, 0, h));
+            }
+
+            int[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+
+        result = new Result(w, h, src, format);
+
+        synchronized (results) {
+            results.put(fullKey, result);
+        }
+
+        return result.toImage();
+    }
+
+    private static Map<String, Result> newResults() {
+        return new LinkedHashMap<String, Result>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Result> eldest) {
+                return size() > MAX_RESULTS_PER_IMAGE;
+            }
+        };
+    }
+
+    /**
+     * @return number of results memoized for given source image
+     */
+    static int getCachedResultCount(Image image) {
+        Map<String, Result> results = cache.get(image);
+        if (results == null)
+            return 0;
+
+        synchronized (results) {
+            return results.size();
+        }
+    }
+
+    /**
+     * Removes all memoized results.
+     */
+    static void clearCache() {
+        cache.clear();
+    }
+
+    private static class RowTask extends RecursiveAction {
+
+        private final RowFilter filter;
+        private final int[] src, dst;
+        private final int width, height, from, to;
+
+        RowTask(RowFilter filter, int[] src, int[] dst, int width, int height, int from, int to) {
+            this.filter = filter;
+            this.src = src;
+            this.dst = dst;
+            this.width = width;
+            this.height = height;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= ROWS_PER_TASK) {
+                for (int y = from; y < to; y++) {
+                    filter.filter(src, dst, width, height, y);
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RowTask(filter, src, dst, width, height, from, mid),
+                        new RowTask(filter, src, dst, width, height, mid, to));
+            }
+        }
+    }
+
+    /* FILTERS */
+
+    static RowFilter grayscale() {
+        return (src, dst, w, h, y) -> {
+            for (int i = y * w; i < (y + 1) * w; i++) {
+                int argb = src[i];
+                int gray = (int) (0.21 * ((argb >> 16) & 0xFF) + 0.71 * ((argb >> 8) & 0xFF) + 0.07 * (argb & 0xFF) + 0.5);
+
+                dst[i] = (argb & 0xFF000000) | (gray << 16) | (gray << 8) | gray;
+            }
+        };
+    }
+
+    static RowFilter discolor() {
+        return (src, dst, w, h, y) -> {
+            for (int i = y * w; i < (y + 1) * w; i++) {
+                dst[i] = (src[i] & 0xFF000000) | 0x00FFFFFF;
+            }
+        };
+    }
+
+    static RowFilter multiply(double red, double green, double blue, double opacity) {
+        return (src, dst, w, h, y) -> {
+            for (int i = y * w; i < (y + 1) * w; i++) {
+                int argb = src[i];
+
+                int a = (int) (((argb >>> 24) & 0xFF) * opacity + 0.5);
+                int r = (int) (((argb >> 16) & 0xFF) * red + 0.5);
+                int g = (int) (((argb >> 8) & 0xFF) * green + 0.5);
+                int b = (int) ((argb & 0xFF) * blue + 0.5);
+
+                dst[i] = (a << 24) | (r << 16) | (g << 8) | b;
+            }
+        };
+    }
+
+    /**
+     * Moves color channels towards given color, alpha is preserved.
+     */
+    static RowFilter tint(double red, double green, double blue, double amount) {
+        int tr = (int) (red * 255 + 0.5);
+        int tg = (int) (green * 255 + 0.5);
+        int tb = (int) (blue * 255 + 0.5);
+
+        return (src, dst, w, h, y) -> {
+            for (int i = y * w; i < (y + 1) * w; i++) {
+                int argb = src[i];
+
+                int r = (argb >> 16) & 0xFF;
+                int g = (argb >> 8) & 0xFF;
+                int b = argb & 0xFF;
+
+                r = (int) (r + (tr - r) * amount + 0.5);
+                g = (int) (g + (tg - g) * amount + 0.5);
+                b = (int) (b + (tb - b) * amount + 0.5);
+
+                dst[i] = (argb & 0xFF000000) | (r << 16) | (g << 8) | b;
+            }
+        };
+    }
+
+    /**
+     * Horizontal pass of a box blur. Expects premultiplied pixels, so that
+     * transparent pixels do not darken edges.
+     */
+    static RowFilter boxBlurHorizontal(int radius) {
+        return (src, dst, w, h, y) -> {
+            int row = y * w;
+            int size = radius * 2 + 1;
+
+            int a = 0, r = 0, g = 0, b = 0;
+
+            // window with edge pixels repeated
+            for (int i = -radius; i <= radius; i++) {
+                int argb = src[row + clamp(i, w)];
+                a += (argb >>> 24) & 0xFF;
+                r += (argb >> 16) & 0xFF;
+                g += (argb >> 8) & 0xFF;
+                b += argb & 0xFF;
+            }
+
+            for (int x = 0; x < w; x++) {
+                dst[row + x] = ((a / size) << 24) | ((r / size) << 16) | ((g / size) << 8) | (b / size);
+
+                int out = src[row + clamp(x - radius, w)];
+                int in = src[row + clamp(x + radius + 1, w)];
+
+                a += ((in >>> 24) & 0xFF) - ((out >>> 24) & 0xFF);
+                r += ((in >> 16) & 0xFF) - ((out >> 16) & 0xFF);
+                g += ((in >> 8) & 0xFF) - ((out >> 8) & 0xFF);
+                b += (in & 0xFF) - (out & 0xFF);
+            }
+        };
+    }
+
+    /**
+     * Vertical pass of a box blur.
+     */
+    static RowFilter boxBlurVertical(int radius) {
+        return (src, dst, w, h, y) -> {
+            int row = y * w;
+            int size = radius * 2 + 1;
+
+            for (int x = 0; x < w; x++) {
+                int a = 0, r = 0, g = 0, b = 0;
+
+                for (int i = y - radius; i <= y + radius; i++) {
+                    int argb = src[clamp(i, h) * w + x];
+                    a += (argb >>> 24) & 0xFF;
+                    r += (argb >> 16) & 0xFF;
+                    g += (argb >> 8) & 0xFF;
+                    b += argb & 0xFF;
+                }
+
+                dst[row + x] = ((a / size) << 24) | ((r / size) << 16) | ((g / size) << 8) | (b / size);
+            }
+        };
+    }
+
+    /**
+     * Fills transparent pixels within given distance of a non-transparent pixel with given color.
+     */
+    static RowFilter outline(int argbColor, int thickness) {
+        return (src, dst, w, h, y) -> {
+            for (int x = 0; x < w; x++) {
+                int i = y * w + x;
+
+                dst[i] = src[i];
+
+                if ((src[i] >>> 24) != 0)
+                    continue;
+
+                search:
+                for (int ny = Math.max(y - thickness, 0); ny <= Math.min(y + thickness, h - 1); ny++) {
+                    for (int nx = Math.max(x - thickness, 0); nx <= Math.min(x + thickness, w - 1); nx++) {
+                        if ((src[ny * w + nx] >>> 24) != 0) {
+                            dst[i] = argbColor;
+                            break search;
+                        }
+                    }
+                }
+            }
+        };
+    }
+
+    private static int clamp(int i, int size) {
+        return i < 0 ? 0 : (i >= size ? size - 1 : i);
+    }
+}
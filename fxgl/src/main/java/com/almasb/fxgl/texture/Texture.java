@@ -32,6 +32,20 @@ public class Texture extends ImageView implements Disposable {
         super(image);
     }
 
+    /**
+     * Constructs new texture that shows given area of the image,
+     * e.g. a region of a texture atlas page.
+     * Pixel operations, such as {@link #toGrayscale()},
+     * only use the area.
+     *
+     * @param image the JavaFX image data
+     * @param region area of the image to show
+     */
+    public Texture(Image image, Rectangle2D region) {
+        super(image);
+        setViewport(region);
+    }
+
     /**
      * Converts the texture to animated texture using
      * the whole texture as a single animation channel.
@@ -69,10 +83,10 @@ public class Texture extends ImageView implements Disposable {
      * AnimatedTexture, use {@link #toAnimatedTexture(int, Duration)}
      * or {@link #toAnimatedTexture(AnimationChannel)} instead.
      *
-     * @return new Texture with same image
+     * @return new Texture with same image and viewport
      */
     public final Texture copy() {
-        return new Texture(getImage());
+        return getViewport() == null ? new Texture(getImage()) : new Texture(getImage(), getViewport());
     }
 
     /**
@@ -95,21 +109,16 @@ public class Texture extends ImageView implements Disposable {
             throw new IllegalArgumentException("minX value of sub-texture cannot be negative");
         if (minY < 0)
             throw new IllegalArgumentException("minY value of sub-texture cannot be negative");
-        if (maxX > getImage().getWidth())
+
+        Image source = getRegionImage();
+
+        if (maxX > source.getWidth())
             throw new IllegalArgumentException("maxX value of sub-texture cannot be greater than image width");
-        if (maxY > getImage().getHeight())
+        if (maxY > source.getHeight())
             throw new IllegalArgumentException("maxY value of sub-texture cannot be greater than image height");
 
-        PixelReader pixelReader = getImage().getPixelReader();
         WritableImage image = new WritableImage(maxX - minX, maxY - minY);
-        PixelWriter pixelWriter = image.getPixelWriter();
-
-        for (int y = minY; y < maxY; y++) {
-            for (int x = minX; x < maxX; x++) {
-                Color color = pixelReader.getColor(x, y);
-                pixelWriter.setColor(x - minX, y - minY, color);
-            }
-        }
+        image.getPixelWriter().setPixels(0, 0, maxX - minX, maxY - minY, source.getPixelReader(), minX, minY);
 
         return new Texture(image);
     }
@@ -127,41 +136,24 @@ public class Texture extends ImageView implements Disposable {
         Image rightImage;
 
         if (direction == HorizontalDirection.LEFT) {
-            leftImage = other.getImage();
-            rightImage = this.getImage();
+            leftImage = other.getRegionImage();
+            rightImage = this.getRegionImage();
         } else {
-            leftImage = this.getImage();
-            rightImage = other.getImage();
+            leftImage = this.getRegionImage();
+            rightImage = other.getRegionImage();
         }
 
         int width = (int) (leftImage.getWidth() + rightImage.getWidth());
         int height = (int) Math.max(leftImage.getHeight(), rightImage.getHeight());
 
-        PixelReader leftReader = leftImage.getPixelReader();
-        PixelReader rightReader = rightImage.getPixelReader();
+        // new image is transparent, so only copy the two images
         WritableImage image = new WritableImage(width, height);
         PixelWriter pixelWriter = image.getPixelWriter();
 
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                Color color;
-                if (x < leftImage.getWidth()) {
-                    if (y < leftImage.getHeight()) {
-                        color = leftReader.getColor(x, y);
-                    } else {
-                        color = Color.TRANSPARENT;
-                    }
-                } else {
-                    if (y < rightImage.getHeight()) {
-                        color = rightReader.getColor(x - (int)leftImage.getWidth(), y);
-                    } else {
-                        color = Color.TRANSPARENT;
-                    }
-                }
-
-                pixelWriter.setColor(x, y, color);
-            }
-        }
+        pixelWriter.setPixels(0, 0, (int) leftImage.getWidth(), (int) leftImage.getHeight(),
+                leftImage.getPixelReader(), 0, 0);
+        pixelWriter.setPixels((int) leftImage.getWidth(), 0, (int) rightImage.getWidth(), (int) rightImage.getHeight(),
+                rightImage.getPixelReader(), 0, 0);
 
         return new Texture(image);
     }
@@ -179,41 +171,24 @@ public class Texture extends ImageView implements Disposable {
         Image bottomImage;
 
         if (direction == VerticalDirection.DOWN) {
-            topImage = this.getImage();
-            bottomImage = other.getImage();
+            topImage = this.getRegionImage();
+            bottomImage = other.getRegionImage();
         } else {
-            topImage = other.getImage();
-            bottomImage = this.getImage();
+            topImage = other.getRegionImage();
+            bottomImage = this.getRegionImage();
         }
 
         int width = (int) Math.max(topImage.getWidth(), bottomImage.getWidth());
         int height = (int) (topImage.getHeight() + bottomImage.getHeight());
 
-        PixelReader topReader = topImage.getPixelReader();
-        PixelReader bottomReader = bottomImage.getPixelReader();
+        // new image is transparent, so only copy the two images
         WritableImage image = new WritableImage(width, height);
         PixelWriter pixelWriter = image.getPixelWriter();
 
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                Color color;
-                if (y < topImage.getHeight()) {
-                    if (x < topImage.getWidth()) {
-                        color = topReader.getColor(x, y);
-                    } else {
-                        color = Color.TRANSPARENT;
-                    }
-                } else {
-                    if (x < bottomImage.getWidth()) {
-                        color = bottomReader.getColor(x, y - (int)topImage.getHeight());
-                    } else {
-                        color = Color.TRANSPARENT;
-                    }
-                }
-
-                pixelWriter.setColor(x, y, color);
-            }
-        }
+        pixelWriter.setPixels(0, 0, (int) topImage.getWidth(), (int) topImage.getHeight(),
+                topImage.getPixelReader(), 0, 0);
+        pixelWriter.setPixels(0, (int) topImage.getHeight(), (int) bottomImage.getWidth(), (int) bottomImage.getHeight(),
+                bottomImage.getPixelReader(), 0, 0);
 
         return new Texture(image);
     }
@@ -222,20 +197,7 @@ public class Texture extends ImageView implements Disposable {
      * @return grayscale version of the texture
      */
     public final Texture toGrayscale() {
-        int w = (int)getImage().getWidth();
-        int h = (int)getImage().getHeight();
-
-        PixelReader reader = getImage().getPixelReader();
-        WritableImage image = new WritableImage(w, h);
-        PixelWriter writer = image.getPixelWriter();
-
-        for (int y = 0; y < h; y++) {
-            for (int x = 0; x < w; x++) {
-                writer.setColor(x, y, reader.getColor(x, y).grayscale());
-            }
-        }
-
-        return new Texture(image);
+        return filter("grayscale", PixelFilters.grayscale());
     }
 
     /**
@@ -245,21 +207,7 @@ public class Texture extends ImageView implements Disposable {
      * @return texture with image discolored
      */
     public final Texture discolor() {
-        int w = (int)getImage().getWidth();
-        int h = (int)getImage().getHeight();
-
-        PixelReader reader = getImage().getPixelReader();
-        WritableImage image = new WritableImage(w, h);
-        PixelWriter writer = image.getPixelWriter();
-
-        for (int y = 0; y < h; y++) {
-            for (int x = 0; x < w; x++) {
-                double opacity = reader.getColor(x, y).getOpacity();
-                writer.setColor(x, y, Color.color(1, 1, 1, opacity));
-            }
-        }
-
-        return new Texture(image);
+        return filter("discolor", PixelFilters.discolor());
     }
 
     /**
@@ -269,29 +217,56 @@ public class Texture extends ImageView implements Disposable {
      * @return new colorized texture
      */
     public final Texture multiplyColor(Color color) {
-        int w = (int) getImage().getWidth();
-        int h = (int) getImage().getHeight();
-
-        PixelReader reader = getImage().getPixelReader();
-        WritableImage coloredImage = new WritableImage(w, h);
-        PixelWriter writer = coloredImage.getPixelWriter();
-
-        for (int y = 0; y < h; y++) {
-            for (int x = 0; x < w; x++) {
-
-                Color c = reader.getColor(x, y);
-                c = Color.color(
-                        c.getRed() * color.getRed(),
-                        c.getGreen() * color.getGreen(),
-                        c.getBlue() * color.getBlue(),
-                        c.getOpacity() * color.getOpacity()
-                );
-
-                writer.setColor(x, y, c);
-            }
-        }
+        return filter("multiply" + color,
+                PixelFilters.multiply(color.getRed(), color.getGreen(), color.getBlue(), color.getOpacity()));
+    }
 
-        return new Texture(coloredImage);
+    /**
+     * Moves this texture's pixel colors towards given color.
+     * Opacity of pixels is preserved.
+     *
+     * @param color to use
+     * @param amount value in [0..1], where 0 leaves colors unchanged and 1 replaces them
+     * @return new tinted texture
+     */
+    public final Texture tint(Color color, double amount) {
+        return filter("tint" + color + amount,
+                PixelFilters.tint(color.getRed(), color.getGreen(), color.getBlue(), amount));
+    }
+
+    /**
+     * Blurs this texture using a box blur.
+     * The size of the texture does not change, so blur near edges is cut.
+     *
+     * @param radius blur radius in pixels
+     * @return new blurred texture
+     */
+    public final Texture blur(int radius) {
+        if (radius < 1)
+            throw new IllegalArgumentException("Blur radius must be positive");
+
+        // premultiplied, so that transparent pixels do not bleed their color
+        return new Texture(PixelFilters.filter(getImage(), getViewport(), "blur" + radius,
+                WritablePixelFormat.getIntArgbPreInstance(),
+                PixelFilters.boxBlurHorizontal(radius), PixelFilters.boxBlurVertical(radius)));
+    }
+
+    /**
+     * Colors transparent pixels next to non-transparent pixels with given color.
+     * The size of the texture does not change, so leave transparent space around the image
+     * for the outline to be fully visible.
+     *
+     * @param color outline color
+     * @param thickness outline thickness in pixels
+     * @return new outlined texture
+     */
+    public final Texture outline(Color color, int thickness) {
+        int argb = ((int) Math.round(color.getOpacity() * 255) << 24)
+                | ((int) Math.round(color.getRed() * 255) << 16)
+                | ((int) Math.round(color.getGreen() * 255) << 8)
+                | (int) Math.round(color.getBlue() * 255);
+
+        return filter("outline" + color + thickness, PixelFilters.outline(argb, thickness));
     }
 
     /**
@@ -317,6 +292,44 @@ public class Texture extends ImageView implements Disposable {
         setFitWidth(other.getFitWidth());
         setFitHeight(other.getFitHeight());
         setImage(other.getImage());
+        setViewport(other.getViewport());
+    }
+
+    /**
+     * Applies filter to the image within viewport.
+     * Recent results are memoized, so filtering same image with same arguments again is cheap.
+     * The returned texture always has its own image.
+     */
+    private Texture filter(String key, PixelFilters.RowFilter filter) {
+        return new Texture(PixelFilters.filter(getImage(), getViewport(), key,
+                WritablePixelFormat.getIntArgbInstance(), filter));
+    }
+
+    /**
+     * Filter results are memoized per source image, so if a source image
+     * (e.g. a {@link WritableImage}) is modified after filtering,
+     * call this to discard stale results.
+     */
+    public static void clearFilterCache() {
+        PixelFilters.clearCache();
+    }
+
+    /**
+     * @return image data within viewport, or whole image if viewport is not set
+     */
+    private Image getRegionImage() {
+        Rectangle2D viewport = getViewport();
+        if (viewport == null)
+            return getImage();
+
+        int w = (int) viewport.getWidth();
+        int h = (int) viewport.getHeight();
+
+        WritableImage image = new WritableImage(w, h);
+        image.getPixelWriter().setPixels(0, 0, w, h, getImage().getPixelReader(),
+                (int) viewport.getMinX(), (int) viewport.getMinY());
+
+        return image;
     }
 
     @Override
@@ -0,0 +1,74 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.texture;
+
+import com.almasb.fxgl.core.collection.Array;
+import com.almasb.fxgl.core.collection.ObjectMap;
+import javafx.scene.image.Image;
+
+/**
+ * A set of large images (pages), each containing many packed textures (regions).
+ * Textures created from an atlas share page images, which allows
+ * drawing many of them with few images, e.g. via {@link com.almasb.fxgl.entity.component.SpriteComponent}.
+ * Use {@link TextureAtlasBuilder} to create an atlas.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class TextureAtlas {
+
+    private final Array<Image> pages;
+    private final ObjectMap<String, AtlasRegion> regions;
+
+    TextureAtlas(Array<Image> pages, ObjectMap<String, AtlasRegion> regions) {
+        this.pages = pages;
+        this.regions = regions;
+    }
+
+    /**
+     * @return number of page images
+     */
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    public Image getPage(int index) {
+        return pages.get(index);
+    }
+
+    /**
+     * @return number of regions in all pages
+     */
+    public int getRegionCount() {
+        return regions.size;
+    }
+
+    public boolean hasRegion(String name) {
+        return regions.containsKey(name);
+    }
+
+    /**
+     * @param name region name
+     * @return region with given name
+     * @throws IllegalArgumentException if no such region exists
+     */
+    public AtlasRegion getRegion(String name) {
+        AtlasRegion region = regions.get(name);
+        if (region == null)
+            throw new IllegalArgumentException("Region " + name + " not found in atlas");
+
+        return region;
+    }
+
+    /**
+     * @param name region name
+     * @return new texture that shows region with given name
+     * @throws IllegalArgumentException if no such region exists
+     */
+    public Texture getTexture(String name) {
+        return getRegion(name).toTexture();
+    }
+}
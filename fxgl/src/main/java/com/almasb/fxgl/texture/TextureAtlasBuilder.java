@@ -0,0 +1,301 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.texture;
+
+import com.almasb.fxgl.core.collection.Array;
+import com.almasb.fxgl.core.collection.IntArray;
+import com.almasb.fxgl.core.collection.ObjectMap;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Packs images (or areas of images, e.g. animation frames) into texture atlas pages
+ * using skyline bottom-left packing.
+ * Images are sorted by height before packing, which keeps the skyline flat.
+ *
+ * <pre>
+ *     TextureAtlas atlas = new TextureAtlasBuilder(2048, 2048)
+ *             .add("player", playerImage)
+ *             .addFrames("enemy_walk", enemySheet, 64, 64)
+ *             .build();
+ * </pre>
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public final class TextureAtlasBuilder {
+
+    private static final class Entry {
+        final String name;
+        final Image image;
+        final int srcX, srcY, width, height;
+
+        int page, x, y;
+
+        Entry(String name, Image image, int srcX, int srcY, int width, int height) {
+            this.name = name;
+            this.image = image;
+            this.srcX = srcX;
+            this.srcY = srcY;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    /**
+     * Skyline of a single page, stored as segments: x, y, width.
+     */
+    private static final class Skyline {
+        final IntArray xs = new IntArray();
+        final IntArray ys = new IntArray();
+        final IntArray widths = new IntArray();
+
+        int usedHeight = 0;
+
+        Skyline(int pageWidth) {
+            xs.add(0);
+            ys.add(0);
+            widths.add(pageWidth);
+        }
+    }
+
+    private final int pageWidth;
+    private final int pageHeight;
+    private final int padding;
+
+    private final Array<Entry> entries = new Array<>();
+    private final ObjectMap<String, Entry> names = new ObjectMap<>();
+
+    /**
+     * Constructs builder with 1 pixel padding between regions.
+     *
+     * @param pageWidth max width of a page
+     * @param pageHeight max height of a page
+     */
+    public TextureAtlasBuilder(int pageWidth, int pageHeight) {
+        this(pageWidth, pageHeight, 1);
+    }
+
+    /**
+     * @param pageWidth max width of a page
+     * @param pageHeight max height of a page
+     * @param padding number of empty pixels between regions, which prevents bleeding when scaled
+     */
+    public TextureAtlasBuilder(int pageWidth, int pageHeight, int padding) {
+        if (pageWidth <= 0 || pageHeight <= 0)
+            throw new IllegalArgumentException("Page size must be positive");
+
+        this.pageWidth = pageWidth;
+        this.pageHeight = pageHeight;
+        this.padding = padding;
+    }
+
+    /**
+     * Adds the whole image as a region.
+     *
+     * @param name region name
+     * @param image the image
+     * @return this builder
+     */
+    public TextureAtlasBuilder add(String name, Image image) {
+        return add(name, image, new Rectangle2D(0, 0, image.getWidth(), image.getHeight()));
+    }
+
+    /**
+     * Adds given area of the image as a region.
+     *
+     * @param name region name
+     * @param image the image
+     * @param area area of the image
+     * @return this builder
+     */
+    public TextureAtlasBuilder add(String name, Image image, Rectangle2D area) {
+        if (names.containsKey(name))
+            throw new IllegalArgumentException("Region " + name + " already added");
+
+        int w = (int) area.getWidth();
+        int h = (int) area.getHeight();
+
+        if (w + padding > pageWidth || h + padding > pageHeight)
+            throw new IllegalArgumentException("Region " + name + " is larger than atlas page");
+
+        Entry entry = new Entry(name, image, (int) area.getMinX(), (int) area.getMinY(), w, h);
+        entries.add(entry);
+        names.put(name, entry);
+
+        return this;
+    }
+
+    /**
+     * Adds each frame of a sprite sheet as a region named name + "_" + frame index,
+     * where frames are indexed row by row, same as in {@link AnimationChannel}.
+     *
+     * @param name frames name prefix
+     * @param spriteSheet the sprite sheet image
+     * @param frameWidth frame width
+     * @param frameHeight frame height
+     * @return this builder
+     */
+    public TextureAtlasBuilder addFrames(String name, Image spriteSheet, int frameWidth, int frameHeight) {
+        int framesPerRow = (int) spriteSheet.getWidth() / frameWidth;
+        int rows = (int) spriteSheet.getHeight() / frameHeight;
+
+        for (int i = 0; i < framesPerRow * rows; i++) {
+            add(name + "_" + i, spriteSheet, new Rectangle2D(
+                    i % framesPerRow * frameWidth, i / framesPerRow * frameHeight, frameWidth, frameHeight));
+        }
+
+        return this;
+    }
+
+    /**
+     * Packs all added regions and copies their pixels into page images.
+     *
+     * @return texture atlas
+     */
+    public TextureAtlas build() {
+        Array<Entry> sorted = new Array<>(entries);
+        sorted.sort((e1, e2) -> e1.height != e2.height ? e2.height - e1.height : e2.width - e1.width);
+
+        Array<Skyline> skylines = new Array<>();
+
+        for (Entry entry : sorted) {
+            int w = entry.width + padding;
+            int h = entry.height + padding;
+
+            boolean placed = false;
+
+            for (int page = 0; page < skylines.size(); page++) {
+                if (place(skylines.get(page), entry, w, h)) {
+                    entry.page = page;
+                    placed = true;
+                    break;
+                }
+            }
+
+            if (!placed) {
+                Skyline skyline = new Skyline(pageWidth);
+                skylines.add(skyline);
+
+                place(skyline, entry, w, h);
+                entry.page = skylines.size() - 1;
+            }
+        }
+
+        Array<Image> pages = new Array<>(skylines.size());
+        Array<PixelWriter> writers = new Array<>(skylines.size());
+
+        for (Skyline skyline : skylines) {
+            // pages are trimmed to used height
+            WritableImage page = new WritableImage(pageWidth, Math.max(skyline.usedHeight, 1));
+            pages.add(page);
+            writers.add(page.getPixelWriter());
+        }
+
+        ObjectMap<String, AtlasRegion> regions = new ObjectMap<>();
+
+        for (Entry entry : entries) {
+            writers.get(entry.page).setPixels(entry.x, entry.y, entry.width, entry.height,
+                    entry.image.getPixelReader(), entry.srcX, entry.srcY);
+
+            regions.put(entry.name, new AtlasRegion(entry.name, pages.get(entry.page),
+                    entry.x, entry.y, entry.width, entry.height));
+        }
+
+        return new TextureAtlas(pages, regions);
+    }
+
+    /**
+     * Finds the lowest position (leftmost on ties) where a w x h rectangle fits
+     * on the skyline and places the entry there.
+     *
+     * @return false if the rectangle does not fit in the page
+     */
+    private boolean place(Skyline skyline, Entry entry, int w, int h) {
+        int bestIndex = -1;
+        int bestX = 0;
+        int bestY = Integer.MAX_VALUE;
+
+        for (int i = 0; i < skyline.xs.size; i++) {
+            int x = skyline.xs.get(i);
+            if (x + w > pageWidth)
+                break;
+
+            // rectangle rests on the highest segment it spans
+            int y = 0;
+            int remaining = w;
+            for (int j = i; remaining > 0; j++) {
+                y = Math.max(y, skyline.ys.get(j));
+                remaining -= skyline.widths.get(j);
+            }
+
+            if (y + h <= pageHeight && y < bestY) {
+                bestIndex = i;
+                bestX = x;
+                bestY = y;
+            }
+        }
+
+        if (bestIndex == -1)
+            return false;
+
+        entry.x = bestX;
+        entry.y = bestY;
+
+        addSegment(skyline, bestIndex, bestX, bestY + h, w);
+
+        skyline.usedHeight = Math.max(skyline.usedHeight, bestY + h);
+
+        return true;
+    }
+
+    /**
+     * Inserts a new segment at index and shrinks or removes the segments it covers.
+     */
+    private void addSegment(Skyline skyline, int index, int x, int y, int width) {
+        skyline.xs.insert(index, x);
+        skyline.ys.insert(index, y);
+        skyline.widths.insert(index, width);
+
+        int end = x + width;
+
+        int i = index + 1;
+        while (i < skyline.xs.size) {
+            int segX = skyline.xs.get(i);
+            int segEnd = segX + skyline.widths.get(i);
+
+            if (segX >= end)
+                break;
+
+            if (segEnd <= end) {
+                removeSegment(skyline, i);
+            } else {
+                skyline.xs.set(i, end);
+                skyline.widths.set(i, segEnd - end);
+                break;
+            }
+        }
+
+        // merge neighbours of same height
+        i = 0;
+        while (i < skyline.xs.size - 1) {
+            if (skyline.ys.get(i) == skyline.ys.get(i + 1)) {
+                skyline.widths.set(i, skyline.widths.get(i) + skyline.widths.get(i + 1));
+                removeSegment(skyline, i + 1);
+            } else {
+                i++;
+            }
+        }
+    }
+
+    private void removeSegment(Skyline skyline, int index) {
+        skyline.xs.removeIndex(index);
+        skyline.ys.removeIndex(index);
+        skyline.widths.removeIndex(index);
+    }
+}
@@ -7,9 +7,9 @@
 package com.almasb.fxgl.ai
 
 import com.almasb.fxgl.ai.btree.BehaviorTree
+import com.almasb.fxgl.ai.btree.SharedBehaviorTree
 import com.almasb.fxgl.app.ApplicationMode
 import com.almasb.fxgl.app.FXGL
-import com.almasb.fxgl.ecs.Control
 import com.almasb.fxgl.ecs.Entity
 import com.almasb.fxgl.entity.GameEntity
 import java.util.*
@@ -20,10 +20,20 @@ import java.util.*
  * @author Almas Baimagambetov (almaslvl@gmail.com)
  */
 class AIControl
-private constructor() : Control() {
+private constructor() : SchedulableControl() {
 
     private lateinit var behaviorTree: BehaviorTree<GameEntity>
 
+    /**
+     * Non-null if this control steps a tree shared with other agents.
+     */
+    private var sharedTree: SharedBehaviorTree<GameEntity>? = null
+
+    /**
+     * Per-agent running state of the shared tree.
+     */
+    private lateinit var sharedState: IntArray
+
     val bubble = AIBubble()
 
     /**
@@ -36,30 +46,75 @@ private constructor() : Control() {
     /**
      * Constructs AI control with behavior tree parsed from the asset with name [treeName].
      */
-    constructor(treeName: String) : this() {
+    constructor(treeName: String) : this(treeName, false)
 
-        var tree = parsedTreesCache[treeName]
+    /**
+     * Constructs AI control with behavior tree parsed from the asset with name [treeName].
+     * If [shared] is true, the task graph is not cloned but shared between all controls
+     * with the same tree name, and only a compact per-agent state is allocated.
+     * All tasks of a shared tree must support [SharedBehaviorTree].
+     */
+    constructor(treeName: String, shared: Boolean) : this() {
 
-        if (tree == null) {
-            tree = FXGL.getAssetLoader().loadBehaviorTree(treeName)
-            parsedTreesCache[treeName] = tree
-        }
+        if (shared) {
+            var tree = sharedTreesCache[treeName]
 
-        this.behaviorTree = tree!!.cloneTask() as BehaviorTree<GameEntity>
+            if (tree == null) {
+                tree = SharedBehaviorTree(loadTree(treeName).cloneTask() as BehaviorTree<GameEntity>)
+                sharedTreesCache[treeName] = tree
+            }
+
+            sharedTree = tree
+            sharedState = tree.newState()
+        } else {
+            this.behaviorTree = loadTree(treeName).cloneTask() as BehaviorTree<GameEntity>
+        }
     }
 
     companion object {
 
         private val parsedTreesCache = HashMap<String, BehaviorTree<GameEntity> >()
+        private val sharedTreesCache = HashMap<String, SharedBehaviorTree<GameEntity> >()
+
+        private fun loadTree(treeName: String): BehaviorTree<GameEntity> {
+            var tree = parsedTreesCache[treeName]
+
+            if (tree == null) {
+                tree = FXGL.getAssetLoader().loadBehaviorTree(treeName)
+                parsedTreesCache[treeName] = tree
+            }
+
+            return tree!!
+        }
     }
 
+    /**
+     * A behavior tree is parallel safe if its tasks only read world state and write state
+     * of this agent's entity that is not bound to the scene graph.
+     * Other mutations must be recorded via [defer].
+     * Shared trees cannot be stepped in parallel.
+     */
+    override var isParallelSafe: Boolean
+        get() = super.isParallelSafe
+        set(value) {
+            if (value && sharedTree != null)
+                throw IllegalStateException("Shared behavior trees cannot be stepped in parallel")
+
+            super.isParallelSafe = value
+        }
+
     fun setBubbleMessage(message: String) {
-        bubble.setMessage(message)
+        // the bubble is part of the scene graph
+        if (isSteppingInParallel)
+            defer(Runnable { bubble.setMessage(message) })
+        else
+            bubble.setMessage(message)
     }
 
     override fun onAdded(entity: Entity) {
         if (entity is GameEntity) {
-            behaviorTree.`object` = entity
+            if (sharedTree == null)
+                behaviorTree.`object` = entity
 
             if (FXGL.getSettings().applicationMode != ApplicationMode.RELEASE)
                 entity.viewComponent.view.addNode(bubble)
@@ -69,7 +124,13 @@ private constructor() : Control() {
         }
     }
 
-    override fun onUpdate(entity: Entity, tpf: Double) {
-        behaviorTree.step()
+    override fun step(entity: Entity, tpf: Double) {
+        val tree = sharedTree
+
+        if (tree != null) {
+            tree.step(entity as GameEntity, sharedState)
+        } else {
+            behaviorTree.step()
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,401 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.ai
+
+import com.almasb.fxgl.core.collection.Array
+import com.almasb.fxgl.ecs.Entity
+import com.almasb.fxgl.ecs.EntityWorldListener
+import com.almasb.fxgl.entity.component.PositionComponent
+import com.almasb.fxgl.scene.Viewport
+import java.util.concurrent.ForkJoinPool
+import java.util.concurrent.RecursiveAction
+
+/**
+ * Distributes AI steps of [SchedulableControl]s ([AIControl], [GoapControl], [StateMachineControl])
+ * across frames.
+ * Agents are visited round-robin and stepped while the per-frame time budget allows,
+ * so agents that did not fit into this frame are the first to be stepped in the next one.
+ * The [lodPolicy] decides how often (every Nth frame) each agent is due for a step.
+ * Each step receives the time accumulated since the previous step of that agent.
+ *
+ * If [parallelPool] is set, due agents that are [SchedulableControl.isParallelSafe]
+ * are stepped concurrently on that pool once the sequential agents of the frame have been stepped.
+ * Commands deferred by these agents are then applied on the update thread, agent by agent.
+ * Parallel safe agents are subject to the [lodPolicy] but not to the frame budget:
+ * all of them that are due are stepped in the frame, since their steps do not block the update thread
+ * other than the wait for the pool to finish.
+ *
+ * Add the scheduler to the game world as a listener to drive it:
+ * getGameWorld().addWorldListener(scheduler).
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class AIScheduler
+@JvmOverloads constructor(
+
+        /**
+         * Max time in milliseconds spent on AI steps per frame.
+         * At least one step is always performed in a frame.
+         * Steps of parallel safe agents do not count against the budget.
+         */
+        var frameBudget: Double = 2.0) : EntityWorldListener {
+
+    /**
+     * Decides how often an agent is stepped.
+     */
+    interface LODPolicy {
+
+        /**
+         * @return number of frames between two steps of the agent, 1 means every frame
+         */
+        fun period(entity: Entity): Int
+    }
+
+    companion object {
+
+        /**
+         * Max number of agents stepped by a single fork join task.
+         */
+        private const val PARALLEL_BATCH_SIZE = 32
+
+        /**
+         * Every agent is due every frame, the budget alone decides who is stepped.
+         */
+        @JvmField val EVERY_FRAME: LODPolicy = object : LODPolicy {
+            override fun period(entity: Entity) = 1
+        }
+
+        /**
+         * Agents inside the viewport are due every frame,
+         * agents within [margin] pixels of the viewport every [nearPeriod] frames
+         * and all other agents every [farPeriod] frames.
+         * Agents without position are always due every frame.
+         */
+        @JvmStatic fun viewportLOD(viewport: Viewport, margin: Double, nearPeriod: Int, farPeriod: Int): LODPolicy {
+            return object : LODPolicy {
+                override fun period(entity: Entity): Int {
+                    val position = entity.getComponent(PositionComponent::class.java) ?: return 1
+
+                    val minX = viewport.getX()
+                    val minY = viewport.getY()
+                    val maxX = minX + viewport.width
+                    val maxY = minY + viewport.height
+
+                    val x = position.x
+                    val y = position.y
+
+                    if (x >= minX && x <= maxX && y >= minY && y <= maxY)
+                        return 1
+
+                    if (x >= minX - margin && x <= maxX + margin && y >= minY - margin && y <= maxY + margin)
+                        return nearPeriod
+
+                    return farPeriod
+                }
+            }
+        }
+    }
+
+    var lodPolicy: LODPolicy = EVERY_FRAME
+
+    /**
+     * Pool used to step parallel safe agents, null (default) means all agents are stepped on the update thread.
+     */
+    var parallelPool: ForkJoinPool? = null
+
+    /**
+     * Returns current time in nanoseconds, used to measure the frame budget.
+     */
+    var clock: () -> Long = { System.nanoTime() }
+
+    private class Slot(val control: SchedulableControl) {
+        var accumulatedTPF = 0.0
+        var lastStepFrame = 0L
+        var removed = false
+    }
+
+    private val slots = Array<Slot>(true, 64)
+
+    /**
+     * Due parallel safe agents of the current frame.
+     */
+    private val parallelSlots = Array<Slot>(true, 64)
+
+    private var cursor = 0
+    private var frame = 0L
+    private var hasRemovedSlots = false
+
+    /**
+     * Number of frames in which the budget was exceeded or due agents had to be deferred.
+     */
+    var framesOverBudget = 0L
+        private set
+
+    /**
+     * Total number of due steps that were postponed to a later frame.
+     */
+    var deferredSteps = 0L
+        private set
+
+    /**
+     * Number of steps performed in the last frame.
+     */
+    var lastFrameSteps = 0
+        private set
+
+    /**
+     * Number of steps performed on the parallel pool in the last frame.
+     */
+    var lastFrameParallelSteps = 0
+        private set
+
+    /**
+     * Time in milliseconds spent on AI in the last frame.
+     */
+    var lastFrameTime = 0.0
+        private set
+
+    /**
+     * Highest time in milliseconds spent on AI in a single frame.
+     */
+    var maxFrameTime = 0.0
+        private set
+
+    /**
+     * @return number of agents driven by this scheduler
+     */
+    fun size() = slots.size()
+
+    /**
+     * Starts driving given control.
+     * The control stops stepping itself in its onUpdate().
+     */
+    fun add(control: SchedulableControl) {
+        if (control.scheduler === this)
+            return
+
+        control.scheduler?.remove(control)
+        control.scheduler = this
+
+        val slot = Slot(control)
+        slot.lastStepFrame = frame
+        slots.add(slot)
+    }
+
+    /**
+     * Stops driving given control.
+     * The control goes back to stepping itself every frame.
+     */
+    fun remove(control: SchedulableControl) {
+        if (control.scheduler !== this)
+            return
+
+        control.scheduler = null
+
+        for (i in 0..slots.size() - 1) {
+            val slot = slots[i]
+            if (slot.control === control) {
+                // actual removal is delayed, since this may be called during a step
+                slot.removed = true
+                hasRemovedSlots = true
+                break
+            }
+        }
+    }
+
+    fun resetStatistics() {
+        framesOverBudget = 0
+        deferredSteps = 0
+        lastFrameSteps = 0
+        lastFrameParallelSteps = 0
+        lastFrameTime = 0.0
+        maxFrameTime = 0.0
+    }
+
+    /**
+     * Performs AI steps of due agents within the frame budget.
+     */
+    fun onUpdate(tpf: Double) {
+        frame++
+
+        val start = clock()
+        val budget = (frameBudget * 1_000_000).toLong()
+
+        val size = slots.size()
+        val pool = parallelPool
+
+        for (i in 0..size - 1) {
+            slots[i].accumulatedTPF += tpf
+        }
+
+        var steps = 0
+        var deferred = 0
+        var visited = 0
+
+        while (visited < size) {
+            val slot = slots[(cursor + visited) % size]
+
+            if (!isDue(slot)) {
+                visited++
+                continue
+            }
+
+            if (steps > 0 && clock() - start >= budget) {
+                deferred = countDue(visited, size)
+                break
+            }
+
+            if (pool != null && slot.control.isParallelSafe) {
+                parallelSlots.add(slot)
+            } else {
+                slot.control.step(slot.control.entity, slot.accumulatedTPF)
+                slot.accumulatedTPF = 0.0
+            }
+
+            slot.lastStepFrame = frame
+
+            steps++
+            visited++
+        }
+
+        // next frame resumes with the first agent we did not get to
+        if (size > 0)
+            cursor = (cursor + visited) % size
+
+        lastFrameParallelSteps = parallelSlots.size()
+
+        if (pool != null && parallelSlots.size() > 0)
+            stepInParallel(pool)
+
+        val time = (clock() - start) / 1_000_000.0
+
+        lastFrameSteps = steps
+        lastFrameTime = time
+
+        if (time > maxFrameTime)
+            maxFrameTime = time
+
+        if (deferred > 0 || time > frameBudget) {
+            framesOverBudget++
+            deferredSteps += deferred
+        }
+
+        if (hasRemovedSlots)
+            compact()
+    }
+
+    private fun stepInParallel(pool: ForkJoinPool) {
+        val size = parallelSlots.size()
+
+        for (i in 0..size - 1) {
+            parallelSlots[i].control.isSteppingInParallel = true
+        }
+
+        try {
+            pool.invoke(StepTask(parallelSlots, 0, size))
+        } finally {
+            for (i in 0..size - 1) {
+                val slot = parallelSlots[i]
+                slot.control.isSteppingInParallel = false
+                slot.accumulatedTPF = 0.0
+            }
+
+            var error: Exception? = null
+
+            // sync point: apply world mutations in a deterministic order
+            for (i in 0..size - 1) {
+                try {
+                    parallelSlots[i].control.applyCommands()
+                } catch (e: Exception) {
+                    // commands of other agents are still applied
+                    if (error == null)
+                        error = e
+                }
+            }
+
+            parallelSlots.clear()
+
+            if (error != null)
+                throw error
+        }
+    }
+
+    private class StepTask(private val batch: Array<Slot>, private val from: Int, private val to: Int) : RecursiveAction() {
+
+        override fun compute() {
+            if (to - from <= PARALLEL_BATCH_SIZE) {
+                for (i in from..to - 1) {
+                    val slot = batch[i]
+                    slot.control.step(slot.control.entity, slot.accumulatedTPF)
+                }
+            } else {
+                val mid = (from + to) ushr 1
+                invokeAll(StepTask(batch, from, mid), StepTask(batch, mid, to))
+            }
+        }
+    }
+
+    private fun isDue(slot: Slot): Boolean {
+        if (slot.removed)
+            return false
+
+        val entity = slot.control.entity
+
+        if (entity == null || !entity.isActive || slot.control.isPaused)
+            return false
+
+        return frame - slot.lastStepFrame >= lodPolicy.period(entity)
+    }
+
+    private fun countDue(from: Int, size: Int): Int {
+        var count = 0
+        for (i in from..size - 1) {
+            if (isDue(slots[(cursor + i) % size]))
+                count++
+        }
+        return count
+    }
+
+    private fun compact() {
+        var i = 0
+        while (i < slots.size()) {
+            if (slots[i].removed) {
+                slots.removeIndex(i)
+
+                if (i < cursor)
+                    cursor--
+            } else {
+                i++
+            }
+        }
+
+        if (cursor >= slots.size())
+            cursor = 0
+
+        hasRemovedSlots = false
+    }
+
+    override fun onEntityAdded(entity: Entity) {
+    }
+
+    override fun onEntityRemoved(entity: Entity) {
+    }
+
+    override fun onWorldUpdate(tpf: Double) {
+        onUpdate(tpf)
+    }
+
+    override fun onWorldReset() {
+        for (i in 0..slots.size() - 1) {
+            slots[i].control.scheduler = null
+        }
+
+        slots.clear()
+        cursor = 0
+        hasRemovedSlots = false
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.ai
+
+import com.almasb.fxgl.core.collection.Array
+import com.almasb.fxgl.ecs.Control
+import com.almasb.fxgl.ecs.Entity
+
+/**
+ * A control whose AI step can either run every frame (default)
+ * or be driven by an [AIScheduler].
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+abstract class SchedulableControl : Control() {
+
+    /**
+     * The scheduler driving this control or null if the control is updated every frame.
+     */
+    var scheduler: AIScheduler? = null
+        internal set
+
+    /**
+     * Set to true if [step] only reads world state and writes state owned by this agent.
+     * An [AIScheduler] with a parallel pool may then step this control on a worker thread.
+     * Any other mutation (world, scene graph, other entities) must go through [defer].
+     */
+    open var isParallelSafe = false
+
+    /**
+     * True while this control is being stepped on a worker thread.
+     */
+    var isSteppingInParallel = false
+        internal set
+
+    private val commands = Array<Runnable>()
+
+    /**
+     * Runs [command] immediately, or, if this control is being stepped in parallel,
+     * records it to be run on the update thread once all agents have been stepped.
+     */
+    fun defer(command: Runnable) {
+        if (isSteppingInParallel)
+            commands.add(command)
+        else
+            command.run()
+    }
+
+    /**
+     * Runs commands recorded during the last parallel step in the order they were recorded.
+     * If a command throws, the remaining commands are dropped.
+     */
+    internal fun applyCommands() {
+        try {
+            for (i in 0..commands.size() - 1) {
+                commands[i].run()
+            }
+        } finally {
+            commands.clear()
+        }
+    }
+
+    /**
+     * Performs a single AI step.
+     *
+     * @param tpf time elapsed since the last step of this control
+     */
+    abstract fun step(entity: Entity, tpf: Double)
+
+    override final fun onUpdate(entity: Entity, tpf: Double) {
+        if (scheduler == null)
+            step(entity, tpf)
+    }
+
+    override fun onRemoved(entity: Entity) {
+        scheduler?.remove(this)
+    }
+}
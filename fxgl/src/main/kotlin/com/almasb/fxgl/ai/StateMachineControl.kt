@@ -0,0 +1,23 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.ai
+
+import com.almasb.fxgl.ai.fsm.StateMachine
+import com.almasb.fxgl.ecs.Entity
+
+/**
+ * Allows attaching a state machine to a game entity, so that
+ * it can be updated every frame or by an [AIScheduler].
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class StateMachineControl(val stateMachine: StateMachine<*, *>) : SchedulableControl() {
+
+    override fun step(entity: Entity, tpf: Double) {
+        stateMachine.update()
+    }
+}
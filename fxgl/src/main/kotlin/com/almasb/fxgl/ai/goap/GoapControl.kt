@@ -6,7 +6,7 @@
 
 package com.almasb.fxgl.ai.goap
 
-import com.almasb.fxgl.ecs.Control
+import com.almasb.fxgl.ai.SchedulableControl
 import com.almasb.fxgl.ecs.Entity
 import com.almasb.fxgl.ecs.component.Required
 import com.almasb.fxgl.entity.Entities
@@ -22,7 +22,7 @@ import java.util.*
 @Required(PositionComponent::class)
 class GoapControl(private val agent: GoapAgent // this is the implementing class that provides our world data and listens to feedback on planning
                   , private val moveSpeed: Double,
-                  actions: Set<GoapAction>) : Control() {
+                  actions: Set<GoapAction>) : SchedulableControl() {
 
     private val stateMachine = FSM()
 
@@ -62,7 +62,7 @@ class GoapControl(private val agent: GoapAgent // this is the implementing class
 
     private var tpf: Double = 0.0
 
-    override fun onUpdate(entity: Entity, tpf: Double) {
+    override fun step(entity: Entity, tpf: Double) {
         this.tpf = tpf
         stateMachine.update(entity)
     }
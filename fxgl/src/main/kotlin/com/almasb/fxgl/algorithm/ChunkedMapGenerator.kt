@@ -0,0 +1,193 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.algorithm
+
+import com.almasb.fxgl.core.math.PerlinNoise2D
+import java.util.*
+import java.util.stream.Collectors
+
+/**
+ * Generates an unbounded map in fixed-size chunks on demand.
+ * Chunks are generated from seeded noise, so the same chunk coordinates
+ * always produce the same tiles, regardless of the order chunks are generated in.
+ * This allows chunks far from the viewport to be evicted and regenerated later.
+ *
+ * All coordinates passed to this class are in tiles.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class ChunkedMapGenerator
+@JvmOverloads constructor(
+
+        val seed: Long,
+
+        /**
+         * Number of tiles in each dimension of a chunk.
+         */
+        val chunkSize: Int = 64,
+
+        /**
+         * Noise frequency, lower values produce larger features.
+         */
+        val frequency: Double = 1.0 / 32,
+
+        /**
+         * Number of noise layers.
+         */
+        val octaves: Int = 4,
+
+        /**
+         * Tiles with noise below this value are [TileType.WATER], others are [TileType.EARTH].
+         */
+        val waterLevel: Float = 0.0f) {
+
+    /**
+     * Chunks further than this many chunks from the viewport are evicted.
+     * Values less than the margin passed to [update] are treated as the margin.
+     */
+    var keepDistance = 2
+
+    private val noise = PerlinNoise2D(seed)
+
+    private val chunks = HashMap<Long, MapChunk>()
+
+    init {
+        if (chunkSize < 1)
+            throw IllegalArgumentException("Chunk size must be positive")
+    }
+
+    /**
+     * @return number of chunks currently in memory
+     */
+    fun getLoadedChunkCount() = chunks.size
+
+    /**
+     * @return chunks currently in memory
+     */
+    fun getLoadedChunks(): Collection<MapChunk> = Collections.unmodifiableCollection(chunks.values)
+
+    /**
+     * @return chunk with given chunk coordinates, generated if needed
+     */
+    fun getChunk(chunkX: Int, chunkY: Int): MapChunk {
+        val key = key(chunkX, chunkY)
+
+        var chunk = chunks[key]
+
+        if (chunk == null) {
+            chunk = generateChunk(chunkX, chunkY)
+            chunks[key] = chunk
+        }
+
+        return chunk
+    }
+
+    fun getTileType(tileX: Int, tileY: Int): TileType {
+        val chunk = getChunk(Math.floorDiv(tileX, chunkSize), Math.floorDiv(tileY, chunkSize))
+
+        return chunk.getType(Math.floorMod(tileX, chunkSize), Math.floorMod(tileY, chunkSize))
+    }
+
+    fun getNoise(tileX: Int, tileY: Int): Float {
+        val chunk = getChunk(Math.floorDiv(tileX, chunkSize), Math.floorDiv(tileY, chunkSize))
+
+        return chunk.getNoise(Math.floorMod(tileX, chunkSize), Math.floorMod(tileY, chunkSize))
+    }
+
+    /**
+     * Makes sure all chunks covering the visible area plus [margin] chunks around it are generated,
+     * generating the missing ones in parallel, and evicts chunks further than [keepDistance] chunks away.
+     * Chunks within [margin] are never evicted, even if [keepDistance] is less than [margin],
+     * so that they are not regenerated on every call.
+     *
+     * @return number of newly generated chunks
+     */
+    fun update(minTileX: Int, minTileY: Int, maxTileX: Int, maxTileY: Int, margin: Int): Int {
+        val minChunkX = Math.floorDiv(minTileX, chunkSize)
+        val minChunkY = Math.floorDiv(minTileY, chunkSize)
+        val maxChunkX = Math.floorDiv(maxTileX, chunkSize)
+        val maxChunkY = Math.floorDiv(maxTileY, chunkSize)
+
+        val distance = Math.max(keepDistance, margin)
+
+        evict(minChunkX - distance, minChunkY - distance, maxChunkX + distance, maxChunkY + distance)
+
+        val missing = ArrayList<Long>()
+
+        for (y in minChunkY - margin..maxChunkY + margin) {
+            for (x in minChunkX - margin..maxChunkX + margin) {
+                val key = key(x, y)
+
+                if (!chunks.containsKey(key))
+                    missing.add(key)
+            }
+        }
+
+        if (missing.isEmpty())
+            return 0
+
+        // noise evaluation only reads immutable state, so chunks can be generated concurrently
+        val generated = missing.parallelStream()
+                .map { generateChunk(chunkX(it), chunkY(it)) }
+                .collect(Collectors.toList())
+
+        generated.forEach { chunks[key(it.chunkX, it.chunkY)] = it }
+
+        return generated.size
+    }
+
+    /**
+     * Removes all chunks outside given chunk bounds (inclusive).
+     */
+    private fun evict(minChunkX: Int, minChunkY: Int, maxChunkX: Int, maxChunkY: Int) {
+        val it = chunks.values.iterator()
+
+        while (it.hasNext()) {
+            val chunk = it.next()
+
+            if (chunk.chunkX < minChunkX || chunk.chunkX > maxChunkX || chunk.chunkY < minChunkY || chunk.chunkY > maxChunkY) {
+                it.remove()
+            }
+        }
+    }
+
+    /**
+     * Removes all chunks from memory.
+     */
+    fun clear() {
+        chunks.clear()
+    }
+
+    private fun generateChunk(chunkX: Int, chunkY: Int): MapChunk {
+        val chunk = MapChunk(chunkX, chunkY, chunkSize)
+
+        val startX = chunk.minTileX
+        val startY = chunk.minTileY
+
+        val waterOrdinal = TileType.WATER.ordinal.toByte()
+        val earthOrdinal = TileType.EARTH.ordinal.toByte()
+
+        var i = 0
+        for (y in 0..chunkSize - 1) {
+            for (x in 0..chunkSize - 1) {
+                val value = noise.fractalNoise((startX + x) * frequency, (startY + y) * frequency, octaves)
+
+                chunk.noise[i] = value
+                chunk.types[i] = if (value < waterLevel) waterOrdinal else earthOrdinal
+                i++
+            }
+        }
+
+        return chunk
+    }
+
+    private fun key(chunkX: Int, chunkY: Int) = (chunkX.toLong() shl 32) or (chunkY.toLong() and 0xFFFFFFFFL)
+
+    private fun chunkX(key: Long) = (key shr 32).toInt()
+
+    private fun chunkY(key: Long) = key.toInt()
+}
@@ -0,0 +1,74 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.algorithm
+
+/**
+ * A square chunk of a procedurally generated map.
+ * Tile types and noise values are stored row by row in primitive arrays.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class MapChunk(
+
+        /**
+         * Chunk x in chunk coordinates.
+         */
+        val chunkX: Int,
+
+        /**
+         * Chunk y in chunk coordinates.
+         */
+        val chunkY: Int,
+
+        /**
+         * Number of tiles in each dimension.
+         */
+        val size: Int) {
+
+    companion object {
+        private val TYPES = TileType.values()
+    }
+
+    /**
+     * Noise value of each tile.
+     */
+    val noise = FloatArray(size * size)
+
+    /**
+     * Ordinal of [TileType] of each tile.
+     */
+    val types = ByteArray(size * size)
+
+    /**
+     * @return x of the first tile in tile coordinates
+     */
+    val minTileX: Int
+        get() = chunkX * size
+
+    /**
+     * @return y of the first tile in tile coordinates
+     */
+    val minTileY: Int
+        get() = chunkY * size
+
+    fun getNoise(localX: Int, localY: Int) = noise[localY * size + localX]
+
+    fun getType(localX: Int, localY: Int) = TYPES[types[localY * size + localX].toInt()]
+
+    override fun toString(): String {
+        val sb = StringBuilder(size * (size + 1))
+
+        for (y in 0..size - 1) {
+            for (x in 0..size - 1) {
+                sb.append(getType(x, y))
+            }
+            sb.append('\n')
+        }
+
+        return sb.toString()
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.app
+
+import com.almasb.fxgl.app.listener.UpdateListener
+import com.almasb.fxgl.core.collection.Array
+import com.almasb.fxgl.ecs.Entity
+import com.almasb.fxgl.ecs.EntityWorldListener
+import com.almasb.fxgl.ecs.GameWorld
+import com.almasb.fxgl.physics.PhysicsWorld
+import com.almasb.fxgl.service.Pooler
+import com.almasb.fxgl.time.Timer
+
+/**
+ * Runs game world simulation without JavaFX toolkit, game scene or [GameApplication].
+ * Wires [GameWorld], [PhysicsWorld] and [Timer] the same way play state does
+ * and ticks them with a fixed time step, either as fast as possible or paced to real time.
+ * Useful for server-side simulations (e.g. bot matches) and benchmarks.
+ *
+ * The runner is not thread-safe: the world must only be modified from the thread running the simulation,
+ * e.g. via [addUpdateListener].
+ * FXGL services must be configured (see [FXGL.configure]), since physics and collision checks
+ * obtain pooled objects from the [Pooler] service, as do components and controls that use other services.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class HeadlessRunner
+@JvmOverloads constructor(
+
+        /**
+         * Height of the simulated world in pixels, used by physics to flip the y axis.
+         */
+        appHeight: Int = 600,
+
+        /**
+         * Physics pixels per meter.
+         */
+        ppm: Double = 50.0,
+
+        /**
+         * Pooler used by physics.
+         */
+        pooler: Pooler = FXGL.getPooler()) {
+
+    companion object {
+        private val log = FXGL.getLogger("FXGL.HeadlessRunner")
+    }
+
+    val gameWorld = GameWorld(32)
+
+    val physicsWorld = PhysicsWorld(appHeight, ppm, pooler)
+
+    val timer = Timer()
+
+    /**
+     * Simulated time (in seconds) that passes each tick.
+     */
+    var tickTime = 1.0 / 60
+
+    /**
+     * If true, ticks are paced so that simulated time matches real time,
+     * otherwise ticks run as fast as possible.
+     */
+    var isRealTime = false
+
+    /**
+     * Number of ticks run since construction.
+     */
+    @Volatile var tickCount = 0L
+        private set
+
+    /**
+     * Simulated ticks per second measured over the last [run] or [start].
+     */
+    @Volatile var ticksPerSecond = 0.0
+        private set
+
+    @Volatile private var running = false
+
+    private var thread: Thread? = null
+
+    private val updateListeners = Array<UpdateListener>()
+
+    init {
+        gameWorld.addWorldListener(physicsWorld)
+
+        gameWorld.addWorldListener(object : EntityWorldListener {
+            override fun onEntityAdded(entity: Entity) {}
+
+            override fun onEntityRemoved(entity: Entity) {}
+
+            override fun onWorldUpdate(tpf: Double) {}
+
+            override fun onWorldReset() {
+                timer.clear()
+            }
+        })
+    }
+
+    /**
+     * Listeners are notified after the world has been updated each tick, on the simulation thread.
+     */
+    fun addUpdateListener(listener: UpdateListener) {
+        updateListeners.add(listener)
+    }
+
+    fun removeUpdateListener(listener: UpdateListener) {
+        updateListeners.removeValueByIdentity(listener)
+    }
+
+    /**
+     * Runs a single tick in the calling thread.
+     * The order matches that of play state: timer, world (including physics), listeners.
+     */
+    fun tick() {
+        val tpf = tickTime
+
+        timer.update(tpf)
+        gameWorld.onUpdate(tpf)
+
+        for (i in 0..updateListeners.size() - 1) {
+            updateListeners[i].onUpdate(tpf)
+        }
+
+        tickCount++
+    }
+
+    /**
+     * Runs given number of ticks in the calling thread.
+     *
+     * @return simulated ticks per second
+     */
+    fun run(ticks: Long): Double {
+        running = true
+        loop(ticks)
+        return ticksPerSecond
+    }
+
+    /**
+     * Starts ticking on a new (daemon) thread until [stop] is called.
+     */
+    fun start() {
+        if (thread != null)
+            throw IllegalStateException("Runner has already been started")
+
+        running = true
+
+        val t = Thread({ loop(Long.MAX_VALUE) }, "FXGL Headless Runner")
+        t.isDaemon = true
+        t.start()
+
+        thread = t
+    }
+
+    /**
+     * Stops the simulation after the current tick.
+     * If the runner was started via [start], waits for the simulation thread to finish.
+     */
+    fun stop() {
+        running = false
+
+        thread?.let {
+            if (it !== Thread.currentThread())
+                it.join()
+        }
+
+        thread = null
+    }
+
+    private fun loop(ticks: Long) {
+        val tickNanos = (tickTime * 1000000000).toLong()
+
+        val start = System.nanoTime()
+        var nextTick = start
+        var count = 0L
+
+        while (running && count < ticks) {
+            tick()
+            count++
+
+            if (isRealTime) {
+                nextTick += tickNanos
+
+                val sleepNanos = nextTick - System.nanoTime()
+                if (sleepNanos > 0) {
+                    Thread.sleep(sleepNanos / 1000000, (sleepNanos % 1000000).toInt())
+                }
+            }
+        }
+
+        running = false
+
+        val elapsed = System.nanoTime() - start
+        ticksPerSecond = if (elapsed > 0) count * 1000000000.0 / elapsed else 0.0
+
+        log.debugf("Ran %d ticks at %.1f ticks/s", count, ticksPerSecond)
+    }
+}
@@ -17,6 +17,8 @@ import com.almasb.fxgl.scene.SceneFactory
 import com.google.inject.Inject
 import com.google.inject.Singleton
 import javafx.concurrent.Task
+import java.util.concurrent.CompletionException
+import java.util.function.BiConsumer
 
 /**
  * Initializes game aspects: assets, game, physics, UI, etc.
@@ -105,6 +107,21 @@ internal class LoadingState
 
         private fun initAssets() {
             update("Initializing Assets", 0)
+
+            val assets = arrayListOf<String>()
+            app.initPreloadAssets(assets)
+
+            if (assets.isNotEmpty()) {
+                try {
+                    FXGL.getAssetLoader().preloadAsync(assets, BiConsumer { name, progress ->
+                        updateMessage("Loading $name")
+                        updateProgress(progress, 4.0)
+                    }).join()
+                } catch (e: CompletionException) {
+                    throw e.cause ?: e
+                }
+            }
+
             app.initAssets()
         }
 
@@ -61,6 +61,7 @@ private constructor(val gameState: GameState,
     }
 
     override fun onUpdate(tpf: Double) {
+        gameScene.onWorldUpdateStarted()
         gameWorld.onUpdate(tpf)
     }
 
@@ -0,0 +1,358 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.asset
+
+import java.io.*
+import java.nio.ByteBuffer
+import java.nio.MappedByteBuffer
+import java.nio.channels.Channels
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.nio.file.StandardOpenOption
+import java.util.*
+import java.util.stream.Collectors
+import java.util.zip.Deflater
+import java.util.zip.DeflaterOutputStream
+import java.util.zip.InflaterInputStream
+
+/**
+ * Read-only archive of assets packed into a single file, which is memory-mapped,
+ * so reading an asset does not require a file lookup or copying of uncompressed data.
+ *
+ * Layout (big-endian):
+ *
+ *  * header: magic (int), version (int), entry count (int), data offset (long)
+ *  * index: per entry name (UTF), offset relative to data (long), stored size (int), size (int), flags (byte), hash (UTF)
+ *  * data: entries, each aligned to [ALIGNMENT] bytes
+ *
+ * Entries are compressed with deflate only if it makes them noticeably smaller,
+ * so already compressed formats (PNG, MP3) are stored as is.
+ * Archives are limited to 2GB, larger sets of assets should be split into multiple archives.
+ *
+ * Archives are created by [pack], which can be run at build time via [main].
+ * The archive can be read from multiple threads.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class AssetArchive private constructor(
+
+        /**
+         * Archive file.
+         */
+        val file: Path,
+
+        private val buffer: MappedByteBuffer,
+        private val entries: Map<String, Entry>) {
+
+    companion object {
+        private const val MAGIC = 0x4658504B
+        private const val VERSION = 1
+
+        private const val HEADER_SIZE = 20
+
+        /**
+         * Entries start at offsets that are multiples of this value.
+         */
+        const val ALIGNMENT = 16
+
+        private const val FLAG_COMPRESSED = 1
+
+        /**
+         * Entry is stored compressed only if compressed size is less than this fraction of original size.
+         */
+        private const val COMPRESSION_THRESHOLD = 0.9
+
+        /**
+         * Maps archive file into memory and reads its index.
+         */
+        @JvmStatic fun open(file: Path): AssetArchive {
+            FileChannel.open(file, StandardOpenOption.READ).use { channel ->
+                if (channel.size() > Int.MAX_VALUE)
+                    throw IOException("Archive $file is larger than 2GB")
+
+                // the mapping remains valid after the channel is closed
+                val buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+
+                if (buffer.remaining() < HEADER_SIZE || buffer.getInt(0) != MAGIC)
+                    throw IOException("$file is not an asset archive")
+
+                val version = buffer.getInt(4)
+                if (version != VERSION)
+                    throw IOException("Unsupported archive version: $version")
+
+                val count = buffer.getInt(8)
+                val dataOffset = buffer.getLong(12)
+
+                val index = buffer.duplicate()
+                index.position(HEADER_SIZE)
+
+                val input = DataInputStream(ByteBufferInputStream(index))
+                val entries = HashMap<String, Entry>(count * 2)
+
+                repeat(count) {
+                    val name = input.readUTF()
+                    val offset = dataOffset + input.readLong()
+                    val storedSize = input.readInt()
+                    val size = input.readInt()
+                    val flags = input.readByte().toInt()
+                    val hash = input.readUTF()
+
+                    if (offset + storedSize > buffer.capacity())
+                        throw IOException("Entry $name is out of bounds of $file")
+
+                    entries[name] = Entry(name, offset.toInt(), storedSize, size, (flags and FLAG_COMPRESSED) != 0, hash)
+                }
+
+                return AssetArchive(file, buffer, entries)
+            }
+        }
+
+        /**
+         * Packs all files in [assetsDir], e.g. "src/main/resources/assets", into archive [file].
+         * Entry names are resource names, e.g. "/assets/textures/player.png".
+         *
+         * @param compress whether entries that benefit from it are compressed
+         */
+        @JvmStatic @JvmOverloads fun pack(assetsDir: Path, file: Path, compress: Boolean = true) {
+            val paths = Files.walk(assetsDir)
+            val files = try {
+                paths.filter { Files.isRegularFile(it) }.sorted().collect(Collectors.toList<Path>())
+            } finally {
+                paths.close()
+            }
+
+            val entries = ArrayList<Entry>()
+
+            Files.createDirectories(file.toAbsolutePath().parent)
+
+            // data is written to a temp file first, since index size is only known after compression
+            val dataFile = Files.createTempFile(file.toAbsolutePath().parent, file.fileName.toString(), ".data")
+
+            try {
+                FileChannel.open(dataFile, StandardOpenOption.WRITE).use { data ->
+                    for (path in files) {
+                        val name = "/assets/" + assetsDir.relativize(path).toString().replace("\\", "/")
+                        val bytes = Files.readAllBytes(path)
+
+                        var stored = bytes
+                        var flags = 0
+
+                        if (compress) {
+                            val compressed = deflate(bytes)
+
+                            if (compressed.size < bytes.size * COMPRESSION_THRESHOLD) {
+                                stored = compressed
+                                flags = FLAG_COMPRESSED
+                            }
+                        }
+
+                        val offset = data.position()
+                        if (offset + stored.size > Int.MAX_VALUE)
+                            throw IOException("Assets in $assetsDir do not fit into a 2GB archive")
+
+                        val buffer = ByteBuffer.allocate(align(stored.size.toLong()).toInt())
+                        buffer.put(stored).position(buffer.capacity())
+                        buffer.flip()
+
+                        while (buffer.hasRemaining()) {
+                            data.write(buffer)
+                        }
+
+                        entries.add(Entry(name, offset.toInt(), stored.size, bytes.size, flags == FLAG_COMPRESSED,
+                                AssetManifest.hash(ByteArrayInputStream(bytes))))
+                    }
+                }
+
+                val index = ByteArrayOutputStream()
+
+                DataOutputStream(index).use { out ->
+                    entries.forEach {
+                        out.writeUTF(it.name)
+                        out.writeLong(it.offset.toLong())
+                        out.writeInt(it.storedSize)
+                        out.writeInt(it.size)
+                        out.writeByte(if (it.isCompressed) FLAG_COMPRESSED else 0)
+                        out.writeUTF(it.hash)
+                    }
+                }
+
+                val dataOffset = align(HEADER_SIZE.toLong() + index.size())
+
+                val header = ByteBuffer.allocate(dataOffset.toInt())
+                header.putInt(MAGIC).putInt(VERSION).putInt(entries.size).putLong(dataOffset)
+                header.put(index.toByteArray())
+                header.position(header.capacity())
+                header.flip()
+
+                FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING).use { out ->
+                    while (header.hasRemaining()) {
+                        out.write(header)
+                    }
+
+                    FileChannel.open(dataFile, StandardOpenOption.READ).use { data ->
+                        var position = 0L
+
+                        while (position < data.size()) {
+                            position += data.transferTo(position, data.size() - position, out)
+                        }
+                    }
+                }
+            } finally {
+                Files.deleteIfExists(dataFile)
+            }
+        }
+
+        private fun deflate(bytes: ByteArray): ByteArray {
+            val out = ByteArrayOutputStream(bytes.size)
+
+            DeflaterOutputStream(out, Deflater(Deflater.BEST_COMPRESSION)).use { it.write(bytes) }
+
+            return out.toByteArray()
+        }
+
+        private fun align(size: Long) = (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT
+
+        /**
+         * Build-time tool that packs the assets directory.
+         *
+         * Usage: AssetArchive assetsDir outputFile [--store],
+         * with "--store" entries are not compressed.
+         */
+        @JvmStatic fun main(args: Array<String>) {
+            if (args.size < 2) {
+                println("Usage: AssetArchive assetsDir outputFile [--store]")
+                return
+            }
+
+            val file = Paths.get(args[1])
+
+            pack(Paths.get(args[0]), file, args.getOrNull(2) != "--store")
+
+            println("Packed ${open(file).getNames().size} entries to $file (${Files.size(file)} bytes)")
+        }
+    }
+
+    private class Entry(val name: String,
+
+                        /**
+                         * Absolute offset in archive, relative to data while packing.
+                         */
+                        val offset: Int,
+
+                        val storedSize: Int,
+                        val size: Int,
+                        val isCompressed: Boolean,
+                        val hash: String)
+
+    /**
+     * Manifest of assets in this archive.
+     */
+    val manifest: AssetManifest by lazy {
+        AssetManifest(entries.values.map { AssetManifest.Entry(it.name, AssetType.of(it.name), it.size.toLong(), it.hash) })
+    }
+
+    operator fun contains(name: String) = entries.containsKey(name)
+
+    /**
+     * @return resource names of all entries
+     */
+    fun getNames(): List<String> = entries.keys.sorted()
+
+    /**
+     * @return uncompressed size of entry in bytes
+     */
+    fun getSize(name: String): Int = getEntry(name).size
+
+    /**
+     * Returns read-only content of entry with given name.
+     * If the entry is stored uncompressed, the buffer is a view of the mapped archive.
+     *
+     * @throws IllegalArgumentException if there is no such entry
+     */
+    fun getBuffer(name: String): ByteBuffer {
+        val entry = getEntry(name)
+
+        if (!entry.isCompressed)
+            return slice(entry)
+
+        val bytes = ByteArray(entry.size)
+
+        DataInputStream(getStream(name)).use { it.readFully(bytes) }
+
+        return ByteBuffer.wrap(bytes).asReadOnlyBuffer()
+    }
+
+    /**
+     * Opens a stream to entry with given name.
+     * If the entry is stored uncompressed, the stream reads directly from the mapped archive.
+     *
+     * @throws IllegalArgumentException if there is no such entry
+     */
+    fun getStream(name: String): InputStream {
+        val entry = getEntry(name)
+        val stream = ByteBufferInputStream(slice(entry))
+
+        return if (entry.isCompressed) InflaterInputStream(stream) else stream
+    }
+
+    /**
+     * Copies content of entry with given name to [file].
+     */
+    fun extract(name: String, file: Path) {
+        val buffer = getBuffer(name)
+
+        Channels.newChannel(Files.newOutputStream(file)).use {
+            while (buffer.hasRemaining()) {
+                it.write(buffer)
+            }
+        }
+    }
+
+    private fun getEntry(name: String): Entry {
+        return entries[name] ?: throw IllegalArgumentException("Asset \"$name\" is not in archive $file")
+    }
+
+    private fun slice(entry: Entry): ByteBuffer {
+        // duplicate so that concurrent readers do not share position
+        val view = buffer.duplicate()
+        view.position(entry.offset)
+        view.limit(entry.offset + entry.storedSize)
+
+        return view.slice().asReadOnlyBuffer()
+    }
+
+    override fun toString() = "AssetArchive($file, ${entries.size} entries)"
+
+    private class ByteBufferInputStream(private val buffer: ByteBuffer) : InputStream() {
+
+        override fun read(): Int {
+            return if (buffer.hasRemaining()) buffer.get().toInt() and 0xFF else -1
+        }
+
+        override fun read(b: ByteArray, off: Int, len: Int): Int {
+            if (len == 0)
+                return 0
+
+            if (!buffer.hasRemaining())
+                return -1
+
+            val n = Math.min(len, buffer.remaining())
+            buffer.get(b, off, n)
+            return n
+        }
+
+        override fun skip(n: Long): Long {
+            val skipped = Math.min(n, buffer.remaining().toLong()).toInt()
+            buffer.position(buffer.position() + Math.max(skipped, 0))
+            return Math.max(skipped, 0).toLong()
+        }
+
+        override fun available() = buffer.remaining()
+    }
+}
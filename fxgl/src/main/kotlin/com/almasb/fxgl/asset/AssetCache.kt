@@ -7,44 +7,270 @@
 package com.almasb.fxgl.asset
 
 import com.almasb.fxgl.core.Disposable
+import javafx.scene.image.Image
+import java.lang.ref.SoftReference
 import java.util.*
 
 /**
+ * LRU cache of assets bounded by total weight (approximate size in bytes) and number of entries.
  *
+ * Pinned assets (e.g. level-critical) are never evicted, but count towards the total weight.
+ * Assets can be pinned before they are put in the cache.
+ * If soft tier is enabled, evicted assets that are not [Disposable] are kept via soft references,
+ * so they are only reclaimed when the JVM runs low on memory.
+ * Evicted [Disposable] assets are disposed.
+ *
+ * Access is synchronized, so assets can be loaded on multiple threads.
  *
  * @author Almas Baimagambetov (almaslvl@gmail.com)
  */
 class AssetCache(
+
+        /**
+         * Max total weight of assets to keep in cache.
+         */
+        val maxWeight: Long,
+
         /**
          * Max num of elements to keep in cache.
          */
         val maxSize: Int) {
 
-    private val cache = object : LinkedHashMap<String, Any>(maxSize + 1, 0.75f, true) {
-        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, Any>): Boolean {
+    companion object {
 
-            if (size > maxSize) {
-                if (eldest.value is Disposable) {
-                    (eldest.value as Disposable).dispose()
-                }
+        /**
+         * Weight of assets whose size cannot be estimated.
+         */
+        const val DEFAULT_WEIGHT = 1024L
 
-                return true
+        /**
+         * @return approximate size of [value] in bytes
+         */
+        @JvmStatic fun weigh(value: Any): Long {
+            return when (value) {
+                is Image -> value.width.toLong() * value.height.toLong() * 4
+                is String -> value.length * 2L
+                is List<*> -> value.fold(0L) { sum, item -> sum + 16 + if (item is String) item.length * 2L else 0L }
+                else -> DEFAULT_WEIGHT
             }
+        }
+    }
+
+    /**
+     * Constructs cache bounded by number of entries only.
+     */
+    constructor(maxSize: Int) : this(Long.MAX_VALUE, maxSize)
+
+    private class Entry(val value: Any, var weight: Long)
+
+    /**
+     * Keeps weight of evicted asset, so that it is restored if the asset is promoted back.
+     */
+    private class SoftEntry(value: Any, val weight: Long) : SoftReference<Any>(value)
+
+    private val cache = LinkedHashMap<String, Entry>(16, 0.75f, true)
+    private val pinned = HashMap<String, Entry>()
+    private val soft = HashMap<String, SoftEntry>()
+
+    private val pinnedKeys = HashSet<String>()
+
+    /**
+     * Enables keeping evicted assets in soft tier.
+     */
+    @get:Synchronized @set:Synchronized
+    var isSoftTierEnabled = false
+        set(value) {
+            field = value
+
+            if (!value)
+                soft.clear()
+        }
+
+    private var weight = 0L
+    private var pinnedWeight = 0L
+
+    private var hits = 0L
+    private var softHits = 0L
+    private var misses = 0L
+    private var evictions = 0L
+
+    fun put(key: String, value: Any) = put(key, value, weigh(value))
+
+    /**
+     * Put [value] with given [weight] (approximate size in bytes) in cache,
+     * evicting least recently used assets if required.
+     */
+    @Synchronized fun put(key: String, value: Any, weight: Long) {
+        remove(key)
+
+        val entry = Entry(value, weight)
+        this.weight += weight
+
+        if (key in pinnedKeys) {
+            pinned[key] = entry
+            pinnedWeight += weight
+        } else {
+            cache[key] = entry
+            evict()
+        }
+    }
+
+    /**
+     * Updates weight of cached [value] with given [key], e.g. after the value has grown,
+     * evicting least recently used assets if required.
+     * Does nothing if [value] is no longer in cache.
+     */
+    @Synchronized fun updateWeight(key: String, value: Any, weight: Long) {
+        val entry = pinned[key] ?: cache[key] ?: return
+
+        if (entry.value !== value)
+            return
+
+        val delta = weight - entry.weight
+
+        entry.weight = weight
+        this.weight += delta
+
+        if (key in pinned) {
+            pinnedWeight += delta
+        } else {
+            evict()
+        }
+    }
+
+    /**
+     * @return cached asset or null if not in cache
+     */
+    @Synchronized fun get(key: String): Any? {
+        val entry = pinned[key] ?: cache[key]
 
-            return false
+        if (entry != null) {
+            hits++
+            return entry.value
+        }
+
+        val softEntry = soft.remove(key)
+        val value = softEntry?.get()
+
+        if (softEntry != null && value != null) {
+            softHits++
+            put(key, value, softEntry.weight)
+            return value
+        }
+
+        misses++
+        return null
+    }
+
+    /**
+     * Pins asset with given [key], whether it is in cache or not,
+     * so that it will never be evicted.
+     */
+    @Synchronized fun pin(key: String) {
+        if (!pinnedKeys.add(key))
+            return
+
+        cache.remove(key)?.let {
+            pinned[key] = it
+            pinnedWeight += it.weight
+        }
+    }
+
+    /**
+     * Allows asset with given [key] to be evicted.
+     */
+    @Synchronized fun unpin(key: String) {
+        if (!pinnedKeys.remove(key))
+            return
+
+        pinned.remove(key)?.let {
+            pinnedWeight -= it.weight
+            cache[key] = it
+            evict()
         }
     }
 
-    fun put(key: String, value: Any) {
-        cache.put(key, value)
+    @Synchronized fun isPinned(key: String) = key in pinnedKeys
+
+    private fun remove(key: String) {
+        soft.remove(key)
+
+        val entry = cache.remove(key) ?: pinned.remove(key)?.also { pinnedWeight -= it.weight }
+
+        if (entry != null)
+            weight -= entry.weight
     }
 
-    fun get(key: String) = cache[key]
+    private fun evict() {
+        val it = cache.entries.iterator()
+
+        // keep the most recent asset even if it exceeds the budget on its own
+        while ((weight > maxWeight || size() > maxSize) && cache.size > 1) {
+            val (key, entry) = it.next()
+            it.remove()
+
+            weight -= entry.weight
+            evictions++
 
-    fun size() = cache.size
+            if (entry.value is Disposable) {
+                entry.value.dispose()
+            } else if (isSoftTierEnabled) {
+                soft[key] = SoftEntry(entry.value, entry.weight)
+            }
+        }
+    }
+
+    @Synchronized fun size() = cache.size + pinned.size
+
+    /**
+     * @return snapshot of cache statistics
+     */
+    @Synchronized fun getStats() = AssetCacheStats(hits, softHits, misses, evictions, size(), weight, pinnedWeight, maxWeight)
 
     /**
      * Clear the cache.
+     * Pinned keys remain pinned.
      */
-    fun clear() = cache.clear()
-}
\ No newline at end of file
+    @Synchronized fun clear() {
+        cache.clear()
+        pinned.clear()
+        soft.clear()
+
+        weight = 0
+        pinnedWeight = 0
+    }
+}
+
+/**
+ * Asset cache statistics.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+data class AssetCacheStats(
+        val hits: Long,
+
+        /**
+         * Number of hits of assets that were evicted but still held by soft references.
+         */
+        val softHits: Long,
+
+        val misses: Long,
+        val evictions: Long,
+        val size: Int,
+
+        /**
+         * Total weight of cached assets, including pinned, in bytes.
+         */
+        val weight: Long,
+
+        val pinnedWeight: Long,
+        val maxWeight: Long) {
+
+    /**
+     * @return ratio of hits (including soft) to all requests, 0 if there were no requests
+     */
+    fun getHitRate(): Double {
+        val total = hits + softHits + misses
+        return if (total == 0L) 0.0 else (hits + softHits).toDouble() / total
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.asset
+
+import java.io.*
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.Paths
+import java.security.MessageDigest
+import java.util.*
+import java.util.stream.Collectors
+
+/**
+ * Index of assets with their types, sizes and content hashes.
+ * Allows enumerating assets and checking their existence without touching the classpath.
+ *
+ * A manifest is generated at build time from the assets directory, see [main],
+ * and is then packaged with the assets as [FILE_NAME].
+ * Size and hash of an entry may be unknown, e.g. if the manifest was built at runtime from file names only.
+ *
+ * The manifest file is UTF-8 text, where each line is "type size hash name" separated by tabs.
+ * Lines starting with "#" are comments.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class AssetManifest(entries: Collection<Entry>) {
+
+    companion object {
+
+        /**
+         * Resource name of the manifest.
+         */
+        const val FILE_NAME = "/assets/assets.manifest"
+
+        const val UNKNOWN_SIZE = -1L
+        const val UNKNOWN_HASH = ""
+
+        private const val HASH_ALGORITHM = "SHA-256"
+
+        /**
+         * Constructs manifest with unknown sizes and hashes.
+         *
+         * @param names resource names, e.g. "/assets/textures/player.png"
+         */
+        @JvmStatic fun ofNames(names: Collection<String>): AssetManifest {
+            return AssetManifest(names.map { Entry(it, AssetType.of(it), UNKNOWN_SIZE, UNKNOWN_HASH) })
+        }
+
+        /**
+         * Generates manifest of all files in [assetsDir], e.g. "src/main/resources/assets".
+         * Manifest file itself is not included.
+         */
+        @JvmStatic fun generate(assetsDir: Path): AssetManifest {
+            val paths = Files.walk(assetsDir)
+            val files = try {
+                paths.filter { Files.isRegularFile(it) }.collect(Collectors.toList<Path>())
+            } finally {
+                paths.close()
+            }
+
+            val entries = files.map {
+                val name = "/assets/" + assetsDir.relativize(it).toString().replace("\\", "/")
+
+                Entry(name, AssetType.of(name), Files.size(it), Files.newInputStream(it).use { hash(it) })
+            }
+
+            return AssetManifest(entries.filter { it.name != FILE_NAME })
+        }
+
+        /**
+         * @return hex encoded content hash of given stream
+         */
+        @JvmStatic fun hash(stream: InputStream): String {
+            val digest = MessageDigest.getInstance(HASH_ALGORITHM)
+            val buffer = ByteArray(8192)
+
+            while (true) {
+                val len = stream.read(buffer)
+                if (len == -1)
+                    break
+
+                digest.update(buffer, 0, len)
+            }
+
+            return digest.digest().joinToString("") { String.format("%02x", it) }
+        }
+
+        @JvmStatic fun read(stream: InputStream): AssetManifest {
+            val entries = BufferedReader(InputStreamReader(stream, Charsets.UTF_8)).lineSequence()
+                    .filter { it.isNotEmpty() && !it.startsWith("#") }
+                    .map {
+                        val tokens = it.split("\t", limit = 4)
+                        if (tokens.size != 4)
+                            throw IOException("Malformed manifest line: $it")
+
+                        Entry(tokens[3], AssetType.valueOf(tokens[0]), tokens[1].toLong(), tokens[2])
+                    }
+                    .toList()
+
+            return AssetManifest(entries)
+        }
+
+        /**
+         * Build-time tool that generates manifest of the assets directory.
+         *
+         * Usage: AssetManifest assetsDir [outputFile],
+         * output file defaults to "assetsDir/assets.manifest".
+         */
+        @JvmStatic fun main(args: Array<String>) {
+            if (args.isEmpty()) {
+                println("Usage: AssetManifest assetsDir [outputFile]")
+                return
+            }
+
+            val assetsDir = Paths.get(args[0])
+            val outputFile = if (args.size > 1) Paths.get(args[1]) else assetsDir.resolve(FILE_NAME.removePrefix("/assets/"))
+
+            val manifest = generate(assetsDir)
+
+            Files.newOutputStream(outputFile).use { manifest.write(it) }
+
+            println("Written ${manifest.size()} entries to $outputFile")
+        }
+    }
+
+    data class Entry(
+
+            /**
+             * Resource name, e.g. "/assets/textures/player.png".
+             */
+            val name: String,
+
+            val type: AssetType,
+
+            /**
+             * Size in bytes or [UNKNOWN_SIZE].
+             */
+            val size: Long,
+
+            /**
+             * Hex encoded SHA-256 of content or [UNKNOWN_HASH].
+             */
+            val hash: String)
+
+    /**
+     * Entries sorted by name, so that entries of a directory are adjacent.
+     */
+    private val index = TreeMap<String, Entry>()
+
+    init {
+        entries.forEach { index[it.name] = it }
+    }
+
+    fun size() = index.size
+
+    operator fun contains(name: String) = index.containsKey(name)
+
+    /**
+     * @return entry with given resource name or null if not in manifest
+     */
+    fun getEntry(name: String): Entry? = index[name]
+
+    fun getEntries(): List<Entry> = ArrayList(index.values)
+
+    fun getEntries(type: AssetType): List<Entry> = index.values.filter { it.type == type }
+
+    /**
+     * @param directory directory name, e.g. "/assets/textures/"
+     * @return entries of all files in the directory and its subdirectories
+     */
+    fun getEntries(directory: String): List<Entry> {
+        return ArrayList(index.subMap(directory, directory + '\uffff').values)
+    }
+
+    /**
+     * @param directory directory name, e.g. "/assets/textures/"
+     * @return names of all files in the directory and its subdirectories, relativized to the directory
+     */
+    fun getNames(directory: String): List<String> {
+        return getEntries(directory).map { it.name.substring(directory.length) }
+    }
+
+    /**
+     * Checks content of asset with given name against its size and hash.
+     * Unknown size or hash is not checked.
+     *
+     * @return true if asset is in manifest and its content matches
+     */
+    fun verify(name: String, stream: InputStream): Boolean {
+        val entry = index[name] ?: return false
+
+        if (entry.hash == UNKNOWN_HASH && entry.size == UNKNOWN_SIZE)
+            return true
+
+        val counting = CountingInputStream(stream)
+        val hash = hash(counting)
+
+        return (entry.hash == UNKNOWN_HASH || entry.hash == hash)
+                && (entry.size == UNKNOWN_SIZE || entry.size == counting.count)
+    }
+
+    /**
+     * @return manifest with entries of both manifests, entries of [other] take precedence
+     */
+    operator fun plus(other: AssetManifest): AssetManifest {
+        val merged = TreeMap(index)
+        merged.putAll(other.index)
+
+        return AssetManifest(merged.values)
+    }
+
+    /**
+     * Writes manifest to [stream], the stream is not closed.
+     */
+    fun write(stream: OutputStream) {
+        val writer = BufferedWriter(OutputStreamWriter(stream, Charsets.UTF_8))
+
+        writer.write("# FXGL asset manifest")
+        writer.newLine()
+
+        index.values.forEach {
+            writer.write("${it.type}\t${it.size}\t${it.hash}\t${it.name}")
+            writer.newLine()
+        }
+
+        writer.flush()
+    }
+
+    private class CountingInputStream(stream: InputStream) : FilterInputStream(stream) {
+        var count = 0L
+
+        override fun read(): Int {
+            val b = super.read()
+            if (b != -1)
+                count++
+
+            return b
+        }
+
+        override fun read(b: ByteArray, off: Int, len: Int): Int {
+            val n = super.read(b, off, len)
+            if (n > 0)
+                count += n
+
+            return n
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.asset
+
+/**
+ * Type of asset, determined by the directory it is located in.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+enum class AssetType(
+
+        /**
+         * Directory relative to "/assets/".
+         */
+        val directory: String) {
+
+    TEXTURE("textures/"),
+    SOUND("sounds/"),
+    MUSIC("music/"),
+    TEXT("text/"),
+    KV("kv/"),
+    JSON("json/"),
+    DATA("data/"),
+    SCRIPT("scripts/"),
+    PROPERTIES("properties/"),
+    AI("ai/"),
+
+    // ui subdirectories must come before UI
+    CSS("ui/css/"),
+    FONT("ui/fonts/"),
+    ICON("ui/icons/"),
+    CURSOR("ui/cursors/"),
+    UI("ui/"),
+
+    OTHER("");
+
+    companion object {
+
+        /**
+         * @param name resource name, e.g. "/assets/textures/player.png"
+         * @return type of asset with given name
+         */
+        @JvmStatic fun of(name: String): AssetType {
+            val relativeName = name.removePrefix("/assets/")
+
+            return values().first { relativeName.startsWith(it.directory) }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.core.math
+
+import java.util.*
+
+/**
+ * Seeded 2D gradient (Perlin) noise.
+ * Lattice points are hashed with the seed instead of using a permutation table,
+ * so the noise does not repeat and the same seed always produces the same values.
+ * The gradient table is read-only after construction, so a single instance
+ * can be sampled from multiple threads.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class PerlinNoise2D(val seed: Long) {
+
+    companion object {
+        private const val NOISE_TABLE_SIZE = 256
+        private const val NOISE_MASK = 255
+    }
+
+    private val gx = FloatArray(NOISE_TABLE_SIZE)
+    private val gy = FloatArray(NOISE_TABLE_SIZE)
+
+    private val hashSeed = (seed xor (seed ushr 32)).toInt()
+
+    init {
+        val random = Random(seed)
+
+        // gradients are taken from the unit circle
+        for (i in 0..NOISE_TABLE_SIZE - 1) {
+            val angle = random.nextDouble() * Math.PI * 2
+
+            gx[i] = Math.cos(angle).toFloat()
+            gy[i] = Math.sin(angle).toFloat()
+        }
+    }
+
+    private fun gradientIndex(x: Int, y: Int): Int {
+        var h = hashSeed + x * 374761393 + y * 668265263
+        h = (h xor (h ushr 13)) * 1274126177
+        return (h xor (h ushr 16)) and NOISE_MASK
+    }
+
+    /**
+     * @return noise value in [-1..1] (approximately)
+     */
+    fun noise(x: Double, y: Double): Float {
+        val fx = Math.floor(x)
+        val fy = Math.floor(y)
+
+        val qx0 = fx.toInt()
+        val qy0 = fy.toInt()
+
+        val tx0 = (x - fx).toFloat()
+        val ty0 = (y - fy).toFloat()
+        val tx1 = tx0 - 1
+        val ty1 = ty0 - 1
+
+        val g00 = gradientIndex(qx0, qy0)
+        val g10 = gradientIndex(qx0 + 1, qy0)
+        val g01 = gradientIndex(qx0, qy0 + 1)
+        val g11 = gradientIndex(qx0 + 1, qy0 + 1)
+
+        // Compute the dotproduct between the vectors and the gradients
+        val v00 = gx[g00] * tx0 + gy[g00] * ty0
+        val v10 = gx[g10] * tx1 + gy[g10] * ty0
+        val v01 = gx[g01] * tx0 + gy[g01] * ty1
+        val v11 = gx[g11] * tx1 + gy[g11] * ty1
+
+        // Modulate with the weight function
+        val wx = (3 - 2 * tx0) * tx0 * tx0
+        val wy = (3 - 2 * ty0) * ty0 * ty0
+
+        val v0 = v00 - wx * (v00 - v10)
+        val v1 = v01 - wx * (v01 - v11)
+
+        // max magnitude of 2D gradient noise is sqrt(2) / 2
+        return (v0 - wy * (v0 - v1)) * 1.4142135f
+    }
+
+    /**
+     * Fractal noise made of [octaves] layers, each with double the frequency and half the amplitude.
+     *
+     * @return noise value in [-1..1] (approximately)
+     */
+    fun fractalNoise(x: Double, y: Double, octaves: Int): Float {
+        var sum = 0f
+        var amplitude = 1f
+        var maxAmplitude = 0f
+        var frequency = 1.0
+
+        for (i in 0..octaves - 1) {
+            sum += noise(x * frequency, y * frequency) * amplitude
+
+            maxAmplitude += amplitude
+            amplitude *= 0.5f
+            frequency *= 2
+        }
+
+        return sum / maxAmplitude
+    }
+}
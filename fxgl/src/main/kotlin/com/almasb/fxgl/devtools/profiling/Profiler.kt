@@ -134,6 +134,13 @@ class Profiler {
         log.info("Min Memory Usage: ${getMinMemoryUsageRounded()} MB")
         log.info("Max Memory Usage: ${getMaxMemoryUsageRounded()} MB")
         log.info("Estimated GC runs: $gcRuns")
+
+        val assets = FXGL.getAssetLoader().getCacheStats()
+
+        log.info("Asset cache size: ${assets.size}, ${FXGLMath.roundPositive(assets.weight / MB)} MB " +
+                "(pinned ${FXGLMath.roundPositive(assets.pinnedWeight / MB)} MB)")
+        log.info("Asset cache hits: ${assets.hits}, soft hits: ${assets.softHits}, misses: ${assets.misses}, " +
+                "evictions: ${assets.evictions}, hit rate: ${"%.2f".format(assets.getHitRate())}")
     }
 
     // the debug data max chars is ~110, so just add a margin
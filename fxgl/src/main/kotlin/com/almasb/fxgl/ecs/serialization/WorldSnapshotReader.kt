@@ -0,0 +1,229 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.ecs.serialization
+
+import com.almasb.fxgl.core.collection.IntArray
+import com.almasb.fxgl.ecs.Entity
+import com.almasb.fxgl.ecs.GameWorld
+import com.almasb.fxgl.entity.SpawnData
+import com.almasb.fxgl.io.serialization.BinaryInput
+import com.almasb.fxgl.io.serialization.Bundle
+import com.almasb.fxgl.io.serialization.BundleCodec
+import javafx.geometry.Rectangle2D
+import java.io.Closeable
+import java.io.IOException
+import java.nio.channels.FileChannel
+import java.nio.channels.SeekableByteChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.StandardCopyOption
+import java.nio.file.StandardOpenOption
+import java.util.*
+import java.util.zip.GZIPInputStream
+
+/**
+ * Reads a world snapshot written by [WorldSnapshotWriter].
+ * Only the index is read on open, entity records are read on demand,
+ * either one by one, by region or sequentially.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class WorldSnapshotReader(private val channel: SeekableByteChannel) : Closeable {
+
+    companion object {
+        private const val RECORD_BUFFER_SIZE = 8 * 1024
+
+        private const val GZIP_MAGIC = 0x8b1f
+
+        /**
+         * @return reader of [file], which may be gzip compressed
+         */
+        @JvmStatic fun open(file: Path): WorldSnapshotReader {
+            if (!isCompressed(file))
+                return WorldSnapshotReader(FileChannel.open(file, StandardOpenOption.READ))
+
+            // records are read by offset, so decompress into a file that is deleted on close
+            val tmpFile = Files.createTempFile("fxgl", ".snapshot")
+
+            GZIPInputStream(Files.newInputStream(file)).use {
+                Files.copy(it, tmpFile, StandardCopyOption.REPLACE_EXISTING)
+            }
+
+            return WorldSnapshotReader(FileChannel.open(tmpFile, StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE))
+        }
+
+        private fun isCompressed(file: Path): Boolean {
+            Files.newInputStream(file).use {
+                return (it.read() or (it.read() shl 8)) == GZIP_MAGIC
+            }
+        }
+    }
+
+    val chunkSize: Double
+
+    /**
+     * Number of entities in the snapshot.
+     */
+    val entityCount: Int
+
+    private val offsets: LongArray
+    private val positions: DoubleArray
+
+    /**
+     * Chunk key to indices of entities located in that chunk.
+     */
+    private val chunks = HashMap<Long, IntArray>()
+
+    init {
+        channel.position(0)
+
+        val header = BinaryInput(channel, RECORD_BUFFER_SIZE)
+
+        if (header.readVarInt() != WorldSnapshotWriter.MAGIC)
+            throw IOException("Not a world snapshot")
+
+        val version = header.readVarInt()
+        if (version != WorldSnapshotWriter.VERSION)
+            throw IOException("Unsupported world snapshot version: $version")
+
+        chunkSize = header.readDouble()
+
+        channel.position(channel.size() - 8)
+        val indexOffset = BinaryInput(channel, 8).readLong()
+
+        channel.position(indexOffset)
+        val index = BinaryInput(channel)
+
+        entityCount = index.readVarInt()
+        offsets = LongArray(entityCount)
+        positions = DoubleArray(entityCount * 2)
+
+        var offset = 0L
+        for (i in 0..entityCount - 1) {
+            offset += index.readVarLong()
+
+            offsets[i] = offset
+            positions[i * 2] = index.readDouble()
+            positions[i * 2 + 1] = index.readDouble()
+
+            chunks.getOrPut(chunkKey(positions[i * 2], positions[i * 2 + 1])) { IntArray() }.add(i)
+        }
+    }
+
+    private fun chunkOf(value: Double) = Math.floor(value / chunkSize).toInt()
+
+    private fun chunkKey(x: Double, y: Double) = chunkKey(chunkOf(x), chunkOf(y))
+
+    private fun chunkKey(chunkX: Int, chunkY: Int) = (chunkX.toLong() shl 32) or (chunkY.toLong() and 0xFFFFFFFFL)
+
+    fun getX(index: Int) = positions[index * 2]
+
+    fun getY(index: Int) = positions[index * 2 + 1]
+
+    /**
+     * Reads the bundle of entity at given [index] (in order of writing).
+     * Bundle name is the entity spawn name.
+     */
+    fun readEntity(index: Int): Bundle {
+        if (index < 0 || index >= entityCount)
+            throw IndexOutOfBoundsException("Index: $index, entity count: $entityCount")
+
+        channel.position(offsets[index])
+
+        return BundleCodec.readRecord(BinaryInput(channel, RECORD_BUFFER_SIZE))
+    }
+
+    /**
+     * @return indices of entities whose positions are within [area]
+     */
+    fun getEntityIndices(area: Rectangle2D): IntArray {
+        val result = IntArray()
+
+        val minX = chunkOf(area.minX)
+        val maxX = chunkOf(area.maxX)
+        val minY = chunkOf(area.minY)
+        val maxY = chunkOf(area.maxY)
+
+        val areaChunks = (maxX - minX + 1).toLong() * (maxY - minY + 1)
+
+        if (areaChunks > chunks.size) {
+            chunks.values.forEach { collect(it, area, result) }
+        } else {
+            for (chunkX in minX..maxX) {
+                for (chunkY in minY..maxY) {
+                    chunks[chunkKey(chunkX, chunkY)]?.let { collect(it, area, result) }
+                }
+            }
+        }
+
+        // keep records in file order to minimize seeking
+        result.sort()
+
+        return result
+    }
+
+    private fun collect(chunk: IntArray, area: Rectangle2D, result: IntArray) {
+        for (i in 0..chunk.size - 1) {
+            val index = chunk.items[i]
+
+            if (area.contains(getX(index), getY(index)))
+                result.add(index)
+        }
+    }
+
+    /**
+     * Reads all entity bundles in order, one at a time.
+     */
+    fun forEachEntity(action: (Int, Bundle) -> Unit) {
+        if (entityCount == 0)
+            return
+
+        channel.position(offsets[0])
+        val input = BinaryInput(channel)
+
+        for (i in 0..entityCount - 1) {
+            action(i, BundleCodec.readRecord(input))
+        }
+    }
+
+    /**
+     * Spawns entities located within [area] into [world] using its entity factory,
+     * then loads their saved state.
+     *
+     * @return spawned entities
+     */
+    fun loadRegion(world: GameWorld, area: Rectangle2D): List<Entity> {
+        val indices = getEntityIndices(area)
+
+        return (0..indices.size - 1).map { load(world, indices.items[it]) }
+    }
+
+    /**
+     * Spawns all entities into [world] using its entity factory, then loads their saved state.
+     *
+     * @return spawned entities
+     */
+    fun loadAll(world: GameWorld): List<Entity> {
+        val entities = ArrayList<Entity>(entityCount)
+
+        forEachEntity { i, bundle -> entities.add(spawn(world, i, bundle)) }
+
+        return entities
+    }
+
+    private fun load(world: GameWorld, index: Int) = spawn(world, index, readEntity(index))
+
+    private fun spawn(world: GameWorld, index: Int, bundle: Bundle): Entity {
+        val entity = world.spawn(bundle.name, SpawnData(getX(index), getY(index)))
+        entity.load(bundle)
+        return entity
+    }
+
+    override fun close() {
+        channel.close()
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.ecs.serialization
+
+import com.almasb.fxgl.ecs.Entity
+import com.almasb.fxgl.entity.component.PositionComponent
+import com.almasb.fxgl.io.serialization.BinaryOutput
+import com.almasb.fxgl.io.serialization.Bundle
+import com.almasb.fxgl.io.serialization.BundleCodec
+import java.io.Closeable
+import java.nio.channels.FileChannel
+import java.nio.channels.WritableByteChannel
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+
+/**
+ * Writes a world snapshot to a channel one entity at a time,
+ * so only a single entity bundle is held in memory at any point.
+ *
+ * Layout: header (magic, version, chunk size), entity records, index, index offset.
+ * Each record is an entity bundle (named after the entity spawn name)
+ * with its own string table, so it can be read independently.
+ * The index holds offset and position of each record and is read by [WorldSnapshotReader]
+ * to load entities of a given region only.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class WorldSnapshotWriter
+@JvmOverloads constructor(private val channel: WritableByteChannel,
+                          private val chunkSize: Double = DEFAULT_CHUNK_SIZE) : Closeable {
+
+    companion object {
+        internal const val MAGIC = 0x46584757 // FXGW
+        internal const val VERSION = 1
+
+        const val DEFAULT_CHUNK_SIZE = 512.0
+
+        /**
+         * @return writer to [file], replacing its contents
+         */
+        @JvmStatic @JvmOverloads fun open(file: Path, chunkSize: Double = DEFAULT_CHUNK_SIZE): WorldSnapshotWriter {
+            val channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+
+            return WorldSnapshotWriter(channel, chunkSize)
+        }
+    }
+
+    private val output = BinaryOutput(channel)
+
+    private var offsets = LongArray(64)
+    private var positions = DoubleArray(128)
+
+    /**
+     * Number of entities written so far.
+     */
+    var entityCount = 0
+        private set
+
+    private var closed = false
+
+    init {
+        if (chunkSize <= 0)
+            throw IllegalArgumentException("Chunk size must be positive: $chunkSize")
+
+        output.writeVarInt(MAGIC)
+        output.writeVarInt(VERSION)
+        output.writeDouble(chunkSize)
+    }
+
+    /**
+     * Writes serializable state of [entity], see [Entity.save].
+     * The entity is indexed by its position if it has [PositionComponent], otherwise by (0, 0).
+     *
+     * @param spawnName name used to spawn the entity when loading
+     */
+    fun write(spawnName: String, entity: Entity) {
+        val position = entity.getComponentOptional(PositionComponent::class.java)
+
+        val bundle = Bundle(spawnName)
+        entity.save(bundle)
+
+        write(bundle, position.map { it.x }.orElse(0.0), position.map { it.y }.orElse(0.0))
+    }
+
+    /**
+     * Writes an entity [bundle] located at [x], [y].
+     */
+    fun write(bundle: Bundle, x: Double, y: Double) {
+        if (closed)
+            throw IllegalStateException("Writer is closed")
+
+        if (entityCount == offsets.size) {
+            offsets = offsets.copyOf(entityCount * 2)
+            positions = positions.copyOf(entityCount * 4)
+        }
+
+        offsets[entityCount] = output.position
+        positions[entityCount * 2] = x
+        positions[entityCount * 2 + 1] = y
+        entityCount++
+
+        BundleCodec.writeRecord(bundle, output)
+    }
+
+    /**
+     * Writes the index and closes the channel.
+     */
+    override fun close() {
+        if (closed)
+            return
+
+        closed = true
+
+        channel.use {
+            val indexOffset = output.position
+
+            output.writeVarInt(entityCount)
+
+            var lastOffset = 0L
+            for (i in 0..entityCount - 1) {
+                output.writeVarLong(offsets[i] - lastOffset)
+                output.writeDouble(positions[i * 2])
+                output.writeDouble(positions[i * 2 + 1])
+
+                lastOffset = offsets[i]
+            }
+
+            output.writeLong(indexOffset)
+            output.flush()
+        }
+    }
+}
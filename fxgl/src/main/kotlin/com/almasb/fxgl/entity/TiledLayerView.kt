@@ -0,0 +1,274 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.entity
+
+import com.almasb.fxgl.app.FXGL
+import com.almasb.fxgl.ecs.Control
+import com.almasb.fxgl.ecs.Entity
+import com.almasb.fxgl.parser.tiled.Layer
+import com.almasb.fxgl.parser.tiled.TiledMap
+import com.almasb.fxgl.parser.tiled.TilesetIndex
+import com.almasb.fxgl.scene.Viewport
+import javafx.beans.InvalidationListener
+import javafx.beans.WeakInvalidationListener
+import javafx.scene.Parent
+import javafx.scene.image.Image
+import javafx.scene.image.ImageView
+import javafx.scene.image.WritableImage
+import java.util.*
+
+/**
+ * View of a Tiled tile layer that is split into square chunks of tiles.
+ * Chunk images are built on demand when they approach the viewport and
+ * only chunks near the viewport are attached to the scene graph.
+ * Chunk images that are no longer near the viewport are kept until
+ * there are more than [maxChunks], then least recently used ones are evicted.
+ *
+ * Viewport and view movement only marks chunks as outdated,
+ * the scene graph is changed in [onUpdate], which is called every frame by [ChunkControl].
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class TiledLayerView
+@JvmOverloads constructor(
+
+        val map: TiledMap,
+
+        val layer: Layer,
+
+        private val viewport: Viewport,
+
+        /**
+         * Number of tiles in each dimension of a chunk.
+         */
+        val chunkSize: Int = 16,
+
+        /**
+         * Max number of chunk images kept in memory.
+         */
+        val maxChunks: Int = 64) : Parent() {
+
+    /**
+     * Chunk image view or null if chunk has no tiles.
+     */
+    private class Chunk(val view: ImageView?)
+
+    private val index = TilesetIndex(map.tilesets)
+
+    private val tilesetImages = arrayOfNulls<Image>(map.tilesets.size)
+
+    private val chunkPixelWidth = chunkSize * map.tilewidth
+    private val chunkPixelHeight = chunkSize * map.tileheight
+
+    private val chunksX = (layer.width + chunkSize - 1) / chunkSize
+    private val chunksY = (layer.height + chunkSize - 1) / chunkSize
+
+    /**
+     * Chunks in access order, least recently used first.
+     */
+    private val chunks = LinkedHashMap<Long, Chunk>(16, 0.75f, true)
+
+    private var minChunkX = 0
+    private var minChunkY = 0
+    private var maxChunkX = -1
+    private var maxChunkY = -1
+
+    /**
+     * Set when viewport or view moved since chunks were last updated.
+     */
+    private var dirty = false
+
+    // strong reference, since viewport only has weak ones
+    private val updateListener = InvalidationListener { dirty = true }
+
+    init {
+        if (chunkSize < 1)
+            throw IllegalArgumentException("Chunk size must be positive")
+
+        val weakListener = WeakInvalidationListener(updateListener)
+
+        viewport.xProperty().addListener(weakListener)
+        viewport.yProperty().addListener(weakListener)
+        viewport.zoomProperty().addListener(weakListener)
+
+        // entity movement
+        localToSceneTransformProperty().addListener(weakListener)
+
+        updateChunks()
+    }
+
+    /**
+     * @return number of chunk images in memory
+     */
+    fun getLoadedChunkCount() = chunks.values.count { it.view != null }
+
+    /**
+     * Updates chunks if viewport or view moved since last update.
+     * Called by [ChunkControl], as the scene graph must not be changed from within the property listeners.
+     */
+    fun onUpdate() {
+        if (dirty)
+            updateChunks()
+    }
+
+    /**
+     * Builds and attaches chunks near the viewport, and detaches chunks further away.
+     */
+    fun updateChunks() {
+        dirty = false
+
+        // validate, so that the listener is notified of the next change
+        localToSceneTransform
+
+        if (chunksX == 0 || chunksY == 0 || chunkPixelWidth == 0 || chunkPixelHeight == 0)
+            return
+
+        // view origin in world coordinates, parent is the entity view
+        val origin = localToParent(0.0, 0.0).let { parent?.localToParent(it) ?: it }
+
+        val minX = viewport.getX() - origin.x
+        val minY = viewport.getY() - origin.y
+        val maxX = minX + viewport.width / viewport.getZoom()
+        val maxY = minY + viewport.height / viewport.getZoom()
+
+        // chunks one chunk away from viewport are also built
+        val newMinX = Math.max(Math.floor(minX / chunkPixelWidth).toInt() - 1, 0)
+        val newMinY = Math.max(Math.floor(minY / chunkPixelHeight).toInt() - 1, 0)
+        val newMaxX = Math.min(Math.floor(maxX / chunkPixelWidth).toInt() + 1, chunksX - 1)
+        val newMaxY = Math.min(Math.floor(maxY / chunkPixelHeight).toInt() + 1, chunksY - 1)
+
+        if (newMinX == minChunkX && newMinY == minChunkY && newMaxX == maxChunkX && newMaxY == maxChunkY)
+            return
+
+        minChunkX = newMinX
+        minChunkY = newMinY
+        maxChunkX = newMaxX
+        maxChunkY = newMaxY
+
+        for (y in minChunkY..maxChunkY) {
+            for (x in minChunkX..maxChunkX) {
+                val key = key(x, y)
+
+                var chunk = chunks[key]
+                if (chunk == null) {
+                    chunk = Chunk(buildChunk(x, y))
+                    chunks[key] = chunk
+                }
+
+                if (chunk.view != null && chunk.view.parent == null)
+                    children.add(chunk.view)
+            }
+        }
+
+        detachAndEvict()
+    }
+
+    private fun detachAndEvict() {
+        var size = chunks.size
+
+        val iterator = chunks.entries.iterator()
+        while (iterator.hasNext()) {
+            val entry = iterator.next()
+
+            if (isNear(entry.key))
+                continue
+
+            entry.value.view?.let { children.remove(it) }
+
+            if (size > maxChunks) {
+                iterator.remove()
+                size--
+            }
+        }
+    }
+
+    private fun isNear(key: Long): Boolean {
+        val x = chunkX(key)
+        val y = chunkY(key)
+
+        return x in minChunkX..maxChunkX && y in minChunkY..maxChunkY
+    }
+
+    private fun buildChunk(chunkX: Int, chunkY: Int): ImageView? {
+        val startX = chunkX * chunkSize
+        val startY = chunkY * chunkSize
+        val endX = Math.min(startX + chunkSize, layer.width)
+        val endY = Math.min(startY + chunkSize, layer.height)
+
+        if (isEmpty(startX, startY, endX, endY))
+            return null
+
+        val image = WritableImage(chunkPixelWidth, chunkPixelHeight)
+        val writer = image.pixelWriter
+
+        for (y in startY..endY - 1) {
+            for (x in startX..endX - 1) {
+                val gid = layer.data[y * layer.width + x]
+
+                // empty tile
+                if (gid == 0)
+                    continue
+
+                val tilesetIndex = index.getTilesetIndex(gid)
+                val tileset = map.tilesets[tilesetIndex]
+
+                val w = Math.min(tileset.tilewidth, map.tilewidth)
+                val h = Math.min(tileset.tileheight, map.tileheight)
+
+                writer.setPixels((x - startX) * map.tilewidth, (y - startY) * map.tileheight, w, h,
+                        getTilesetImage(tilesetIndex).pixelReader, index.getSourceX(gid), index.getSourceY(gid))
+            }
+        }
+
+        val view = ImageView(image)
+        view.translateX = (chunkX * chunkPixelWidth).toDouble()
+        view.translateY = (chunkY * chunkPixelHeight).toDouble()
+
+        return view
+    }
+
+    private fun isEmpty(startX: Int, startY: Int, endX: Int, endY: Int): Boolean {
+        for (y in startY..endY - 1) {
+            for (x in startX..endX - 1) {
+                if (layer.data[y * layer.width + x] != 0)
+                    return false
+            }
+        }
+
+        return true
+    }
+
+    private fun getTilesetImage(tilesetIndex: Int): Image {
+        var image = tilesetImages[tilesetIndex]
+
+        if (image == null) {
+            var imageName = map.tilesets[tilesetIndex].image
+            imageName = imageName.substring(imageName.lastIndexOf("/") + 1)
+
+            image = FXGL.getAssetLoader().loadTexture(imageName).image
+            tilesetImages[tilesetIndex] = image
+        }
+
+        return image!!
+    }
+
+    private fun key(chunkX: Int, chunkY: Int) = (chunkX.toLong() shl 32) or (chunkY.toLong() and 0xFFFFFFFFL)
+
+    private fun chunkX(key: Long) = (key shr 32).toInt()
+
+    private fun chunkY(key: Long) = key.toInt()
+
+    /**
+     * Updates chunks of the view once per frame.
+     */
+    class ChunkControl(private val view: TiledLayerView) : Control() {
+
+        override fun onUpdate(entity: Entity, tpf: Double) {
+            view.onUpdate()
+        }
+    }
+}
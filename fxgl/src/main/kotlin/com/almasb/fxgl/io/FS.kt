@@ -6,6 +6,8 @@
 
 package com.almasb.fxgl.io
 
+import com.almasb.fxgl.io.serialization.Bundle
+import com.almasb.fxgl.io.serialization.BundleCodec
 import org.apache.logging.log4j.LogManager
 import java.io.*
 import java.nio.file.*
@@ -41,13 +43,9 @@ class FS {
 
             val file = Paths.get(fileName)
 
-            // if file.parent is null we will use current dir, which exists
-            if (file.parent != null && !Files.exists(file.parent)) {
-                log.debug ( "Creating directories to: ${file.parent}" )
-                Files.createDirectories(file.parent)
-            }
+            createParentDirs(file)
 
-            ObjectOutputStream(Files.newOutputStream(file)).use {
+            ObjectOutputStream(BufferedOutputStream(Files.newOutputStream(file))).use {
                 log.debug ( "Writing to: $file" )
                 it.writeObject(data)
             }
@@ -67,12 +65,55 @@ class FS {
 
             errorIfAbsent(file)
 
-            ObjectInputStream(Files.newInputStream(file)).use {
+            ObjectInputStream(BufferedInputStream(Files.newInputStream(file))).use {
                 log.debug ( "Reading from: $file" )
                 return@taskOf it.readObject() as T
             }
         }
 
+        /**
+         * Writes bundle to file in binary format, creating required directories.
+         * Unlike [writeDataTask], Java serialization is not used (except for
+         * values of types unknown to [BundleCodec]).
+         *
+         * @param bundle bundle to save
+         * @param fileName to save as
+         * @return IO task
+         */
+        @JvmStatic fun writeBundleTask(bundle: Bundle, fileName: String) = voidTaskOf("writeBundleTask($fileName)", {
+
+            val file = Paths.get(fileName)
+
+            createParentDirs(file)
+
+            log.debug ( "Writing to: $file" )
+            BundleCodec.write(bundle, file)
+        })
+
+        /**
+         * Loads bundle from file written by [writeBundleTask].
+         *
+         * @param fileName file to load from
+         * @return IO task
+         */
+        @JvmStatic fun readBundleTask(fileName: String) = taskOf("readBundleTask($fileName)") {
+
+            val file = Paths.get(fileName)
+
+            errorIfAbsent(file)
+
+            log.debug ( "Reading from: $file" )
+            return@taskOf BundleCodec.read(file)
+        }
+
+        private fun createParentDirs(file: Path) {
+            // if file.parent is null we will use current dir, which exists
+            if (file.parent != null && !Files.exists(file.parent)) {
+                log.debug ( "Creating directories to: ${file.parent}" )
+                Files.createDirectories(file.parent)
+            }
+        }
+
         /**
          * Loads file names from given directory.
          * Searches subdirectories if recursive flag is on.
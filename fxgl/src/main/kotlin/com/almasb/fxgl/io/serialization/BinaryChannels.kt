@@ -0,0 +1,217 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.io.serialization
+
+import java.io.EOFException
+import java.nio.ByteBuffer
+import java.nio.channels.ReadableByteChannel
+import java.nio.channels.WritableByteChannel
+
+/**
+ * Buffered binary output to a channel.
+ * Ints and longs are written as varints (zigzag encoded if signed).
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+internal class BinaryOutput(private val channel: WritableByteChannel, bufferSize: Int = 64 * 1024) {
+
+    private val buffer = ByteBuffer.allocate(bufferSize)
+
+    private var flushed = 0L
+
+    /**
+     * Number of bytes written so far, including those not yet flushed.
+     */
+    val position: Long
+        get() = flushed + buffer.position()
+
+    private fun require(bytes: Int) {
+        if (buffer.remaining() < bytes)
+            flush()
+    }
+
+    fun writeByte(value: Int) {
+        require(1)
+        buffer.put(value.toByte())
+    }
+
+    fun writeVarInt(value: Int) {
+        require(5)
+
+        var v = value
+        while (v and 0x7F.inv() != 0) {
+            buffer.put(((v and 0x7F) or 0x80).toByte())
+            v = v ushr 7
+        }
+
+        buffer.put(v.toByte())
+    }
+
+    fun writeVarLong(value: Long) {
+        require(10)
+
+        var v = value
+        while (v and 0x7FL.inv() != 0L) {
+            buffer.put(((v and 0x7F) or 0x80).toByte())
+            v = v ushr 7
+        }
+
+        buffer.put(v.toByte())
+    }
+
+    fun writeSignedVarInt(value: Int) = writeVarInt((value shl 1) xor (value shr 31))
+
+    fun writeSignedVarLong(value: Long) = writeVarLong((value shl 1) xor (value shr 63))
+
+    fun writeLong(value: Long) {
+        require(8)
+        buffer.putLong(value)
+    }
+
+    fun writeFloat(value: Float) {
+        require(4)
+        buffer.putFloat(value)
+    }
+
+    fun writeDouble(value: Double) {
+        require(8)
+        buffer.putDouble(value)
+    }
+
+    fun writeBytes(bytes: ByteArray) {
+        var offset = 0
+
+        while (offset < bytes.size) {
+            if (!buffer.hasRemaining())
+                flush()
+
+            val length = Math.min(buffer.remaining(), bytes.size - offset)
+            buffer.put(bytes, offset, length)
+            offset += length
+        }
+    }
+
+    fun flush() {
+        buffer.flip()
+
+        flushed += buffer.remaining()
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer)
+        }
+
+        buffer.clear()
+    }
+}
+
+/**
+ * Buffered binary input from a channel, reads what [BinaryOutput] writes.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+internal class BinaryInput(private val channel: ReadableByteChannel, bufferSize: Int = 64 * 1024) {
+
+    private val buffer = ByteBuffer.allocate(bufferSize)
+
+    init {
+        buffer.limit(0)
+    }
+
+    private fun require(bytes: Int) {
+        if (buffer.remaining() >= bytes)
+            return
+
+        buffer.compact()
+
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) == -1)
+                throw EOFException("Unexpected end of stream")
+        }
+
+        buffer.flip()
+    }
+
+    fun readByte(): Int {
+        require(1)
+        return buffer.get().toInt()
+    }
+
+    fun readVarInt(): Int {
+        var result = 0
+        var shift = 0
+
+        while (shift < 32) {
+            val b = readByte()
+            result = result or ((b and 0x7F) shl shift)
+
+            if (b and 0x80 == 0)
+                return result
+
+            shift += 7
+        }
+
+        throw IllegalStateException("Malformed varint")
+    }
+
+    fun readVarLong(): Long {
+        var result = 0L
+        var shift = 0
+
+        while (shift < 64) {
+            val b = readByte()
+            result = result or ((b and 0x7F).toLong() shl shift)
+
+            if (b and 0x80 == 0)
+                return result
+
+            shift += 7
+        }
+
+        throw IllegalStateException("Malformed varlong")
+    }
+
+    fun readSignedVarInt(): Int {
+        val v = readVarInt()
+        return (v ushr 1) xor -(v and 1)
+    }
+
+    fun readSignedVarLong(): Long {
+        val v = readVarLong()
+        return (v ushr 1) xor -(v and 1)
+    }
+
+    fun readLong(): Long {
+        require(8)
+        return buffer.long
+    }
+
+    fun readFloat(): Float {
+        require(4)
+        return buffer.float
+    }
+
+    fun readDouble(): Double {
+        require(8)
+        return buffer.double
+    }
+
+    fun readBytes(length: Int): ByteArray {
+        val bytes = ByteArray(length)
+
+        var offset = 0
+        while (offset < length) {
+            if (!buffer.hasRemaining())
+                require(1)
+
+            val count = Math.min(buffer.remaining(), length - offset)
+            buffer.get(bytes, offset, count)
+            offset += count
+        }
+
+        return bytes
+    }
+}
@@ -7,12 +7,16 @@
 package com.almasb.fxgl.io.serialization
 
 import org.apache.logging.log4j.LogManager
+import java.io.ObjectInputStream
 import java.io.Serializable
 import java.util.*
 
 /**
  * Bundle is used to store values mapped with certain keys.
  *
+ * When written with Java serialization, a bundle is stored in the
+ * compact [BundleCodec] format.
+ *
  * @author Almas Baimagambetov (almaslvl@gmail.com)
  */
 class Bundle(val name: String) : Serializable {
@@ -23,13 +27,13 @@ class Bundle(val name: String) : Serializable {
         private val log = LogManager.getLogger(Bundle::class.java)
     }
 
-    private val data = HashMap<String, Any>()
+    internal val data = HashMap<String, Any>()
 
     /**
      * Store a [value] with given [key].
      */
     fun put(key: String, value: Serializable) {
-        data.put(name + "." + key, value)
+        data.put(key, value)
     }
 
     /**
@@ -37,7 +41,7 @@ class Bundle(val name: String) : Serializable {
      */
     @Suppress("UNCHECKED_CAST")
     fun <T> get(key: String): T {
-        return data[name + "." + key] as T
+        return data[key] as T
     }
 
     /**
@@ -45,6 +49,34 @@ class Bundle(val name: String) : Serializable {
      */
     fun log() {
         log.debug("Logging bundle: $name")
-        data.forEach { k, v -> log.debug("$k=$v") }
+        data.forEach { k, v -> log.debug("$name.$k=$v") }
+    }
+
+    private fun writeReplace(): Any = BinaryBundle(BundleCodec.toBytes(this))
+
+    /**
+     * Only called for bundles written before [writeReplace] was introduced,
+     * whose keys were stored as "name.key".
+     */
+    private fun readObject(input: ObjectInputStream) {
+        input.defaultReadObject()
+
+        val prefix = "$name."
+        val entries = data.entries.map { it.key.removePrefix(prefix) to it.value }
+
+        data.clear()
+        entries.forEach { data[it.first] = it.second }
     }
-}
\ No newline at end of file
+}
+
+/**
+ * Serialized form of [Bundle].
+ */
+internal class BinaryBundle(private val bytes: ByteArray) : Serializable {
+
+    companion object {
+        private const val serialVersionUID = 1L
+    }
+
+    private fun readResolve(): Any = BundleCodec.fromBytes(bytes)
+}
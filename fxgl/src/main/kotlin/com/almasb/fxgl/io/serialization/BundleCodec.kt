@@ -0,0 +1,386 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.io.serialization
+
+import java.io.*
+import java.nio.channels.Channels
+import java.nio.channels.FileChannel
+import java.nio.channels.ReadableByteChannel
+import java.nio.channels.WritableByteChannel
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
+import java.util.*
+
+/**
+ * Compact binary format for [Bundle].
+ *
+ * Layout: magic, version, then the root bundle.
+ * A bundle is its name, number of entries and entries (key, type tag, value).
+ * Nested bundles are written inline.
+ * Strings (names, keys and string values) are interned: the first occurrence is written in full
+ * and later occurrences as an index into the table of strings read so far.
+ * Ints and longs are zigzag varints, primitive arrays are written as typed arrays.
+ * Values of other types are written with Java serialization.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+object BundleCodec {
+
+    private const val MAGIC = 0x46584742 // FXGB
+    private const val VERSION = 1
+
+    private const val NULL = 0
+    private const val TRUE = 1
+    private const val FALSE = 2
+    private const val BYTE = 3
+    private const val SHORT = 4
+    private const val INT = 5
+    private const val LONG = 6
+    private const val FLOAT = 7
+    private const val DOUBLE = 8
+    private const val CHAR = 9
+    private const val STRING = 10
+    private const val BUNDLE = 11
+    private const val BYTE_ARRAY = 12
+    private const val INT_ARRAY = 13
+    private const val LONG_ARRAY = 14
+    private const val FLOAT_ARRAY = 15
+    private const val DOUBLE_ARRAY = 16
+    private const val BOOLEAN_ARRAY = 17
+    private const val STRING_ARRAY = 18
+    private const val LIST = 19
+    private const val MAP = 20
+    private const val SERIALIZED = 21
+
+    /**
+     * Writes [bundle] to [channel]. The channel is not closed.
+     */
+    @JvmStatic fun write(bundle: Bundle, channel: WritableByteChannel) {
+        val output = BinaryOutput(channel)
+
+        output.writeVarInt(MAGIC)
+        output.writeVarInt(VERSION)
+
+        Writer(output).writeBundle(bundle)
+
+        output.flush()
+    }
+
+    /**
+     * Reads a bundle from [channel]. The channel is not closed.
+     */
+    @JvmStatic fun read(channel: ReadableByteChannel): Bundle {
+        val input = BinaryInput(channel)
+
+        if (input.readVarInt() != MAGIC)
+            throw IOException("Not a bundle")
+
+        val version = input.readVarInt()
+        if (version != VERSION)
+            throw IOException("Unsupported bundle version: $version")
+
+        return Reader(input).readBundle()
+    }
+
+    /**
+     * Writes [bundle] to [file], replacing its contents.
+     */
+    @JvmStatic fun write(bundle: Bundle, file: Path) {
+        FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING).use {
+            write(bundle, it)
+        }
+    }
+
+    /**
+     * Reads a bundle from [file].
+     */
+    @JvmStatic fun read(file: Path): Bundle {
+        FileChannel.open(file, StandardOpenOption.READ).use {
+            return read(it)
+        }
+    }
+
+    /**
+     * Writes [bundle] without header and with its own string table,
+     * so that it can be read back independently of other records.
+     */
+    internal fun writeRecord(bundle: Bundle, output: BinaryOutput) {
+        Writer(output).writeBundle(bundle)
+    }
+
+    /**
+     * Reads a bundle written by [writeRecord].
+     */
+    internal fun readRecord(input: BinaryInput): Bundle {
+        return Reader(input).readBundle()
+    }
+
+    @JvmStatic fun toBytes(bundle: Bundle): ByteArray {
+        val bytes = ByteArrayOutputStream()
+        write(bundle, Channels.newChannel(bytes))
+        return bytes.toByteArray()
+    }
+
+    @JvmStatic fun fromBytes(bytes: ByteArray): Bundle {
+        return read(Channels.newChannel(ByteArrayInputStream(bytes)))
+    }
+
+    private class Writer(private val output: BinaryOutput) {
+
+        private val strings = HashMap<String, Int>()
+
+        fun writeString(value: String) {
+            val index = strings[value]
+
+            if (index != null) {
+                output.writeVarInt(index + 1)
+            } else {
+                strings[value] = strings.size
+
+                val bytes = value.toByteArray(Charsets.UTF_8)
+
+                output.writeVarInt(0)
+                output.writeVarInt(bytes.size)
+                output.writeBytes(bytes)
+            }
+        }
+
+        fun writeBundle(bundle: Bundle) {
+            writeString(bundle.name)
+
+            output.writeVarInt(bundle.data.size)
+
+            for ((key, value) in bundle.data) {
+                writeString(key)
+                writeValue(value)
+            }
+        }
+
+        fun writeValue(value: Any?) {
+            when (value) {
+                null -> output.writeByte(NULL)
+
+                is Boolean -> output.writeByte(if (value) TRUE else FALSE)
+
+                is Byte -> {
+                    output.writeByte(BYTE)
+                    output.writeByte(value.toInt())
+                }
+
+                is Short -> {
+                    output.writeByte(SHORT)
+                    output.writeSignedVarInt(value.toInt())
+                }
+
+                is Int -> {
+                    output.writeByte(INT)
+                    output.writeSignedVarInt(value)
+                }
+
+                is Long -> {
+                    output.writeByte(LONG)
+                    output.writeSignedVarLong(value)
+                }
+
+                is Float -> {
+                    output.writeByte(FLOAT)
+                    output.writeFloat(value)
+                }
+
+                is Double -> {
+                    output.writeByte(DOUBLE)
+                    output.writeDouble(value)
+                }
+
+                is Char -> {
+                    output.writeByte(CHAR)
+                    output.writeVarInt(value.toInt())
+                }
+
+                is String -> {
+                    output.writeByte(STRING)
+                    writeString(value)
+                }
+
+                is Bundle -> {
+                    output.writeByte(BUNDLE)
+                    writeBundle(value)
+                }
+
+                is ByteArray -> {
+                    output.writeByte(BYTE_ARRAY)
+                    output.writeVarInt(value.size)
+                    output.writeBytes(value)
+                }
+
+                is IntArray -> {
+                    output.writeByte(INT_ARRAY)
+                    output.writeVarInt(value.size)
+                    value.forEach { output.writeSignedVarInt(it) }
+                }
+
+                is LongArray -> {
+                    output.writeByte(LONG_ARRAY)
+                    output.writeVarInt(value.size)
+                    value.forEach { output.writeSignedVarLong(it) }
+                }
+
+                is FloatArray -> {
+                    output.writeByte(FLOAT_ARRAY)
+                    output.writeVarInt(value.size)
+                    value.forEach { output.writeFloat(it) }
+                }
+
+                is DoubleArray -> {
+                    output.writeByte(DOUBLE_ARRAY)
+                    output.writeVarInt(value.size)
+                    value.forEach { output.writeDouble(it) }
+                }
+
+                is BooleanArray -> {
+                    output.writeByte(BOOLEAN_ARRAY)
+                    output.writeVarInt(value.size)
+                    value.forEach { output.writeByte(if (it) 1 else 0) }
+                }
+
+                else -> writeObject(value)
+            }
+        }
+
+        /**
+         * Writes collections of exact known types in this format, the rest with Java serialization.
+         */
+        private fun writeObject(value: Any) {
+            when (value.javaClass) {
+                Array<String>::class.java -> {
+                    @Suppress("UNCHECKED_CAST")
+                    value as Array<String?>
+
+                    output.writeByte(STRING_ARRAY)
+                    output.writeVarInt(value.size)
+                    value.forEach { writeValue(it) }
+                }
+
+                ArrayList::class.java -> {
+                    value as ArrayList<*>
+
+                    output.writeByte(LIST)
+                    output.writeVarInt(value.size)
+                    value.forEach { writeValue(it) }
+                }
+
+                HashMap::class.java -> {
+                    value as HashMap<*, *>
+
+                    output.writeByte(MAP)
+                    output.writeVarInt(value.size)
+                    value.forEach { k, v ->
+                        writeValue(k)
+                        writeValue(v)
+                    }
+                }
+
+                else -> {
+                    val bytes = ByteArrayOutputStream()
+                    ObjectOutputStream(bytes).use { it.writeObject(value) }
+
+                    output.writeByte(SERIALIZED)
+                    output.writeVarInt(bytes.size())
+                    output.writeBytes(bytes.toByteArray())
+                }
+            }
+        }
+    }
+
+    private class Reader(private val input: BinaryInput) {
+
+        private val strings = ArrayList<String>()
+
+        fun readString(): String {
+            val index = input.readVarInt()
+
+            if (index > 0)
+                return strings[index - 1]
+
+            val value = String(input.readBytes(input.readVarInt()), Charsets.UTF_8)
+            strings.add(value)
+            return value
+        }
+
+        fun readBundle(): Bundle {
+            val bundle = Bundle(readString())
+
+            val size = input.readVarInt()
+
+            for (i in 0..size - 1) {
+                val key = readString()
+
+                // null values cannot be put via the public API, but may be in lists
+                readValue()?.let { bundle.data[key] = it }
+            }
+
+            return bundle
+        }
+
+        fun readValue(): Any? {
+            val type = input.readByte()
+
+            return when (type) {
+                NULL -> null
+                TRUE -> true
+                FALSE -> false
+                BYTE -> input.readByte().toByte()
+                SHORT -> input.readSignedVarInt().toShort()
+                INT -> input.readSignedVarInt()
+                LONG -> input.readSignedVarLong()
+                FLOAT -> input.readFloat()
+                DOUBLE -> input.readDouble()
+                CHAR -> input.readVarInt().toChar()
+                STRING -> readString()
+                BUNDLE -> readBundle()
+                BYTE_ARRAY -> input.readBytes(input.readVarInt())
+                INT_ARRAY -> IntArray(input.readVarInt()) { input.readSignedVarInt() }
+                LONG_ARRAY -> LongArray(input.readVarInt()) { input.readSignedVarLong() }
+                FLOAT_ARRAY -> FloatArray(input.readVarInt()) { input.readFloat() }
+                DOUBLE_ARRAY -> DoubleArray(input.readVarInt()) { input.readDouble() }
+                BOOLEAN_ARRAY -> BooleanArray(input.readVarInt()) { input.readByte() != 0 }
+                STRING_ARRAY -> Array(input.readVarInt()) { readValue() as String? }
+
+                LIST -> {
+                    val size = input.readVarInt()
+                    val list = ArrayList<Any?>(size)
+
+                    for (i in 0..size - 1) {
+                        list.add(readValue())
+                    }
+
+                    list
+                }
+
+                MAP -> {
+                    val size = input.readVarInt()
+                    val map = HashMap<Any?, Any?>()
+
+                    for (i in 0..size - 1) {
+                        val key = readValue()
+                        map[key] = readValue()
+                    }
+
+                    map
+                }
+
+                SERIALIZED -> {
+                    ObjectInputStream(ByteArrayInputStream(input.readBytes(input.readVarInt()))).use {
+                        it.readObject()
+                    }
+                }
+
+                else -> throw IOException("Unknown value type: $type")
+            }
+        }
+    }
+}
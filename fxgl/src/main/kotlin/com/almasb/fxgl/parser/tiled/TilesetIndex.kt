@@ -0,0 +1,73 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.parser.tiled
+
+/**
+ * Precomputed gid -> (tileset, source x, source y) table,
+ * so that tiles can be looked up without searching tilesets.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class TilesetIndex(val tilesets: List<Tileset>) {
+
+    private val tilesetIndices: IntArray
+    private val sourceX: IntArray
+    private val sourceY: IntArray
+
+    init {
+        val size = tilesets.map { it.firstgid + it.tilecount }.max() ?: 0
+
+        tilesetIndices = IntArray(size) { -1 }
+        sourceX = IntArray(size)
+        sourceY = IntArray(size)
+
+        tilesets.forEachIndexed { index, tileset ->
+            val columns = Math.max(tileset.columns, 1)
+
+            for (localID in 0..tileset.tilecount - 1) {
+                val gid = tileset.firstgid + localID
+
+                // first matching tileset wins
+                if (tilesetIndices[gid] != -1)
+                    continue
+
+                tilesetIndices[gid] = index
+                sourceX[gid] = localID % columns * tileset.tilewidth
+                sourceY[gid] = localID / columns * tileset.tileheight
+            }
+        }
+    }
+
+    /**
+     * @return index of tileset containing [gid] in [tilesets]
+     * @throws IllegalArgumentException if no tileset contains [gid]
+     */
+    fun getTilesetIndex(gid: Int): Int {
+        val index = if (gid in 0..tilesetIndices.size - 1) tilesetIndices[gid] else -1
+
+        if (index == -1)
+            throw IllegalArgumentException("Tileset for gid=$gid not found")
+
+        return index
+    }
+
+    /**
+     * @return tileset containing [gid]
+     * @throws IllegalArgumentException if no tileset contains [gid]
+     */
+    fun getTileset(gid: Int) = tilesets[getTilesetIndex(gid)]
+
+    /**
+     * @return x of the tile in tileset image
+     */
+    fun getSourceX(gid: Int) = sourceX[gid]
+
+    /**
+     * @return y of the tile in tileset image
+     */
+    fun getSourceY(gid: Int) = sourceY[gid]
+}
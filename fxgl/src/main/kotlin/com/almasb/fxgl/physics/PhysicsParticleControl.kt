@@ -9,7 +9,7 @@ package com.almasb.fxgl.physics
 import com.almasb.fxgl.ecs.Entity
 import com.almasb.fxgl.effect.ParticleControl
 import com.almasb.fxgl.physics.box2d.particle.ParticleGroup
-import javafx.geometry.Point2D
+import javafx.scene.effect.BlendMode
 import javafx.scene.paint.Color
 
 /**
@@ -32,7 +32,7 @@ class PhysicsParticleControl(private val group: ParticleGroup,
     }
 
     override fun onUpdate(entity: Entity, tpf: Double) {
-        this.particles.clear()
+        buffer.clear()
 
         val centers = physicsWorld.jBox2DWorld.particleSystem.getParticlePositionBuffer()
 
@@ -42,7 +42,8 @@ class PhysicsParticleControl(private val group: ParticleGroup,
             val x = physicsWorld.toPixels(center.x - radiusMeters).toDouble()
             val y = physicsWorld.toPixels(physicsWorld.toMeters(physicsWorld.appHeight.toDouble()).toDouble() - center.y.toDouble() - radiusMeters).toDouble()
 
-            this.particles.add(PhysicsParticle(Point2D(x, y), radiusPixels, color))
+            // particles are only rendered, physics world moves them
+            buffer.add(null, x, y, 0.0, 0.0, 0.0, 0.0, radiusPixels, 0.0, 0.0, 10.0, color, color, BlendMode.SRC_OVER)
         }
     }
 
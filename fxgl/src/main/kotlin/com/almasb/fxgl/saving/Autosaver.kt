@@ -0,0 +1,167 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.saving
+
+import com.almasb.fxgl.app.listener.StateListener
+import com.almasb.fxgl.core.logging.FXGLLogger
+import com.almasb.fxgl.ecs.Entity
+import com.almasb.fxgl.ecs.GameWorld
+import com.almasb.fxgl.ecs.serialization.WorldSnapshotWriter
+import com.almasb.fxgl.io.FXGLIO
+import com.almasb.fxgl.io.IOTask
+import com.almasb.fxgl.io.voidTaskOf
+import javafx.util.Duration
+import java.io.BufferedOutputStream
+import java.nio.channels.Channels
+import java.nio.file.Files
+import java.nio.file.Paths
+import java.nio.file.StandardCopyOption
+import java.util.concurrent.Executor
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.function.Function
+import java.util.zip.GZIPOutputStream
+
+/**
+ * Periodically saves entities of a game world without stalling the game loop.
+ * Add as a play state listener, see [com.almasb.fxgl.app.GameApplication.addPlayStateListener].
+ *
+ * On update, once [interval] has passed, a [WorldSnapshot] is captured on the calling thread,
+ * i.e. between frames, so the state is consistent.
+ * The snapshot is then encoded, optionally compressed and written on [executor].
+ * The file is written to a temporary file first, then moved, so a crash during save
+ * does not corrupt the previous save. The temporary file is deleted if the save fails.
+ * While a save is in progress, further saves are skipped.
+ * Saved files can be read with [com.almasb.fxgl.ecs.serialization.WorldSnapshotReader].
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class Autosaver
+@JvmOverloads constructor(private val world: GameWorld,
+                          private val spawnName: Function<Entity, String?>,
+                          private val fileName: String,
+                          var interval: Duration = Duration.minutes(1.0),
+                          var isCompressed: Boolean = true,
+                          private val executor: Executor = FXGLIO.defaultExecutor) : StateListener {
+
+    private val log = FXGLLogger.get(javaClass)
+
+    private val saving = AtomicBoolean(false)
+
+    private var time = 0.0
+
+    /**
+     * Metrics of the last completed save, or null if none completed yet.
+     */
+    @Volatile var lastMetrics: SaveMetrics? = null
+        private set
+
+    override fun onUpdate(tpf: Double) {
+        time += tpf
+
+        if (time >= interval.toSeconds()) {
+            time = 0.0
+            save()
+        }
+    }
+
+    /**
+     * Captures the world now and saves it in the background.
+     * Must be called on the thread that updates the world.
+     *
+     * @return false if previous save is still in progress, so this one was skipped
+     */
+    fun save(): Boolean {
+        if (!saving.compareAndSet(false, true)) {
+            log.debug("Previous save in progress, skipping autosave")
+            return false
+        }
+
+        try {
+            val start = System.nanoTime()
+            val snapshot = WorldSnapshot.capture(world.entities, spawnName)
+            val snapshotTime = System.nanoTime() - start
+
+            writeTask(snapshot, snapshotTime)
+                    .onFailureKt {
+                        deleteTmpFile()
+                        saving.set(false)
+                        log.warning("Autosave failed: $it")
+                    }
+                    .executeAsync(executor)
+        } catch (e: Exception) {
+            // capture or submission failed, so no save is in progress
+            saving.set(false)
+            throw e
+        }
+
+        return true
+    }
+
+    private fun file() = Paths.get(fileName).toAbsolutePath()
+
+    private fun tmpFile() = file().let { it.resolveSibling(it.fileName.toString() + ".tmp") }
+
+    private fun deleteTmpFile() {
+        try {
+            Files.deleteIfExists(tmpFile())
+        } catch (e: Exception) {
+            log.warning("Failed to delete ${tmpFile()}: $e")
+        }
+    }
+
+    private fun writeTask(snapshot: WorldSnapshot, snapshotTime: Long): IOTask<Void?> = voidTaskOf("autosave($fileName)", {
+        val start = System.nanoTime()
+
+        val file = file()
+        val tmpFile = tmpFile()
+
+        Files.createDirectories(file.parent)
+
+        var output = BufferedOutputStream(Files.newOutputStream(tmpFile))
+
+        if (isCompressed)
+            output = BufferedOutputStream(GZIPOutputStream(output))
+
+        WorldSnapshotWriter(Channels.newChannel(output)).use { snapshot.writeTo(it) }
+
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+
+        val metrics = SaveMetrics(snapshot.entityCount, snapshotTime, System.nanoTime() - start, Files.size(file))
+
+        log.debug("Autosave complete: $metrics")
+
+        lastMetrics = metrics
+        saving.set(false)
+    })
+}
+
+/**
+ * Timings of a background save.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+data class SaveMetrics(
+
+        /**
+         * Number of entities saved.
+         */
+        val entityCount: Int,
+
+        /**
+         * Time the game loop was paused to capture the snapshot, in nanoseconds.
+         */
+        val snapshotTime: Long,
+
+        /**
+         * Time spent encoding, compressing and writing in the background, in nanoseconds.
+         */
+        val writeTime: Long,
+
+        /**
+         * Size of the written file in bytes.
+         */
+        val fileSize: Long)
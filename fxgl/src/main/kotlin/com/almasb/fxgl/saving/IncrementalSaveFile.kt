@@ -0,0 +1,267 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.saving
+
+import com.almasb.fxgl.core.logging.FXGLLogger
+import com.almasb.fxgl.ecs.Entity
+import com.almasb.fxgl.ecs.GameWorld
+import com.almasb.fxgl.entity.component.IDComponent
+import com.almasb.fxgl.io.IOTask
+import com.almasb.fxgl.io.serialization.Bundle
+import com.almasb.fxgl.io.serialization.BundleCodec
+import com.almasb.fxgl.io.serialization.SerializableType
+import com.almasb.fxgl.io.taskOf
+import com.almasb.fxgl.io.voidTaskOf
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Paths
+import java.nio.file.StandardCopyOption
+import java.nio.file.StandardOpenOption
+import java.util.*
+import java.util.concurrent.ConcurrentLinkedQueue
+
+/**
+ * Save file that is updated incrementally.
+ * Only entities with [IDComponent] are saved, keyed by [IDComponent.getFullID].
+ *
+ * The first save (and each compaction) writes a base file with all entities.
+ * Later saves append a delta segment to "fileName.delta", which only contains entities
+ * whose serializable components or controls were changed (see [com.almasb.fxgl.ecs.Module.markChanged]) or added since
+ * the last save, and keys of removed entities.
+ * Entities with serializable modules that do not track their changes (see [com.almasb.fxgl.ecs.Module.tracksChanges])
+ * are written in every save.
+ * So the cost of a save depends on the amount of change rather than world size.
+ * Once deltas grow larger than the base (times [compactionRatio]) or [maxSegments] is reached,
+ * the next save is a full save, which replaces the base and discards the deltas.
+ *
+ * The first save made through an instance is always a full save.
+ * Entity state is captured when a save task is created, so it must be done on the thread that
+ * updates the world. The returned task can then be executed on any thread.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class IncrementalSaveFile
+@JvmOverloads constructor(val fileName: String,
+                          var compactionRatio: Double = 1.0,
+                          var maxSegments: Int = 32) {
+
+    private val log = FXGLLogger.get(javaClass)
+
+    private val baseFile = Paths.get(fileName)
+    private val deltaFile = Paths.get(fileName + ".delta")
+
+    /**
+     * Keys of entities as of last captured save.
+     */
+    private val savedKeys = HashSet<String>()
+
+    private val pending = ConcurrentLinkedQueue<Segment>()
+
+    /**
+     * Generation of the base file, deltas of other generations are ignored.
+     * Starts from current time, so that bases written by different instances do not match stale deltas.
+     */
+    private var generation = System.currentTimeMillis()
+
+    @Volatile private var writtenGeneration = 0L
+
+    @Volatile private var baseSize = 0L
+    @Volatile private var deltaSize = 0L
+    @Volatile private var segmentCount = 0
+    @Volatile private var forceFullSave = true
+
+    private class Segment(val full: Boolean, val generation: Long, val bundle: Bundle)
+
+    /**
+     * Captures changes of [entities] since last save.
+     * Must be called on the thread that updates the entities.
+     *
+     * @return task that writes captured changes
+     */
+    fun saveTask(entities: List<Entity>): IOTask<Void?> {
+        val full = forceFullSave || segmentCount >= maxSegments || deltaSize > baseSize * compactionRatio
+
+        if (full) {
+            forceFullSave = false
+            generation++
+            segmentCount = 0
+            deltaSize = 0
+        } else {
+            segmentCount++
+        }
+
+        val changed = Bundle("changed")
+        val keys = HashSet<String>()
+
+        for (entity in entities) {
+            val id = entity.getComponentOptional(IDComponent::class.java).orElse(null) ?: continue
+            val key = id.fullID
+
+            keys.add(key)
+
+            if (full || key !in savedKeys || isChanged(entity)) {
+                val bundle = Bundle(id.name)
+                entity.save(bundle)
+
+                changed.put(key, bundle)
+            }
+
+            clearChanged(entity)
+        }
+
+        val bundle = Bundle(if (full) "base" else "delta")
+        bundle.put("generation", generation)
+        bundle.put("changed", changed)
+
+        if (!full) {
+            bundle.put("removed", savedKeys.filter { it !in keys }.toTypedArray())
+        }
+
+        savedKeys.clear()
+        savedKeys.addAll(keys)
+
+        pending.add(Segment(full, generation, bundle))
+
+        log.debug("Captured ${if (full) "full" else "incremental"} save of ${changed.data.size} entities")
+
+        return voidTaskOf("incrementalSave($fileName)", { writePending() })
+    }
+
+    private fun isChanged(entity: Entity): Boolean {
+        return entity.components.any { it is SerializableType && it.isChanged }
+                || entity.controls.any { it is SerializableType && it.isChanged }
+    }
+
+    private fun clearChanged(entity: Entity) {
+        entity.components.forEach { it.clearChanged() }
+        entity.controls.forEach { it.clearChanged() }
+    }
+
+    /**
+     * Writes all captured segments in order of capture,
+     * regardless of the order in which save tasks are executed.
+     */
+    private fun writePending() {
+        synchronized(pending) {
+            while (true) {
+                val segment = pending.poll() ?: break
+
+                try {
+                    if (segment.full) writeBase(segment) else writeDelta(segment)
+                } catch (e: Exception) {
+                    // changes in this segment are lost, so the next save must include everything
+                    forceFullSave = true
+                    throw e
+                }
+            }
+        }
+    }
+
+    private fun writeBase(segment: Segment) {
+        if (baseFile.parent != null)
+            Files.createDirectories(baseFile.parent)
+
+        val tmpFile = Paths.get(fileName + ".tmp")
+
+        BundleCodec.write(segment.bundle, tmpFile)
+        Files.move(tmpFile, baseFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+
+        // if this fails, old deltas are ignored on load due to generation mismatch
+        Files.deleteIfExists(deltaFile)
+
+        baseSize = Files.size(baseFile)
+        writtenGeneration = segment.generation
+    }
+
+    private fun writeDelta(segment: Segment) {
+        // base of this delta failed to write, so a full save is already scheduled
+        if (segment.generation != writtenGeneration)
+            return
+
+        val bytes = BundleCodec.toBytes(segment.bundle)
+
+        val buffer = ByteBuffer.allocate(4 + bytes.size)
+        buffer.putInt(bytes.size).put(bytes).flip()
+
+        FileChannel.open(deltaFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND).use {
+            while (buffer.hasRemaining()) {
+                it.write(buffer)
+            }
+        }
+
+        deltaSize += buffer.capacity()
+    }
+
+    /**
+     * Reads base file and applies deltas to it.
+     * A partially written last delta, e.g. due to a crash, is ignored.
+     *
+     * @return task that results in a bundle of entity bundles keyed by full id,
+     * each entity bundle is named after the entity name in [IDComponent]
+     */
+    fun readTask(): IOTask<Bundle> = taskOf("readIncrementalSave($fileName)") {
+        val base = BundleCodec.read(baseFile)
+        val generation = base.get<Long>("generation")
+        val state = base.get<Bundle>("changed")
+
+        if (Files.exists(deltaFile)) {
+            FileChannel.open(deltaFile, StandardOpenOption.READ).use { channel ->
+                val header = ByteBuffer.allocate(4)
+
+                while (true) {
+                    header.clear()
+                    if (!readFully(channel, header))
+                        break
+
+                    val body = ByteBuffer.allocate(header.getInt(0))
+                    if (!readFully(channel, body))
+                        break
+
+                    val delta = BundleCodec.fromBytes(body.array())
+                    if (delta.get<Long>("generation") != generation)
+                        continue
+
+                    delta.get<kotlin.Array<String>>("removed").forEach { state.data.remove(it) }
+                    state.data.putAll(delta.get<Bundle>("changed").data)
+                }
+            }
+        }
+
+        return@taskOf state
+    }
+
+    private fun readFully(channel: FileChannel, buffer: ByteBuffer): Boolean {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) == -1) {
+                if (buffer.position() > 0)
+                    log.warning("Ignoring incomplete delta in $deltaFile")
+
+                return false
+            }
+        }
+
+        return true
+    }
+
+    /**
+     * Spawns entities from [state] read by [readTask] into [world]
+     * using its entity factory, then loads their saved state.
+     * Must be called on the thread that updates the world.
+     *
+     * @return spawned entities
+     */
+    fun load(world: GameWorld, state: Bundle): List<Entity> {
+        return state.data.values.map {
+            val bundle = it as Bundle
+
+            val entity = world.spawn(bundle.name)
+            entity.load(bundle)
+            entity
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.saving
+
+import com.almasb.fxgl.core.collection.Array
+import com.almasb.fxgl.ecs.Entity
+import com.almasb.fxgl.ecs.serialization.WorldSnapshotWriter
+import com.almasb.fxgl.entity.component.PositionComponent
+import com.almasb.fxgl.io.serialization.Bundle
+import java.util.function.Function
+
+/**
+ * State of serializable components and controls of a set of entities,
+ * captured at a single point in time.
+ *
+ * Capturing only copies values written by [Entity.save],
+ * so it is cheap enough to be done between frames.
+ * A snapshot is not modified after capture and can be written from any thread.
+ * Note: components should write primitives, strings or copies of mutable objects
+ * into bundles, otherwise later changes to those objects will leak into the snapshot.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class WorldSnapshot private constructor(
+        private val bundles: Array<Bundle>,
+        private val positions: DoubleArray) {
+
+    companion object {
+
+        /**
+         * Captures state of [entities] for which [spawnName] returns non-null.
+         * Must be called on the thread that updates the entities.
+         *
+         * @param spawnName name used to spawn the entity when loading, or null if entity should not be saved
+         */
+        @JvmStatic fun capture(entities: List<Entity>, spawnName: Function<Entity, String?>): WorldSnapshot {
+            val bundles = Array<Bundle>(entities.size)
+            val positions = DoubleArray(entities.size * 2)
+
+            for (entity in entities) {
+                val name = spawnName.apply(entity) ?: continue
+
+                val bundle = Bundle(name)
+                entity.save(bundle)
+
+                entity.getComponentOptional(PositionComponent::class.java).ifPresent {
+                    positions[bundles.size() * 2] = it.x
+                    positions[bundles.size() * 2 + 1] = it.y
+                }
+
+                bundles.add(bundle)
+            }
+
+            return WorldSnapshot(bundles, positions)
+        }
+    }
+
+    val entityCount: Int
+        get() = bundles.size()
+
+    /**
+     * Writes all captured entities to [writer].
+     */
+    fun writeTo(writer: WorldSnapshotWriter) {
+        for (i in 0..bundles.size() - 1) {
+            writer.write(bundles[i], positions[i * 2], positions[i * 2 + 1])
+        }
+    }
+}
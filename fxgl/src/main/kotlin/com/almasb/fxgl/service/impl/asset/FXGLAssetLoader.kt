@@ -8,13 +8,18 @@ package com.almasb.fxgl.service.impl.asset
 
 import com.almasb.fxgl.ai.btree.BehaviorTree
 import com.almasb.fxgl.ai.btree.utils.BehaviorTreeParser
+import com.almasb.fxgl.ai.btree.utils.CompiledBehaviorTree
 import com.almasb.fxgl.app.FXGL
+import com.almasb.fxgl.asset.AssetArchive
 import com.almasb.fxgl.asset.AssetCache
+import com.almasb.fxgl.asset.AssetCacheStats
+import com.almasb.fxgl.asset.AssetManifest
 import com.almasb.fxgl.audio.Music
 import com.almasb.fxgl.audio.Sound
 import com.almasb.fxgl.parser.KVFile
 import com.almasb.fxgl.scene.CSS
 import com.almasb.fxgl.service.AssetLoader
+import com.almasb.fxgl.texture.MipChain
 import com.almasb.fxgl.texture.Texture
 import com.almasb.fxgl.ui.FontFactory
 import com.almasb.fxgl.ui.UI
@@ -31,8 +36,18 @@ import javafx.scene.text.Font
 import java.io.*
 import java.net.URL
 import java.nio.file.Files
+import java.nio.file.Path
 import java.nio.file.Paths
+import java.nio.file.StandardCopyOption
 import java.util.*
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.function.BiConsumer
+import java.util.function.Consumer
 import java.util.stream.Collectors
 import java.util.zip.ZipEntry
 import java.util.zip.ZipInputStream
@@ -43,7 +58,9 @@ import java.util.zip.ZipInputStream
  * @author Almas Baimagambetov (almaslvl@gmail.com)
  */
 class FXGLAssetLoader
-@Inject private constructor(@Named("asset.cache.size") cacheSize: Int): AssetLoader {
+@Inject private constructor(@Named("asset.cache.size") cacheSize: Int,
+                             @Named("asset.cache.budget") cacheBudget: Int,
+                             @Named("asset.cache.soft") softCache: Boolean): AssetLoader {
 
     private val ASSETS_DIR = "/assets/"
     private val TEXTURES_DIR = ASSETS_DIR + "textures/"
@@ -63,12 +80,20 @@ class FXGLAssetLoader
     private val ICON_DIR = UI_DIR + "icons/"
     private val CURSORS_DIR = UI_DIR + "cursors/"
 
+    private val BTREE_CACHE_DIR = "system/cache/ai/"
+
+    private val MAX_LOADER_THREADS = 8
+
+    private val MIP_CHAIN_SUFFIX = "#mip"
+
     private val log = FXGL.getLogger(javaClass)
 
-    private val cachedAssets = AssetCache(cacheSize)
+    private val cachedAssets = AssetCache(cacheBudget * 1024L * 1024L, cacheSize)
 
     init {
-        log.debugf("Asset cacheSize=%d", cacheSize)
+        cachedAssets.isSoftTierEnabled = softCache
+
+        log.debugf("Asset cacheSize=%d, cacheBudget=%d MB, softCache=%b", cacheSize, cacheBudget, softCache)
     }
 
     /**
@@ -92,16 +117,20 @@ class FXGLAssetLoader
      * @throws IllegalArgumentException if asset not found or loading error
      */
     override fun loadTexture(name: String): Texture {
+        return Texture(loadTextureImage(name))
+    }
+
+    private fun loadTextureImage(name: String): Image {
         val asset = getAssetFromCache(TEXTURES_DIR + name)
         if (asset != null) {
-            return Texture(Image::class.java.cast(asset))
+            return Image::class.java.cast(asset)
         }
 
         try {
             getStream(TEXTURES_DIR + name).use {
-                val texture = Texture(Image(it))
-                cachedAssets.put(TEXTURES_DIR + name, texture.image)
-                return texture
+                val image = Image(it)
+                cachedAssets.put(TEXTURES_DIR + name, image)
+                return image
             }
         } catch (e: Exception) {
             throw loadFailed(name, e)
@@ -113,6 +142,9 @@ class FXGLAssetLoader
      * Then resizes it to given width and height without preserving aspect ratio.
      * Either returns a valid texture or throws an exception in case of errors.
      *
+     * The source is decoded once and resized images are produced from its [MipChain],
+     * so requesting many different sizes of the same texture is cheap.
+     *
      *
      * Supported image formats are:
      *
@@ -141,15 +173,34 @@ class FXGLAssetLoader
             return Texture(Image::class.java.cast(asset))
         }
 
-        try {
-            getStream(TEXTURES_DIR + name).use {
-                val texture = Texture(Image(it, width, height, false, true))
-                cachedAssets.put(cacheKey, texture.image)
-                return texture
-            }
-        } catch (e: Exception) {
-            throw loadFailed(name, e)
+        val w = Math.max(1, Math.round(width).toInt())
+        val h = Math.max(1, Math.round(height).toInt())
+
+        val mipChain = loadMipChain(name)
+        val image = mipChain.getImage(w, h)
+
+        // images of levels are already held by the chain
+        if ((0 until mipChain.numLevels).none { mipChain.getLevel(it) === image })
+            cachedAssets.put(cacheKey, image)
+
+        return Texture(image)
+    }
+
+    private fun loadMipChain(name: String): MipChain {
+        val cacheKey = TEXTURES_DIR + name + MIP_CHAIN_SUFFIX
+
+        val asset = getAssetFromCache(cacheKey)
+        if (asset != null) {
+            return MipChain::class.java.cast(asset)
         }
+
+        val image = loadTextureImage(name)
+
+        // levels are derived on demand, so chain weight grows after it is cached
+        val mipChain = MipChain(image, Consumer { cachedAssets.updateWeight(cacheKey, it, it.weight) })
+
+        cachedAssets.put(cacheKey, mipChain, mipChain.weight)
+        return mipChain
     }
 
     /**
@@ -173,8 +224,11 @@ class FXGLAssetLoader
         }
 
         try {
-            val sound = Sound(AudioClip(getURL(SOUNDS_DIR + name).toExternalForm()))
-            cachedAssets.put(SOUNDS_DIR + name, sound)
+            val url = getURL(SOUNDS_DIR + name)
+            val sound = Sound(AudioClip(url.toExternalForm()))
+
+            // WAV is uncompressed, so file size is close to decoded size
+            cachedAssets.put(SOUNDS_DIR + name, sound, getContentLength(url))
             return sound
         } catch (e: Exception) {
             throw loadFailed(name, e)
@@ -202,8 +256,11 @@ class FXGLAssetLoader
         }
 
         try {
-            val music = Music(Media(getURL(MUSIC_DIR + name).toExternalForm()))
-            cachedAssets.put(MUSIC_DIR + name, music)
+            val url = getURL(MUSIC_DIR + name)
+            val music = Music(Media(url.toExternalForm()))
+
+            // music is streamed, so only encoded data is held
+            cachedAssets.put(MUSIC_DIR + name, music, getContentLength(url))
             return music
         } catch (e: Exception) {
             throw loadFailed(name, e)
@@ -415,6 +472,12 @@ class FXGLAssetLoader
     /**
      * Loads a behavior tree from /assets/ai/.
      * Either returns a valid behavior tree or throws an exception in case of errors.
+     *
+     * Parsed trees are compiled to [CompiledBehaviorTree] files in [BTREE_CACHE_DIR],
+     * named by the content hash of the source, so subsequent loads skip parsing.
+     * The source is always read and hashed (rather than trusting the manifest hash),
+     * so edited trees are never served from a stale compiled file.
+     * Compiled files that cannot be read (e.g. older format or changed task attributes) are replaced.
 
      * @param name tree name without the /assets/ai/, e.g. "patrol.tree"
      * *
@@ -426,12 +489,43 @@ class FXGLAssetLoader
      */
     override fun <T> loadBehaviorTree(name: String): BehaviorTree<T> {
         try {
-            getStream(AI_DIR + name).use { return BehaviorTreeParser<T>().parse(it, null) }
+            val bytes = getStream(AI_DIR + name).use { it.readBytes() }
+
+            val file = Paths.get(BTREE_CACHE_DIR, AssetManifest.hash(ByteArrayInputStream(bytes)) + ".cbt")
+
+            if (Files.exists(file)) {
+                try {
+                    Files.newInputStream(file).buffered().use { return CompiledBehaviorTree.read<T>(it, null) }
+                } catch (e: Exception) {
+                    log.warning("Failed to load compiled tree $file: $e")
+                }
+            }
+
+            val tree = BehaviorTreeParser<T>().parse(ByteArrayInputStream(bytes), null)
+
+            saveCompiledTree(tree, file)
+
+            return tree
         } catch (e: Exception) {
             throw loadFailed(name, e)
         }
     }
 
+    private fun saveCompiledTree(tree: BehaviorTree<*>, file: Path) {
+        try {
+            Files.createDirectories(file.parent)
+
+            val tmpFile = file.resolveSibling(file.fileName.toString() + ".tmp")
+
+            Files.newOutputStream(tmpFile).buffered().use { CompiledBehaviorTree.write(tree, it) }
+
+            Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+        } catch (e: Exception) {
+            // the tree is valid, it will just be parsed again next time
+            log.warning("Failed to save compiled tree $file: $e")
+        }
+    }
+
     @Suppress("UNCHECKED_CAST")
     private fun <T> loadDataInternal(name: String): T {
         try {
@@ -441,8 +535,14 @@ class FXGLAssetLoader
         }
     }
 
+    /**
+     * Resolved resource URLs, so that each resource is looked up on classpath once.
+     */
+    private val urls = ConcurrentHashMap<String, URL>()
+
     /**
      * Returns a valid URL to resource or throws [IllegalArgumentException].
+     * Assets in archives are extracted to temp files, since decoders of sounds, music and CSS require URLs.
 
      * @param name resource name
      * *
@@ -451,7 +551,30 @@ class FXGLAssetLoader
     private fun getURL(name: String): URL {
         log.debug("Loading from disk: " + name)
 
-        return javaClass.getResource(name) ?: throw IllegalArgumentException("Asset \"$name\" was not found!")
+        return urls.computeIfAbsent(name) {
+            val archive = findArchive(name)
+
+            if (archive != null) {
+                extract(archive, name)
+            } else {
+                if (name.startsWith(ASSETS_DIR) && name !in manifest)
+                    log.warning("Asset \"$name\" is not in manifest")
+
+                javaClass.getResource(name) ?: throw IllegalArgumentException("Asset \"$name\" was not found!")
+            }
+        }
+    }
+
+    /**
+     * @return size of resource in bytes or [AssetCache.DEFAULT_WEIGHT] if unknown
+     */
+    private fun getContentLength(url: URL): Long {
+        try {
+            val length = url.openConnection().contentLengthLong
+            return if (length > 0) length else AssetCache.DEFAULT_WEIGHT
+        } catch (e: IOException) {
+            return AssetCache.DEFAULT_WEIGHT
+        }
     }
 
     /**
@@ -470,6 +593,8 @@ class FXGLAssetLoader
      * @throws IllegalArgumentException if any error occurs or stream is null
      */
     override fun getStream(name: String): InputStream {
+        findArchive(name)?.let { return it.getStream(name) }
+
         try {
             return getURL(name).openStream() ?: throw IOException("Input stream to \"$name\" is null!")
         } catch (e: IOException) {
@@ -520,21 +645,156 @@ class FXGLAssetLoader
 
     /**
      * Pre-loads all textures / sounds / music / text / fonts and binary data
-     * from their respective folders.
+     * from their respective folders in parallel.
      */
     override fun cache() {
         log.debug("Caching assets")
 
-        loadFileNames(TEXTURES_DIR).forEach { loadTexture(it) }
-        loadFileNames(SOUNDS_DIR).forEach { loadSound(it) }
-        loadFileNames(MUSIC_DIR).forEach { loadMusic(it) }
-        loadFileNames(TEXT_DIR).forEach { loadText(it) }
-        loadFileNames(FONTS_DIR).forEach { loadFont(it) }
-        loadFileNames(BINARY_DIR).forEach { loadDataInternal(it) }
+        // largest first, so that big assets do not end up loading last on a single thread
+        val names = listOf(TEXTURES_DIR, SOUNDS_DIR, MUSIC_DIR, TEXT_DIR, FONTS_DIR, BINARY_DIR)
+                .flatMap { manifest.getEntries(it) }
+                .sortedByDescending { it.size }
+                .map { it.name }
+
+        try {
+            preloadAsync(names, null).join()
+        } catch (e: CompletionException) {
+            throw e.cause ?: e
+        }
 
         log.debug("Caching complete. Size: ${cachedAssets.size()}")
     }
 
+    /* ASYNC */
+
+    /**
+     * Bounded pool on which async loads are run.
+     */
+    private val loadExecutor by lazy {
+        val threadNumber = AtomicInteger(1)
+
+        Executors.newFixedThreadPool(Math.min(Runtime.getRuntime().availableProcessors(), MAX_LOADER_THREADS)) {
+            val thread = Thread(it, "FXGL Asset Loader " + threadNumber.andIncrement)
+            thread.isDaemon = true
+            thread
+        }
+    }
+
+    /**
+     * Loads of cacheable assets in progress, keyed by cache key.
+     */
+    private val inFlight = ConcurrentHashMap<String, CompletableFuture<Any>>()
+
+    /**
+     * Loads an asset on the loader pool, [loader] returns cached asset if present.
+     * If the asset with same key is already being loaded, the existing load is returned.
+     */
+    private fun loadAsync(key: String, loader: () -> Any): CompletableFuture<Any> {
+        val future = CompletableFuture<Any>()
+
+        val existing = inFlight.putIfAbsent(key, future)
+        if (existing != null) {
+            log.debug("Already loading: $key")
+            return existing
+        }
+
+        loadExecutor.execute {
+            try {
+                future.complete(loader())
+            } catch (e: Throwable) {
+                future.completeExceptionally(e)
+            } finally {
+                inFlight.remove(key, future)
+            }
+        }
+
+        return future
+    }
+
+    override fun loadTextureAsync(name: String): CompletableFuture<Texture> {
+        // each caller gets own texture (node) of shared image
+        return loadAsync(TEXTURES_DIR + name) { loadTextureImage(name) }.thenApply { Texture(it as Image) }
+    }
+
+    override fun loadSoundAsync(name: String): CompletableFuture<Sound> {
+        return loadAsync(SOUNDS_DIR + name) { loadSound(name) }.thenApply { it as Sound }
+    }
+
+    override fun loadMusicAsync(name: String): CompletableFuture<Music> {
+        return loadAsync(MUSIC_DIR + name) { loadMusic(name) }.thenApply { it as Music }
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    override fun loadTextAsync(name: String): CompletableFuture<List<String>> {
+        return loadAsync(TEXT_DIR + name) { loadText(name) }.thenApply { it as List<String> }
+    }
+
+    override fun loadFontAsync(name: String): CompletableFuture<FontFactory> {
+        return loadAsync(FONTS_DIR + name) { loadFont(name) }.thenApply { it as FontFactory }
+    }
+
+    /**
+     * Loads given assets in parallel.
+     * Supported are textures, sounds, music, text, fonts and binary data.
+     * The returned future completes when all assets are loaded,
+     * exceptionally if any of them failed to load.
+     *
+     * @param names resource names, e.g. "/assets/textures/player.png"
+     * @param progress called (on loader threads) with name of each loaded asset and fraction of assets loaded so far
+     */
+    override fun preloadAsync(names: List<String>, progress: BiConsumer<String, Double>?): CompletableFuture<Void> {
+        val loaded = AtomicInteger(0)
+
+        val futures = names.map { name ->
+            preloadAsync(name).whenComplete { _, error ->
+                if (error == null)
+                    progress?.accept(name, loaded.incrementAndGet().toDouble() / names.size)
+            }
+        }
+
+        return CompletableFuture.allOf(*futures.toTypedArray())
+    }
+
+    private fun preloadAsync(name: String): CompletableFuture<*> {
+        return when {
+            name.startsWith(TEXTURES_DIR) -> loadAsync(name) { loadTextureImage(name.removePrefix(TEXTURES_DIR)) }
+            name.startsWith(SOUNDS_DIR) -> loadAsync(name) { loadSound(name.removePrefix(SOUNDS_DIR)) }
+            name.startsWith(MUSIC_DIR) -> loadAsync(name) { loadMusic(name.removePrefix(MUSIC_DIR)) }
+            name.startsWith(TEXT_DIR) -> loadAsync(name) { loadText(name.removePrefix(TEXT_DIR)) }
+            name.startsWith(FONTS_DIR) -> loadAsync(name) { loadFont(name.removePrefix(FONTS_DIR)) }
+
+            // binary data is not cached, so it is only checked to be loadable
+            name.startsWith(BINARY_DIR) -> CompletableFuture.runAsync(Runnable { loadDataInternal<Any>(name.removePrefix(BINARY_DIR)) }, loadExecutor)
+
+            else -> {
+                val future = CompletableFuture<Any>()
+                future.completeExceptionally(IllegalArgumentException("Asset \"$name\" cannot be preloaded"))
+                future
+            }
+        }
+    }
+
+    /**
+     * Marks asset with given resource name as (not) pinned.
+     * Pinned assets are never evicted from cache.
+     *
+     * @param name resource name, e.g. "/assets/textures/player.png"
+     */
+    override fun setPinned(name: String, pinned: Boolean) {
+        if (pinned)
+            cachedAssets.pin(name)
+        else
+            cachedAssets.unpin(name)
+    }
+
+    override fun setSoftCacheEnabled(enabled: Boolean) {
+        cachedAssets.isSoftTierEnabled = enabled
+    }
+
+    override fun isSoftCacheEnabled() = cachedAssets.isSoftTierEnabled
+
+    override fun getCacheStats(): AssetCacheStats = cachedAssets.getStats()
+
     /**
      * Release all cached assets.
      */
@@ -543,10 +803,151 @@ class FXGLAssetLoader
         cachedAssets.clear()
     }
 
+    /* MANIFEST */
+
+    private val classpathManifest by lazy { loadManifest() }
+
+    /**
+     * Manifest of classpath and archives, null if no archives were added.
+     */
+    @Volatile private var mountedManifest: AssetManifest? = null
+
+    private val manifest: AssetManifest
+        get() = mountedManifest ?: classpathManifest
+
+    /**
+     * Loads and merges manifests from all classpath roots.
+     * If there are none, builds manifest (without sizes and hashes) by scanning asset directories.
+     */
+    private fun loadManifest(): AssetManifest {
+        val manifestURLs = javaClass.classLoader.getResources(AssetManifest.FILE_NAME.substring(1)).toList()
+
+        if (manifestURLs.isNotEmpty()) {
+            val manifest = manifestURLs
+                    .map { url -> url.openStream().use { AssetManifest.read(it) } }
+                    .reduce { m1, m2 -> m1 + m2 }
+
+            log.debug("Loaded asset manifest with ${manifest.size()} entries")
+            return manifest
+        }
+
+        val manifest = AssetManifest.ofNames(scanAssetNames())
+
+        log.debug("No asset manifest found, scanned ${manifest.size()} assets")
+        return manifest
+    }
+
+    /**
+     * @return resource names of assets in all classpath roots
+     */
+    private fun scanAssetNames(): Set<String> {
+        val names = TreeSet<String>()
+
+        try {
+            for (url in javaClass.classLoader.getResources(ASSETS_DIR.substring(1))) {
+                names.addAll(scanFileNames(url, ASSETS_DIR).map { ASSETS_DIR + it })
+            }
+
+            if (names.isEmpty())
+                names.addAll(loadFileNamesJar(ASSETS_DIR.substring(1)).map { ASSETS_DIR + it })
+        } catch (e: Exception) {
+            log.warning("Failed to scan assets - $e")
+        }
+
+        return names
+    }
+
+    override fun getManifest() = manifest
+
+    /* ARCHIVES */
+
+    /**
+     * Added archives, most recent first.
+     */
+    private val archives = CopyOnWriteArrayList<AssetArchive>()
+
+    /**
+     * Adds an archive of assets created by [AssetArchive.pack].
+     * Assets in the archive take precedence over those on classpath and in previously added archives.
+     * Assets already in cache are not reloaded.
+     *
+     * @param file archive file
+     */
+    override fun addArchive(file: Path) {
+        val archive: AssetArchive
+
+        try {
+            archive = AssetArchive.open(file)
+        } catch (e: Exception) {
+            throw loadFailed(file.toString(), e)
+        }
+
+        synchronized(archives) {
+            archives.add(0, archive)
+            mountedManifest = manifest + archive.manifest
+        }
+
+        // some of the resolved URLs may now be served by the archive
+        urls.clear()
+
+        log.debug("Added $archive")
+    }
+
+    private fun findArchive(name: String): AssetArchive? = archives.firstOrNull { name in it }
+
+    private val extractDir by lazy {
+        val dir = Files.createTempDirectory("fxgl-assets")
+        dir.toFile().deleteOnExit()
+        dir
+    }
+
+    /**
+     * Extracts asset with given name from [archive] to a temp file, which is deleted on exit.
+     *
+     * @return URL of the extracted file
+     */
+    private fun extract(archive: AssetArchive, name: String): URL {
+        val file = extractDir.resolve(name.removePrefix("/"))
+
+        Files.createDirectories(file.parent)
+
+        // files are deleted in reverse order of registration, so directories are registered first
+        generateSequence(file.parent) { it.parent }
+                .takeWhile { it != extractDir }
+                .toList()
+                .asReversed()
+                .forEach { it.toFile().deleteOnExit() }
+
+        file.toFile().deleteOnExit()
+
+        archive.extract(name, file)
+
+        return file.toUri().toURL()
+    }
+
+    /**
+     * Checks assets against sizes and content hashes in manifest.
+     * Assets with unknown size and hash are only checked to exist.
+     *
+     * @return names of assets that are missing or whose content does not match
+     */
+    override fun verifyAssets(): List<String> {
+        return manifest.getEntries()
+                .map { it.name }
+                .filter { name ->
+                    try {
+                        !getStream(name).use { manifest.verify(name, it) }
+                    } catch (e: Exception) {
+                        true
+                    }
+                }
+    }
+
     /**
      * Loads file names from a directory.
      * Note: directory name must be in the format "/assets/...".
      * Returned file names are relativized to the given directory name.
+     * Directories listed in the asset manifest are not scanned.
 
      * @param directory name of directory
      * *
@@ -558,21 +959,14 @@ class FXGLAssetLoader
         if (!directory.startsWith(ASSETS_DIR))
             throw IllegalArgumentException("Directory must start with: $ASSETS_DIR Provided: $directory")
 
+        val names = manifest.getNames(directory)
+        if (names.isNotEmpty())
+            return names
+
         try {
             val url = javaClass.getResource(directory)
-            if (url != null) {
-                if (url.toString().startsWith("jar"))
-                    return loadFileNamesJar(directory.substring(1))
-
-                val dir = Paths.get(url.toURI())
-
-                if (Files.exists(dir)) {
-                    return Files.walk(dir)
-                            .filter { Files.isRegularFile(it) }
-                            .map { dir.relativize(it).toString().replace("\\", "/") }
-                            .collect(Collectors.toList<String>())
-                }
-            }
+            if (url != null)
+                return scanFileNames(url, directory)
 
             return loadFileNamesJar(directory.substring(1))
         } catch (e: Exception) {
@@ -580,19 +974,46 @@ class FXGLAssetLoader
         }
     }
 
+    /**
+     * @param url URL of directory
+     * @param directory resource name of directory
+     * @return names of files in directory, relativized to the directory
+     */
+    private fun scanFileNames(url: URL, directory: String): List<String> {
+        // jar:file:/path/game.jar!/assets/
+        if (url.protocol == "jar")
+            return loadFileNamesJar(directory.substring(1), URL(url.path.substringBefore("!/")))
+
+        val dir = Paths.get(url.toURI())
+
+        if (Files.exists(dir)) {
+            val paths = Files.walk(dir)
+            try {
+                return paths.filter { Files.isRegularFile(it) }
+                        .map { dir.relativize(it).toString().replace("\\", "/") }
+                        .collect(Collectors.toList<String>())
+            } finally {
+                paths.close()
+            }
+        }
+
+        return loadFileNamesJar(directory.substring(1))
+    }
+
     /**
      * Loads file names from a directory when running within a jar.
      * If it contains other folders they'll be searched too.
 
      * @param folderName folder files of which need to be retrieved
      * *
+     * @param jarURL URL of the jar, defaults to the jar containing FXGL
+     * *
      * @return list of file names
      */
-    private fun loadFileNamesJar(folderName: String): List<String> {
+    private fun loadFileNamesJar(folderName: String, jarURL: URL? = null): List<String> {
         val fileNames = ArrayList<String>()
-        val src = AssetLoader::class.java.protectionDomain.codeSource
-        if (src != null) {
-            val jar = src.location
+        val jar = jarURL ?: AssetLoader::class.java.protectionDomain.codeSource?.location
+        if (jar != null) {
             try {
                 jar.openStream().use {
                     ZipInputStream(it).use { zip ->
@@ -9,7 +9,6 @@ package com.almasb.fxgl.texture
 import com.almasb.fxgl.app.FXGL
 import com.almasb.fxgl.app.State
 import com.almasb.fxgl.app.listener.StateListener
-import javafx.geometry.Rectangle2D
 
 /**
  * Represents an animated texture.
@@ -25,10 +24,26 @@ class AnimatedTexture(defaultChannel: AnimationChannel) : Texture(defaultChannel
 
     private var playingChannel = false
 
+    /**
+     * Channel whose image and frame size were last applied.
+     */
+    private var shownChannel: AnimationChannel? = null
+
+    internal var clock: AnimationClock? = null
+        private set
+
+    // declared before init, which starts the texture
+    var started = false
+        private set
+
     var animationChannel: AnimationChannel? = null
         set(value) {
             if (field !== value && !playingChannel) {
                 reset()
+
+                clock?.remove(this, field)
+                clock?.add(this, value)
+
                 field = value
             }
         }
@@ -47,18 +62,16 @@ class AnimatedTexture(defaultChannel: AnimationChannel) : Texture(defaultChannel
         playingChannel = true
     }
 
-    private lateinit var state: State
-
-    var started = false
-        private set
-
+    /**
+     * Starts updating this texture with the shared animation clock of given state.
+     */
     fun start(state: State) {
         if (started) {
             return
         }
 
-        this.state = state
-        state.addStateListener(this)
+        clock = AnimationClock.of(state)
+        clock!!.add(this, animationChannel)
         started = true
     }
 
@@ -67,45 +80,52 @@ class AnimatedTexture(defaultChannel: AnimationChannel) : Texture(defaultChannel
             return
         }
 
-        state.removeStateListener(this)
+        clock!!.remove(this, animationChannel)
+        clock = null
         reset()
         started = false
     }
 
     override fun onUpdate(tpf: Double) {
-        animationChannel?.let {
+        animationChannel?.let { step(it, tpf) }
+    }
 
-            if (counter >= it.frameDuration) {
+    /**
+     * Advances the animation of [channel] by [tpf] seconds.
+     */
+    internal fun step(channel: AnimationChannel, tpf: Double) {
+        if (counter >= channel.frameDuration) {
 
-                // frame done
+            // frame done
 
-                if (currentFrame == it.sequence.size-1) {
-                    // channel done
-                    if (playingChannel) {
-                        playingChannel = false
-                    }
+            if (currentFrame == channel.frameCount-1) {
+                // channel done
+                if (playingChannel) {
+                    playingChannel = false
                 }
-
-                currentFrame = (currentFrame + 1) % it.sequence.size
-                counter = 0.0
             }
 
-            counter += tpf
+            currentFrame = (currentFrame + 1) % channel.frameCount
+            counter = 0.0
+        }
 
-            val framesPerRow = it.framesPerRow
+        counter += tpf
 
-            val frameWidth = it.frameWidth.toDouble()
-            val frameHeight = it.frameHeight.toDouble()
+        val frameViewport = channel.frameViewports[currentFrame]
 
-            val row = it.sequence[currentFrame] / framesPerRow
-            val col = it.sequence[currentFrame] % framesPerRow
+        // image and viewport are compared, since they can also be replaced externally, e.g. by set()
+        if (channel === shownChannel && image === channel.image && viewport === frameViewport)
+            return
 
-            image = it.image
-            fitWidth = frameWidth
-            fitHeight = frameHeight
-            viewport = Rectangle2D(col * frameWidth, row * frameHeight,
-                    frameWidth, frameHeight)
+        if (channel !== shownChannel || image !== channel.image) {
+            image = channel.image
+            fitWidth = channel.frameWidth.toDouble()
+            fitHeight = channel.frameHeight.toDouble()
         }
+
+        viewport = frameViewport
+
+        shownChannel = channel
     }
 
     private fun reset() {
@@ -117,4 +137,4 @@ class AnimatedTexture(defaultChannel: AnimationChannel) : Texture(defaultChannel
         stop()
         super.dispose()
     }
-}
\ No newline at end of file
+}
@@ -7,6 +7,7 @@
 package com.almasb.fxgl.texture
 
 import com.almasb.fxgl.app.FXGL
+import javafx.geometry.Rectangle2D
 import javafx.scene.image.Image
 import javafx.util.Duration
 
@@ -37,8 +38,27 @@ class AnimationChannel(val image: Image,
     // seconds
     internal val frameDuration: Double
 
+    /**
+     * Viewport of each frame in [sequence], shared by all textures playing this channel.
+     */
+    internal val frameViewports: Array<Rectangle2D>
+
     init {
         sequence += startFrame..endFrame
         frameDuration = channelDuration.toSeconds() / sequence.size
+
+        frameViewports = Array(sequence.size) {
+            val row = sequence[it] / framesPerRow
+            val col = sequence[it] % framesPerRow
+
+            Rectangle2D((col * frameWidth).toDouble(), (row * frameHeight).toDouble(),
+                    frameWidth.toDouble(), frameHeight.toDouble())
+        }
     }
+
+    /**
+     * @return number of frames in this channel
+     */
+    val frameCount: Int
+        get() = sequence.size
 }
\ No newline at end of file
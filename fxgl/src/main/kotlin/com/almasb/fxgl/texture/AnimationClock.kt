@@ -0,0 +1,111 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.texture
+
+import com.almasb.fxgl.app.State
+import com.almasb.fxgl.app.listener.StateListener
+import com.almasb.fxgl.core.collection.Array
+import java.util.*
+
+/**
+ * Advances all animated textures of a state in a single state listener,
+ * one pass per animation channel.
+ * This avoids a state listener per texture (listeners are stored in a copy on write list).
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+internal class AnimationClock private constructor() : StateListener {
+
+    companion object {
+        /**
+         * Weak keys, a clock does not reference its state, so that clocks of discarded states can be collected.
+         */
+        private val clocks = WeakHashMap<State, AnimationClock>()
+
+        /**
+         * @return clock that is updated by given state
+         */
+        fun of(state: State): AnimationClock {
+            return clocks.getOrPut(state) {
+                val clock = AnimationClock()
+                state.addStateListener(clock)
+                clock
+            }
+        }
+    }
+
+    /**
+     * Textures grouped by channel, channels are compared by identity.
+     */
+    private val groups = IdentityHashMap<AnimationChannel, Array<AnimatedTexture>>()
+
+    private var updating = false
+
+    /**
+     * Group changes made during update, applied after the update.
+     */
+    private val pendingChanges = ArrayDeque<() -> Unit>()
+
+    /**
+     * Textures without a channel are not updated.
+     */
+    fun add(texture: AnimatedTexture, channel: AnimationChannel?) {
+        if (updating) {
+            pendingChanges.add { add(texture, channel) }
+            return
+        }
+
+        if (channel != null)
+            groups.getOrPut(channel) { Array(false, 16) }.add(texture)
+    }
+
+    fun remove(texture: AnimatedTexture, channel: AnimationChannel?) {
+        if (updating) {
+            pendingChanges.add { remove(texture, channel) }
+            return
+        }
+
+        if (channel == null)
+            return
+
+        groups[channel]?.let {
+            it.removeValueByIdentity(texture)
+
+            if (it.size() == 0)
+                groups.remove(channel)
+        }
+    }
+
+    /**
+     * @return number of textures updated by this clock
+     */
+    fun getTextureCount() = groups.values.sumBy { it.size() }
+
+    override fun onUpdate(tpf: Double) {
+        updating = true
+
+        try {
+            for (textures in groups.values) {
+                for (i in 0..textures.size() - 1) {
+                    val texture = textures[i]
+
+                    // group changes made during this update are not applied yet,
+                    // so a texture is stepped with its current channel and only while it is on this clock
+                    val channel = texture.animationChannel
+                    if (channel != null && texture.clock === this)
+                        texture.step(channel, tpf)
+                }
+            }
+        } finally {
+            updating = false
+        }
+
+        while (pendingChanges.isNotEmpty()) {
+            pendingChanges.poll().invoke()
+        }
+    }
+}
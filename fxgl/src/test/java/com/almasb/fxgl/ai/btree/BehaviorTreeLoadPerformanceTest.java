@@ -0,0 +1,86 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.ai.btree;
+
+import com.almasb.fxgl.ai.btree.utils.BehaviorTreeParser;
+import com.almasb.fxgl.ai.btree.utils.CompiledBehaviorTree;
+import com.almasb.fxgl.physics.box2d.BasicPerformanceTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Compares parsing a behavior tree of ~2k tasks from text
+ * with loading the same tree from {@link CompiledBehaviorTree} data.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public class BehaviorTreeLoadPerformanceTest extends BasicPerformanceTest {
+
+    private static final int BRANCHES = 250;
+
+    private static final String[] NAMES = { "Parse", "Load compiled" };
+
+    public static void main(String[] args) throws Exception {
+        BehaviorTreeLoadPerformanceTest benchmark = new BehaviorTreeLoadPerformanceTest();
+
+        benchmark.setFormat(ResultFormat.MILLISECONDS);
+        benchmark.go();
+    }
+
+    private final String source;
+    private final byte[] compiled;
+
+    public BehaviorTreeLoadPerformanceTest() throws Exception {
+        super(NAMES.length, 10, 20);
+
+        StringBuilder sb = new StringBuilder("root\n");
+        sb.append("  selector\n");
+
+        for (int i = 0; i < BRANCHES; i++) {
+            sb.append("    parallel policy:\"selector\"\n");
+            sb.append("      repeat times:3\n");
+            sb.append("        wait seconds:\"uniform,1,2\"\n");
+            sb.append("      semaphoreGuard name:\"guard").append(i).append("\"\n");
+            sb.append("        sequence\n");
+            sb.append("          success\n");
+            sb.append("          alwaysFail\n");
+            sb.append("            failure\n");
+        }
+
+        source = sb.toString();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompiledBehaviorTree.write(new BehaviorTreeParser<>().parse(source, null), out);
+        compiled = out.toByteArray();
+
+        System.out.println("Source size: " + source.length() + " chars");
+        System.out.println("Compiled size: " + compiled.length + " bytes");
+    }
+
+    @Override
+    public void step(int testNum) {
+        switch (testNum) {
+            case 0:
+                new BehaviorTreeParser<>().parse(source, null);
+                break;
+            case 1:
+                try {
+                    CompiledBehaviorTree.read(new ByteArrayInputStream(compiled), null);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                break;
+        }
+    }
+
+    @Override
+    public String getTestName(int testNum) {
+        return NAMES[testNum];
+    }
+}
@@ -129,6 +129,8 @@ public class MockApplicationModule extends ApplicationModule {
 
     private void mockAssetLoader() {
         bind(Integer.class).annotatedWith(Names.named("asset.cache.size")).toInstance(35);
+        bind(Integer.class).annotatedWith(Names.named("asset.cache.budget")).toInstance(256);
+        bind(Boolean.class).annotatedWith(Names.named("asset.cache.soft")).toInstance(false);
         bind(AssetLoader.class).to(FXGLAssetLoader.class);
     }
 
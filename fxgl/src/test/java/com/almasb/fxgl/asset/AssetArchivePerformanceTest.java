@@ -0,0 +1,118 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.asset;
+
+import com.almasb.fxgl.physics.box2d.BasicPerformanceTest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares reading 5k small assets one by one from classpath (directory)
+ * with reading them from a stored and a compressed {@link AssetArchive}.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public class AssetArchivePerformanceTest extends BasicPerformanceTest {
+
+    private static final int ASSETS = 5000;
+
+    private static final String[] NAMES = { "Classpath read", "Archive read", "Compressed archive read" };
+
+    public static void main(String[] args) throws Exception {
+        AssetArchivePerformanceTest benchmark = new AssetArchivePerformanceTest();
+
+        benchmark.setFormat(ResultFormat.MILLISECONDS);
+        benchmark.go();
+    }
+
+    private final List<String> names = new ArrayList<>();
+
+    private final URLClassLoader classLoader;
+    private final AssetArchive archive;
+    private final AssetArchive compressedArchive;
+
+    private final byte[] buffer = new byte[8192];
+
+    public AssetArchivePerformanceTest() throws Exception {
+        super(NAMES.length, 10, 3);
+
+        Path root = Files.createTempDirectory("fxgl-bench");
+        Path assetsDir = root.resolve("assets");
+
+        Random random = new Random(0);
+
+        for (int i = 0; i < ASSETS; i++) {
+            String name = "textures/sprite" + i + ".png";
+
+            // half random (incompressible), half repetitive data, like real sprites
+            byte[] data = new byte[1024 + random.nextInt(4096)];
+            random.nextBytes(data);
+            for (int j = data.length / 2; j < data.length; j++) {
+                data[j] = (byte) (j % 8);
+            }
+
+            Path file = assetsDir.resolve(name);
+            Files.createDirectories(file.getParent());
+            Files.write(file, data);
+
+            names.add("/assets/" + name);
+        }
+
+        classLoader = new URLClassLoader(new URL[] { root.toUri().toURL() }, null);
+
+        Path archiveFile = root.resolve("assets.fxpak");
+        AssetArchive.pack(assetsDir, archiveFile, false);
+        archive = AssetArchive.open(archiveFile);
+
+        Path compressedFile = root.resolve("assets_compressed.fxpak");
+        AssetArchive.pack(assetsDir, compressedFile, true);
+        compressedArchive = AssetArchive.open(compressedFile);
+
+        System.out.println("Archive size: " + Files.size(archiveFile) + " bytes");
+        System.out.println("Compressed archive size: " + Files.size(compressedFile) + " bytes");
+    }
+
+    private void readAll(InputStream stream) throws IOException {
+        try (InputStream is = stream) {
+            while (is.read(buffer) != -1) { }
+        }
+    }
+
+    @Override
+    public void step(int testNum) {
+        try {
+            for (String name : names) {
+                switch (testNum) {
+                    case 0:
+                        readAll(classLoader.getResource(name.substring(1)).openStream());
+                        break;
+                    case 1:
+                        readAll(archive.getStream(name));
+                        break;
+                    case 2:
+                        readAll(compressedArchive.getStream(name));
+                        break;
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public String getTestName(int testNum) {
+        return NAMES[testNum];
+    }
+}
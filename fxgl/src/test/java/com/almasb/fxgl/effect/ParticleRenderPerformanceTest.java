@@ -0,0 +1,122 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.effect;
+
+import com.almasb.fxgl.core.collection.Array;
+import com.almasb.fxgl.physics.box2d.BasicPerformanceTest;
+import javafx.embed.swing.JFXPanel;
+import javafx.geometry.Point2D;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.effect.BlendMode;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.util.Duration;
+
+import java.util.Random;
+
+/**
+ * Compares per particle rendering, batched rendering and rasterized rendering
+ * with 10k and 50k particles.
+ * The canvas is not attached to a scene, so the numbers measure the cost of issuing
+ * draw commands (and software rasterization), not that of the GPU.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public class ParticleRenderPerformanceTest extends BasicPerformanceTest {
+
+    private static final int[] COUNTS = { 10000, 50000 };
+    private static final String[] NAMES = { "Per particle", "Batched", "Rasterized" };
+
+    private static final int WIDTH = 1280;
+    private static final int HEIGHT = 720;
+
+    public static void main(String[] args) {
+        // start FX toolkit for images
+        new JFXPanel();
+
+        ParticleRenderPerformanceTest benchmark = new ParticleRenderPerformanceTest();
+        benchmark.setFormat(ResultFormat.MILLISECONDS);
+        benchmark.go();
+
+        System.exit(0);
+    }
+
+    private final Canvas canvas = new Canvas(WIDTH, HEIGHT);
+    private final GraphicsContext g = canvas.getGraphicsContext2D();
+
+    private final Array<Array<Particle>> particles = new Array<>();
+    private final Array<ParticleBuffer> buffers = new Array<>();
+
+    private final ParticleRasterizer rasterizer = new ParticleRasterizer();
+
+    public ParticleRenderPerformanceTest() {
+        super(NAMES.length * COUNTS.length, 10, 60);
+
+        WritableImage image = new WritableImage(20, 20);
+        for (int y = 0; y < 20; y++) {
+            for (int x = 0; x < 20; x++) {
+                image.getPixelWriter().setColor(x, y, Color.color(1, 0.5, 0, 0.5));
+            }
+        }
+
+        Random random = new Random(0);
+
+        for (int count : COUNTS) {
+            Array<Particle> array = new Array<>(false, count);
+            ParticleBuffer buffer = new ParticleBuffer(count);
+
+            for (int i = 0; i < count; i++) {
+                // some particles are outside the viewport
+                double x = random.nextDouble() * WIDTH * 1.5 - WIDTH * 0.25;
+                double y = random.nextDouble() * HEIGHT * 1.5 - HEIGHT * 0.25;
+                double radius = 5 + random.nextDouble() * 5;
+                BlendMode blendMode = i % 2 == 0 ? BlendMode.ADD : BlendMode.SRC_OVER;
+
+                array.add(new Particle(image, new Point2D(x, y), Point2D.ZERO, Point2D.ZERO, radius, Point2D.ZERO,
+                        Duration.seconds(1), Color.WHITE, Color.WHITE, blendMode));
+
+                buffer.add(image, x, y, 0, 0, 0, 0, radius, 0, 0, 1, Color.WHITE, Color.WHITE, blendMode);
+            }
+
+            particles.add(array);
+            buffers.add(buffer);
+        }
+    }
+
+    @Override
+    public void step(int testNum) {
+        int countIndex = testNum / NAMES.length;
+
+        g.setGlobalAlpha(1);
+        g.setGlobalBlendMode(BlendMode.SRC_OVER);
+
+        // clearing the whole canvas also discards previously issued commands
+        g.clearRect(0, 0, WIDTH, HEIGHT);
+
+        switch (testNum % NAMES.length) {
+            case 0:
+                for (Particle p : particles.get(countIndex)) {
+                    p.render(g, Point2D.ZERO);
+                }
+                break;
+
+            case 1:
+                buffers.get(countIndex).render(g, Point2D.ZERO);
+                break;
+
+            default:
+                g.drawImage(rasterizer.rasterize(buffers.get(countIndex), 0, 0, WIDTH, HEIGHT), 0, 0);
+                break;
+        }
+    }
+
+    @Override
+    public String getTestName(int testNum) {
+        return NAMES[testNum % NAMES.length] + " " + COUNTS[testNum / NAMES.length] / 1000 + "k";
+    }
+}
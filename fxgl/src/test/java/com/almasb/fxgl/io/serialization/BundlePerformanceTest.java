@@ -0,0 +1,135 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.io.serialization;
+
+import com.almasb.fxgl.physics.box2d.BasicPerformanceTest;
+
+import java.io.*;
+import java.util.HashMap;
+
+/**
+ * Compares size and save / load time of a world of 50k entities
+ * (bundles shaped like those produced by EntitySerializer)
+ * in Java serialization of the previous Bundle layout
+ * (HashMap with "name.key" keys) and in binary {@link BundleCodec} format.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public class BundlePerformanceTest extends BasicPerformanceTest {
+
+    private static final int ENTITIES = 50000;
+
+    private static final String[] NAMES = { "Java write", "Java read", "Binary write", "Binary read" };
+
+    public static void main(String[] args) throws Exception {
+        BundlePerformanceTest benchmark = new BundlePerformanceTest();
+
+        System.out.println("Java serialization size: " + benchmark.javaBytes.length + " bytes");
+        System.out.println("Binary size: " + benchmark.binaryBytes.length + " bytes");
+
+        benchmark.setFormat(ResultFormat.MILLISECONDS);
+        benchmark.go();
+    }
+
+    private final Bundle world;
+    private final HashMap<String, Object> legacyWorld;
+
+    private byte[] javaBytes;
+    private byte[] binaryBytes;
+
+    public BundlePerformanceTest() throws Exception {
+        super(NAMES.length, 10, 3);
+
+        world = new Bundle("world");
+        legacyWorld = new HashMap<>();
+
+        for (int i = 0; i < ENTITIES; i++) {
+            Bundle position = new Bundle("com.almasb.fxgl.entity.component.PositionComponent");
+            Bundle rotation = new Bundle("com.almasb.fxgl.entity.component.RotationComponent");
+            Bundle type = new Bundle("com.almasb.fxgl.entity.component.TypeComponent");
+            Bundle components = new Bundle("components");
+            Bundle controls = new Bundle("controls");
+            Bundle entity = new Bundle("entity" + i);
+
+            HashMap<String, Object> legacyPosition = new HashMap<>();
+            HashMap<String, Object> legacyRotation = new HashMap<>();
+            HashMap<String, Object> legacyType = new HashMap<>();
+            HashMap<String, Object> legacyComponents = new HashMap<>();
+            HashMap<String, Object> legacyEntity = new HashMap<>();
+
+            put(position, legacyPosition, "x", i * 1.5);
+            put(position, legacyPosition, "y", i * 2.5);
+            put(rotation, legacyRotation, "value", i % 360.0);
+            put(type, legacyType, "type", "ENEMY");
+
+            put(components, legacyComponents, position.getName(), position, legacyPosition);
+            put(components, legacyComponents, rotation.getName(), rotation, legacyRotation);
+            put(components, legacyComponents, type.getName(), type, legacyType);
+
+            put(entity, legacyEntity, "components", components, legacyComponents);
+            put(entity, legacyEntity, "controls", controls, new HashMap<String, Object>());
+
+            world.put(entity.getName(), entity);
+            legacyWorld.put("world." + entity.getName(), legacyEntity);
+        }
+
+        javaBytes = writeJava();
+        binaryBytes = BundleCodec.toBytes(world);
+    }
+
+    private static void put(Bundle bundle, HashMap<String, Object> legacy, String key, Serializable value) {
+        put(bundle, legacy, key, value, value);
+    }
+
+    /**
+     * Puts value into bundle and its previous Java serialization layout into legacy map.
+     */
+    private static void put(Bundle bundle, HashMap<String, Object> legacy, String key,
+                            Serializable value, Object legacyValue) {
+        bundle.put(key, value);
+        legacy.put(bundle.getName() + "." + key, legacyValue);
+    }
+
+    private byte[] writeJava() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(legacyWorld);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public void step(int testNum) {
+        try {
+            switch (testNum) {
+                case 0:
+                    javaBytes = writeJava();
+                    break;
+                case 1:
+                    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(javaBytes))) {
+                        in.readObject();
+                    }
+                    break;
+                case 2:
+                    binaryBytes = BundleCodec.toBytes(world);
+                    break;
+                case 3:
+                    BundleCodec.fromBytes(binaryBytes);
+                    break;
+            }
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public String getTestName(int testNum) {
+        return NAMES[testNum];
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.texture;
+
+import com.almasb.fxgl.physics.box2d.BasicPerformanceTest;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.util.Random;
+
+/**
+ * Compares per pixel Color based grayscale (previous implementation)
+ * with bulk int[] filters and memoized filters on a 2048x2048 image.
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+public class TextureFilterPerformanceTest extends BasicPerformanceTest {
+
+    private static final int SIZE = 2048;
+
+    private static final String[] NAMES = {
+            "Grayscale per pixel", "Grayscale bulk", "Grayscale memoized",
+            "Multiply bulk", "Blur r=4 bulk", "Outline bulk"
+    };
+
+    public static void main(String[] args) {
+        TextureFilterPerformanceTest benchmark = new TextureFilterPerformanceTest();
+        benchmark.setFormat(ResultFormat.MILLISECONDS);
+        benchmark.go();
+    }
+
+    private final Texture texture;
+
+    public TextureFilterPerformanceTest() {
+        super(NAMES.length, 10, 5);
+
+        WritableImage image = new WritableImage(SIZE, SIZE);
+        PixelWriter writer = image.getPixelWriter();
+
+        Random random = new Random(0);
+        int[] row = new int[SIZE];
+
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                row[x] = random.nextInt(4) == 0 ? 0 : random.nextInt();
+            }
+
+            writer.setPixels(0, y, SIZE, 1, PixelFormat.getIntArgbInstance(), row, 0, SIZE);
+        }
+
+        texture = new Texture(image);
+    }
+
+    @Override
+    public void preStep(int testNum) {
+        // memoized test measures cache hits
+        if (testNum != 2)
+            Texture.clearFilterCache();
+    }
+
+    @Override
+    public void step(int testNum) {
+        switch (testNum) {
+            case 0:
+                grayscalePerPixel();
+                break;
+            case 1:
+            case 2:
+                texture.toGrayscale();
+                break;
+            case 3:
+                texture.multiplyColor(Color.color(0.5, 0.7, 0.9, 0.8));
+                break;
+            case 4:
+                texture.blur(4);
+                break;
+            case 5:
+                texture.outline(Color.RED, 1);
+                break;
+        }
+    }
+
+    private void grayscalePerPixel() {
+        PixelReader reader = texture.getImage().getPixelReader();
+        WritableImage image = new WritableImage(SIZE, SIZE);
+        PixelWriter writer = image.getPixelWriter();
+
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                writer.setColor(x, y, reader.getColor(x, y).grayscale());
+            }
+        }
+    }
+
+    @Override
+    public String getTestName(int testNum) {
+        return NAMES[testNum];
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.ai
+
+import com.almasb.fxgl.app.FXGL
+import com.almasb.fxgl.app.MockApplicationModule
+import com.almasb.fxgl.ecs.Entity
+import com.almasb.fxgl.ecs.GameWorld
+import org.hamcrest.CoreMatchers.*
+import org.junit.Assert.assertEquals
+import org.junit.After
+import org.junit.Assert.assertThat
+import org.junit.Before
+import org.junit.BeforeClass
+import org.junit.Test
+import java.util.concurrent.ForkJoinPool
+
+/**
+ *
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class AISchedulerTest {
+
+    companion object {
+        @BeforeClass
+        @JvmStatic fun before() {
+            FXGL.configure(MockApplicationModule.get())
+        }
+
+        private const val TPF = 0.016
+    }
+
+    private lateinit var gameWorld: GameWorld
+    private lateinit var scheduler: AIScheduler
+    private lateinit var pool: ForkJoinPool
+
+    /**
+     * Fake time in nanoseconds, each step takes 1 ms.
+     */
+    private var time = 0L
+
+    private val steps = arrayListOf<Int>()
+
+    @Before
+    fun setUp() {
+        gameWorld = GameWorld()
+
+        // 3 steps of 1 ms fit into the budget
+        scheduler = AIScheduler(2.5)
+        scheduler.clock = { time }
+
+        pool = ForkJoinPool(2)
+
+        time = 0L
+        steps.clear()
+    }
+
+    @After
+    fun tearDown() {
+        pool.shutdown()
+    }
+
+    @Test
+    fun `Agents are stepped round-robin within budget`() {
+        val controls = (0..9).map { newAgent(it) }
+
+        repeat(10) { scheduler.onUpdate(TPF) }
+
+        assertThat(steps.subList(0, 12), `is`(listOf(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 0, 1)))
+
+        // every agent is stepped 3 times in 30 steps
+        controls.forEach { assertThat(it.tpfs.size, `is`(3)) }
+
+        assertThat(scheduler.lastFrameSteps, `is`(3))
+        assertThat(scheduler.framesOverBudget, `is`(10L))
+        assertThat(scheduler.deferredSteps, `is`(70L))
+    }
+
+    @Test
+    fun `Deferred agents receive accumulated tpf`() {
+        val controls = (0..5).map { newAgent(it) }
+
+        scheduler.onUpdate(TPF)
+        scheduler.onUpdate(TPF)
+
+        // agents 0..2 stepped in frame 1, agents 3..5 in frame 2
+        assertEquals(TPF, controls[0].tpfs[0], 1e-9)
+        assertEquals(TPF * 2, controls[3].tpfs[0], 1e-9)
+
+        scheduler.onUpdate(TPF)
+
+        assertEquals(TPF * 2, controls[0].tpfs[1], 1e-9)
+    }
+
+    @Test
+    fun `LOD policy skips agents`() {
+        scheduler.frameBudget = 100.0
+
+        val near = newAgent(0)
+        val far = newAgent(1)
+
+        scheduler.lodPolicy = object : AIScheduler.LODPolicy {
+            override fun period(entity: Entity) = if (entity === far.entity) 3 else 1
+        }
+
+        repeat(6) { scheduler.onUpdate(TPF) }
+
+        assertThat(near.tpfs.size, `is`(6))
+        assertThat(far.tpfs.size, `is`(2))
+        assertEquals(TPF * 3, far.tpfs[0], 1e-9)
+        assertEquals(TPF * 3, far.tpfs[1], 1e-9)
+
+        // skipped agents are not counted as deferred
+        assertThat(scheduler.deferredSteps, `is`(0L))
+    }
+
+    @Test
+    fun `Remove agents during iteration`() {
+        val controls = (0..3).map { newAgent(it) }
+
+        // agent 2 removes agent 3, which is next, and agent 0, which was already stepped
+        controls[2].onStep = {
+            scheduler.remove(controls[3])
+            scheduler.remove(controls[0])
+        }
+
+        scheduler.onUpdate(TPF)
+
+        assertThat(steps, `is`(listOf(0, 1, 2)))
+        assertThat(scheduler.size(), `is`(2))
+        assertThat(controls[0].scheduler, `is`(nullValue()))
+
+        controls[2].onStep = {}
+
+        scheduler.onUpdate(TPF)
+
+        assertThat(steps, `is`(listOf(0, 1, 2, 1, 2)))
+    }
+
+    @Test
+    fun `Removed agents step themselves`() {
+        val control = newAgent(0)
+
+        scheduler.remove(control)
+        scheduler.onUpdate(TPF)
+
+        assertThat(steps.size, `is`(0))
+
+        gameWorld.onUpdate(TPF)
+
+        assertThat(steps, `is`(listOf(0)))
+    }
+
+    @Test
+    fun `Parallel safe agents apply deferred commands in order`() {
+        scheduler.parallelPool = pool
+
+        val applied = arrayListOf<Int>()
+        val controls = (0..99).map { newParallelAgent(it, applied) }
+
+        // sequential agents are stepped on the update thread
+        newAgent(100)
+
+        scheduler.onUpdate(TPF)
+
+        assertThat(scheduler.lastFrameSteps, `is`(101))
+        assertThat(scheduler.lastFrameParallelSteps, `is`(100))
+        assertThat(steps, `is`(listOf(100)))
+
+        // commands are applied agent by agent, in the order agents were visited
+        assertThat(applied, `is`((0..99).toList()))
+
+        controls.forEach {
+            assertThat(it.steppedInParallel, `is`(true))
+            assertThat(it.isSteppingInParallel, `is`(false))
+        }
+
+        // without pool, parallel safe agents are stepped on the update thread
+        scheduler.parallelPool = null
+        scheduler.onUpdate(TPF)
+
+        assertThat(applied.size, `is`(200))
+    }
+
+    @Test
+    fun `Failed command does not prevent other commands`() {
+        scheduler.parallelPool = pool
+
+        val applied = arrayListOf<Int>()
+        val failing = newParallelAgent(0, applied)
+        newParallelAgent(1, applied)
+
+        failing.command = Runnable { throw IllegalStateException() }
+
+        try {
+            scheduler.onUpdate(TPF)
+        } catch (e: IllegalStateException) {
+            // expected
+        }
+
+        assertThat(applied, `is`(listOf(1)))
+
+        failing.command = Runnable { applied.add(0) }
+
+        scheduler.onUpdate(TPF)
+
+        // both agents are stepped once, nothing is left over from the failed frame
+        assertThat(applied, `is`(listOf(1, 0, 1)))
+    }
+
+    @Test
+    fun `Defer runs command immediately outside of parallel step`() {
+        val control = newAgent(0)
+        var ran = false
+
+        control.defer(Runnable { ran = true })
+
+        assertThat(ran, `is`(true))
+    }
+
+    private fun newParallelAgent(id: Int, applied: MutableList<Int>): ParallelControl {
+        val control = ParallelControl()
+        control.command = Runnable { applied.add(id) }
+
+        val entity = Entity()
+        entity.addControl(control)
+        gameWorld.addEntity(entity)
+
+        scheduler.add(control)
+        return control
+    }
+
+    private class ParallelControl : SchedulableControl() {
+        override var isParallelSafe = true
+
+        lateinit var command: Runnable
+
+        @Volatile var steppedInParallel = false
+
+        override fun step(entity: Entity, tpf: Double) {
+            steppedInParallel = isSteppingInParallel
+            defer(command)
+        }
+    }
+
+    private fun newAgent(id: Int): TestControl {
+        val control = TestControl(id)
+
+        val entity = Entity()
+        entity.addControl(control)
+        gameWorld.addEntity(entity)
+
+        scheduler.add(control)
+        return control
+    }
+
+    private inner class TestControl(val id: Int) : SchedulableControl() {
+        val tpfs = arrayListOf<Double>()
+
+        var onStep: () -> Unit = {}
+
+        override fun step(entity: Entity, tpf: Double) {
+            steps.add(id)
+            tpfs.add(tpf)
+            time += 1_000_000
+            onStep()
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.ai
+
+import com.almasb.fxgl.ai.msg.MessageDispatcher
+import com.almasb.fxgl.ai.msg.Telegram
+import com.almasb.fxgl.ai.msg.Telegraph
+import org.hamcrest.CoreMatchers.`is`
+import org.junit.After
+import org.junit.Assert.assertThat
+import org.junit.Assert.fail
+import org.junit.Before
+import org.junit.Test
+
+/**
+ *
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class MessageDispatcherTest {
+
+    private lateinit var dispatcher: MessageDispatcher
+    private lateinit var timepiece: DefaultTimepiece
+    private lateinit var globalTimepiece: Timepiece
+
+    @Before
+    fun setUp() {
+        globalTimepiece = GdxAI.getTimepiece()
+
+        timepiece = DefaultTimepiece()
+        GdxAI.setTimepiece(timepiece)
+
+        dispatcher = MessageDispatcher()
+    }
+
+    @After
+    fun tearDown() {
+        GdxAI.setTimepiece(globalTimepiece)
+    }
+
+    @Test
+    fun `Delayed telegrams are delivered in time order`() {
+        val received = arrayListOf<Int>()
+
+        val listener = Telegraph {
+            received.add(it.message)
+            true
+        }
+
+        dispatcher.addListeners(listener, 1, 2, 3, 4)
+
+        dispatcher.dispatchMessage(0.3f, 3)
+        dispatcher.dispatchMessage(0.1f, 1)
+        dispatcher.dispatchMessage(0.3f, 4)
+        dispatcher.dispatchMessage(0.2f, 2)
+
+        assertThat(dispatcher.queueSize, `is`(4))
+
+        timepiece.update(0.15f)
+        dispatcher.update()
+
+        assertThat(received, `is`(listOf(1)))
+
+        timepiece.update(0.2f)
+        dispatcher.update()
+
+        // equal timestamps are delivered in the order they were sent
+        assertThat(received, `is`(listOf(1, 2, 3, 4)))
+        assertThat(dispatcher.queueSize, `is`(0))
+    }
+
+    @Test
+    fun `Telegrams sent during delivery are not dispatched in the same update`() {
+        var count = 0
+
+        val listener = Telegraph {
+            count++
+            dispatcher.dispatchMessage(0.1f, 1)
+            true
+        }
+
+        dispatcher.addListener(listener, 1)
+        dispatcher.dispatchMessage(0.1f, 1)
+
+        timepiece.update(1.0f)
+        dispatcher.update()
+
+        assertThat(count, `is`(1))
+        assertThat(dispatcher.queueSize, `is`(1))
+    }
+
+    @Test
+    fun `Telegrams after a failed delivery are delivered in next update`() {
+        val received = arrayListOf<Int>()
+
+        val listener = Telegraph {
+            if (it.message == 2)
+                throw RuntimeException("Test")
+
+            received.add(it.message)
+            true
+        }
+
+        dispatcher.addListeners(listener, 1, 2, 3)
+
+        dispatcher.dispatchMessage(0.1f, 1)
+        dispatcher.dispatchMessage(0.1f, 2)
+        dispatcher.dispatchMessage(0.1f, 3)
+
+        timepiece.update(0.2f)
+
+        try {
+            dispatcher.update()
+            fail("Exception expected")
+        } catch (e: RuntimeException) {
+            assertThat(e.message, `is`("Test"))
+        }
+
+        assertThat(received, `is`(listOf(1)))
+        assertThat(dispatcher.queueSize, `is`(1))
+
+        dispatcher.update()
+
+        assertThat(received, `is`(listOf(1, 3)))
+        assertThat(dispatcher.queueSize, `is`(0))
+    }
+
+    @Test
+    fun `Telegram is returned to the pool when delivery fails`() {
+        var failed: Telegram? = null
+        var next: Telegram? = null
+
+        dispatcher.addListener(Telegraph {
+            failed = it
+            throw RuntimeException("Test")
+        }, 1)
+
+        dispatcher.addListener(Telegraph {
+            next = it
+            true
+        }, 2)
+
+        try {
+            dispatcher.dispatchMessage(1)
+            fail("Exception expected")
+        } catch (e: RuntimeException) {
+            assertThat(e.message, `is`("Test"))
+        }
+
+        // the pool hands out the last freed telegram first
+        dispatcher.dispatchMessage(2)
+
+        assertThat(next === failed, `is`(true))
+    }
+}
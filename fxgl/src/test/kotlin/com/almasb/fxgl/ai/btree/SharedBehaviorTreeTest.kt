@@ -0,0 +1,121 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.ai.btree
+
+import com.almasb.fxgl.ai.btree.branch.Parallel
+import com.almasb.fxgl.ai.btree.branch.Sequence
+import com.almasb.fxgl.ai.btree.decorator.Invert
+import com.almasb.fxgl.ai.btree.decorator.Repeat
+import com.almasb.fxgl.ai.utils.random.ConstantIntegerDistribution
+import org.hamcrest.CoreMatchers.*
+import org.junit.Assert.assertThat
+import org.junit.Test
+
+/**
+ *
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class SharedBehaviorTreeTest {
+
+    @Test
+    fun `Agents sharing a tree have independent state`() {
+        val shared = SharedBehaviorTree(BehaviorTree(newRoot()))
+
+        val agentA = Agent()
+        val agentB = Agent()
+        val stateA = shared.newState()
+        val stateB = shared.newState()
+
+        // each reference agent runs its own copy of the tree
+        val refA = Agent()
+        val refB = Agent()
+        val treeA = BehaviorTree(newRoot(), refA)
+        val treeB = BehaviorTree(newRoot(), refB)
+
+        // interleaved, so that the shared graph is left mid-run by the other agent
+        repeat(3) {
+            "AABABAABAB".forEach {
+                if (it == 'A') {
+                    shared.step(agentA, stateA)
+                    treeA.step()
+                } else {
+                    shared.step(agentB, stateB)
+                    treeB.step()
+                }
+
+                assertThat(agentA.log, `is`<List<String>>(refA.log))
+                assertThat(agentB.log, `is`<List<String>>(refB.log))
+            }
+        }
+
+        assertThat(agentA.log, hasItem("d"))
+        assertThat(agentB.log, hasItem("d"))
+        assertThat(agentA.log, `is`(not<List<String>>(agentB.log)))
+    }
+
+    @Test
+    fun `Fresh state is restored for new agents`() {
+        val shared = SharedBehaviorTree(BehaviorTree(newRoot()))
+
+        val fresh = shared.newState()
+
+        // tree, sequence, parallel, repeat, 2 inverts and 5 leaves
+        assertThat(shared.taskCount, `is`(11))
+
+        val state = shared.newState()
+        shared.step(Agent(), state)
+
+        assertThat(state, `is`(not(fresh)))
+        assertThat(shared.newState(), `is`(fresh))
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun `Fail if state size does not match`() {
+        val shared = SharedBehaviorTree(BehaviorTree(newRoot()))
+
+        shared.step(Agent(), IntArray(shared.stateSize + 1))
+    }
+
+    private fun newRoot(): Task<Agent> {
+        return Sequence<Agent>(
+                Parallel<Agent>(Ticks("a", 2), Ticks("b", 3)),
+                Repeat<Agent>(ConstantIntegerDistribution(2), Ticks("c", 2)),
+                Invert<Agent>(Invert<Agent>(Ticks("d", 1))),
+                Ticks("e", 1)
+        )
+    }
+
+    private class Agent {
+        val counters = hashMapOf<String, Int>()
+        val log = arrayListOf<String>()
+    }
+
+    /**
+     * Succeeds after running [n] times, the count is kept in the agent.
+     */
+    private class Ticks(val name: String, val n: Int) : LeafTask<Agent>() {
+
+        override fun execute(): Status {
+            val agent = `object`
+            val count = agent.counters.getOrElse(name) { 0 } + 1
+
+            if (count < n) {
+                agent.counters[name] = count
+                return Status.RUNNING
+            }
+
+            agent.counters[name] = 0
+            agent.log.add(name)
+            return Status.SUCCEEDED
+        }
+
+        override fun copyTo(task: Task<Agent>): Task<Agent> {
+            return task
+        }
+    }
+}
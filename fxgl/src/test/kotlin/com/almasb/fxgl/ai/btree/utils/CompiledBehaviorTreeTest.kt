@@ -0,0 +1,119 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.ai.btree.utils
+
+import com.almasb.fxgl.ai.AttackTask
+import com.almasb.fxgl.ai.btree.BehaviorTree
+import com.almasb.fxgl.ai.btree.Task
+import com.almasb.fxgl.ai.btree.branch.Parallel
+import com.almasb.fxgl.ai.btree.decorator.Repeat
+import com.almasb.fxgl.ai.btree.decorator.SemaphoreGuard
+import com.almasb.fxgl.ai.btree.leaf.Success
+import com.almasb.fxgl.ai.btree.leaf.Wait
+import com.almasb.fxgl.ai.utils.random.ConstantIntegerDistribution
+import com.almasb.fxgl.ai.utils.random.UniformFloatDistribution
+import com.almasb.fxgl.entity.GameEntity
+import org.hamcrest.CoreMatchers.*
+import org.junit.Assert.assertThat
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+import java.io.IOException
+
+/**
+ *
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class CompiledBehaviorTreeTest {
+
+    private val TREE = """
+        import attack : "com.almasb.fxgl.ai.AttackTask"
+
+        root
+          parallel policy:"selector"
+            repeat times:3
+              wait seconds:"uniform,1,2"
+            semaphoreGuard name:"guard"
+              attack
+            success
+        """.trimIndent()
+
+    @Test
+    fun `Read compiled tree`() {
+        val tree = BehaviorTreeParser<GameEntity>().parse(TREE, null)
+        tree.getChild(0).getChild(2).guard = Success()
+
+        val compiled = compile(tree)
+
+        val entity = GameEntity()
+        val loaded = CompiledBehaviorTree.read(ByteArrayInputStream(compiled), entity)
+
+        assertThat(loaded.`object`, `is`(entity))
+        assertSameTask(loaded.getChild(0), tree.getChild(0))
+
+        val parallel = loaded.getChild(0) as Parallel
+        assertThat(parallel.policy, `is`(Parallel.Policy.Selector))
+
+        val repeat = parallel.getChild(0) as Repeat
+        assertThat((repeat.times as ConstantIntegerDistribution).value, `is`(3))
+
+        val wait = repeat.getChild(0) as Wait
+        assertThat((wait.seconds as UniformFloatDistribution).low, `is`(1.0f))
+        assertThat((wait.seconds as UniformFloatDistribution).high, `is`(2.0f))
+
+        assertThat((parallel.getChild(1) as SemaphoreGuard).name, `is`("guard"))
+        assertThat(parallel.getChild(1).getChild(0), `is`(instanceOf(AttackTask::class.java)))
+        assertThat(parallel.getChild(2).guard, `is`(instanceOf(Success::class.java)))
+
+        // compiling loaded tree gives same data
+        assertThat(compile(loaded), `is`(compiled))
+    }
+
+    @Test(expected = IOException::class)
+    fun `Fail if version is different`() {
+        val bytes = compile(BehaviorTreeParser<GameEntity>().parse(TREE, null))
+
+        // version follows magic
+        bytes[7] = 99
+
+        CompiledBehaviorTree.read(ByteArrayInputStream(bytes), null)
+    }
+
+    @Test(expected = IOException::class)
+    fun `Fail if task has no such attribute`() {
+        val out = ByteArrayOutputStream()
+
+        DataOutputStream(out).apply {
+            writeInt(0x46584254)
+            writeInt(1)
+            writeInt(1)
+            writeUTF(Wait::class.java.name)
+            writeInt(1)
+            writeUTF("minutes")
+        }
+
+        CompiledBehaviorTree.read(ByteArrayInputStream(out.toByteArray()), null)
+    }
+
+    private fun compile(tree: BehaviorTree<*>): ByteArray {
+        val out = ByteArrayOutputStream()
+        CompiledBehaviorTree.write(tree, out)
+        return out.toByteArray()
+    }
+
+    private fun assertSameTask(actual: Task<*>, expected: Task<*>) {
+        assertThat(actual.javaClass, `is`<Class<*>>(expected.javaClass))
+        assertThat(actual.childCount, `is`(expected.childCount))
+        assertThat(actual.guard == null, `is`(expected.guard == null))
+
+        for (i in 0..actual.childCount - 1) {
+            assertSameTask(actual.getChild(i), expected.getChild(i))
+        }
+    }
+}
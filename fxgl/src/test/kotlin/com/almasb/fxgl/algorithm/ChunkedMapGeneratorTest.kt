@@ -0,0 +1,79 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.algorithm
+
+import org.hamcrest.CoreMatchers.`is`
+import org.junit.Assert.assertThat
+import org.junit.Test
+
+/**
+ *
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class ChunkedMapGeneratorTest {
+
+    @Test
+    fun `Evicted chunks are regenerated identically`() {
+        val generator = ChunkedMapGenerator(1000, 16)
+
+        val noise = generator.getChunk(-3, 5).noise.clone()
+
+        generator.clear()
+
+        // generated in parallel with other chunks this time
+        generator.update(-64, 64, 0, 100, 1)
+
+        assertThat(generator.getChunk(-3, 5).noise, `is`(noise))
+    }
+
+    @Test
+    fun `Chunks far from viewport are evicted`() {
+        val generator = ChunkedMapGenerator(1000, 16)
+        generator.keepDistance = 1
+
+        generator.update(0, 0, 31, 31, 1)
+
+        // 2x2 visible + margin of 1 around
+        assertThat(generator.getLoadedChunkCount(), `is`(16))
+
+        generator.update(1600, 1600, 1631, 1631, 0)
+
+        assertThat(generator.getLoadedChunkCount(), `is`(4))
+    }
+
+    @Test
+    fun `Chunks within margin are kept`() {
+        val generator = ChunkedMapGenerator(1000, 16)
+        generator.keepDistance = 0
+
+        assertThat(generator.update(0, 0, 31, 31, 1), `is`(16))
+        assertThat(generator.update(0, 0, 31, 31, 1), `is`(0))
+        assertThat(generator.getLoadedChunkCount(), `is`(16))
+    }
+
+    @Test
+    fun `Water level applies to all chunks`() {
+        val generator = ChunkedMapGenerator(1000, 16, waterLevel = 2.0f)
+
+        generator.update(0, 0, 31, 31, 1)
+
+        generator.getLoadedChunks().forEach {
+            assertThat(it.getType(0, 0), `is`(TileType.WATER))
+        }
+    }
+
+    @Test
+    fun `Tile coordinates map to chunks`() {
+        val generator = ChunkedMapGenerator(1000, 16)
+
+        val chunk = generator.getChunk(-1, -1)
+
+        assertThat(generator.getNoise(-1, -1), `is`(chunk.getNoise(15, 15)))
+        assertThat(generator.getTileType(-16, -16), `is`(chunk.getType(0, 0)))
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.app
+
+import com.almasb.fxgl.app.listener.UpdateListener
+import com.almasb.fxgl.entity.Entities
+import com.almasb.fxgl.physics.BoundingShape
+import com.almasb.fxgl.physics.HitBox
+import com.almasb.fxgl.physics.PhysicsComponent
+import com.almasb.fxgl.physics.box2d.dynamics.BodyType
+import javafx.application.Platform
+import javafx.util.Duration
+import org.hamcrest.CoreMatchers.`is`
+import org.junit.Assert.assertThat
+import org.junit.Assert.assertTrue
+import org.junit.BeforeClass
+import org.junit.Test
+
+/**
+ *
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class HeadlessRunnerTest {
+
+    companion object {
+        @BeforeClass
+        @JvmStatic fun before() {
+            FXGL.configure(MockApplicationModule.get())
+        }
+    }
+
+    @Test
+    fun `Run steps world, physics and timer on calling thread`() {
+        val runner = HeadlessRunner()
+        runner.physicsWorld.setGravity(0.0, 100.0)
+
+        val physics = PhysicsComponent()
+        physics.setBodyType(BodyType.DYNAMIC)
+
+        val entity = Entities.builder()
+                .at(100.0, 100.0)
+                .bbox(HitBox("Body", BoundingShape.box(40.0, 40.0)))
+                .with(physics)
+                .build()
+
+        runner.gameWorld.addEntity(entity)
+
+        var timerFired = false
+        runner.timer.runOnceAfter(Runnable { timerFired = true }, Duration.seconds(0.5))
+
+        val testThread = Thread.currentThread()
+        var updates = 0
+
+        runner.addUpdateListener(object : UpdateListener {
+            override fun onUpdate(tpf: Double) {
+                assertTrue(Thread.currentThread() === testThread)
+                assertTrue(!Platform.isFxApplicationThread())
+                updates++
+            }
+        })
+
+        runner.run(60)
+
+        assertThat(runner.tickCount, `is`(60L))
+        assertThat(updates, `is`(60))
+        assertThat(timerFired, `is`(true))
+        assertTrue(runner.ticksPerSecond > 0)
+
+        // body has fallen under gravity
+        assertTrue(entity.y > 100.0)
+    }
+
+    @Test
+    fun `Start and stop on simulation thread`() {
+        val runner = HeadlessRunner()
+
+        runner.start()
+
+        while (runner.tickCount < 10) {
+            Thread.sleep(1)
+        }
+
+        runner.stop()
+
+        val ticks = runner.tickCount
+        Thread.sleep(20)
+
+        assertThat(runner.tickCount, `is`(ticks))
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.asset
+
+import org.hamcrest.CoreMatchers.*
+import org.junit.After
+import org.junit.Assert.assertThat
+import org.junit.Test
+import java.nio.file.Files
+import java.nio.file.Paths
+
+/**
+ *
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class AssetArchiveTest {
+
+    companion object {
+        private const val FILE_NAME = "testarchive/assets.fxpak"
+    }
+
+    private val assetsDir = Paths.get(javaClass.getResource("/assets/textures/brick.png").toURI()).parent.parent
+
+    @After
+    fun tearDown() {
+        Files.deleteIfExists(Paths.get(FILE_NAME))
+        Files.deleteIfExists(Paths.get("testarchive/"))
+    }
+
+    @Test
+    fun `Pack and read assets`() {
+        AssetArchive.pack(assetsDir, Paths.get(FILE_NAME))
+
+        val archive = AssetArchive.open(Paths.get(FILE_NAME))
+
+        assertThat(archive.getNames(), hasItems("/assets/textures/brick.png", "/assets/text/test1.txt", "/assets/ui/css/test.css"))
+
+        for (name in listOf("/assets/textures/brick.png", "/assets/text/test1.txt", "/assets/sounds/intro.wav")) {
+            val expected = Files.readAllBytes(assetsDir.resolve(name.removePrefix("/assets/")))
+
+            assertThat(archive.getStream(name).use { it.readBytes() }, `is`(expected))
+
+            val buffer = archive.getBuffer(name)
+            val bytes = ByteArray(buffer.remaining())
+            buffer.get(bytes)
+
+            assertThat(bytes, `is`(expected))
+            assertThat(archive.getSize(name), `is`(expected.size))
+        }
+    }
+
+    @Test
+    fun `Archive manifest matches generated manifest`() {
+        AssetArchive.pack(assetsDir, Paths.get(FILE_NAME), false)
+
+        val archive = AssetArchive.open(Paths.get(FILE_NAME))
+
+        assertThat(archive.manifest.getEntries(), `is`(AssetManifest.generate(assetsDir).getEntries()))
+        assertThat(archive.manifest.verify("/assets/text/test1.txt", archive.getStream("/assets/text/test1.txt")), `is`(true))
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun `Throw if asset not in archive`() {
+        AssetArchive.pack(assetsDir, Paths.get(FILE_NAME))
+
+        AssetArchive.open(Paths.get(FILE_NAME)).getStream("/assets/textures/nothing.png")
+    }
+}
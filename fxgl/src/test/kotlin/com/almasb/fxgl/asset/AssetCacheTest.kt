@@ -7,7 +7,9 @@
 package com.almasb.fxgl.asset
 
 import com.almasb.fxgl.core.Disposable
+import javafx.scene.image.WritableImage
 import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.nullValue
 import org.junit.Assert.assertThat
 import org.junit.Before
 import org.junit.Test
@@ -58,6 +60,98 @@ class AssetCacheTest {
         assertThat(asset6.disposed, `is`(false))
     }
 
+    @Test
+    fun `Evict by weight`() {
+        val cache = AssetCache(1000, 100)
+
+        cache.put("Big", "big", 600)
+        cache.put("Small1", "small1", 100)
+        cache.put("Small2", "small2", 100)
+
+        assertThat(cache.get("Big"), `is`<Any>("big"))
+
+        // Small1 is least recently used
+        cache.put("Medium", "medium", 300)
+
+        assertThat(cache.get("Small1"), `is`(nullValue()))
+        assertThat(cache.get("Big"), `is`<Any>("big"))
+
+        val stats = cache.getStats()
+
+        assertThat(stats.size, `is`(3))
+        assertThat(stats.weight, `is`(1000L))
+        assertThat(stats.hits, `is`(2L))
+        assertThat(stats.misses, `is`(1L))
+        assertThat(stats.evictions, `is`(1L))
+    }
+
+    @Test
+    fun `Pinned assets are not evicted`() {
+        val cache = AssetCache(1000, 100)
+
+        cache.pin("Pinned")
+        cache.put("Pinned", "pinned", 500)
+        cache.put("Other", "other", 400)
+        cache.put("New", "new", 400)
+
+        assertThat(cache.get("Pinned"), `is`<Any>("pinned"))
+        assertThat(cache.get("Other"), `is`(nullValue()))
+        assertThat(cache.getStats().pinnedWeight, `is`(500L))
+
+        cache.unpin("Pinned")
+        cache.put("Newer", "newer", 700)
+
+        assertThat(cache.get("Pinned"), `is`(nullValue()))
+        assertThat(cache.getStats().pinnedWeight, `is`(0L))
+    }
+
+    @Test
+    fun `Soft tier keeps evicted assets`() {
+        val cache = AssetCache(100, 100)
+        cache.isSoftTierEnabled = true
+
+        val disposable = DisposableAsset()
+
+        cache.put("Disposable", disposable, 100)
+        cache.put("Asset1", "asset1", 100)
+        cache.put("Asset2", "asset2", 100)
+
+        assertThat(disposable.disposed, `is`(true))
+        assertThat(cache.get("Disposable"), `is`(nullValue()))
+        assertThat(cache.get("Asset1"), `is`<Any>("asset1"))
+        assertThat(cache.getStats().softHits, `is`(1L))
+
+        // promoted with the weight it was put with
+        assertThat(cache.getStats().weight, `is`(100L))
+    }
+
+    @Test
+    fun `Weigh assets`() {
+        assertThat(AssetCache.weigh(WritableImage(16, 8)), `is`(512L))
+        assertThat(AssetCache.weigh("text"), `is`(8L))
+        assertThat(AssetCache.weigh(Any()), `is`(AssetCache.DEFAULT_WEIGHT))
+    }
+
+    @Test
+    fun `Update weight of grown asset`() {
+        val cache = AssetCache(1000, 10)
+
+        val asset = "asset"
+
+        cache.put("Asset1", "asset1", 300)
+        cache.put("Asset2", asset, 300)
+
+        cache.updateWeight("Asset2", asset, 800)
+
+        assertThat(cache.getStats().weight, `is`(800L))
+        assertThat(cache.get("Asset1"), `is`(nullValue()))
+
+        // different value with same key is not updated
+        cache.updateWeight("Asset2", "other", 100)
+
+        assertThat(cache.getStats().weight, `is`(800L))
+    }
+
     private class DisposableAsset : Disposable {
         var disposed = false
 
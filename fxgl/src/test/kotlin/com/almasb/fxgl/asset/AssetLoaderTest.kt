@@ -6,18 +6,26 @@
 
 package com.almasb.fxgl.asset
 
+import com.almasb.fxgl.ai.btree.BehaviorTree
+import com.almasb.fxgl.ai.btree.leaf.Success
+import com.almasb.fxgl.ai.btree.utils.CompiledBehaviorTree
 import com.almasb.fxgl.app.FXGL
 import com.almasb.fxgl.app.MockApplicationModule
 import com.almasb.fxgl.entity.GameEntity
 import com.almasb.fxgl.service.AssetLoader
 import com.almasb.fxgl.ui.UIController
 import org.hamcrest.CoreMatchers.*
+import org.junit.After
 import org.junit.Assert.assertThat
 import org.junit.Assume.assumeThat
 import org.junit.Before
 import org.junit.BeforeClass
 import org.junit.Test
+import java.nio.file.Files
+import java.nio.file.Paths
 import java.util.*
+import java.util.concurrent.ExecutionException
+import java.util.function.BiConsumer
 
 /**
  *
@@ -51,6 +59,8 @@ class AssetLoaderTest {
     private lateinit var assetLoader: AssetLoader
 
     companion object {
+        private const val BTREE_CACHE_DIR = "system/cache/ai/"
+
         @BeforeClass
         @JvmStatic fun before() {
             FXGL.configure(MockApplicationModule.get())
@@ -62,6 +72,15 @@ class AssetLoaderTest {
         assetLoader = FXGL.getInstance(AssetLoader::class.java)
     }
 
+    @After
+    fun tearDown() {
+        val cacheDir = Paths.get(BTREE_CACHE_DIR)
+
+        if (Files.exists(cacheDir)) {
+            Files.newDirectoryStream(cacheDir, "*.cbt").use { files -> files.forEach { Files.delete(it) } }
+        }
+    }
+
     @Test(expected = IllegalArgumentException::class)
     fun `Exception is thrown if asset not found`() {
         assetLoader.getStream("nothing.jpg")
@@ -206,6 +225,25 @@ class AssetLoaderTest {
         val tree = assetLoader.loadBehaviorTree<GameEntity>("test.tree")
 
         assertThat(tree, `is`(notNullValue()))
+
+        val hash = assetLoader.getStream("/assets/ai/test.tree").use { AssetManifest.hash(it) }
+        val compiledFile = Paths.get(BTREE_CACHE_DIR, "$hash.cbt")
+
+        assertThat(Files.exists(compiledFile), `is`(true))
+
+        // second load reads compiled tree
+        val compiledTree = assetLoader.loadBehaviorTree<GameEntity>("test.tree")
+
+        assertThat(compiledTree, `is`(not(sameInstance(tree))))
+        assertThat(compiledTree.getChild(0).javaClass, `is`<Class<*>>(tree.getChild(0).javaClass))
+        assertThat(compiledTree.getChild(0).getChild(0).childCount, `is`(2))
+
+        // a different compiled tree under the same hash is loaded instead of the source
+        Files.newOutputStream(compiledFile).use { CompiledBehaviorTree.write(BehaviorTree<GameEntity>(Success()), it) }
+
+        val replacedTree = assetLoader.loadBehaviorTree<GameEntity>("test.tree")
+
+        assertThat(replacedTree.getChild(0).javaClass, `is`<Class<*>>(Success::class.java))
     }
 
     @Test
@@ -231,6 +269,57 @@ class AssetLoaderTest {
                 ))
     }
 
+    @Test
+    fun `Assets are indexed in manifest`() {
+        val manifest = assetLoader.manifest
+
+        assertThat(manifest.contains("/assets/textures/brick.png"), `is`(true))
+        assertThat(manifest.contains("/assets/textures/nothing.png"), `is`(false))
+        assertThat(manifest.getEntry("/assets/sounds/intro.wav")!!.type, `is`(AssetType.SOUND))
+
+        assertThat(assetLoader.verifyAssets(), `is`(emptyList<String>()))
+    }
+
+    @Test
+    fun `Load assets asynchronously`() {
+        assetLoader.clearCache()
+
+        val future1 = assetLoader.loadTextureAsync("brick.png")
+        val future2 = assetLoader.loadTextureAsync("brick.png")
+
+        val texture1 = future1.get()
+        val texture2 = future2.get()
+
+        // separate textures (nodes) share the same image
+        assertThat(texture1, `is`(not(texture2)))
+        assertThat(texture1.image, `is`(texture2.image))
+
+        assertThat(assetLoader.loadTextAsync("test1.txt").get(), `is`(assetLoader.loadText("test1.txt")))
+
+        assetLoader.clearCache()
+    }
+
+    @Test
+    fun `Preload assets in parallel`() {
+        assetLoader.clearCache()
+
+        val loaded = Collections.synchronizedList(arrayListOf<String>())
+
+        val names = listOf("/assets/textures/brick.png", "/assets/textures/brick2.png", "/assets/text/test1.txt")
+
+        assetLoader.preloadAsync(names, BiConsumer { name, _ -> loaded.add(name) }).get()
+
+        assertThat(loaded.toSet(), `is`(names.toSet()))
+        assertThat(assetLoader.cacheStats.size, `is`(3))
+
+        assetLoader.clearCache()
+    }
+
+    @Test(expected = ExecutionException::class)
+    fun `Preload fails if asset not found`() {
+        assetLoader.preloadAsync(listOf("/assets/textures/nothing.png"), null).get()
+    }
+
     @Test
     fun `Check loaded from cache when present`() {
         // ensure cache is clean
@@ -253,4 +342,34 @@ class AssetLoaderTest {
 
         assetLoader.clearCache()
     }
-}
\ No newline at end of file
+
+    @Test
+    fun `Evicted assets are kept in soft cache when enabled`() {
+        assetLoader.clearCache()
+
+        // disabled by property
+        assertThat(assetLoader.isSoftCacheEnabled, `is`(false))
+
+        assetLoader.isSoftCacheEnabled = true
+
+        val texture = assetLoader.loadTexture("brick.png", 100.0, 100.0)
+
+        // fill the cache, so that the texture is evicted
+        for (i in 1..40) {
+            assetLoader.loadTexture("brick.png", 100.0 + i, 100.0).dispose()
+        }
+
+        val softHits = assetLoader.cacheStats.softHits
+
+        val texture2 = assetLoader.loadTexture("brick.png", 100.0, 100.0)
+
+        assertThat(texture2.image, `is`(texture.image))
+        assertThat(assetLoader.cacheStats.softHits, `is`(softHits + 1))
+
+        texture.dispose()
+        texture2.dispose()
+
+        assetLoader.isSoftCacheEnabled = false
+        assetLoader.clearCache()
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.asset
+
+import org.hamcrest.CoreMatchers.*
+import org.junit.Assert.assertThat
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.nio.file.Files
+import java.nio.file.Paths
+
+/**
+ *
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class AssetManifestTest {
+
+    private val assetsDir = Paths.get(javaClass.getResource("/assets/textures/brick.png").toURI()).parent.parent
+
+    @Test
+    fun `Asset type is determined by directory`() {
+        assertThat(AssetType.of("/assets/textures/player.png"), `is`(AssetType.TEXTURE))
+        assertThat(AssetType.of("/assets/ui/fonts/test.ttf"), `is`(AssetType.FONT))
+        assertThat(AssetType.of("/assets/ui/test_ui.fxml"), `is`(AssetType.UI))
+        assertThat(AssetType.of("/assets/video/intro.mp4"), `is`(AssetType.OTHER))
+    }
+
+    @Test
+    fun `Generate from directory`() {
+        val manifest = AssetManifest.generate(assetsDir)
+
+        val entry = manifest.getEntry("/assets/textures/brick.png")!!
+
+        assertThat(entry.type, `is`(AssetType.TEXTURE))
+        assertThat(entry.size, `is`(Files.size(assetsDir.resolve("textures/brick.png"))))
+        assertThat(entry.hash.length, `is`(64))
+
+        assertThat(manifest.getNames("/assets/ui/"), hasItems("css/test.css", "fonts/test.ttf", "test_ui.fxml"))
+        assertThat(manifest.getNames("/assets/textures/"), `is`(listOf("brick.png", "brick2.png")))
+    }
+
+    @Test
+    fun `Write and read`() {
+        val manifest = AssetManifest.generate(assetsDir)
+
+        val out = ByteArrayOutputStream()
+        manifest.write(out)
+
+        val manifest2 = AssetManifest.read(ByteArrayInputStream(out.toByteArray()))
+
+        assertThat(manifest2.getEntries(), `is`(manifest.getEntries()))
+    }
+
+    @Test
+    fun `Verify content`() {
+        val bytes = "content".toByteArray()
+        val hash = AssetManifest.hash(ByteArrayInputStream(bytes))
+
+        val manifest = AssetManifest(listOf(AssetManifest.Entry("/assets/text/a.txt", AssetType.TEXT, bytes.size.toLong(), hash)))
+
+        assertThat(manifest.verify("/assets/text/a.txt", ByteArrayInputStream(bytes)), `is`(true))
+        assertThat(manifest.verify("/assets/text/a.txt", ByteArrayInputStream("changed".toByteArray())), `is`(false))
+        assertThat(manifest.verify("/assets/text/b.txt", ByteArrayInputStream(bytes)), `is`(false))
+
+        // unknown size and hash
+        val names = AssetManifest.ofNames(listOf("/assets/text/a.txt"))
+
+        assertThat(names.verify("/assets/text/a.txt", ByteArrayInputStream("changed".toByteArray())), `is`(true))
+    }
+}
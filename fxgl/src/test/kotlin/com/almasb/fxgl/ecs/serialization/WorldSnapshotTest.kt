@@ -0,0 +1,98 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.ecs.serialization
+
+import com.almasb.fxgl.ecs.Entity
+import com.almasb.fxgl.entity.component.PositionComponent
+import com.almasb.fxgl.io.serialization.Bundle
+import javafx.geometry.Rectangle2D
+import org.hamcrest.CoreMatchers.`is`
+import org.junit.After
+import org.junit.Assert.assertThat
+import org.junit.Before
+import org.junit.Test
+import java.nio.file.Files
+import java.nio.file.Path
+
+/**
+ *
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class WorldSnapshotTest {
+
+    private lateinit var file: Path
+
+    @Before
+    fun setUp() {
+        file = Files.createTempFile("fxgl", ".snapshot")
+
+        WorldSnapshotWriter.open(file, 100.0).use { writer ->
+            for (i in 0..99) {
+                val entity = Entity()
+                entity.addComponent(PositionComponent(i * 10.0, i * 5.0))
+
+                writer.write("entity$i", entity)
+            }
+
+            assertThat(writer.entityCount, `is`(100))
+        }
+    }
+
+    @After
+    fun tearDown() {
+        Files.deleteIfExists(file)
+    }
+
+    @Test
+    fun `Read entities by index`() {
+        WorldSnapshotReader.open(file).use { reader ->
+            assertThat(reader.entityCount, `is`(100))
+            assertThat(reader.chunkSize, `is`(100.0))
+
+            for (i in intArrayOf(57, 3, 99, 0)) {
+                val bundle = reader.readEntity(i)
+                val position = bundle.get<Bundle>("components").get<Bundle>(PositionComponent::class.java.canonicalName)
+
+                assertThat(bundle.name, `is`("entity$i"))
+                assertThat(position.get<Double>("x"), `is`(i * 10.0))
+                assertThat(position.get<Double>("y"), `is`(i * 5.0))
+            }
+        }
+    }
+
+    @Test
+    fun `Query entities by region`() {
+        WorldSnapshotReader.open(file).use { reader ->
+            val indices = reader.getEntityIndices(Rectangle2D(150.0, 0.0, 100.0, 1000.0))
+
+            assertThat(indices.size, `is`(11))
+
+            for (i in 0..indices.size - 1) {
+                assertThat(indices.items[i], `is`(15 + i))
+            }
+
+            assertThat(reader.getEntityIndices(Rectangle2D(-1000.0, -1000.0, 1e9, 1e9)).size, `is`(100))
+            assertThat(reader.getEntityIndices(Rectangle2D(2000.0, 0.0, 10.0, 10.0)).size, `is`(0))
+        }
+    }
+
+    @Test
+    fun `Stream all entities in order`() {
+        WorldSnapshotReader.open(file).use { reader ->
+            var count = 0
+
+            reader.forEachEntity { i, bundle ->
+                assertThat(i, `is`(count))
+                assertThat(bundle.name, `is`("entity$i"))
+                count++
+            }
+
+            assertThat(count, `is`(100))
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.effect
+
+import javafx.scene.effect.BlendMode
+import javafx.scene.paint.Color
+import org.hamcrest.CoreMatchers.`is`
+import org.junit.Assert.assertThat
+import org.junit.Test
+
+/**
+ *
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class ParticleBufferTest {
+
+    @Test
+    fun `Particles move and dead particles are swap removed`() {
+        val buffer = ParticleBuffer(2)
+
+        buffer.add(null, 0.0, 0.0, 1.0, 2.0, 0.0, 1.0, 5.0, 0.0, 0.0, 0.5, Color.RED, Color.RED, BlendMode.ADD)
+        buffer.add(null, 10.0, 10.0, 0.0, 0.0, 0.0, 0.0, 5.0, 0.0, 0.0, 2.0, Color.RED, Color.RED, BlendMode.ADD)
+        buffer.add(null, 20.0, 20.0, 0.0, 0.0, 0.0, 0.0, 5.0, 0.0, 0.0, 2.0, Color.RED, Color.RED, BlendMode.ADD)
+
+        assertThat(buffer.size(), `is`(3))
+
+        buffer.update(0.25)
+
+        assertThat(buffer.getX(0), `is`(1.0f))
+        assertThat(buffer.getY(0), `is`(2.0f))
+        assertThat(buffer.getAlpha(0), `is`(0.5f))
+
+        buffer.update(0.25)
+
+        // first particle died, last one took its place
+        assertThat(buffer.size(), `is`(2))
+        assertThat(buffer.getX(0), `is`(20.0f))
+        assertThat(buffer.getX(1), `is`(10.0f))
+    }
+
+    @Test
+    fun `Particles with zero radius die`() {
+        val buffer = ParticleBuffer()
+
+        buffer.add(null, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 1.0, -0.5, 0.0, 10.0, Color.RED, Color.RED, BlendMode.ADD)
+
+        buffer.update(0.1)
+        assertThat(buffer.size(), `is`(1))
+
+        buffer.update(0.1)
+        assertThat(buffer.size(), `is`(0))
+    }
+}
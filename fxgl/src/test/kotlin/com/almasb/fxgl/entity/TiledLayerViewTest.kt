@@ -0,0 +1,115 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.entity
+
+import com.almasb.fxgl.app.FXGL
+import com.almasb.fxgl.app.MockApplicationModule
+import com.almasb.fxgl.parser.tiled.Layer
+import com.almasb.fxgl.parser.tiled.TiledMap
+import com.almasb.fxgl.parser.tiled.Tileset
+import com.almasb.fxgl.scene.Viewport
+import org.hamcrest.CoreMatchers.`is`
+import org.junit.Assert.assertThat
+import org.junit.Before
+import org.junit.BeforeClass
+import org.junit.Test
+
+/**
+ *
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class TiledLayerViewTest {
+
+    companion object {
+        private val MAP_SIZE = 32
+        private val TILE_SIZE = 32
+        private val CHUNK_SIZE = 4
+
+        @BeforeClass
+        @JvmStatic fun before() {
+            FXGL.configure(MockApplicationModule.get())
+        }
+    }
+
+    private lateinit var map: TiledMap
+    private lateinit var viewport: Viewport
+
+    @Before
+    fun setUp() {
+        // tiles only in chunks (0..1, 0..1) and (6..7, 6..7), everything else is empty
+        val data = arrayListOf<Int>()
+        for (y in 0..MAP_SIZE - 1) {
+            for (x in 0..MAP_SIZE - 1) {
+                val filled = (x < 8 && y < 8) || (x >= 24 && y >= 24)
+                data.add(if (filled) 1 + (x + y) % 4 else 0)
+            }
+        }
+
+        val layer = Layer(width = MAP_SIZE, height = MAP_SIZE, name = "layer", type = "tilelayer", visible = true, data = data)
+
+        val tileset = Tileset(firstgid = 1, image = "brick.png", name = "brick",
+                tilewidth = TILE_SIZE, tileheight = TILE_SIZE, imagewidth = 64, imageheight = 64,
+                columns = 2, tilecount = 4)
+
+        map = TiledMap(width = MAP_SIZE, height = MAP_SIZE, tilewidth = TILE_SIZE, tileheight = TILE_SIZE,
+                orientation = "orthogonal", layers = listOf(layer), tilesets = listOf(tileset))
+
+        // chunks 0..3 are near the viewport
+        viewport = Viewport(320.0, 320.0)
+    }
+
+    @Test
+    fun `Empty chunks have no image`() {
+        val view = TiledLayerView(map, map.layers[0], viewport, CHUNK_SIZE)
+
+        assertThat(view.getLoadedChunkCount(), `is`(4))
+        assertThat(view.childrenUnmodifiable.size, `is`(4))
+    }
+
+    @Test
+    fun `Chunks are updated on frame update after viewport moved`() {
+        val view = TiledLayerView(map, map.layers[0], viewport, CHUNK_SIZE)
+        val initialChildren = view.childrenUnmodifiable.toList()
+
+        // chunks 4..7 are near the viewport
+        viewport.setX(640.0)
+        viewport.setY(640.0)
+
+        assertThat(view.childrenUnmodifiable.toList(), `is`(initialChildren))
+
+        view.onUpdate()
+
+        assertThat(view.getLoadedChunkCount(), `is`(8))
+        assertThat(view.childrenUnmodifiable.size, `is`(4))
+        assertThat(view.childrenUnmodifiable.none { it in initialChildren }, `is`(true))
+
+        // nothing changed since last update
+        val children = view.childrenUnmodifiable.toList()
+        view.onUpdate()
+
+        assertThat(view.childrenUnmodifiable.toList(), `is`(children))
+    }
+
+    @Test
+    fun `Least recently used chunks are evicted`() {
+        val view = TiledLayerView(map, map.layers[0], viewport, CHUNK_SIZE, 16)
+
+        viewport.setX(640.0)
+        viewport.setY(640.0)
+        view.onUpdate()
+
+        assertThat(view.getLoadedChunkCount(), `is`(4))
+
+        viewport.setX(0.0)
+        viewport.setY(0.0)
+        view.onUpdate()
+
+        assertThat(view.getLoadedChunkCount(), `is`(4))
+        assertThat(view.childrenUnmodifiable.size, `is`(4))
+    }
+}
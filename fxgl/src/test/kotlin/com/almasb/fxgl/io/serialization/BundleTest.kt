@@ -6,8 +6,15 @@
 
 package com.almasb.fxgl.io.serialization
 
+import org.hamcrest.CoreMatchers.`is`
+import org.junit.Assert.assertThat
 import org.junit.Assert.assertTrue
 import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import java.io.ObjectInputStream
+import java.io.ObjectOutputStream
+import java.io.Serializable
 
 /**
  *
@@ -24,4 +31,47 @@ class BundleTest {
 
         assertTrue(s == null)
     }
-}
\ No newline at end of file
+
+    @Test
+    fun `Binary codec round trip`() {
+        val bundle = Bundle("Test")
+        bundle.put("int", -5)
+        bundle.put("long", Long.MAX_VALUE)
+        bundle.put("double", 3.5)
+        bundle.put("bool", true)
+        bundle.put("string", "Hello")
+        bundle.put("string2", "Hello")
+        bundle.put("ints", intArrayOf(1, -200, 300000) as Serializable)
+        bundle.put("list", arrayListOf("a", 1, null))
+
+        val inner = Bundle("Inner")
+        inner.put("x", 10.0f)
+        bundle.put("inner", inner)
+
+        val copy = BundleCodec.fromBytes(BundleCodec.toBytes(bundle))
+
+        assertThat(copy.name, `is`("Test"))
+        assertThat(copy.get<Int>("int"), `is`(-5))
+        assertThat(copy.get<Long>("long"), `is`(Long.MAX_VALUE))
+        assertThat(copy.get<Double>("double"), `is`(3.5))
+        assertThat(copy.get<Boolean>("bool"), `is`(true))
+        assertThat(copy.get<String>("string2"), `is`("Hello"))
+        assertThat(copy.get<IntArray>("ints").toList(), `is`(listOf(1, -200, 300000)))
+        assertThat(copy.get<ArrayList<Any?>>("list"), `is`(arrayListOf<Any?>("a", 1, null)))
+        assertThat(copy.get<Bundle>("inner").get<Float>("x"), `is`(10.0f))
+    }
+
+    @Test
+    fun `Java serialization uses binary codec`() {
+        val bundle = Bundle("Test")
+        bundle.put("key", "value")
+
+        val bytes = ByteArrayOutputStream()
+        ObjectOutputStream(bytes).use { it.writeObject(bundle) }
+
+        val copy = ObjectInputStream(ByteArrayInputStream(bytes.toByteArray())).use { it.readObject() } as Bundle
+
+        assertThat(copy.name, `is`("Test"))
+        assertThat(copy.get<String>("key"), `is`("value"))
+    }
+}
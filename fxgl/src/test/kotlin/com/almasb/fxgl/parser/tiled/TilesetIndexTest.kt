@@ -0,0 +1,44 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.parser.tiled
+
+import org.hamcrest.CoreMatchers.`is`
+import org.junit.Assert.assertThat
+import org.junit.Test
+
+/**
+ *
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class TilesetIndexTest {
+
+    private val tileset1 = Tileset(firstgid = 1, tilewidth = 32, tileheight = 32, columns = 4, tilecount = 8)
+    private val tileset2 = Tileset(firstgid = 9, tilewidth = 16, tileheight = 16, columns = 2, tilecount = 4)
+
+    private val index = TilesetIndex(listOf(tileset1, tileset2))
+
+    @Test
+    fun `Gid maps to tileset and source position`() {
+        assertThat(index.getTileset(1), `is`(tileset1))
+        assertThat(index.getSourceX(1), `is`(0))
+        assertThat(index.getSourceY(1), `is`(0))
+
+        assertThat(index.getTileset(6), `is`(tileset1))
+        assertThat(index.getSourceX(6), `is`(32))
+        assertThat(index.getSourceY(6), `is`(32))
+
+        assertThat(index.getTilesetIndex(12), `is`(1))
+        assertThat(index.getSourceX(12), `is`(16))
+        assertThat(index.getSourceY(12), `is`(16))
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun `Throw if gid is not in any tileset`() {
+        index.getTileset(13)
+    }
+}
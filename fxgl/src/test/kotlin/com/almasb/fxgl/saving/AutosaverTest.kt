@@ -0,0 +1,152 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.saving
+
+import com.almasb.fxgl.app.FXGL
+import com.almasb.fxgl.app.MockApplicationModule
+import com.almasb.fxgl.ecs.Entity
+import com.almasb.fxgl.ecs.GameWorld
+import com.almasb.fxgl.ecs.serialization.WorldSnapshotReader
+import com.almasb.fxgl.entity.component.PositionComponent
+import com.almasb.fxgl.io.serialization.Bundle
+import javafx.util.Duration
+import org.hamcrest.CoreMatchers.*
+import org.junit.After
+import org.junit.Assert.assertThat
+import org.junit.Before
+import org.junit.BeforeClass
+import org.junit.Test
+import java.nio.file.Files
+import java.nio.file.Paths
+import java.util.concurrent.Executor
+import java.util.function.Function
+
+/**
+ *
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class AutosaverTest {
+
+    companion object {
+        private const val FILE_NAME = "testautosave/world.snapshot"
+
+        @BeforeClass
+        @JvmStatic fun before() {
+            FXGL.configure(MockApplicationModule.get())
+        }
+    }
+
+    private lateinit var world: GameWorld
+
+    @Before
+    fun setUp() {
+        world = GameWorld()
+
+        for (i in 0..9) {
+            val entity = Entity()
+            entity.addComponent(PositionComponent(i * 10.0, 0.0))
+            entity.setProperty("name", if (i % 2 == 0) "even" else "")
+
+            world.addEntity(entity)
+        }
+    }
+
+    @After
+    fun tearDown() {
+        Files.deleteIfExists(Paths.get(FILE_NAME, "blocker"))
+        Files.deleteIfExists(Paths.get(FILE_NAME))
+        Files.deleteIfExists(Paths.get(FILE_NAME + ".tmp"))
+        Files.deleteIfExists(Paths.get("testautosave/"))
+    }
+
+    @Test
+    fun `Save after interval`() {
+        val autosaver = Autosaver(world, Function { it.getProperty<String>("name").takeIf { it.isNotEmpty() } }, FILE_NAME,
+                Duration.seconds(1.0), true, Executor { it.run() })
+
+        autosaver.onUpdate(0.5)
+        assertThat(autosaver.lastMetrics, `is`(nullValue()))
+
+        autosaver.onUpdate(0.5)
+
+        val metrics = autosaver.lastMetrics!!
+        assertThat(metrics.entityCount, `is`(5))
+        assertThat(metrics.fileSize, `is`(Files.size(Paths.get(FILE_NAME))))
+
+        WorldSnapshotReader.open(Paths.get(FILE_NAME)).use { reader ->
+            assertThat(reader.entityCount, `is`(5))
+
+            for (i in 0..4) {
+                assertThat(reader.readEntity(i).name, `is`("even"))
+                assertThat(reader.getX(i), `is`(i * 20.0))
+            }
+        }
+    }
+
+    @Test
+    fun `Snapshot is not affected by later changes`() {
+        val tasks = arrayListOf<Runnable>()
+
+        val autosaver = Autosaver(world, Function { "entity" }, FILE_NAME,
+                Duration.seconds(1.0), false, Executor { tasks.add(it) })
+
+        assertThat(autosaver.save(), `is`(true))
+
+        // previous save is still in progress
+        assertThat(autosaver.save(), `is`(false))
+
+        world.entities[0].getComponent(PositionComponent::class.java).x = 500.0
+
+        tasks.forEach { it.run() }
+
+        WorldSnapshotReader.open(Paths.get(FILE_NAME)).use { reader ->
+            val position = reader.readEntity(0).get<Bundle>("components").get<Bundle>(PositionComponent::class.java.canonicalName)
+
+            assertThat(position.get<Double>("x"), `is`(0.0))
+        }
+
+        assertThat(autosaver.save(), `is`(true))
+    }
+
+    @Test
+    fun `Failed capture does not block later saves`() {
+        var fail = true
+
+        val autosaver = Autosaver(world, Function { if (fail) throw IllegalStateException("Test") else "entity" }, FILE_NAME,
+                Duration.seconds(1.0), false, Executor { it.run() })
+
+        try {
+            autosaver.save()
+        } catch (e: IllegalStateException) {
+            // expected
+        }
+
+        fail = false
+
+        assertThat(autosaver.save(), `is`(true))
+        assertThat(autosaver.lastMetrics!!.entityCount, `is`(10))
+    }
+
+    @Test
+    fun `Failed write deletes temporary file`() {
+        // a non-empty directory in place of the save file, so that the final move fails
+        Files.createDirectories(Paths.get(FILE_NAME))
+        Files.createFile(Paths.get(FILE_NAME, "blocker"))
+
+        val autosaver = Autosaver(world, Function { "entity" }, FILE_NAME,
+                Duration.seconds(1.0), false, Executor { it.run() })
+
+        assertThat(autosaver.save(), `is`(true))
+
+        assertThat(autosaver.lastMetrics, `is`(nullValue()))
+        assertThat(Files.exists(Paths.get(FILE_NAME + ".tmp")), `is`(false))
+
+        // previous save is no longer in progress
+        assertThat(autosaver.save(), `is`(true))
+    }
+}
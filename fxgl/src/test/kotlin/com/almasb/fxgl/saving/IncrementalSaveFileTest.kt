@@ -0,0 +1,172 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.saving
+
+import com.almasb.fxgl.app.FXGL
+import com.almasb.fxgl.app.MockApplicationModule
+import com.almasb.fxgl.ecs.Component
+import com.almasb.fxgl.ecs.Entity
+import com.almasb.fxgl.ecs.serialization.SerializableComponent
+import com.almasb.fxgl.entity.component.BoundingBoxComponent
+import com.almasb.fxgl.entity.component.IDComponent
+import com.almasb.fxgl.entity.component.PositionComponent
+import com.almasb.fxgl.io.serialization.Bundle
+import com.almasb.fxgl.physics.BoundingShape
+import com.almasb.fxgl.physics.HitBox
+import org.hamcrest.CoreMatchers.`is`
+import org.junit.After
+import org.junit.Assert.assertThat
+import org.junit.Before
+import org.junit.BeforeClass
+import org.junit.Test
+import java.nio.file.Files
+import java.nio.file.Paths
+
+/**
+ *
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class IncrementalSaveFileTest {
+
+    companion object {
+        private const val FILE_NAME = "testincremental/world.save"
+
+        @BeforeClass
+        @JvmStatic fun before() {
+            FXGL.configure(MockApplicationModule.get())
+        }
+    }
+
+    /**
+     * Does not track its changes.
+     */
+    class HPComponent(var hp: Int) : Component(), SerializableComponent {
+
+        override fun write(bundle: Bundle) {
+            bundle.put("hp", hp)
+        }
+
+        override fun read(bundle: Bundle) {
+            hp = bundle.get("hp")
+        }
+    }
+
+    private lateinit var entities: MutableList<Entity>
+
+    @Before
+    fun setUp() {
+        entities = (0..99).map {
+            val entity = Entity()
+            entity.addComponent(IDComponent("enemy", it))
+            entity.addComponent(PositionComponent(it.toDouble(), 0.0))
+            entity
+        }.toMutableList()
+    }
+
+    @After
+    fun tearDown() {
+        Files.deleteIfExists(Paths.get(FILE_NAME))
+        Files.deleteIfExists(Paths.get(FILE_NAME + ".delta"))
+        Files.deleteIfExists(Paths.get("testincremental/"))
+    }
+
+    private fun xOf(state: Bundle, key: String): Double {
+        return state.get<Bundle>(key)
+                .get<Bundle>("components")
+                .get<Bundle>(PositionComponent::class.java.canonicalName)
+                .get<Double>("x")
+    }
+
+    @Test
+    fun `Only changes are appended`() {
+        val file = IncrementalSaveFile(FILE_NAME)
+
+        file.saveTask(entities).execute()
+
+        assertThat(Files.exists(Paths.get(FILE_NAME + ".delta")), `is`(false))
+
+        entities[5].getComponent(PositionComponent::class.java).x = 500.0
+        entities.removeAt(7)
+
+        file.saveTask(entities).execute()
+
+        val deltaSize = Files.size(Paths.get(FILE_NAME + ".delta"))
+
+        // nothing changed, so an almost empty delta is appended
+        file.saveTask(entities).execute()
+
+        assertThat(Files.size(Paths.get(FILE_NAME + ".delta")) - deltaSize < deltaSize, `is`(true))
+
+        val state = file.readTask().execute()!!
+
+        assertThat(state.data.size, `is`(99))
+        assertThat(state.get<Bundle>("enemy:5").name, `is`("enemy"))
+        assertThat(xOf(state, "enemy:5"), `is`(500.0))
+        assertThat(xOf(state, "enemy:6"), `is`(6.0))
+        assertThat(state.data.containsKey("enemy:7"), `is`(false))
+    }
+
+    @Test
+    fun `Compact after max segments`() {
+        val file = IncrementalSaveFile(FILE_NAME, 1.0, 1)
+
+        file.saveTask(entities).execute()
+
+        entities[0].getComponent(PositionComponent::class.java).x = 100.0
+        file.saveTask(entities).execute()
+
+        assertThat(Files.exists(Paths.get(FILE_NAME + ".delta")), `is`(true))
+
+        entities[1].getComponent(PositionComponent::class.java).x = 200.0
+        file.saveTask(entities).execute()
+
+        assertThat(Files.exists(Paths.get(FILE_NAME + ".delta")), `is`(false))
+
+        val state = file.readTask().execute()!!
+
+        assertThat(xOf(state, "enemy:0"), `is`(100.0))
+        assertThat(xOf(state, "enemy:1"), `is`(200.0))
+    }
+
+    @Test
+    fun `Modules that do not track changes are always saved`() {
+        val hp = HPComponent(100)
+        entities[3].addComponent(hp)
+
+        val file = IncrementalSaveFile(FILE_NAME)
+        file.saveTask(entities).execute()
+
+        assertThat(hp.isChanged, `is`(true))
+        assertThat(entities[4].getComponent(PositionComponent::class.java).isChanged, `is`(false))
+
+        hp.hp = 50
+        file.saveTask(entities).execute()
+
+        val state = file.readTask().execute()!!
+
+        val hpBundle = state.get<Bundle>("enemy:3")
+                .get<Bundle>("components")
+                .get<Bundle>(HPComponent::class.java.canonicalName)
+
+        assertThat(hpBundle.get<Int>("hp"), `is`(50))
+    }
+
+    @Test
+    fun `Hit box changes mark bounding box changed`() {
+        val bbox = BoundingBoxComponent(HitBox("body", BoundingShape.box(10.0, 10.0)))
+        entities[0].addComponent(bbox)
+
+        IncrementalSaveFile(FILE_NAME).saveTask(entities)
+
+        assertThat(bbox.isChanged, `is`(false))
+
+        bbox.addHitBox(HitBox("head", BoundingShape.box(5.0, 5.0)))
+
+        assertThat(bbox.isChanged, `is`(true))
+    }
+}
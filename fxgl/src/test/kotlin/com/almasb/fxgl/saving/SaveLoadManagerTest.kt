@@ -8,6 +8,8 @@ package com.almasb.fxgl.saving
 
 import com.almasb.fxgl.app.FXGL
 import com.almasb.fxgl.app.MockApplicationModule
+import com.almasb.fxgl.ecs.Entity
+import com.almasb.fxgl.entity.component.IDComponent
 import com.almasb.fxgl.io.FS
 import org.hamcrest.CoreMatchers.`is`
 import org.hamcrest.CoreMatchers.notNullValue
@@ -40,6 +42,7 @@ class SaveLoadManagerTest {
             FXGL.setProperty("fs.savedir", "saves/")
             FXGL.setProperty("fs.savefile.ext", ".sav")
             FXGL.setProperty("fs.datafile.ext", ".dat")
+            FXGL.setProperty("fs.worldfile.ext", ".world")
 
             cleanUp()
         }
@@ -65,6 +68,8 @@ class SaveLoadManagerTest {
         `Save new profile`()
         `Save game data`()
         `Load game data`()
+        `Save world incrementally`()
+        `Delete save file`()
     }
 
     fun `Save new profile`() {
@@ -103,4 +108,24 @@ class SaveLoadManagerTest {
 
         assertThat(data, `is`("TestData"))
     }
-}
\ No newline at end of file
+
+    fun `Save world incrementally`() {
+        val entity = Entity()
+        entity.addComponent(IDComponent("player", 0))
+
+        manager.incrementalSaveFile(SaveFile("TestSave", LocalDateTime.now())).saveTask(listOf(entity)).execute()
+
+        assertTrue("World file was not created",
+                Files.exists(Paths.get("testprofiles/TestProfileName/saves/TestSave.world")))
+    }
+
+    fun `Delete save file`() {
+        manager.deleteSaveFileTask(SaveFile("TestSave", LocalDateTime.now())).execute()
+
+        assertTrue("Save file was not deleted",
+                !Files.exists(Paths.get("testprofiles/TestProfileName/saves/TestSave.sav")))
+
+        assertTrue("World file was not deleted",
+                !Files.exists(Paths.get("testprofiles/TestProfileName/saves/TestSave.world")))
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.scene
+
+import com.almasb.fxgl.app.FXGL
+import com.almasb.fxgl.app.MockApplicationModule
+import com.almasb.fxgl.entity.component.DrawableComponent
+import javafx.geometry.Rectangle2D
+import javafx.scene.canvas.Canvas
+import javafx.scene.canvas.GraphicsContext
+import javafx.scene.effect.BlendMode
+import org.hamcrest.CoreMatchers.`is`
+import org.junit.Assert.assertThat
+import org.junit.Before
+import org.junit.BeforeClass
+import org.junit.Test
+
+/**
+ *
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class DrawableLayerTest {
+
+    companion object {
+        private val SIZE = 400.0
+
+        @BeforeClass
+        @JvmStatic fun before() {
+            FXGL.configure(MockApplicationModule.get())
+        }
+    }
+
+    private lateinit var layer: DrawableLayer
+
+    @Before
+    fun setUp() {
+        layer = DrawableLayer(Canvas(SIZE, SIZE), Canvas(SIZE, SIZE))
+    }
+
+    private class CountingDrawable(bounds: Rectangle2D?) : DrawableComponent({ _, _ -> }, bounds) {
+        var drawCount = 0
+
+        override fun draw(g: GraphicsContext) {
+            drawCount++
+        }
+    }
+
+    @Test
+    fun `Static drawables are only repainted when dirty`() {
+        layer.isRetained = true
+
+        val drawable = CountingDrawable(null)
+        drawable.isStatic = true
+        layer.add(drawable)
+
+        layer.render()
+        layer.render()
+
+        assertThat(drawable.drawCount, `is`(1))
+        assertThat(layer.repaintedDrawableCount, `is`(0))
+
+        drawable.markDirty()
+        layer.render()
+
+        assertThat(drawable.drawCount, `is`(2))
+    }
+
+    @Test
+    fun `Changing bounds repaints old and new area`() {
+        layer.isRetained = true
+
+        val moving = CountingDrawable(Rectangle2D(0.0, 0.0, 20.0, 20.0))
+        val nearOldArea = CountingDrawable(Rectangle2D(10.0, 10.0, 20.0, 20.0))
+        val farAway = CountingDrawable(Rectangle2D(300.0, 300.0, 20.0, 20.0))
+
+        layer.add(moving)
+        layer.add(nearOldArea)
+        layer.add(farAway)
+
+        layer.render()
+
+        assertThat(layer.repaintedDrawableCount, `is`(3))
+
+        layer.render()
+
+        assertThat(layer.repaintedDrawableCount, `is`(0))
+        assertThat(layer.repaintedPixelCount, `is`(0L))
+
+        moving.bounds = Rectangle2D(200.0, 0.0, 20.0, 20.0)
+        layer.render()
+
+        assertThat(moving.drawCount, `is`(2))
+        assertThat(nearOldArea.drawCount, `is`(2))
+        assertThat(farAway.drawCount, `is`(1))
+        assertThat(layer.repaintedPixelCount < (SIZE * SIZE).toLong(), `is`(true))
+    }
+
+    @Test
+    fun `Removing static drawable repaints static canvas`() {
+        layer.isRetained = true
+
+        val drawable1 = CountingDrawable(null)
+        val drawable2 = CountingDrawable(null)
+        drawable1.isStatic = true
+        drawable2.isStatic = true
+
+        layer.add(drawable1)
+        layer.add(drawable2)
+        layer.render()
+
+        layer.remove(drawable1)
+        layer.render()
+
+        assertThat(drawable1.drawCount, `is`(1))
+        assertThat(drawable2.drawCount, `is`(2))
+    }
+
+    @Test
+    fun `Graphics context state does not leak between drawables`() {
+        var alpha = 0.0
+        var blendMode: BlendMode? = null
+        var identity = false
+
+        layer.add(DrawableComponent({ g, _ ->
+            g.globalAlpha = 0.2
+            g.globalBlendMode = BlendMode.ADD
+            g.translate(50.0, 50.0)
+        }))
+
+        layer.add(DrawableComponent({ g, _ ->
+            alpha = g.globalAlpha
+            blendMode = g.globalBlendMode
+            identity = g.transform.isIdentity
+        }))
+
+        layer.render()
+
+        assertThat(alpha, `is`(1.0))
+        assertThat(blendMode, `is`(BlendMode.SRC_OVER))
+        assertThat(identity, `is`(true))
+    }
+}
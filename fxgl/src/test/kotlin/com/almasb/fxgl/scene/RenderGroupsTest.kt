@@ -0,0 +1,207 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.scene
+
+import com.almasb.fxgl.app.FXGL
+import com.almasb.fxgl.app.MockApplicationModule
+import com.almasb.fxgl.entity.EntityView
+import com.almasb.fxgl.entity.RenderLayer
+import javafx.scene.Group
+import javafx.scene.Node
+import org.hamcrest.CoreMatchers.`is`
+import org.hamcrest.CoreMatchers.nullValue
+import org.junit.Assert.assertThat
+import org.junit.Before
+import org.junit.BeforeClass
+import org.junit.Test
+
+/**
+ *
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class RenderGroupsTest {
+
+    companion object {
+        @BeforeClass
+        @JvmStatic fun before() {
+            FXGL.configure(MockApplicationModule.get())
+        }
+
+        private val LOW_LAYER = object : RenderLayer {
+            override fun name() = "LOW"
+
+            override fun index() = 500
+        }
+    }
+
+    private lateinit var root: Group
+    private lateinit var renderGroups: RenderGroups
+
+    @Before
+    fun setUp() {
+        root = Group()
+        renderGroups = RenderGroups(root)
+    }
+
+    private fun view(zIndex: Int): EntityView {
+        val view = EntityView()
+        view.zIndex = zIndex
+        return view
+    }
+
+    private fun topChildren(): List<Node> = renderGroups.groups.last().children.toList()
+
+    @Test
+    fun `Views are attached immediately in z index order`() {
+        val view1 = view(5)
+        val view2 = view(1)
+        val view3 = view(5)
+
+        renderGroups.add(view1)
+        renderGroups.add(view2)
+        renderGroups.add(view3)
+
+        assertThat(topChildren(), `is`(listOf<Node>(view2, view1, view3)))
+    }
+
+    @Test
+    fun `Only the view whose z index changed is moved`() {
+        val view1 = view(0)
+        val view2 = view(1)
+        val view3 = view(2)
+
+        renderGroups.add(view1)
+        renderGroups.add(view2)
+        renderGroups.add(view3)
+
+        view1.zIndex = 3
+
+        assertThat(topChildren(), `is`(listOf<Node>(view2, view3, view1)))
+
+        view3.zIndex = 1
+
+        assertThat(topChildren(), `is`(listOf<Node>(view2, view3, view1)))
+
+        view1.zIndex = 1
+
+        assertThat(topChildren(), `is`(listOf<Node>(view2, view3, view1)))
+
+        view2.zIndex = 2
+
+        assertThat(topChildren(), `is`(listOf<Node>(view3, view1, view2)))
+    }
+
+    @Test
+    fun `Views are attached and detached in batches while batching`() {
+        val view1 = view(0)
+        val view2 = view(5)
+        val view3 = view(1)
+
+        renderGroups.add(view1)
+
+        renderGroups.setBatching(true)
+
+        renderGroups.add(view2)
+        renderGroups.add(view3)
+        renderGroups.remove(view1, view1.renderLayer)
+
+        assertThat(topChildren(), `is`(listOf<Node>(view1)))
+
+        // pending views are sorted when flushed
+        view2.zIndex = 0
+
+        renderGroups.setBatching(false)
+
+        assertThat(topChildren(), `is`(listOf<Node>(view2, view3)))
+        assertThat(view1.parent, `is`(nullValue()))
+
+        // batching off, views are attached immediately
+        renderGroups.add(view1)
+
+        assertThat(topChildren(), `is`(listOf<Node>(view2, view1, view3)))
+    }
+
+    @Test
+    fun `Remove then add back while batching keeps view attached`() {
+        val view = view(0)
+
+        renderGroups.add(view)
+
+        renderGroups.setBatching(true)
+        renderGroups.remove(view, view.renderLayer)
+        renderGroups.add(view)
+        renderGroups.flush()
+
+        assertThat(topChildren(), `is`(listOf<Node>(view)))
+
+        // z index listener is still registered
+        val view2 = view(1)
+        renderGroups.add(view2)
+        renderGroups.flush()
+        view.zIndex = 2
+
+        assertThat(topChildren(), `is`(listOf<Node>(view2, view)))
+    }
+
+    @Test
+    fun `Move view between layers`() {
+        val view = view(0)
+
+        renderGroups.add(view)
+
+        view.renderLayer = LOW_LAYER
+        renderGroups.remove(view, RenderLayer.TOP)
+        renderGroups.add(view)
+
+        // low, background, top
+        assertThat(root.children.size, `is`(3))
+        assertThat(view.parent === root.children[0], `is`(true))
+        assertThat(topChildren().isEmpty(), `is`(true))
+
+        // added again without removal
+        view.renderLayer = RenderLayer.BACKGROUND
+        renderGroups.add(view)
+
+        assertThat(view.parent === root.children[1], `is`(true))
+        assertThat((root.children[0] as Group).children.isEmpty(), `is`(true))
+    }
+
+    @Test
+    fun `Add then remove before flush`() {
+        val view = view(0)
+
+        renderGroups.setBatching(true)
+
+        renderGroups.add(view)
+        renderGroups.remove(view, view.renderLayer)
+
+        assertThat(view.parent, `is`(nullValue()))
+
+        renderGroups.flush()
+
+        assertThat(view.parent, `is`(nullValue()))
+        assertThat(topChildren().isEmpty(), `is`(true))
+    }
+
+    @Test
+    fun `Adding same view twice attaches it once`() {
+        val view1 = view(0)
+        val view2 = view(1)
+
+        renderGroups.add(view1)
+        renderGroups.add(view2)
+        renderGroups.add(view1)
+
+        assertThat(topChildren(), `is`(listOf<Node>(view1, view2)))
+
+        renderGroups.remove(view1, view1.renderLayer)
+
+        assertThat(topChildren(), `is`(listOf<Node>(view2)))
+        assertThat(view1.parent, `is`(nullValue()))
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.scene
+
+import com.almasb.fxgl.app.FXGL
+import com.almasb.fxgl.app.MockApplicationModule
+import com.almasb.fxgl.entity.EntityView
+import javafx.scene.shape.Rectangle
+import org.hamcrest.CoreMatchers.`is`
+import org.junit.Assert.assertThat
+import org.junit.Before
+import org.junit.BeforeClass
+import org.junit.Test
+
+/**
+ *
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class ViewCullerTest {
+
+    companion object {
+        @BeforeClass
+        @JvmStatic fun before() {
+            FXGL.configure(MockApplicationModule.get())
+        }
+    }
+
+    private lateinit var culler: ViewCuller
+
+    @Before
+    fun setUp() {
+        culler = ViewCuller(100.0)
+    }
+
+    @Test
+    fun `Views outside viewport are culled`() {
+        val inside = newView(50.0, 50.0)
+        val edge = newView(190.0, 190.0)
+        val outside = newView(500.0, 50.0)
+        val negative = newView(-300.0, -300.0)
+
+        culler.update(0.0, 0.0, 200.0, 200.0)
+
+        assertThat(inside.isVisible, `is`(true))
+        assertThat(edge.isVisible, `is`(true))
+        assertThat(outside.isVisible, `is`(false))
+        assertThat(negative.isVisible, `is`(false))
+        assertThat(culler.visibleCount, `is`(2))
+        assertThat(culler.culledCount, `is`(2))
+
+        // moving view is re-indexed
+        outside.translateX = 100.0
+        inside.translateX = 1000.0
+
+        culler.update(0.0, 0.0, 200.0, 200.0)
+
+        assertThat(outside.isVisible, `is`(true))
+        assertThat(inside.isVisible, `is`(false))
+
+        // moving viewport
+        culler.update(-350.0, -350.0, -150.0, -150.0)
+
+        assertThat(negative.isVisible, `is`(true))
+        assertThat(outside.isVisible, `is`(false))
+        assertThat(edge.isVisible, `is`(false))
+    }
+
+    @Test
+    fun `Large views are checked on every update`() {
+        // spans 400 cells, so it is not indexed in cells
+        val large = newView(0.0, 0.0, 2000.0, 2000.0)
+
+        culler.update(1900.0, 1900.0, 2100.0, 2100.0)
+        assertThat(large.isVisible, `is`(true))
+
+        culler.update(2100.0, 2100.0, 2300.0, 2300.0)
+        assertThat(large.isVisible, `is`(false))
+
+        culler.update(-100.0, 500.0, 100.0, 700.0)
+        assertThat(large.isVisible, `is`(true))
+
+        // shrinking makes it indexed
+        (large.nodes[0] as Rectangle).width = 10.0
+        (large.nodes[0] as Rectangle).height = 10.0
+
+        culler.update(-100.0, 500.0, 100.0, 700.0)
+        assertThat(large.isVisible, `is`(false))
+
+        culler.update(-100.0, -100.0, 100.0, 100.0)
+        assertThat(large.isVisible, `is`(true))
+    }
+
+    @Test
+    fun `Remove and clear restore visibility of culled views`() {
+        val view1 = newView(500.0, 500.0)
+        val view2 = newView(600.0, 600.0)
+        val view3 = newView(700.0, 700.0)
+
+        culler.update(0.0, 0.0, 200.0, 200.0)
+
+        assertThat(view1.isVisible, `is`(false))
+
+        culler.remove(view1)
+
+        assertThat(view1.isVisible, `is`(true))
+        assertThat(culler.culledCount, `is`(2))
+
+        culler.clear()
+
+        assertThat(view2.isVisible, `is`(true))
+        assertThat(view3.isVisible, `is`(true))
+        assertThat(culler.culledCount, `is`(0))
+
+        // removed views are no longer culled
+        view2.translateX = 5000.0
+        culler.update(0.0, 0.0, 200.0, 200.0)
+
+        assertThat(view2.isVisible, `is`(true))
+    }
+
+    @Test
+    fun `Views hidden by user stay hidden`() {
+        val hidden = newView(50.0, 50.0)
+        hidden.isVisible = false
+
+        culler.update(0.0, 0.0, 200.0, 200.0)
+        assertThat(hidden.isVisible, `is`(false))
+
+        // leaves and comes back into viewport
+        culler.update(1000.0, 1000.0, 1200.0, 1200.0)
+        culler.update(0.0, 0.0, 200.0, 200.0)
+        assertThat(hidden.isVisible, `is`(false))
+
+        culler.update(1000.0, 1000.0, 1200.0, 1200.0)
+        culler.remove(hidden)
+        assertThat(hidden.isVisible, `is`(false))
+
+        // hidden by user while culled
+        val culled = newView(500.0, 500.0)
+
+        culler.update(0.0, 0.0, 200.0, 200.0)
+        assertThat(culled.isVisible, `is`(false))
+
+        culled.isVisible = true
+        culled.isVisible = false
+
+        culler.update(400.0, 400.0, 600.0, 600.0)
+        assertThat(culled.isVisible, `is`(false))
+
+        // shown by user outside viewport is culled again
+        culled.isVisible = true
+
+        culler.update(0.0, 0.0, 200.0, 200.0)
+        assertThat(culled.isVisible, `is`(false))
+
+        culler.update(400.0, 400.0, 600.0, 600.0)
+        assertThat(culled.isVisible, `is`(true))
+    }
+
+    private fun newView(x: Double, y: Double, w: Double = 20.0, h: Double = 20.0): EntityView {
+        val view = EntityView(Rectangle(w, h))
+        view.translateX = x
+        view.translateY = y
+
+        culler.add(view)
+        return view
+    }
+}
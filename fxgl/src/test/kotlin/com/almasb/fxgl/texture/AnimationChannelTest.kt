@@ -0,0 +1,35 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.texture
+
+import javafx.geometry.Rectangle2D
+import javafx.scene.image.WritableImage
+import javafx.util.Duration
+import org.hamcrest.CoreMatchers.`is`
+import org.junit.Assert.assertThat
+import org.junit.Test
+
+/**
+ *
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class AnimationChannelTest {
+
+    @Test
+    fun `Frame viewports are precomputed`() {
+        val channel = AnimationChannel(WritableImage(128, 64), 4, 32, 32, Duration.seconds(1.0), 2, 5)
+
+        assertThat(channel.frameCount, `is`(4))
+        assertThat(channel.frameDuration, `is`(0.25))
+
+        assertThat(channel.frameViewports[0], `is`(Rectangle2D(64.0, 0.0, 32.0, 32.0)))
+        assertThat(channel.frameViewports[1], `is`(Rectangle2D(96.0, 0.0, 32.0, 32.0)))
+        assertThat(channel.frameViewports[2], `is`(Rectangle2D(0.0, 32.0, 32.0, 32.0)))
+        assertThat(channel.frameViewports[3], `is`(Rectangle2D(32.0, 32.0, 32.0, 32.0)))
+    }
+}
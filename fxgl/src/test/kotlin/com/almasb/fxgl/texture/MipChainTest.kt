@@ -0,0 +1,97 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.texture
+
+import javafx.scene.image.WritableImage
+import javafx.scene.paint.Color
+import org.hamcrest.CoreMatchers.*
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertThat
+import org.junit.Before
+import org.junit.Test
+import java.util.function.Consumer
+
+/**
+ *
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class MipChainTest {
+
+    private lateinit var image: WritableImage
+
+    @Before
+    fun setUp() {
+        image = WritableImage(64, 32)
+
+        for (y in 0..31) {
+            for (x in 0..63) {
+                image.pixelWriter.setColor(x, y, Color.RED)
+            }
+        }
+    }
+
+    @Test
+    fun `Levels halve until 1x1`() {
+        val chain = MipChain(image, null)
+
+        assertThat(chain.numLevels, `is`(7))
+        assertThat(chain.getLevelWidth(6), `is`(1))
+        assertThat(chain.getLevelHeight(6), `is`(1))
+
+        assertThat(chain.selectLevel(64, 32), `is`(0))
+        assertThat(chain.selectLevel(20, 10), `is`(1))
+        assertThat(chain.selectLevel(16, 16), `is`(1))
+        assertThat(chain.selectLevel(100, 100), `is`(0))
+    }
+
+    @Test
+    fun `Missing levels are derived on first request`() {
+        var readyCount = 0
+
+        val chain = MipChain(image, Consumer { readyCount++ })
+
+        assertThat(chain.weight, `is`(0L))
+
+        val image1 = chain.getImage(16, 8)
+
+        assertThat(readyCount, `is`(1))
+        assertThat(chain.getLevel(1), `is`(notNullValue()))
+        assertThat(chain.getLevel(3), `is`(nullValue()))
+        assertThat(chain.weight, `is`((32 * 16 + 16 * 8) * 4L))
+
+        // exact level size returns level image
+        assertThat(image1, `is`(sameInstance(chain.getLevel(2))))
+
+        // nothing to derive
+        val image2 = chain.getImage(10, 5)
+
+        assertThat(readyCount, `is`(1))
+        assertThat(image2.width, `is`(10.0))
+        assertThat(image2.height, `is`(5.0))
+        assertThat(image2.pixelReader.getColor(5, 2), `is`(Color.RED))
+    }
+
+    @Test
+    fun `Areas are averaged when scaled down by more than 2`() {
+        for (x in 0..63) {
+            image.pixelWriter.setColor(x, 31, Color.BLUE)
+        }
+
+        val chain = MipChain(image, null)
+
+        // level 0 is used, since width is not scaled down
+        val image1 = chain.getImage(64, 2)
+
+        // bottom row covers rows 16..31 of the image, one of which is blue
+        val color = image1.pixelReader.getColor(0, 1)
+
+        assertEquals(15 / 16.0, color.red, 0.01)
+        assertEquals(1 / 16.0, color.blue, 0.01)
+        assertThat(image1.pixelReader.getColor(0, 0), `is`(Color.RED))
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * FXGL - JavaFX Game Library. The MIT License (MIT).
+ * Copyright (c) AlmasB (almaslvl@gmail.com).
+ * See LICENSE for details.
+ */
+
+package com.almasb.fxgl.texture
+
+import javafx.scene.image.WritableImage
+import org.hamcrest.CoreMatchers.`is`
+import org.junit.Assert.assertThat
+import org.junit.Test
+
+/**
+ *
+ *
+ * @author Almas Baimagambetov (almaslvl@gmail.com)
+ */
+class TextureAtlasBuilderTest {
+
+    @Test
+    fun `Regions do not overlap and fit in pages`() {
+        val builder = TextureAtlasBuilder(256, 256)
+
+        for (i in 0..99) {
+            builder.add("image$i", WritableImage(8 + i % 7 * 5, 8 + i % 5 * 7))
+        }
+
+        val atlas = builder.build()
+
+        assertThat(atlas.regionCount, `is`(100))
+
+        val regions = (0..99).map { atlas.getRegion("image$it") }
+
+        regions.forEach {
+            assertThat(it.x + it.width <= it.page.width, `is`(true))
+            assertThat(it.y + it.height <= it.page.height, `is`(true))
+        }
+
+        for (i in regions.indices) {
+            for (j in i + 1..regions.size - 1) {
+                val r1 = regions[i]
+                val r2 = regions[j]
+
+                if (r1.page !== r2.page)
+                    continue
+
+                assertThat(r1.area.intersects(r2.area), `is`(false))
+            }
+        }
+    }
+
+    @Test
+    fun `Regions are spread across pages`() {
+        val builder = TextureAtlasBuilder(64, 64, 0)
+
+        for (i in 0..7) {
+            builder.add("image$i", WritableImage(32, 32))
+        }
+
+        val atlas = builder.build()
+
+        assertThat(atlas.pageCount, `is`(2))
+    }
+
+    @Test
+    fun `Add frames of sprite sheet`() {
+        val atlas = TextureAtlasBuilder(256, 256)
+                .addFrames("walk", WritableImage(128, 64), 32, 32)
+                .build()
+
+        assertThat(atlas.regionCount, `is`(8))
+        assertThat(atlas.getRegion("walk_7").width, `is`(32))
+        assertThat(atlas.getTexture("walk_0").viewport.width, `is`(32.0))
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun `Fail if region is larger than page`() {
+        TextureAtlasBuilder(64, 64).add("big", WritableImage(128, 32))
+    }
+
+    @Test(expected = IllegalArgumentException::class)
+    fun `Fail if region not found`() {
+        TextureAtlasBuilder(64, 64).build().getRegion("none")
+    }
+}
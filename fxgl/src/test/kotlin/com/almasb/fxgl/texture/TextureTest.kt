@@ -13,6 +13,7 @@ import javafx.geometry.Rectangle2D
 import javafx.geometry.VerticalDirection
 import javafx.scene.image.Image
 import javafx.scene.image.WritableImage
+import javafx.scene.paint.Color
 import org.hamcrest.CoreMatchers.`is`
 import org.junit.Assert.assertThat
 import org.junit.Before
@@ -87,4 +88,65 @@ class TextureTest {
         assertThat(super4.image.width, `is`(320.0))
         assertThat(super4.image.height, `is`(640.0))
     }
-}
\ No newline at end of file
+
+    @Test
+    fun `Filters change pixels and keep opacity`() {
+        val source = WritableImage(4, 4)
+        source.pixelWriter.setArgb(1, 1, 0x80FF0000.toInt())
+
+        val gray = Texture(source).toGrayscale()
+
+        assertThat(gray.image.pixelReader.getArgb(1, 1), `is`(0x80363636.toInt()))
+        assertThat(gray.image.pixelReader.getArgb(0, 0), `is`(0))
+
+        val white = Texture(source).discolor()
+
+        assertThat(white.image.pixelReader.getArgb(1, 1), `is`(0x80FFFFFF.toInt()))
+
+        val outlined = Texture(source).outline(Color.BLUE, 1)
+
+        assertThat(outlined.image.pixelReader.getArgb(0, 0), `is`(0xFF0000FF.toInt()))
+        assertThat(outlined.image.pixelReader.getArgb(3, 3), `is`(0))
+    }
+
+    @Test
+    fun `Filter results are memoized`() {
+        Texture.clearFilterCache()
+
+        val gray1 = texture.toGrayscale()
+        val gray2 = texture.toGrayscale()
+
+        assertThat(gray1 !== gray2, `is`(true))
+        assertThat(gray1.image !== gray2.image, `is`(true))
+        assertThat(PixelFilters.getCachedResultCount(image), `is`(1))
+
+        // results do not share images
+        (gray1.image as WritableImage).pixelWriter.setArgb(0, 0, 0xFFFF0000.toInt())
+
+        assertThat(gray2.image.pixelReader.getArgb(0, 0), `is`(0))
+        assertThat(texture.toGrayscale().image.pixelReader.getArgb(0, 0), `is`(0))
+
+        Texture.clearFilterCache()
+
+        assertThat(PixelFilters.getCachedResultCount(image), `is`(0))
+    }
+
+    @Test
+    fun `Only recent filter results are memoized`() {
+        val source = WritableImage(4, 4)
+
+        for (i in 1..PixelFilters.MAX_RESULTS_PER_IMAGE * 2) {
+            Texture(source).tint(Color.RED, i / 100.0)
+        }
+
+        assertThat(PixelFilters.getCachedResultCount(source), `is`(PixelFilters.MAX_RESULTS_PER_IMAGE))
+    }
+
+    @Test
+    fun `Blur keeps size`() {
+        val blurred = texture.blur(3)
+
+        assertThat(blurred.image.width, `is`(320.0))
+        assertThat(blurred.image.height, `is`(320.0))
+    }
+}